@@ -19,6 +19,10 @@ import blanco.cg.valueobject.BlancoCgSourceFile;
  *
  * 個別の言語用のソースコード自動生成部分は、このインタフェースを実装して実現されます。
  *
+ * 従来からの取得方法で得たトランスフォーマーは、変換の際にソースファイル名が未指定であれば補い、import一覧に必要な型を追加します。<br>
+ * 同じバリューオブジェクトを繰り返し、あるいは複数のスレッドから同時に変換する場合には、
+ * BlancoCgTransformerFactory.getSourceTransformer(int, boolean) に true を与えて、副作用のない変換をおこなうトランスフォーマーを取得してください。
+ *
  * @author IGA Tosiki
  */
 public interface BlancoCgTransformer {
@@ -0,0 +1,91 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * ソースファイル 1 件分の変換のうち、1 つの段階をあらわす JDK Flight Recorder のイベントです。
+ *
+ * イベントの期間は段階の開始から終了までで、blanco.cg.Transform イベントの内側に入れ子となります。<br>
+ * 整形とエンコードは展開と並行して進むため、期間は展開と重なります。正味の所要時間はフィールドとして持ちます。
+ *
+ * @author IGA Tosiki
+ */
+@Name("blanco.cg.Phase")
+@Label("blancoCg Phase")
+@Description("ソースファイル・バリューオブジェクト 1 件分の変換における段階。")
+@Category( { "blancoCg" })
+@StackTrace(false)
+class BlancoCgJfrPhaseEvent extends Event {
+    /**
+     * パッケージ名。
+     */
+    @Label("Package")
+    String packageName;
+
+    /**
+     * 出力先ルートからの相対パス。
+     */
+    @Label("File")
+    String fileName;
+
+    /**
+     * 出力先のプログラミング言語。BlancoCgSupportedLangの値です。
+     */
+    @Label("Target Language")
+    int targetLang;
+
+    /**
+     * トランスフォーマーのクラス名。
+     */
+    @Label("Transformer")
+    String transformer;
+
+    /**
+     * 段階の名前。BlancoCgTransformEvent.getPhaseNameの値です。
+     */
+    @Label("Phase")
+    String phase;
+
+    /**
+     * エキスパンダーから受け取った行数。段階の終了時点で確定していない場合には 0。
+     */
+    @Label("Line Count")
+    int lineCount;
+
+    /**
+     * 段階の正味の所要時間。
+     */
+    @Label("Net Duration")
+    @Timespan
+    long netDuration;
+}
@@ -0,0 +1,134 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * ソースファイル 1 件分の変換をあらわす JDK Flight Recorder のイベントです。
+ *
+ * イベントの期間は変換の開始から終了までで、段階ごとの所要時間をフィールドとして持ちます。<br>
+ * 記録中の CPU サンプルやメモリ割り当てを、生成したファイルごとに関連付けることができます。
+ *
+ * @author IGA Tosiki
+ */
+@Name("blanco.cg.Transform")
+@Label("blancoCg Transform")
+@Description("ソースファイル・バリューオブジェクト 1 件分のソースコードへの変換。")
+@Category( { "blancoCg" })
+@StackTrace(false)
+class BlancoCgJfrTransformEvent extends Event {
+    /**
+     * パッケージ名。
+     */
+    @Label("Package")
+    String packageName;
+
+    /**
+     * 出力先ルートからの相対パス。
+     */
+    @Label("File")
+    String fileName;
+
+    /**
+     * 出力先のプログラミング言語。BlancoCgSupportedLangの値です。
+     */
+    @Label("Target Language")
+    int targetLang;
+
+    /**
+     * トランスフォーマーのクラス名。
+     */
+    @Label("Transformer")
+    String transformer;
+
+    /**
+     * 出力状況。BlancoCgTransformResultの値です。
+     */
+    @Label("Status")
+    int status;
+
+    /**
+     * エキスパンダーから受け取った行数。
+     */
+    @Label("Line Count")
+    int lineCount;
+
+    /**
+     * エンコード後のバイト数。
+     */
+    @Label("Byte Count")
+    @DataAmount
+    long byteCount;
+
+    /**
+     * 指紋の算出と、前回の出力との比較の所要時間。
+     */
+    @Label("Compare")
+    @Timespan
+    long compareDuration;
+
+    /**
+     * ソースファイルの展開の所要時間。
+     */
+    @Label("Expand")
+    @Timespan
+    long expandDuration;
+
+    /**
+     * import展開の所要時間。
+     */
+    @Label("Import")
+    @Timespan
+    long importDuration;
+
+    /**
+     * 整形の所要時間。
+     */
+    @Label("Format")
+    @Timespan
+    long formatDuration;
+
+    /**
+     * エンコードの所要時間。
+     */
+    @Label("Encode")
+    @Timespan
+    long encodeDuration;
+
+    /**
+     * 出力先への書き込みの所要時間。
+     */
+    @Label("Write")
+    @Timespan
+    long writeDuration;
+}
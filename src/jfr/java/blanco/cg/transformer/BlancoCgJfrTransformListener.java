@@ -0,0 +1,202 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import blanco.cg.BlancoCgSupportedLang;
+import blanco.commons.util.BlancoStringUtil;
+
+/**
+ * 変換の計測情報を JDK Flight Recorder のイベントとして記録するリスナーです。
+ *
+ * ソースファイル 1 件ごとに blanco.cg.Transform イベントを記録し、その内側に段階ごとの blanco.cg.Phase イベントを記録します。<br>
+ * 記録していない場合にはイベントの内容を設定しないため、負荷はほとんどありません。<br>
+ * 別のリスナーを与えた場合には、そのリスナーにも同じ通知を転送します。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgJfrTransformListener implements BlancoCgTransformListener {
+    /**
+     * トランスフォーマーのクラス名から、出力先のプログラミング言語への対応表。
+     */
+    private static final Map<String, Integer> TARGET_LANG_MAP = createTargetLangMap();
+
+    /**
+     * スレッドごとの記録中のイベント。
+     */
+    private final ThreadLocal<BlancoCgJfrTransformEvent> fCurrentEvent = new ThreadLocal<BlancoCgJfrTransformEvent>();
+
+    /**
+     * スレッドごとの記録中の段階のイベント。段階の定数を添字とします。
+     */
+    private final ThreadLocal<BlancoCgJfrPhaseEvent[]> fCurrentPhaseEvents = new ThreadLocal<BlancoCgJfrPhaseEvent[]>();
+
+    /**
+     * 通知を転送するリスナー。転送しない場合には null。
+     */
+    private final BlancoCgTransformListener fDelegate;
+
+    /**
+     * リスナーを作成します。
+     */
+    public BlancoCgJfrTransformListener() {
+        this(null);
+    }
+
+    /**
+     * 通知を転送するリスナーを指定してリスナーを作成します。
+     *
+     * @param argDelegate
+     *            通知を転送するリスナー。転送しない場合には null。
+     */
+    public BlancoCgJfrTransformListener(
+            final BlancoCgTransformListener argDelegate) {
+        fDelegate = argDelegate;
+    }
+
+    public void transformStarted(final BlancoCgTransformEvent argEvent) {
+        final BlancoCgJfrTransformEvent jfrEvent = new BlancoCgJfrTransformEvent();
+        if (jfrEvent.isEnabled()) {
+            jfrEvent.begin();
+            fCurrentEvent.set(jfrEvent);
+        }
+
+        if (fDelegate != null) {
+            fDelegate.transformStarted(argEvent);
+        }
+    }
+
+    public void phaseStarted(final BlancoCgTransformEvent argEvent,
+            final int argPhase) {
+        final BlancoCgJfrPhaseEvent jfrEvent = new BlancoCgJfrPhaseEvent();
+        if (jfrEvent.isEnabled()) {
+            BlancoCgJfrPhaseEvent[] phaseEvents = fCurrentPhaseEvents.get();
+            if (phaseEvents == null) {
+                phaseEvents = new BlancoCgJfrPhaseEvent[BlancoCgTransformEvent.PHASE_COUNT];
+                fCurrentPhaseEvents.set(phaseEvents);
+            }
+            jfrEvent.begin();
+            phaseEvents[argPhase] = jfrEvent;
+        }
+
+        if (fDelegate != null) {
+            fDelegate.phaseStarted(argEvent, argPhase);
+        }
+    }
+
+    public void phaseCompleted(final BlancoCgTransformEvent argEvent,
+            final int argPhase) {
+        final BlancoCgJfrPhaseEvent[] phaseEvents = fCurrentPhaseEvents.get();
+        final BlancoCgJfrPhaseEvent jfrEvent = (phaseEvents == null ? null
+                : phaseEvents[argPhase]);
+        if (jfrEvent != null) {
+            phaseEvents[argPhase] = null;
+            jfrEvent.end();
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.packageName = BlancoStringUtil.null2Blank(argEvent
+                        .getSourceFile().getPackage());
+                jfrEvent.fileName = argEvent.getPath();
+                jfrEvent.transformer = argEvent.getTransformerName();
+                jfrEvent.targetLang = getTargetLang(argEvent);
+                jfrEvent.phase = BlancoCgTransformEvent.getPhaseName(argPhase);
+                jfrEvent.lineCount = argEvent.getLineCount();
+                jfrEvent.netDuration = argEvent.getDuration(argPhase);
+                jfrEvent.commit();
+            }
+        }
+
+        if (fDelegate != null) {
+            fDelegate.phaseCompleted(argEvent, argPhase);
+        }
+    }
+
+    public void transformCompleted(final BlancoCgTransformEvent argEvent) {
+        // 失敗によって終了が通知されなかった段階のイベントは記録せずに破棄します。
+        fCurrentPhaseEvents.remove();
+
+        final BlancoCgJfrTransformEvent jfrEvent = fCurrentEvent.get();
+        if (jfrEvent != null) {
+            fCurrentEvent.remove();
+            jfrEvent.end();
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.packageName = BlancoStringUtil.null2Blank(argEvent
+                        .getSourceFile().getPackage());
+                jfrEvent.fileName = argEvent.getPath();
+                jfrEvent.transformer = argEvent.getTransformerName();
+                jfrEvent.targetLang = getTargetLang(argEvent);
+                jfrEvent.status = argEvent.getStatus();
+                jfrEvent.lineCount = argEvent.getLineCount();
+                jfrEvent.byteCount = argEvent.getByteCount();
+                jfrEvent.compareDuration = argEvent
+                        .getDuration(BlancoCgTransformEvent.PHASE_COMPARE);
+                jfrEvent.expandDuration = argEvent
+                        .getDuration(BlancoCgTransformEvent.PHASE_EXPAND);
+                jfrEvent.importDuration = argEvent
+                        .getDuration(BlancoCgTransformEvent.PHASE_IMPORT);
+                jfrEvent.formatDuration = argEvent
+                        .getDuration(BlancoCgTransformEvent.PHASE_FORMAT);
+                jfrEvent.encodeDuration = argEvent
+                        .getDuration(BlancoCgTransformEvent.PHASE_ENCODE);
+                jfrEvent.writeDuration = argEvent
+                        .getDuration(BlancoCgTransformEvent.PHASE_WRITE);
+                jfrEvent.commit();
+            }
+        }
+
+        if (fDelegate != null) {
+            fDelegate.transformCompleted(argEvent);
+        }
+    }
+
+    /**
+     * 計測情報から出力先のプログラミング言語を取得します。
+     *
+     * @param argEvent
+     *            変換中のソースファイルの計測情報。
+     * @return BlancoCgSupportedLangの値。不明な場合には -1。
+     */
+    private static int getTargetLang(final BlancoCgTransformEvent argEvent) {
+        final Integer targetLang = TARGET_LANG_MAP.get(argEvent
+                .getTransformerName());
+        return (targetLang == null ? -1 : targetLang.intValue());
+    }
+
+    /**
+     * トランスフォーマーのクラス名から、出力先のプログラミング言語への対応表を作成します。
+     *
+     * @return 対応表。
+     */
+    private static Map<String, Integer> createTargetLangMap() {
+        final Map<String, Integer> map = new HashMap<String, Integer>();
+        for (int lang = BlancoCgSupportedLang.JAVA;
+                lang <= BlancoCgSupportedLang.SWIFT; lang++) {
+            map.put(BlancoCgTransformerFactory.getSourceTransformer(lang)
+                    .getClass().getName(), Integer.valueOf(lang));
+        }
+        return map;
+    }
+}
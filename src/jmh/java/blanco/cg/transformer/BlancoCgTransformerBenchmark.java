@@ -0,0 +1,337 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import blanco.cg.BlancoCgObjectFactory;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 全プログラミング言語のトランスフォーマーを対象とした JMH ベンチマークです。
+ *
+ * 合成したソースファイル・バリューオブジェクトを、実際の変換と同じ処理を用いて、展開・整形・エンコードの段階ごとに計測します。<br>
+ * あわせて、出力先への書き込みまでを含む変換全体も計測します。<br>
+ * 規模はクラス数 × フィールド数 × メソッド数 × メソッドの行数で指定し、import の多いファイルや言語ドキュメントの多いファイルも選択できます。<br>
+ * 操作あたりのメモリ割り当て量は、-prof gc を指定して計測します。
+ *
+ * <pre>
+ * mvn -P jmh package
+ * java -jar target/benchmarks.jar BlancoCgTransformerBenchmark -prof gc
+ * </pre>
+ *
+ * @author IGA Tosiki
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlancoCgTransformerBenchmark {
+    /**
+     * 変換全体の計測に利用する、何もしないリスナー。ファイルごとのコマンドラインへの表示を抑制します。
+     */
+    private static final BlancoCgTransformListener NULL_LISTENER = new BlancoCgTransformListener() {
+        public void transformStarted(final BlancoCgTransformEvent argEvent) {
+        }
+
+        public void phaseStarted(final BlancoCgTransformEvent argEvent,
+                final int argPhase) {
+        }
+
+        public void phaseCompleted(final BlancoCgTransformEvent argEvent,
+                final int argPhase) {
+        }
+
+        public void transformCompleted(final BlancoCgTransformEvent argEvent) {
+        }
+    };
+
+    /**
+     * 出力先のプログラミング言語。BlancoCgSupportedLangの値です。
+     */
+    @Param( { "1", "2", "3", "4", "5", "6", "7", "8", "9", "10" })
+    public int targetLang;
+
+    /**
+     * ソースファイルに含めるクラス数。
+     */
+    @Param( { "1", "10" })
+    public int classCount;
+
+    /**
+     * クラスあたりのフィールド数。
+     */
+    @Param( { "10" })
+    public int fieldCount;
+
+    /**
+     * クラスあたりのメソッド数。
+     */
+    @Param( { "10" })
+    public int methodCount;
+
+    /**
+     * メソッドあたりの行数。
+     */
+    @Param( { "10" })
+    public int lineCount;
+
+    /**
+     * ソースファイルの形。plain: 標準, import: import の多いファイル, langdoc: 言語ドキュメントの多いファイル。
+     */
+    @Param( { "plain", "import", "langdoc" })
+    public String shape;
+
+    /**
+     * 計測対象のトランスフォーマー。
+     */
+    private AbstractBlancoCgTransformer fTransformer;
+
+    /**
+     * 合成したソースファイル・バリューオブジェクト。
+     */
+    private BlancoCgSourceFile fSourceFile;
+
+    /**
+     * 展開済み・整形前の行を保持するバッファ。
+     */
+    private BlancoCgSourceLineBuffer fExpandedLines;
+
+    /**
+     * 出力済みのソースコード。
+     */
+    private String fSourceText;
+
+    /**
+     * 計測の準備として、ソースファイルを合成し、各段階の入力を作成します。
+     *
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    @Setup
+    public void setup() throws IOException {
+        fTransformer = (AbstractBlancoCgTransformer) BlancoCgTransformerFactory
+                .getSourceTransformer(targetLang, true);
+        fSourceFile = createSourceFile();
+
+        final BlancoCgSourceDocument document = expand();
+        fExpandedLines = new BlancoCgSourceLineBuffer();
+        ((BlancoCgSourceLineBuffer) document.getHeaderLines())
+                .addTo(fExpandedLines);
+        document.getImportLines().addTo(fExpandedLines);
+        ((BlancoCgSourceLineBuffer) document.getBodyLines())
+                .addTo(fExpandedLines);
+
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        fTransformer.transform(fSourceFile, writer);
+        writer.flush();
+        fSourceText = stringWriter.toString();
+    }
+
+    /**
+     * 展開の段階を計測します。import文の解決を含みます。
+     *
+     * @return 展開後のドキュメント。
+     */
+    @Benchmark
+    public BlancoCgSourceDocument expansion() {
+        return expand();
+    }
+
+    /**
+     * 整形の段階を計測します。
+     *
+     * 変換と同じく、フォーマッタを与えたソースコードの出力先で整形し、空行を抑制しながらライターへ出力します。
+     *
+     * @return 出力されたソースコード。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    @Benchmark
+    public String format() throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        final BlancoCgSourceLineWriter sink = new BlancoCgSourceLineWriter(
+                fTransformer.createSourceFormatter(), writer);
+        fExpandedLines.addTo(sink);
+        sink.flush();
+        writer.flush();
+        return stringWriter.toString();
+    }
+
+    /**
+     * エンコードの段階を計測します。
+     *
+     * 変換と同じく、スレッドごとに再利用するバイトバッファへエンコードします。
+     *
+     * @return エンコード後のバイト数。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    @Benchmark
+    public int encode() throws IOException {
+        final BlancoCgByteBufferWriter byteBufferWriter = new BlancoCgByteBufferWriter(
+                "UTF-8", fSourceText.length());
+        try {
+            byteBufferWriter.write(fSourceText);
+            byteBufferWriter.close();
+            return byteBufferWriter.size();
+        } finally {
+            byteBufferWriter.release();
+        }
+    }
+
+    /**
+     * 展開から出力先への書き込みまでの変換全体を計測します。
+     *
+     * @return 変換結果。
+     */
+    @Benchmark
+    public BlancoCgTransformResult transform() {
+        return fTransformer.transform(fSourceFile,
+                new BlancoCgMemoryOutputSink(), NULL_LISTENER);
+    }
+
+    /**
+     * 作業用の複製に対して展開します。
+     *
+     * @return 展開後のドキュメント。
+     */
+    private BlancoCgSourceDocument expand() {
+        final BlancoCgSourceFile cgSourceFile = new BlancoCgSourceFile();
+        fSourceFile.copyTo(cgSourceFile);
+        cgSourceFile.setImportList(new ArrayList<java.lang.String>(
+                fSourceFile.getImportList()));
+        cgSourceFile.setEnumList(fSourceFile.getEnumList());
+        cgSourceFile.setInterfaceList(fSourceFile.getInterfaceList());
+        cgSourceFile.setClassList(fSourceFile.getClassList());
+        cgSourceFile.setLangDoc(fSourceFile.getLangDoc());
+        cgSourceFile.setName("Benchmark");
+
+        final BlancoCgSourceDocument document = new BlancoCgSourceDocument();
+        fTransformer.expandSourceFile(new BlancoCgTransformContext(
+                cgSourceFile, document));
+        return document;
+    }
+
+    /**
+     * 指定の規模と形のソースファイル・バリューオブジェクトを合成します。
+     *
+     * @return ソースファイル・バリューオブジェクト。
+     */
+    private BlancoCgSourceFile createSourceFile() {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+        final boolean isImportHeavy = "import".equals(shape);
+        final boolean isLangDocHeavy = "langdoc".equals(shape);
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.bench", "ベンチマークのためのソースファイル");
+        cgSourceFile.setName("Benchmark");
+        if (isImportHeavy) {
+            for (int index = 0; index < 200; index++) {
+                cgSourceFile.getImportList().add(
+                        "myprog.bench.sub" + (index % 20) + ".MyImported"
+                                + index);
+            }
+        }
+
+        for (int indexClass = 0; indexClass < classCount; indexClass++) {
+            final BlancoCgClass cgClass = cgFactory.createClass("MyBenchClass"
+                    + indexClass, "ベンチマークのためのクラスです。");
+            cgSourceFile.getClassList().add(cgClass);
+            if (isLangDocHeavy) {
+                addDescription(cgClass.getLangDoc().getDescriptionList());
+            }
+
+            for (int index = 0; index < fieldCount; index++) {
+                final BlancoCgField cgField = cgFactory.createField("myField"
+                        + index, (isImportHeavy ? "myprog.bench.sub"
+                        + (index % 20) + ".MyFieldType" + index
+                        : "java.lang.String"), "フィールドです。");
+                cgClass.getFieldList().add(cgField);
+                if (isLangDocHeavy) {
+                    addDescription(cgField.getLangDoc().getDescriptionList());
+                }
+            }
+
+            for (int index = 0; index < methodCount; index++) {
+                final BlancoCgMethod cgMethod = cgFactory.createMethod(
+                        "myMethod" + index, "メソッドです。");
+                cgClass.getMethodList().add(cgMethod);
+                cgMethod.getParameterList().add(
+                        cgFactory.createParameter("argValue",
+                                "java.util.Date", "日付引数。"));
+                cgMethod.setReturn(cgFactory.createReturn("java.lang.String",
+                        "文字列。"));
+                if (isLangDocHeavy) {
+                    addDescription(cgMethod.getLangDoc().getDescriptionList());
+                }
+                for (int indexLine = 0; indexLine < lineCount; indexLine++) {
+                    cgMethod.getLineList().add(
+                            "System.out.println(\"line" + indexLine + "\");");
+                }
+            }
+        }
+        return cgSourceFile;
+    }
+
+    /**
+     * 言語ドキュメントの説明を追加します。
+     *
+     * @param argDescriptionList
+     *            説明の一覧。
+     */
+    private static void addDescription(
+            final List<java.lang.String> argDescriptionList) {
+        for (int index = 0; index < 10; index++) {
+            argDescriptionList.add("説明の " + index
+                    + " 行目です。<br>言語ドキュメントの多いファイルを想定しています。");
+        }
+    }
+}
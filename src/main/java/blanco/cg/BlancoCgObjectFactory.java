@@ -24,6 +24,7 @@
  */
 package blanco.cg;
 
+import blanco.cg.util.BlancoCgTypeNameTable;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgEnumElement;
@@ -53,22 +54,49 @@ import blanco.cg.valueobject.BlancoCgType;
  * @author IGA Tosiki
  */
 public class BlancoCgObjectFactory {
+    /**
+     * クラス・インタフェース・フィールド・メソッド・列挙体の作成時に、言語ドキュメントを生成するかどうか。
+     */
+    private final boolean fIsLangDocCreated;
 
     /**
      * オブジェクトファクトリのコンストラクタ。
      * 
      * private化して、ファクトリを通じてしか新規作成できないようにしています。
+     * 
+     * @param argIsLangDocCreated
+     *            クラス・インタフェース・フィールド・メソッド・列挙体の作成時に、言語ドキュメントを生成するかどうか。
      */
-    private BlancoCgObjectFactory() {
+    private BlancoCgObjectFactory(final boolean argIsLangDocCreated) {
+        fIsLangDocCreated = argIsLangDocCreated;
     }
 
     /**
      * BlancoCgオブジェクトファクトリのインスタンスを取得します。
      * 
+     * 作成するクラス・インタフェース・フィールド・メソッド・列挙体には、言語ドキュメントをデフォルトで生成します。
+     * 
      * @return BlancoCgオブジェクトファクトリのインスタンス。
      */
     public static BlancoCgObjectFactory getInstance() {
-        return new BlancoCgObjectFactory();
+        return new BlancoCgObjectFactory(true);
+    }
+
+    /**
+     * 言語ドキュメントの生成の有無を指定して、BlancoCgオブジェクトファクトリのインスタンスを取得します。
+     * 
+     * 言語ドキュメントを生成しない場合、作成するクラス・インタフェース・フィールド・メソッド・列挙体の言語ドキュメントは null となります。<br>
+     * 言語ドキュメントを利用しない要素が多い大きなモデルで、ヒープの消費を抑えることができます。<br>
+     * トランスフォーマーは言語ドキュメントが null の要素も展開できます。言語ドキュメントを利用する要素には、利用者が setLangDoc で設定してください。<br>
+     * ソースファイルの言語ドキュメントは、この指定にかかわらず生成します。
+     * 
+     * @param argIsLangDocCreated
+     *            言語ドキュメントを生成するかどうか。
+     * @return BlancoCgオブジェクトファクトリのインスタンス。
+     */
+    public static BlancoCgObjectFactory getInstance(
+            final boolean argIsLangDocCreated) {
+        return new BlancoCgObjectFactory(argIsLangDocCreated);
     }
 
     /**
@@ -106,12 +134,15 @@ public class BlancoCgObjectFactory {
      */
     public BlancoCgType createType(final String argTypeName) {
         final BlancoCgType cgType = new BlancoCgType();
-        cgType.setName(getTypeNameWithoutGenerics(argTypeName));
+        // 型名の解析結果は、同じ型名ごとに共有します。
+        cgType.setName(BlancoCgTypeNameTable
+                .getTypeNameWithoutGenerics(argTypeName));
 
         // Descriptionについては、ファクトリからの生成時にはセットしません。
 
         // ジェネリクスがあるばあいには、それを格納
-        cgType.setGenerics(getGenericsFromFullName(argTypeName));
+        cgType.setGenerics(BlancoCgTypeNameTable
+                .getGenericsFromFullName(argTypeName));
 
         return cgType;
     }
@@ -133,7 +164,9 @@ public class BlancoCgObjectFactory {
         cgClass.setDescription(argDescription);
 
         // 言語ドキュメントのインスタンスをデフォルトで生成します。
-        cgClass.setLangDoc(new BlancoCgLangDoc());
+        if (fIsLangDocCreated) {
+            cgClass.setLangDoc(new BlancoCgLangDoc());
+        }
 
         return cgClass;
     }
@@ -155,7 +188,9 @@ public class BlancoCgObjectFactory {
         cgInterface.setDescription(argDescription);
 
         // 言語ドキュメントのインスタンスをデフォルトで生成します。
-        cgInterface.setLangDoc(new BlancoCgLangDoc());
+        if (fIsLangDocCreated) {
+            cgInterface.setLangDoc(new BlancoCgLangDoc());
+        }
 
         return cgInterface;
     }
@@ -178,7 +213,9 @@ public class BlancoCgObjectFactory {
         cgField.setDescription(argDescription);
 
         // 言語ドキュメントのインスタンスをデフォルトで生成します。
-        cgField.setLangDoc(new BlancoCgLangDoc());
+        if (fIsLangDocCreated) {
+            cgField.setLangDoc(new BlancoCgLangDoc());
+        }
 
         // 型オブジェクトを作成して、情報をセットします。
         cgField.setType(createType(argTypeNameWithPackage));
@@ -202,7 +239,9 @@ public class BlancoCgObjectFactory {
         cgMethod.setDescription(argDescription);
 
         // 言語ドキュメントのインスタンスをデフォルトで生成します。
-        cgMethod.setLangDoc(new BlancoCgLangDoc());
+        if (fIsLangDocCreated) {
+            cgMethod.setLangDoc(new BlancoCgLangDoc());
+        }
 
         return cgMethod;
     }
@@ -332,7 +371,9 @@ public class BlancoCgObjectFactory {
         cgEnum.setDescription(argDescription);
 
         // 言語ドキュメントのインスタンスをデフォルトで生成します。
-        cgEnum.setLangDoc(new BlancoCgLangDoc());
+        if (fIsLangDocCreated) {
+            cgEnum.setLangDoc(new BlancoCgLangDoc());
+        }
 
         return cgEnum;
     }
@@ -376,20 +417,4 @@ public class BlancoCgObjectFactory {
         return cgTag;
     }
 
-    private String getTypeNameWithoutGenerics(final String argFullType) {
-        int find = argFullType.indexOf('<');
-        if (find > 0) {
-            return argFullType.substring(0, find);
-        }
-        return argFullType;
-    }
-
-    private String getGenericsFromFullName(final String argFullType) {
-        int find = argFullType.indexOf('<');
-        if (find > 0) {
-            return argFullType.substring(find);
-        }
-        return null;
-    }
-
 }
\ No newline at end of file
@@ -24,17 +24,6 @@
  */
 package blanco.cg.transformer;
 
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.util.List;
-
-import blanco.cg.valueobject.BlancoCgSourceFile;
-import blanco.commons.util.BlancoFileUtil;
-import blanco.commons.util.BlancoStringUtil;
-
 /**
  * Ruby スタイルの抽象トランスフォーマーです。
  * 
@@ -43,201 +32,58 @@ import blanco.commons.util.BlancoStringUtil;
 public abstract class AbstractBlancoCgPythonStyleTransformer extends
         AbstractBlancoCgTransformer {
     /**
-     * デバッグモードで動作させるかどうか。
+     * トランスフォーマーを作成します。
      */
-    private static final boolean IS_DEBUG = false;
+    protected AbstractBlancoCgPythonStyleTransformer() {
+        super();
+    }
 
     /**
-     * ソースファイル・バリューオブジェクトをJavaソースコードに変換して出力先ディレクトリに出力します。
-     * 
-     * このAPIではパッケージ構造をディレクトリ構造として考慮します。
+     * 副作用の有無を指定してトランスフォーマーを作成します。
      * 
-     * @param argSourceFile
-     *            ソースファイル・バリューオブジェクト。
-     * @param outputDirectory
-     *            出力先ルートディレクトリ。
+     * @param argIsSideEffectFree
+     *            副作用のない変換をおこなうかどうか。
      */
-    public void transform(final BlancoCgSourceFile argSourceFile,
-            final File outputDirectory) {
-        if (argSourceFile == null) {
-            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
-        }
-        if (outputDirectory == null) {
-            throw new IllegalArgumentException(
-                    "出力先ルートディレクトリにnullが与えられました。処理中断します。");
-        }
-
-        if (outputDirectory.exists() == false) {
-            if (outputDirectory.mkdirs() == false) {
-                throw new IllegalArgumentException("出力先ルートディレクトリ["
-                        + outputDirectory.getAbsolutePath()
-                        + "]が存在しなかったので作成しようとしましたがディレクトリ作成に失敗しました。処理中断します。");
-            }
-        }
-        if (outputDirectory.isDirectory() == false) {
-            throw new IllegalArgumentException("出力先ルートディレクトリにディレクトリではないファイル["
-                    + outputDirectory.getAbsolutePath() + "]が与えられました。処理中断します。");
-        }
-
-        if (argSourceFile.getName() == null) {
-            // ファイル名が確定していないので、クラス名またはインタフェース名から導出します。
-            decideFilenameFromClassOrInterfaceName(argSourceFile);
-        }
-
-        try {
-            // パッケージ名からディレクトリ名へと変換。
-            String strSubdirectory = BlancoStringUtil.replaceAll(
-                    BlancoStringUtil.null2Blank(argSourceFile.getPackage()),
-                    '.', '/');
-            if (strSubdirectory.length() > 0) {
-                // サブディレクトリが存在する場合にのみスラッシュを追加します。
-                strSubdirectory = "/" + strSubdirectory;
-            }
-
-            final File targetPackageDirectory = new File(outputDirectory
-                    .getAbsolutePath()
-                    + strSubdirectory);
-            if (targetPackageDirectory.exists() == false) {
-                if (targetPackageDirectory.mkdirs() == false) {
-                    throw new IllegalArgumentException("出力先のパッケージディレクトリ["
-                            + targetPackageDirectory.getAbsolutePath()
-                            + "]の生成に失敗しました。");
-                }
-            }
-
-            // 出力先のファイルを確定します。
-            final File fileTarget = new File(targetPackageDirectory
-                    .getAbsolutePath()
-                    + "/" + argSourceFile.getName() + getSourceFileExt());
-
-            // 実際のソースコード出力処理を行います。
-            final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-
-            // 自動生成するソースコードのエンコーディング指定機能
-            OutputStreamWriter streamWriter = null;
-            if (BlancoStringUtil.null2Blank(argSourceFile.getEncoding())
-                    .length() == 0) {
-                streamWriter = new OutputStreamWriter(outStream);
-            } else {
-                streamWriter = new OutputStreamWriter(outStream, argSourceFile
-                        .getEncoding());
-            }
-
-            final BufferedWriter writer = new BufferedWriter(streamWriter);
-            try {
-                transform(argSourceFile, writer);
-                writer.flush();
-                outStream.flush();
-
-                switch (BlancoFileUtil.bytes2FileIfNecessary(outStream
-                        .toByteArray(), fileTarget)) {
-                case 0:
-                    if (IS_DEBUG) {
-                        // デバッグ時のみスキップを標準出力。
-                        System.out.println(CMDLINE_PREFIX + "skip  : "
-                                + fileTarget.getAbsolutePath());
-                    }
-                    break;
-                case 1:
-                    System.out.println(CMDLINE_PREFIX + "create: "
-                            + fileTarget.getAbsolutePath());
-                    break;
-                case 2:
-                    System.out.println(CMDLINE_PREFIX + "update: "
-                            + fileTarget.getAbsolutePath());
-                    break;
-                }
-            } finally {
-                // ByteArrayOutputStreamのインスタンスは writerのクローズによって
-                // ストリームチェインの仕組み上 自動的にクローズされます。
-
-                if (writer != null) {
-                    writer.close();
-                }
-            }
-        } catch (IOException ex) {
-            throw new IllegalArgumentException("ソースコードを出力する過程で例外が発生しました。"
-                    + ex.toString());
-        }
+    protected AbstractBlancoCgPythonStyleTransformer(final boolean argIsSideEffectFree) {
+        super(argIsSideEffectFree);
     }
 
     /**
-     * ソースコードのリストを整形します。
-     * 
-     * Ruby言語用の整形を行います。
-     * 
-     * なお、この処理のなかで { や } は特別な意味を持っています。行末コメントなどが入ると期待する動作ができません。<br>
-     * TODO 中カッコを文末に付与する、などのフォーマットなどは未実装です。
+     * ソースコードを整形するためのフォーマッタを生成します。
      * 
-     * @param argSourceLines
-     *            ソースコード行リスト。
+     * @return フォーマッタ。
      */
-    protected void formatSource(final List<java.lang.String> argSourceLines) {
-        int sourceIndent = 0;
-        for (int index = 0; index < argSourceLines.size(); index++) {
-            String strLine = argSourceLines.get(index);
-            // 前後の空白は、あらかじめ除去します。
-            strLine = strLine.trim();
-            if (strLine.length() == 0) {
-                // 空行です。
-            } else {
-                boolean isBeginIndent = false;
-                boolean isEndIndent = false;
-
-                // まずは開始文字列の判定を行います。
-                // ※開始文字列と終了文字列とは別個に判定する必要があります。
-                if (strLine.startsWith("if ")) {
-                    // ブロック開始と見なして字下げを予約します。
-                    isBeginIndent = true;
-                } else if (strLine.startsWith("for ")) {
-                    // ブロック開始と見なして字下げを予約します。
-                    isBeginIndent = true;
-                } else if (strLine.startsWith("while ")) {
-                    // ブロック開始と見なして字下げを予約します。
-                    isBeginIndent = true;
-                } else if (strLine.startsWith("#end")) {
-                    // ブロック終了と見なして字下げします。
-                    isEndIndent = true;
-                } else if (strLine.startsWith("else")) {
-                    // ブロック終了と見なして字下げします。
-                    isEndIndent = true;
-                } else if (strLine.equals("Next")
-                        || strLine.startsWith("Next ")) {
-                    // ブロック終了と見なして字下げします。
-                    isEndIndent = true;
-                } else if (strLine.indexOf("Namespace ") >= 0
-                        || strLine.indexOf("class ") >= 0
-                        || strLine.indexOf("Interface ") >= 0
-                        || strLine.indexOf("def ") >= 0
-                        || strLine.indexOf("Function ") >= 0) {
-                    // Endより後で判定しているのがポイントです。
-                    // ブロック開始と見なして字下げを予約します。
-                    isBeginIndent = true;
-                }
-
-                // 途中に挟まるであろうIfを判定します。
-                if (strLine.indexOf(" if ") >= 0) {
-                    // ブロック開始と見なして字下げを予約します。
-                    isBeginIndent = true;
-                }
-
-                if (isEndIndent) {
-                    // フラグ一回につき、インデント一個を反映します。
-                    sourceIndent--;
-                }
-
-                // インデントを実施します。
-                for (int indexIndent = 0; indexIndent < sourceIndent; indexIndent++) {
-                    // 4タブで字下げします。
-                    strLine = "    " + strLine;
-                }
-                if (isBeginIndent) {
-                    sourceIndent++;
-                }
+    BlancoCgSourceFormatter createSourceFormatter() {
+        return new PythonStyleSourceFormatter();
+    }
 
-                // 更新後の行イメージでリストを更新します。
-                argSourceLines.set(index, strLine);
-            }
+    /**
+     * Python言語用の整形を行うフォーマッタです。
+     */
+    static class PythonStyleSourceFormatter extends BlancoCgSourceFormatter {
+        /**
+         * 字下げ判定の規則表。
+         *
+         * 開始文字列・終了文字列の規則は登録した順に優先され、最初に一致したものだけが採用されます。<br>
+         * Endより後で判定しているのがポイントです。途中に挟まるであろうIfは、常に判定します。
+         */
+        private static final BlancoCgIndentRuleTable RULE_TABLE = new BlancoCgIndentRuleTable()
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "if ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "for ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "while ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "#end", END_INDENT)
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "else", END_INDENT)
+                .add(BlancoCgIndentRuleTable.EQUALS, "Next", END_INDENT)
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "Next ", END_INDENT)
+                .add(BlancoCgIndentRuleTable.CONTAINS, "Namespace ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.CONTAINS, "class ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.CONTAINS, "Interface ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.CONTAINS, "def ", BEGIN_INDENT)
+                .add(BlancoCgIndentRuleTable.CONTAINS, "Function ", BEGIN_INDENT)
+                .addAlways(BlancoCgIndentRuleTable.CONTAINS, " if ", BEGIN_INDENT);
+
+        protected int judgeIndent(final String argLine) {
+            return RULE_TABLE.judge(argLine);
         }
     }
 }
@@ -25,25 +25,72 @@
 package blanco.cg.transformer;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.util.ArrayList;
 
-import blanco.cg.BlancoCgTransformer;
+import blanco.cg.util.BlancoCgFingerprintUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgInterface;
 import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.commons.util.BlancoStringUtil;
 
 /**
  * プログラミング言語の種類をまたがる抽象的なトランスフォーマーです。
  * 
  * @author IGA Tosiki
  */
-abstract class AbstractBlancoCgTransformer implements BlancoCgTransformer {
+abstract class AbstractBlancoCgTransformer implements
+        BlancoCgSourceTransformer {
     /**
      * コマンドラインに表示する際のメッセージプレフィックス。
      */
     protected static final String CMDLINE_PREFIX = "cg: ";
 
+    /**
+     * デバッグモードで動作させるかどうか。
+     */
+    private static final boolean IS_DEBUG = false;
+
+    /**
+     * 副作用のない変換をおこなうかどうか。
+     * 
+     * true の場合には、ソースファイル・バリューオブジェクトを作業用に複製してから変換します。
+     */
+    private final boolean fIsSideEffectFree;
+
+    /**
+     * トランスフォーマーを作成します。
+     * 
+     * ソースファイル名の導出結果などを、与えられたソースファイル・バリューオブジェクトに反映する従来どおりの動作となります。
+     */
+    protected AbstractBlancoCgTransformer() {
+        this(false);
+    }
+
+    /**
+     * 副作用の有無を指定してトランスフォーマーを作成します。
+     * 
+     * 副作用のない変換を指定した場合には、ソースファイル名・パッケージ名・import一覧を作業用の複製に対して確定します。
+     * そのため、同じソースファイル・バリューオブジェクトを繰り返し、あるいは複数のスレッドから同時に変換することができます。<br>
+     * 変換の過程でバリューオブジェクトは読み取るだけですので、変換中にバリューオブジェクトを変更しないでください。
+     * 
+     * @param argIsSideEffectFree
+     *            副作用のない変換をおこなうかどうか。
+     */
+    protected AbstractBlancoCgTransformer(final boolean argIsSideEffectFree) {
+        fIsSideEffectFree = argIsSideEffectFree;
+    }
+
+    /**
+     * 副作用のない変換をおこなうかどうかを取得します。
+     * 
+     * @return 副作用のない変換をおこなう場合には true。
+     */
+    public boolean isSideEffectFree() {
+        return fIsSideEffectFree;
+    }
+
     /**
      * ソースファイルの拡張子を取得します。
      * 
@@ -51,6 +98,359 @@ abstract class AbstractBlancoCgTransformer implements BlancoCgTransformer {
      */
     protected abstract String getSourceFileExt();
 
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先ディレクトリに出力します。
+     * 
+     * このAPIではパッケージ構造をディレクトリ構造として考慮します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param outputDirectory
+     *            出力先ルートディレクトリ。
+     */
+    public void transform(final BlancoCgSourceFile argSourceFile,
+            final File outputDirectory) {
+        transformFile(argSourceFile, new BlancoCgDirectoryOutputSink(
+                outputDirectory));
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先ディレクトリに出力します。
+     * 
+     * バリューオブジェクトの指紋がマニフェストの記録と一致し、出力済みのファイルが変更されていない場合には、ソースコードの展開を省略します。<br>
+     * マニフェストの保存は呼び出し元でおこなってください。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param outputDirectory
+     *            出力先ルートディレクトリ。
+     * @param argManifest
+     *            出力先ルートディレクトリのマニフェスト。
+     */
+    public void transform(final BlancoCgSourceFile argSourceFile,
+            final File outputDirectory,
+            final BlancoCgTransformManifest argManifest) {
+        if (argManifest == null) {
+            throw new IllegalArgumentException("マニフェストにnullが与えられました。処理中断します。");
+        }
+        transformFile(argSourceFile, new BlancoCgDirectoryOutputSink(
+                outputDirectory, argManifest));
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力します。
+     * 
+     * 出力先ルートからの相対パスは、パッケージ名・ソースファイル名・拡張子から決定します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @return 出力結果。
+     */
+    public BlancoCgTransformResult transform(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink) {
+        return transformFile(argSourceFile, argSink);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力します。
+     * 
+     * 変換の段階ごとの所要時間などをリスナーへ通知します。この場合、コマンドラインへの表示はおこないません。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。
+     * @return 出力結果。
+     */
+    public BlancoCgTransformResult transform(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener) {
+        if (argListener == null) {
+            throw new IllegalArgumentException("リスナーにnullが与えられました。処理中断します。");
+        }
+        return transformFile(argSourceFile, argSink, argListener);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力し、出力結果を戻します。
+     * 
+     * 複数のスレッドから同時に呼び出すことができます。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @return 出力結果。
+     */
+    BlancoCgTransformResult transformFile(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink) {
+        return transformFile(argSourceFile, argSink, null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力し、出力結果を戻します。
+     * 
+     * 複数のスレッドから同時に呼び出すことができます。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。コマンドラインへ表示する場合には null。
+     * @return 出力結果。
+     */
+    BlancoCgTransformResult transformFile(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener) {
+        return transformFile(argSourceFile, argSink, argListener, null);
+    }
+
+    /**
+     * 収集済みの import対象の候補の一覧を利用して、ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力し、出力結果を戻します。
+     * 
+     * 複数のスレッドから同時に呼び出すことができます。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。コマンドラインへ表示する場合には null。
+     * @param argImportCandidates
+     *            同じソースファイルから収集済みの import対象の候補の一覧。展開の際に収集する場合には null。
+     * @return 出力結果。
+     */
+    BlancoCgTransformResult transformFile(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener,
+            final BlancoCgImportCandidates argImportCandidates) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
+        }
+        if (argSink == null) {
+            throw new IllegalArgumentException("出力先にnullが与えられました。処理中断します。");
+        }
+        if (argListener == null) {
+            return executeTransformFile(argSourceFile, argSink, null, null,
+                    argImportCandidates);
+        }
+
+        final BlancoCgTransformEvent event = new BlancoCgTransformEvent(
+                argSourceFile, getClass().getName());
+        argListener.transformStarted(event);
+        try {
+            final BlancoCgTransformResult result = executeTransformFile(
+                    argSourceFile, argSink, argListener, event,
+                    argImportCandidates);
+            event.setStatus(result.getStatus(), null);
+            return result;
+        } catch (RuntimeException ex) {
+            event.setStatus(BlancoCgTransformResult.STATUS_FAILED, ex);
+            throw ex;
+        } finally {
+            argListener.transformCompleted(event);
+        }
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力し、出力結果を戻します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。コマンドラインへ表示する場合には null。
+     * @param argEvent
+     *            計測情報。計測しない場合には null。
+     * @param argImportCandidates
+     *            収集済みの import対象の候補の一覧。展開の際に収集する場合には null。
+     * @return 出力結果。
+     */
+    private BlancoCgTransformResult executeTransformFile(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener,
+            final BlancoCgTransformEvent argEvent,
+            final BlancoCgImportCandidates argImportCandidates) {
+        // 以降の処理は作業用のソースファイルに対しておこないます。
+        final BlancoCgSourceFile cgSourceFile = prepareSourceFile(argSourceFile);
+
+        if (cgSourceFile.getName() == null) {
+            // ファイル名が確定していないので、クラス名またはインタフェース名から導出します。
+            decideFilenameFromClassOrInterfaceName(cgSourceFile);
+        }
+
+        // パッケージ名から出力先ルートからの相対パスを確定します。
+        final String path = getSourcePath(cgSourceFile);
+        final File fileTarget = argSink.getFile(path);
+        if (argEvent != null) {
+            argEvent.setPath(path);
+        }
+
+        // 指紋は、展開によってバリューオブジェクトが更新される前に算出します。
+        if (argEvent != null) {
+            argListener.phaseStarted(argEvent,
+                    BlancoCgTransformEvent.PHASE_COMPARE);
+        }
+        final long startCompare = System.nanoTime();
+        final String fingerprint = (argSink.isFingerprintRequired() ? BlancoCgFingerprintUtil
+                .createFingerprint(cgSourceFile, getClass().getName())
+                : null);
+        final boolean isUpToDate = argSink.isUpToDate(path, fingerprint);
+        if (argEvent != null) {
+            argEvent.addDuration(BlancoCgTransformEvent.PHASE_COMPARE, System
+                    .nanoTime()
+                    - startCompare);
+            argListener.phaseCompleted(argEvent,
+                    BlancoCgTransformEvent.PHASE_COMPARE);
+        }
+
+        if (isUpToDate) {
+            // 前回の出力から変化がないため、展開そのものを省略します。
+            if (IS_DEBUG) {
+                // デバッグ時のみスキップを標準出力。
+                System.out.println(CMDLINE_PREFIX + "skip  : "
+                        + getDisplayName(path, fileTarget));
+            }
+            return new BlancoCgTransformResult(argSourceFile, path,
+                    fileTarget, BlancoCgTransformResult.STATUS_SKIP, null);
+        }
+
+        try {
+            // 実際のソースコード出力処理を行います。
+            // 自動生成するソースコードのエンコーディング指定機能
+            // エンコード結果のバイトバッファは、前回の出力結果のサイズをもとに確保します。
+            final BlancoCgByteBufferWriter byteBufferWriter = new BlancoCgByteBufferWriter(
+                    cgSourceFile.getEncoding(), (fileTarget == null ? 0
+                            : fileTarget.length()));
+
+            final BufferedWriter writer = new BufferedWriter(byteBufferWriter);
+            try {
+                final int lineCount = expandSourceFile(cgSourceFile, writer,
+                        argListener, argEvent, argImportCandidates, null);
+                // クローズによってエンコードを完了します。バイトバッファは返却するまで利用できます。
+                writer.close();
+
+                if (argEvent != null) {
+                    argEvent.setCount(lineCount, byteBufferWriter.size());
+                    argListener.phaseCompleted(argEvent,
+                            BlancoCgTransformEvent.PHASE_ENCODE);
+                    argListener.phaseCompleted(argEvent,
+                            BlancoCgTransformEvent.PHASE_FORMAT);
+                    argListener.phaseCompleted(argEvent,
+                            BlancoCgTransformEvent.PHASE_EXPAND);
+                    argListener.phaseStarted(argEvent,
+                            BlancoCgTransformEvent.PHASE_WRITE);
+                }
+
+                final long startWrite = System.nanoTime();
+                // バイトバッファを保持しないことを確認済みのこのパッケージの出力先にだけ、バイト配列に複写せずに渡します。
+                final int status = (argSink instanceof BlancoCgByteBufferOutputSink ? ((BlancoCgByteBufferOutputSink) argSink)
+                        .write(path, byteBufferWriter.getByteBuffer(),
+                                fingerprint)
+                        : argSink.write(path, byteBufferWriter.toByteArray(),
+                                fingerprint));
+                if (argEvent != null) {
+                    argEvent.addDuration(BlancoCgTransformEvent.PHASE_WRITE,
+                            System.nanoTime() - startWrite);
+                    argListener.phaseCompleted(argEvent,
+                            BlancoCgTransformEvent.PHASE_WRITE);
+                }
+
+                if (argListener == null) {
+                    switch (status) {
+                    case BlancoCgTransformResult.STATUS_SKIP:
+                        if (IS_DEBUG) {
+                            // デバッグ時のみスキップを標準出力。
+                            System.out.println(CMDLINE_PREFIX + "skip  : "
+                                    + getDisplayName(path, fileTarget));
+                        }
+                        break;
+                    case BlancoCgTransformResult.STATUS_CREATE:
+                        System.out.println(CMDLINE_PREFIX + "create: "
+                                + getDisplayName(path, fileTarget));
+                        break;
+                    case BlancoCgTransformResult.STATUS_UPDATE:
+                        System.out.println(CMDLINE_PREFIX + "update: "
+                                + getDisplayName(path, fileTarget));
+                        break;
+                    }
+                }
+                return new BlancoCgTransformResult(argSourceFile, path,
+                        fileTarget, status, null);
+            } finally {
+                writer.close();
+                // バイトバッファを返却し、同じスレッドの次のソースファイルで再利用します。
+                byteBufferWriter.release();
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("ソースコードを出力する過程で例外が発生しました。"
+                    + ex.toString());
+        }
+    }
+
+    /**
+     * コマンドラインに表示する出力先の名前を取得します。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @param argFile
+     *            出力先のファイル。ファイルに出力しない出力先の場合には null。
+     * @return 表示用の名前。
+     */
+    private static String getDisplayName(final String argPath,
+            final File argFile) {
+        return (argFile == null ? argPath : argFile.getAbsolutePath());
+    }
+
+    /**
+     * ソースファイルの出力先ルートからの相対パスを取得します。
+     * 
+     * ファイル名が確定していない場合には、クラス名またはインタフェース名から導出します。
+     * 与えられたバリューオブジェクトは変更しません。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @return 出力先ルートからの相対パス。区切り文字は / です。
+     */
+    public String getSourcePath(final BlancoCgSourceFile argSourceFile) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
+        }
+
+        final String name = (argSourceFile.getName() != null ? argSourceFile
+                .getName() : deriveFilename(argSourceFile));
+
+        final String strSubdirectory = getSubdirectory(argSourceFile);
+        return (strSubdirectory.length() > 0 ? strSubdirectory + "/" : "")
+                + name + getSourceFileExt();
+    }
+
+    /**
+     * パッケージ名から出力先のサブディレクトリ名を取得します。
+     * 
+     * パッケージの区切り文字が異なるプログラミング言語では、このメソッドをオーバーライドします。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @return サブディレクトリ名。
+     */
+    protected String getSubdirectory(final BlancoCgSourceFile argSourceFile) {
+        return BlancoStringUtil.replaceAll(BlancoStringUtil
+                .null2Blank(argSourceFile.getPackage()), '.', '/');
+    }
+
     /**
      * ファイル名をクラス名またはインタフェース名から導出します。
      * 
@@ -61,6 +461,19 @@ abstract class AbstractBlancoCgTransformer implements BlancoCgTransformer {
      */
     protected void decideFilenameFromClassOrInterfaceName(
             final BlancoCgSourceFile argSourceFile) {
+        // ソースファイル名の確定をおこないます。
+        // バリューオブジェクトのソースファイル名を更新している点に注意してください。
+        argSourceFile.setName(deriveFilename(argSourceFile));
+    }
+
+    /**
+     * クラス名またはインタフェース名から導出したファイル名を取得します。
+     * 
+     * @param argSourceFile
+     *            ソースファイルオブジェクト。
+     * @return ファイル名。
+     */
+    private static String deriveFilename(final BlancoCgSourceFile argSourceFile) {
         // ファイル名が未設定の場合に、BlancoCgSourceFile(ファイル)の中に含まれるクラス名からファイル名の解決を試みます。
         String className = null;
         for (int index = 0; index < argSourceFile.getClassList().size(); index++) {
@@ -88,57 +501,188 @@ abstract class AbstractBlancoCgTransformer implements BlancoCgTransformer {
                     "ソースファイル名の指定がなかったのでクラスのリストからクラス名の確定を試みましたが、クラス名は確定できませんでした。");
         }
 
-        // ソースファイル名の確定をおこないます。
-        // バリューオブジェクトのソースファイル名を更新している点に注意してください。
-        argSourceFile.setName(className);
+        return className;
     }
 
     /**
-     * ソースコードをライターへ出力します。
+     * ソースファイル・バリューオブジェクトをソースコードに変換してライターに出力します。
      * 
-     * java.lang.Stringのリストをライターへと出力します。
+     * このAPIではパッケージ構造をディレクトリ構造とは考慮しません。この処理の中ではライターに向けて出力するだけです。<br>
+     * 展開された行は、ソースファイル全体の展開を待たずに整形してライターへ出力します。
+     * そのため、展開の途中で例外が発生した場合には、それまでの行がライターに出力済みとなる点に注意してください。
      * 
-     * @param argSourceLines
-     *            ソースコード行リスト。
-     * @param writer
-     *            出力先ライタ。
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argWriter
+     *            出力先のライター。
      * @throws IOException
-     *             入出力例外が発生した場合。
-     */
-    protected void source2Writer(final List<java.lang.String> argSourceLines,
-            final BufferedWriter writer) throws IOException {
-        boolean isPastLineBlank = false;
-        boolean isPastBlockStart = false;
-        for (int index = 0; index < argSourceLines.size(); index++) {
-            final String line = argSourceLines.get(index);
-
-            // 連続する空行の出力を抑制します。
-            if (line.length() == 0) {
-                if (isPastLineBlank) {
-                    // 前回に引き続き今回も空行であったため 今回は出力を見送ります。
-                    continue;
-                }
-                // 今回は空行でした。
-                isPastLineBlank = true;
-            } else {
-                // 今回は空行ではありません。
-                isPastLineBlank = false;
-            }
+     *             入出力例外が発生した場合
+     */
+    public void transform(final BlancoCgSourceFile argSourceFile,
+            final BufferedWriter argWriter) throws IOException {
+        transform(argSourceFile, argWriter, null);
+    }
 
-            if (isPastBlockStart && line.length() == 0) {
-                // 前回がブロックのスタートで、今回が空行の場合には出力を見送ります。
-                continue;
-            }
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換してライターに出力し、出力した行の元になったバリューオブジェクトを対応表に記録します。
+     * 
+     * 対応表には、ライターへ出力した行の行番号ごとに、行の元になったクラスやメソッドなどのバリューオブジェクトが記録されます。<br>
+     * コンパイラの診断情報の行番号などから、出力したソースコードを解析し直すことなく生成元を求めることができます。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argWriter
+     *            出力先のライター。
+     * @param argLineMap
+     *            出力した行を記録する対応表。記録しない場合には null。
+     * @throws IOException
+     *             入出力例外が発生した場合
+     */
+    public void transform(final BlancoCgSourceFile argSourceFile,
+            final BufferedWriter argWriter,
+            final BlancoCgSourceLineMap argLineMap) throws IOException {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
+        }
+        if (argWriter == null) {
+            throw new IllegalArgumentException("出力先ライターにnullが与えられました。処理中断します。");
+        }
 
-            if (line.endsWith("{")) {
-                isPastBlockStart = true;
-            } else {
-                isPastBlockStart = false;
-            }
+        expandSourceFile(prepareSourceFile(argSourceFile), argWriter, null,
+                null, null, argLineMap);
+    }
+
+    /**
+     * 作業用のソースファイル・バリューオブジェクトを準備します。
+     * 
+     * 副作用のない変換の場合には、変換の過程で更新されるソースファイル名・パッケージ名・import一覧を複製します。<br>
+     * クラスやインタフェースなどの一覧は読み取るだけなので、複製せずに参照専用の一覧を共有します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @return 作業用のソースファイル・バリューオブジェクト。
+     */
+    private BlancoCgSourceFile prepareSourceFile(
+            final BlancoCgSourceFile argSourceFile) {
+        if (fIsSideEffectFree == false) {
+            // 従来どおり、与えられたバリューオブジェクトをそのまま利用します。
+            return argSourceFile;
+        }
+
+        final BlancoCgSourceFile cgSourceFile = new BlancoCgSourceFile();
+        argSourceFile.copyTo(cgSourceFile);
+        cgSourceFile.setImportList(new ArrayList<java.lang.String>(
+                argSourceFile.getImportList()));
+        cgSourceFile.setEnumList(argSourceFile.getEnumList());
+        cgSourceFile.setInterfaceList(argSourceFile.getInterfaceList());
+        cgSourceFile.setClassList(argSourceFile.getClassList());
+        cgSourceFile.setLangDoc(argSourceFile.getLangDoc());
+        return cgSourceFile;
+    }
+
+    /**
+     * 作業用のソースファイル・バリューオブジェクトをソースコードに展開し、整形しながらライターに出力します。
+     * 
+     * @param argSourceFile
+     *            作業用のソースファイル・バリューオブジェクト。
+     * @param argWriter
+     *            出力先のライター。
+     * @param argListener
+     *            段階の開始と import解決の終了を通知するリスナー。計測しない場合には null。
+     * @param argEvent
+     *            展開・import解決・整形・エンコードの所要時間を記録する計測情報。計測しない場合には null。
+     * @param argImportCandidates
+     *            収集済みの import対象の候補の一覧。展開の際に収集する場合には null。
+     * @param argLineMap
+     *            出力した行を記録する対応表。記録しない場合には null。
+     * @return エキスパンダーから受け取った行数。
+     * @throws IOException
+     *             入出力例外が発生した場合
+     */
+    private int expandSourceFile(final BlancoCgSourceFile argSourceFile,
+            final BufferedWriter argWriter,
+            final BlancoCgTransformListener argListener,
+            final BlancoCgTransformEvent argEvent,
+            final BlancoCgImportCandidates argImportCandidates,
+            final BlancoCgSourceLineMap argLineMap) throws IOException {
+        // ソースコードを整形しながらライタへと出力する出力先です。
+        final BlancoCgSourceLineWriter sink = new BlancoCgSourceLineWriter(
+                createSourceFormatter(), argWriter, argEvent != null);
+        sink.setLineMap(argLineMap);
 
-            // 行を 1行 出力します。
-            writer.write(line);
-            writer.newLine();
+        // ヘッダー部は展開と同時にライタへ出力します。
+        final BlancoCgSourceDocument document = new BlancoCgSourceDocument(
+                sink);
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, document);
+        context.setImportCandidates(argImportCandidates);
+        if (argEvent != null) {
+            // 整形とエンコードは、展開された行ごとに展開と並行して進みます。
+            context.setListener(argListener, argEvent);
+            argListener.phaseStarted(argEvent,
+                    BlancoCgTransformEvent.PHASE_EXPAND);
+            argListener.phaseStarted(argEvent,
+                    BlancoCgTransformEvent.PHASE_FORMAT);
+            argListener.phaseStarted(argEvent,
+                    BlancoCgTransformEvent.PHASE_ENCODE);
+        }
+        final long startExpand = System.nanoTime();
+        expandSourceFile(context);
+        final long endExpand = System.nanoTime();
+        if (argEvent != null && context.getImportPhaseStart() >= 0
+                && context.getImportPhaseEnd() < 0) {
+            // import解決が本体部の展開を終えるまで続いたため、ここで import解決の終了を通知します。
+            argEvent.addDuration(BlancoCgTransformEvent.PHASE_IMPORT,
+                    endExpand - context.getImportPhaseStart());
+            argListener.phaseCompleted(argEvent,
+                    BlancoCgTransformEvent.PHASE_IMPORT);
         }
+
+        // 展開の途中で出力された行の整形とエンコードの分を、展開の所要時間から差し引きます。
+        final long sinkNanos = sink.getFormatNanos() + sink.getEncodeNanos();
+
+        // import部が本体部の展開を終えるまで確定しなかった場合には、本体部とあわせてここで出力します。
+        document.flushBody();
+        sink.flush();
+
+        // 念のためフラッシュを実施。
+        final long startFlush = System.nanoTime();
+        argWriter.flush();
+
+        if (argEvent != null) {
+            final long startImport = (context.getImportPhaseStart() < 0 ? endExpand
+                    : context.getImportPhaseStart());
+            final long endImport = (context.getImportPhaseEnd() < 0 ? endExpand
+                    : context.getImportPhaseEnd());
+            argEvent.addDuration(BlancoCgTransformEvent.PHASE_EXPAND,
+                    (endExpand - startExpand) - (endImport - startImport)
+                            - sinkNanos);
+            argEvent.addDuration(BlancoCgTransformEvent.PHASE_FORMAT, sink
+                    .getFormatNanos());
+            argEvent.addDuration(BlancoCgTransformEvent.PHASE_ENCODE, sink
+                    .getEncodeNanos()
+                    + System.nanoTime() - startFlush);
+        }
+        return sink.getLineCount();
     }
+
+    /**
+     * ソースファイル・バリューオブジェクトを整形前のソースコードに展開します。
+     * 
+     * トランスフォーマーは複数のスレッドから同時に利用されるため、ソースファイルごとの状態はコンテキストを経由して受け渡します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    protected abstract void expandSourceFile(
+            final BlancoCgTransformContext argContext);
+
+    /**
+     * ソースコードを整形するためのフォーマッタを生成します。
+     * 
+     * フォーマッタは字下げの状態を保持するため、ソースファイルごとに生成します。
+     * 
+     * @return フォーマッタ。
+     */
+    abstract BlancoCgSourceFormatter createSourceFormatter();
 }
@@ -0,0 +1,362 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 複数のソースファイル・バリューオブジェクトをまとめてソースコードに変換するためのトランスフォーマーです。
+ *
+ * ソースファイルごとの展開・整形・出力を、スレッドプールを利用して並列に実行します。<br>
+ * あるソースファイルで例外が発生しても処理は中断せず、ソースファイルごとの出力結果として戻します。<br>
+ * 変換には、プログラミング言語を指定した場合には従来どおりの変換をおこなうトランスフォーマーを、
+ * トランスフォーマーを指定した場合にはそのトランスフォーマーを利用します。<br>
+ * 従来どおりの変換ではバリューオブジェクトが更新されるため、1つのソースファイル・バリューオブジェクトを複数回 指定することはできません。
+ * キャッシュしたバリューオブジェクトなどを変換する場合には、副作用のない変換をおこなうトランスフォーマーを指定してください。<br>
+ * 再利用のために保持するバイトバッファはプロセス全体で共有するため、一括変換を終えても解放せず、保持する合計の容量の上限で抑えます。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgBatchTransformer {
+    /**
+     * ソースファイルごとの変換に利用するトランスフォーマー。
+     */
+    private final BlancoCgSourceTransformer fTransformer;
+
+    /**
+     * 利用するスレッドプール。null の場合には変換の都度 作成します。
+     */
+    private final ExecutorService fExecutor;
+
+    /**
+     * スレッドプールを作成する際のスレッド数。
+     */
+    private final int fThreadCount;
+
+    /**
+     * 利用可能なプロセッサ数と同じスレッド数で並列処理するトランスフォーマーを作成します。
+     *
+     * @param argTargetLang
+     *            出力先のプログラミング言語。BlancoCgSupportedLangで指定します。
+     */
+    public BlancoCgBatchTransformer(final int argTargetLang) {
+        this(argTargetLang, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 指定のスレッド数で並列処理するトランスフォーマーを作成します。
+     *
+     * @param argTargetLang
+     *            出力先のプログラミング言語。BlancoCgSupportedLangで指定します。
+     * @param argThreadCount
+     *            スレッド数。
+     */
+    public BlancoCgBatchTransformer(final int argTargetLang,
+            final int argThreadCount) {
+        if (argThreadCount <= 0) {
+            throw new IllegalArgumentException("スレッド数には1以上の値を指定してください。("
+                    + argThreadCount + ")");
+        }
+        // 対応しないプログラミング言語の場合には、ここで例外とします。
+        fTransformer = BlancoCgTransformerFactory.getSourceTransformer(
+                argTargetLang, false);
+        fExecutor = null;
+        fThreadCount = argThreadCount;
+    }
+
+    /**
+     * 呼び出し元が用意したスレッドプールで並列処理するトランスフォーマーを作成します。
+     *
+     * 与えられたスレッドプールのシャットダウンは呼び出し元の責任でおこなってください。
+     *
+     * @param argTargetLang
+     *            出力先のプログラミング言語。BlancoCgSupportedLangで指定します。
+     * @param argExecutor
+     *            スレッドプール。
+     */
+    public BlancoCgBatchTransformer(final int argTargetLang,
+            final ExecutorService argExecutor) {
+        if (argExecutor == null) {
+            throw new IllegalArgumentException(
+                    "スレッドプールにnullが与えられました。処理中断します。");
+        }
+        // 対応しないプログラミング言語の場合には、ここで例外とします。
+        fTransformer = BlancoCgTransformerFactory.getSourceTransformer(
+                argTargetLang, false);
+        fExecutor = argExecutor;
+        fThreadCount = 0;
+    }
+
+    /**
+     * 指定のトランスフォーマーを利用し、指定のスレッド数で並列処理するトランスフォーマーを作成します。
+     *
+     * 副作用のない変換をおこなうトランスフォーマーや、大きなクラスのメンバーを並列に展開するトランスフォーマーを利用する場合に指定します。
+     *
+     * @param argTransformer
+     *            ソースファイルごとの変換に利用するトランスフォーマー。複数のスレッドから同時に呼び出されます。
+     * @param argThreadCount
+     *            スレッド数。
+     */
+    public BlancoCgBatchTransformer(
+            final BlancoCgSourceTransformer argTransformer,
+            final int argThreadCount) {
+        if (argTransformer == null) {
+            throw new IllegalArgumentException(
+                    "トランスフォーマーにnullが与えられました。処理中断します。");
+        }
+        if (argThreadCount <= 0) {
+            throw new IllegalArgumentException("スレッド数には1以上の値を指定してください。("
+                    + argThreadCount + ")");
+        }
+        fTransformer = argTransformer;
+        fExecutor = null;
+        fThreadCount = argThreadCount;
+    }
+
+    /**
+     * 指定のトランスフォーマーを利用し、呼び出し元が用意したスレッドプールで並列処理するトランスフォーマーを作成します。
+     *
+     * 与えられたスレッドプールのシャットダウンは呼び出し元の責任でおこなってください。
+     *
+     * @param argTransformer
+     *            ソースファイルごとの変換に利用するトランスフォーマー。複数のスレッドから同時に呼び出されます。
+     * @param argExecutor
+     *            スレッドプール。
+     */
+    public BlancoCgBatchTransformer(
+            final BlancoCgSourceTransformer argTransformer,
+            final ExecutorService argExecutor) {
+        if (argTransformer == null) {
+            throw new IllegalArgumentException(
+                    "トランスフォーマーにnullが与えられました。処理中断します。");
+        }
+        if (argExecutor == null) {
+            throw new IllegalArgumentException(
+                    "スレッドプールにnullが与えられました。処理中断します。");
+        }
+        fTransformer = argTransformer;
+        fExecutor = argExecutor;
+        fThreadCount = 0;
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトの一覧をソースコードに変換して出力先ディレクトリに出力します。
+     *
+     * @param argSourceFileList
+     *            ソースファイル・バリューオブジェクトの一覧。
+     * @param outputDirectory
+     *            出力先ルートディレクトリ。
+     * @return ソースファイルごとの出力結果。与えられた一覧と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final Collection<BlancoCgSourceFile> argSourceFileList,
+            final File outputDirectory) {
+        return executeTransform(argSourceFileList,
+                new BlancoCgDirectoryOutputSink(outputDirectory), null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトの一覧をソースコードに変換して出力先ディレクトリに出力します。
+     * 
+     * 指紋がマニフェストの記録と一致し、出力済みのファイルが変更されていない場合には、ソースコードの展開を省略します。<br>
+     * マニフェストの保存は呼び出し元でおこなってください。
+     *
+     * @param argSourceFileList
+     *            ソースファイル・バリューオブジェクトの一覧。
+     * @param outputDirectory
+     *            出力先ルートディレクトリ。
+     * @param argManifest
+     *            出力先ルートディレクトリのマニフェスト。
+     * @return ソースファイルごとの出力結果。与えられた一覧と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final Collection<BlancoCgSourceFile> argSourceFileList,
+            final File outputDirectory,
+            final BlancoCgTransformManifest argManifest) {
+        if (argManifest == null) {
+            throw new IllegalArgumentException("マニフェストにnullが与えられました。処理中断します。");
+        }
+        return executeTransform(argSourceFileList,
+                new BlancoCgDirectoryOutputSink(outputDirectory, argManifest),
+                null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトの一覧をソースコードに変換して出力先に出力します。
+     *
+     * @param argSourceFileList
+     *            ソースファイル・バリューオブジェクトの一覧。
+     * @param argSink
+     *            出力先。
+     * @return ソースファイルごとの出力結果。与えられた一覧と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final Collection<BlancoCgSourceFile> argSourceFileList,
+            final BlancoCgOutputSink argSink) {
+        return executeTransform(argSourceFileList, argSink, null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトの一覧をソースコードに変換して出力先に出力します。
+     *
+     * 変換の段階ごとの所要時間などをリスナーへ通知します。この場合、ファイルごとのコマンドラインへの表示はおこないません。
+     *
+     * @param argSourceFileList
+     *            ソースファイル・バリューオブジェクトの一覧。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。複数のスレッドから同時に呼び出されます。
+     * @return ソースファイルごとの出力結果。与えられた一覧と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final Collection<BlancoCgSourceFile> argSourceFileList,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener) {
+        if (argListener == null) {
+            throw new IllegalArgumentException("リスナーにnullが与えられました。処理中断します。");
+        }
+        return executeTransform(argSourceFileList, argSink, argListener);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトの一覧をソースコードに変換して出力先に出力します。
+     *
+     * @param argSourceFileList
+     *            ソースファイル・バリューオブジェクトの一覧。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。コマンドラインへ表示する場合には null。
+     * @return ソースファイルごとの出力結果。与えられた一覧と同じ順序で戻します。
+     */
+    private List<BlancoCgTransformResult> executeTransform(
+            final Collection<BlancoCgSourceFile> argSourceFileList,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener) {
+        if (argSourceFileList == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイルの一覧にnullが与えられました。処理中断します。");
+        }
+        if (argSink == null) {
+            throw new IllegalArgumentException("出力先にnullが与えられました。処理中断します。");
+        }
+
+        final List<Callable<BlancoCgTransformResult>> taskList = new ArrayList<Callable<BlancoCgTransformResult>>(
+                argSourceFileList.size());
+        for (BlancoCgSourceFile cgSourceFile : argSourceFileList) {
+            taskList.add(new TransformTask(cgSourceFile, argSink,
+                    argListener));
+        }
+
+        final ExecutorService executor = (fExecutor == null ? Executors
+                .newFixedThreadPool(fThreadCount) : fExecutor);
+        try {
+            final List<BlancoCgTransformResult> resultList = new ArrayList<BlancoCgTransformResult>(
+                    taskList.size());
+            for (Future<BlancoCgTransformResult> future : executor
+                    .invokeAll(taskList)) {
+                resultList.add(future.get());
+            }
+            return resultList;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(
+                    "ソースコードの一括変換の途中で割り込みが発生しました。処理中断します。"
+                            + ex.toString());
+        } catch (ExecutionException ex) {
+            // 実行時例外はタスクの中で出力結果に変換しているため、ここに到達するのはエラーの場合のみです。
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalArgumentException(
+                    "ソースコードの一括変換の過程で例外が発生しました。" + ex.toString());
+        } finally {
+            if (fExecutor == null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * ソースファイル 1 件分の変換をおこなうタスクです。
+     */
+    private class TransformTask implements Callable<BlancoCgTransformResult> {
+        /**
+         * 処理対象のソースファイル・バリューオブジェクト。
+         */
+        private final BlancoCgSourceFile fSourceFile;
+
+        /**
+         * 出力先。
+         */
+        private final BlancoCgOutputSink fSink;
+
+        /**
+         * リスナー。コマンドラインへ表示する場合には null。
+         */
+        private final BlancoCgTransformListener fListener;
+
+        /**
+         * タスクを作成します。
+         *
+         * @param argSourceFile
+         *            処理対象のソースファイル・バリューオブジェクト。
+         * @param argSink
+         *            出力先。
+         * @param argListener
+         *            リスナー。コマンドラインへ表示する場合には null。
+         */
+        TransformTask(final BlancoCgSourceFile argSourceFile,
+                final BlancoCgOutputSink argSink,
+                final BlancoCgTransformListener argListener) {
+            fSourceFile = argSourceFile;
+            fSink = argSink;
+            fListener = argListener;
+        }
+
+        public BlancoCgTransformResult call() {
+            try {
+                if (fListener == null) {
+                    return fTransformer.transform(fSourceFile, fSink);
+                }
+                return fTransformer.transform(fSourceFile, fSink, fListener);
+            } catch (RuntimeException ex) {
+                return new BlancoCgTransformResult(fSourceFile, null,
+                        BlancoCgTransformResult.STATUS_FAILED, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * ソースコードのバイト列を、バイト配列に複写せずにバイトバッファのまま受け取ることのできる出力先です。
+ * 
+ * トランスフォーマーは、出力先がこのインタフェースを実装している場合にはエンコード結果のバイトバッファをそのまま渡します。<br>
+ * バイトバッファはプールへ返却した後に明示的に解放されることがあり、解放後の領域を参照すると JVM が異常終了しかねません。
+ * そのため、このインタフェースはパッケージの外には公開せず、メソッドから戻った後にバッファの複製やスライスを保持しないことを確認した
+ * このパッケージの出力先だけが実装します。パッケージの外の出力先には、バイト配列に複写したものを渡します。
+ * 
+ * @author IGA Tosiki
+ */
+interface BlancoCgByteBufferOutputSink extends BlancoCgOutputSink {
+    /**
+     * ソースコードのバイトバッファを出力します。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。位置からリミットまでが出力対象です。
+     * @param argFingerprint
+     *            生成元バリューオブジェクトの指紋。指紋を必要としない出力先には null が与えられます。
+     * @return 出力状況。BlancoCgTransformResultの STATUS_ で始まる定数のいずれか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    int write(String argPath, ByteBuffer argBuffer, String argFingerprint)
+            throws IOException;
+}
@@ -0,0 +1,208 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * エンコード結果や既存のファイルとの比較に利用するダイレクト・バイトバッファを、スレッド間で共有して再利用するためのプールです。
+ *
+ * プールに保持するバイトバッファは、1 つあたりの容量と合計の容量に上限を設けています。上限を超えるバイトバッファは返却の際に解放します。<br>
+ * プールはプロセス全体で共有し、並行する一括変換や複数言語への変換でも再利用するため、変換の終了時に解放することはしません。
+ * 保持するメモリの量は、合計の容量の上限で抑えます。<br>
+ * ダイレクト・バイトバッファの解放は、JDK が提供するクリーナーを利用できる場合にのみその場でおこない、
+ * 利用できない場合にはガベージコレクションに任せます。
+ *
+ * @author IGA Tosiki
+ */
+class BlancoCgByteBufferPool {
+    /**
+     * プールに保持するバイトバッファ 1 つあたりの最大の容量。これを超えるバイトバッファは再利用しません。
+     */
+    static final int MAX_POOLED_CAPACITY = 16 * 1024 * 1024;
+
+    /**
+     * プールに保持するバイトバッファの合計の最大の容量。
+     */
+    static final long MAX_POOLED_TOTAL_CAPACITY = 64L * 1024 * 1024;
+
+    /**
+     * プールに保持しているバイトバッファ。
+     */
+    private static final List<ByteBuffer> POOL = new ArrayList<ByteBuffer>();
+
+    /**
+     * プールに保持しているバイトバッファの合計の容量。
+     */
+    private static long fPooledTotalCapacity = 0;
+
+    /**
+     * ダイレクト・バイトバッファを解放するためのオブジェクト。JDK 9 以降の sun.misc.Unsafe です。利用できない場合には null。
+     */
+    private static final Object UNSAFE;
+
+    /**
+     * ダイレクト・バイトバッファを解放するためのメソッド。JDK 9 以降の invokeCleaner です。利用できない場合には null。
+     */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner",
+                    ByteBuffer.class);
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (Exception ex) {
+            // JDK 8 以前では、バイトバッファのクリーナーを直接呼び出します。
+            invokeCleaner = null;
+            unsafe = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * このクラスはインスタンスを作成しません。
+     */
+    private BlancoCgByteBufferPool() {
+    }
+
+    /**
+     * 空のバイトバッファを借り受けます。
+     *
+     * 必要な容量を満たすもののうち、最も容量の小さいバイトバッファをプールから取り出します。該当するものが無い場合には、新たに確保します。
+     *
+     * @param argCapacity
+     *            必要な容量。
+     * @return 空のバイトバッファ。
+     */
+    static ByteBuffer acquire(final int argCapacity) {
+        synchronized (POOL) {
+            int found = -1;
+            for (int index = 0; index < POOL.size(); index++) {
+                final int capacity = POOL.get(index).capacity();
+                if (capacity >= argCapacity
+                        && (found < 0 || capacity < POOL.get(found)
+                                .capacity())) {
+                    found = index;
+                }
+            }
+            if (found >= 0) {
+                final ByteBuffer pooled = POOL.remove(found);
+                fPooledTotalCapacity -= pooled.capacity();
+                pooled.clear();
+                return pooled;
+            }
+        }
+        return ByteBuffer.allocateDirect(argCapacity);
+    }
+
+    /**
+     * 利用を終えたバイトバッファを返却します。
+     *
+     * 容量の上限を超える場合には、プールに保持せずに解放します。
+     *
+     * @param argBuffer
+     *            acquire で借り受けたバイトバッファ。返却後は利用してはなりません。
+     */
+    static void release(final ByteBuffer argBuffer) {
+        if (argBuffer.capacity() <= MAX_POOLED_CAPACITY) {
+            synchronized (POOL) {
+                if (fPooledTotalCapacity + argBuffer.capacity() <= MAX_POOLED_TOTAL_CAPACITY) {
+                    argBuffer.clear();
+                    POOL.add(argBuffer);
+                    fPooledTotalCapacity += argBuffer.capacity();
+                    return;
+                }
+            }
+        }
+        free(argBuffer);
+    }
+
+    /**
+     * プールに保持しているバイトバッファをすべて解放します。
+     *
+     * 借り受け中のバイトバッファには影響しません。並行する変換がバイトバッファを再利用できなくなるため、試験などで状態を初期化する場合にのみ利用します。
+     */
+    static void releaseAll() {
+        final List<ByteBuffer> released;
+        synchronized (POOL) {
+            released = new ArrayList<ByteBuffer>(POOL);
+            POOL.clear();
+            fPooledTotalCapacity = 0;
+        }
+        for (ByteBuffer buffer : released) {
+            free(buffer);
+        }
+    }
+
+    /**
+     * プールに保持しているバイトバッファの合計の容量を取得します。
+     *
+     * @return 合計の容量。
+     */
+    static long getPooledTotalCapacity() {
+        synchronized (POOL) {
+            return fPooledTotalCapacity;
+        }
+    }
+
+    /**
+     * ダイレクト・バイトバッファやメモリにマップした領域を、ガベージコレクションを待たずに解放します。
+     *
+     * 解放できない場合には何もせず、ガベージコレクションに任せます。
+     *
+     * @param argBuffer
+     *            解放するバイトバッファ。複製やスライスではなく、確保またはマップしたバイトバッファそのものを与えてください。解放後は利用してはなりません。
+     */
+    static void free(final ByteBuffer argBuffer) {
+        if (argBuffer == null || argBuffer.isDirect() == false) {
+            return;
+        }
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, argBuffer);
+                return;
+            }
+            final Method cleanerMethod = argBuffer.getClass().getMethod(
+                    "cleaner");
+            cleanerMethod.setAccessible(true);
+            final Object cleaner = cleanerMethod.invoke(argBuffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception ex) {
+            // 解放できない環境では、ガベージコレクションに任せます。
+        }
+    }
+}
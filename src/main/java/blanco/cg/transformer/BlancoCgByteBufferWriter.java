@@ -0,0 +1,349 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 書き込まれた文字を、その場でエンコードしてバイトバッファに蓄積するライターです。
+ *
+ * OutputStreamWriter と ByteArrayOutputStream の組み合わせと同じバイト列を生成しますが、
+ * エンコーダーはスレッドごとに保持し、バイトバッファは BlancoCgByteBufferPool から借り受けて、ソースファイルをまたがって再利用します。<br>
+ * バイトバッファは出力先のファイルの前回のサイズをもとに確保するため、通常は拡張のための複写が発生しません。<br>
+ * 利用を終えたら、必ず release を呼び出してバイトバッファを返却してください。
+ *
+ * @author IGA Tosiki
+ */
+class BlancoCgByteBufferWriter extends Writer {
+    /**
+     * バイトバッファの最小の容量。
+     */
+    private static final int MIN_BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * エンコード前の文字を蓄積するバッファの容量。
+     */
+    private static final int CHAR_BUFFER_CAPACITY = 8192;
+
+    /**
+     * スレッドごとに再利用する、文字セット名ごとのエンコーダー。
+     */
+    private static final ThreadLocal<Map<String, CharsetEncoder>> POOLED_ENCODER = new ThreadLocal<Map<String, CharsetEncoder>>() {
+        protected Map<String, CharsetEncoder> initialValue() {
+            return new HashMap<String, CharsetEncoder>();
+        }
+    };
+
+    /**
+     * 利用するエンコーダー。
+     */
+    private final CharsetEncoder fEncoder;
+
+    /**
+     * エンコード前の文字を蓄積するバッファ。
+     */
+    private final CharBuffer fCharBuffer = CharBuffer
+            .allocate(CHAR_BUFFER_CAPACITY);
+
+    /**
+     * エンコード後のバイト列を蓄積するバッファ。返却後は null。
+     */
+    private ByteBuffer fByteBuffer;
+
+    /**
+     * クローズ済みかどうか。
+     */
+    private boolean fIsClosed = false;
+
+    /**
+     * ライターを作成します。
+     *
+     * @param argEncoding
+     *            エンコーディング。null または空文字の場合にはプラットフォームのデフォルトを利用します。
+     * @param argSizeHint
+     *            出力されるバイト数の見込み。前回の出力結果のサイズなど。不明な場合には 0。
+     * @throws UnsupportedEncodingException
+     *             エンコーディングがサポートされていない場合。
+     */
+    BlancoCgByteBufferWriter(final String argEncoding, final long argSizeHint)
+            throws UnsupportedEncodingException {
+        fEncoder = getEncoder(argEncoding);
+
+        // 前回の出力結果から多少増えても拡張が不要となるよう、見込みに余裕を持たせます。
+        final long capacity = Math.max(MIN_BUFFER_CAPACITY, argSizeHint
+                + argSizeHint / 8);
+        fByteBuffer = BlancoCgByteBufferPool.acquire((int) Math.min(capacity,
+                BlancoCgByteBufferPool.MAX_POOLED_CAPACITY));
+    }
+
+    public void write(final int argChar) throws IOException {
+        ensureOpen();
+        if (fCharBuffer.hasRemaining() == false) {
+            encodeCharBuffer(false);
+        }
+        fCharBuffer.put((char) argChar);
+    }
+
+    public void write(final char[] argChars, final int argOffset,
+            final int argLength) throws IOException {
+        ensureOpen();
+        if (fCharBuffer.position() == 0 && argLength >= CHAR_BUFFER_CAPACITY) {
+            // 十分な長さがある場合には、文字を蓄積せずに直接エンコードします。
+            final CharBuffer input = CharBuffer.wrap(argChars, argOffset,
+                    argLength);
+            encode(input, false);
+            // サロゲートペアの前半など、エンコードしきれなかった文字は次回に持ち越します。
+            fCharBuffer.put(input);
+            return;
+        }
+
+        int offset = argOffset;
+        int length = argLength;
+        while (length > 0) {
+            final int count = Math.min(length, fCharBuffer.remaining());
+            fCharBuffer.put(argChars, offset, count);
+            offset += count;
+            length -= count;
+            if (fCharBuffer.hasRemaining() == false) {
+                encodeCharBuffer(false);
+            }
+        }
+    }
+
+    public void write(final String argString, final int argOffset,
+            final int argLength) throws IOException {
+        ensureOpen();
+        int offset = argOffset;
+        int length = argLength;
+        while (length > 0) {
+            final int count = Math.min(length, fCharBuffer.remaining());
+            fCharBuffer.put(argString, offset, offset + count);
+            offset += count;
+            length -= count;
+            if (fCharBuffer.hasRemaining() == false) {
+                encodeCharBuffer(false);
+            }
+        }
+    }
+
+    public void flush() throws IOException {
+        ensureOpen();
+        encodeCharBuffer(false);
+    }
+
+    /**
+     * エンコードを完了してクローズします。
+     *
+     * バイトバッファは返却しません。エンコード結果を利用し終えた後で release を呼び出してください。
+     *
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public void close() throws IOException {
+        if (fIsClosed) {
+            return;
+        }
+        ensureOpen();
+        encodeCharBuffer(true);
+        for (;;) {
+            final CoderResult result = fEncoder.flush(fByteBuffer);
+            if (result.isOverflow()) {
+                growBuffer();
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            break;
+        }
+        fIsClosed = true;
+    }
+
+    /**
+     * エンコード結果のバイト列を参照するバッファを取得します。
+     *
+     * 戻り値はこのライターのバイトバッファを共有しているため、release の呼び出し後に利用してはなりません。
+     *
+     * @return 位置が先頭、リミットが末尾となるバッファ。
+     */
+    ByteBuffer getByteBuffer() {
+        if (fIsClosed == false || fByteBuffer == null) {
+            throw new IllegalArgumentException(
+                    "エンコードが完了していないか、バイトバッファが返却済みです。");
+        }
+        final ByteBuffer result = fByteBuffer.duplicate();
+        result.flip();
+        return result;
+    }
+
+    /**
+     * エンコード結果のバイト列を複写して取得します。
+     *
+     * @return バイト列。
+     */
+    byte[] toByteArray() {
+        final ByteBuffer buffer = getByteBuffer();
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    /**
+     * エンコード結果のバイト数を取得します。
+     *
+     * @return バイト数。
+     */
+    int size() {
+        return (fByteBuffer == null ? 0 : fByteBuffer.position());
+    }
+
+    /**
+     * バイトバッファをプールへ返却し、次回の変換で再利用できるようにします。
+     */
+    void release() {
+        if (fByteBuffer == null) {
+            return;
+        }
+        BlancoCgByteBufferPool.release(fByteBuffer);
+        fByteBuffer = null;
+        fIsClosed = true;
+    }
+
+    /**
+     * 蓄積した文字をエンコードします。
+     *
+     * @param argIsEndOfInput
+     *            これ以上 文字が追加されないかどうか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void encodeCharBuffer(final boolean argIsEndOfInput)
+            throws IOException {
+        fCharBuffer.flip();
+        encode(fCharBuffer, argIsEndOfInput);
+        fCharBuffer.compact();
+    }
+
+    /**
+     * 文字をエンコードしてバイトバッファに追加します。バイトバッファが不足する場合には拡張します。
+     *
+     * @param argInput
+     *            エンコードする文字。
+     * @param argIsEndOfInput
+     *            これ以上 文字が追加されないかどうか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void encode(final CharBuffer argInput,
+            final boolean argIsEndOfInput) throws IOException {
+        for (;;) {
+            final CoderResult result = fEncoder.encode(argInput, fByteBuffer,
+                    argIsEndOfInput);
+            if (result.isOverflow()) {
+                growBuffer();
+                continue;
+            }
+            if (result.isError()) {
+                // 置換を指定しているため、通常は到達しません。
+                result.throwException();
+            }
+            break;
+        }
+    }
+
+    /**
+     * バイトバッファの容量を倍に拡張します。
+     */
+    private void growBuffer() {
+        final ByteBuffer newBuffer = ByteBuffer.allocateDirect(fByteBuffer
+                .capacity() * 2);
+        fByteBuffer.flip();
+        newBuffer.put(fByteBuffer);
+        BlancoCgByteBufferPool.release(fByteBuffer);
+        fByteBuffer = newBuffer;
+    }
+
+    /**
+     * クローズ済みでないことを確認します。
+     *
+     * @throws IOException
+     *             クローズ済みの場合。
+     */
+    private void ensureOpen() throws IOException {
+        if (fIsClosed) {
+            throw new IOException("クローズ済みのライターに出力しようとしました。");
+        }
+    }
+
+    /**
+     * スレッドごとに保持しているエンコーダーを取得します。
+     *
+     * OutputStreamWriter と同じく、エンコードできない文字は置換文字に置き換えます。
+     *
+     * @param argEncoding
+     *            エンコーディング。null または空文字の場合にはプラットフォームのデフォルトを利用します。
+     * @return 初期化済みのエンコーダー。
+     * @throws UnsupportedEncodingException
+     *             エンコーディングがサポートされていない場合。
+     */
+    private static CharsetEncoder getEncoder(final String argEncoding)
+            throws UnsupportedEncodingException {
+        final String key = (argEncoding == null ? "" : argEncoding);
+        final Map<String, CharsetEncoder> encoderMap = POOLED_ENCODER.get();
+        CharsetEncoder encoder = encoderMap.get(key);
+        if (encoder == null) {
+            final Charset charset;
+            if (key.length() == 0) {
+                charset = Charset.defaultCharset();
+            } else {
+                try {
+                    charset = Charset.forName(key);
+                } catch (IllegalCharsetNameException ex) {
+                    throw new UnsupportedEncodingException(key);
+                } catch (UnsupportedCharsetException ex) {
+                    throw new UnsupportedEncodingException(key);
+                }
+            }
+            encoder = charset.newEncoder().onMalformedInput(
+                    CodingErrorAction.REPLACE).onUnmappableCharacter(
+                    CodingErrorAction.REPLACE);
+            encoderMap.put(key, encoder);
+        }
+        encoder.reset();
+        return encoder;
+    }
+}
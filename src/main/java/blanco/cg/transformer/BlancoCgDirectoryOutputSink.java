@@ -0,0 +1,368 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import blanco.cg.util.BlancoCgFingerprintUtil;
+
+/**
+ * 出力先ルートディレクトリの下に、パッケージ構造をディレクトリ構造としてソースファイルを出力する出力先です。
+ * 
+ * 既存のファイルと内容が同一の場合には、ファイルを更新しません。<br>
+ * マニフェストを与えた場合には、変化のないソースファイルの展開を省略し、出力済みのファイルを読み込まずに変化を判定します。<br>
+ * 既存のファイルとの比較と出力にはファイルチャネルを利用し、エンコード結果のバイトバッファをバイト配列に複写することなく扱います。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgDirectoryOutputSink implements
+        BlancoCgByteBufferOutputSink {
+    /**
+     * 既存のファイルとの比較の際に、ファイルをメモリにマップする最小のファイルサイズ。
+     */
+    private static final long MAPPED_COMPARE_THRESHOLD = 1024 * 1024;
+
+    /**
+     * 既存のファイルを読み込んで比較する際の読み込みバッファの容量。
+     */
+    private static final int READ_BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * 出力先ルートディレクトリ。
+     */
+    private final File fOutputDirectory;
+
+    /**
+     * 出力先ルートディレクトリのマニフェスト。マニフェストを利用しない場合には null。
+     */
+    private final BlancoCgTransformManifest fManifest;
+
+    /**
+     * 出力先を作成します。
+     * 
+     * 出力先ルートディレクトリが存在しない場合には作成します。
+     * 
+     * @param argOutputDirectory
+     *            出力先ルートディレクトリ。
+     */
+    public BlancoCgDirectoryOutputSink(final File argOutputDirectory) {
+        this(argOutputDirectory, null);
+    }
+
+    /**
+     * マニフェストを利用する出力先を作成します。
+     * 
+     * マニフェストの保存は呼び出し元でおこなってください。
+     * 
+     * @param argOutputDirectory
+     *            出力先ルートディレクトリ。
+     * @param argManifest
+     *            出力先ルートディレクトリのマニフェスト。マニフェストを利用しない場合には null。
+     */
+    public BlancoCgDirectoryOutputSink(final File argOutputDirectory,
+            final BlancoCgTransformManifest argManifest) {
+        if (argOutputDirectory == null) {
+            throw new IllegalArgumentException(
+                    "出力先ルートディレクトリにnullが与えられました。処理中断します。");
+        }
+        if (argOutputDirectory.exists() == false) {
+            // 別スレッドが先に作成した場合にも mkdirs は失敗を戻すため、ディレクトリの存在を確認しなおします。
+            if (argOutputDirectory.mkdirs() == false
+                    && argOutputDirectory.isDirectory() == false) {
+                throw new IllegalArgumentException("出力先ルートディレクトリ["
+                        + argOutputDirectory.getAbsolutePath()
+                        + "]が存在しなかったので作成しようとしましたがディレクトリ作成に失敗しました。処理中断します。");
+            }
+        }
+        if (argOutputDirectory.isDirectory() == false) {
+            throw new IllegalArgumentException("出力先ルートディレクトリにディレクトリではないファイル["
+                    + argOutputDirectory.getAbsolutePath() + "]が与えられました。処理中断します。");
+        }
+
+        fOutputDirectory = argOutputDirectory;
+        fManifest = argManifest;
+    }
+
+    public boolean isFingerprintRequired() {
+        return fManifest != null;
+    }
+
+    public boolean isUpToDate(final String argPath, final String argFingerprint) {
+        if (fManifest == null) {
+            return false;
+        }
+        return fManifest.isUpToDate(getFile(argPath), argFingerprint);
+    }
+
+    public int write(final String argPath, final byte[] argBytes,
+            final String argFingerprint) throws IOException {
+        if (argBytes == null) {
+            throw new IllegalArgumentException("バイト列にnullが与えられました。処理中断します。");
+        }
+        return write(argPath, ByteBuffer.wrap(argBytes), argFingerprint);
+    }
+
+    /**
+     * ソースコードのバイトバッファを出力します。
+     * 
+     * トランスフォーマーはプールのバイトバッファをそのまま渡すため、サブクラスでバッファを保持することのないよう final としています。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。位置からリミットまでが出力対象です。メソッドから戻った後は参照しません。
+     * @param argFingerprint
+     *            生成元バリューオブジェクトの指紋。指紋を必要としない出力先には null が与えられます。
+     * @return 出力状況。BlancoCgTransformResultの STATUS_ で始まる定数のいずれか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public final int write(final String argPath, final ByteBuffer argBuffer,
+            final String argFingerprint) throws IOException {
+        if (argBuffer == null) {
+            throw new IllegalArgumentException(
+                    "バイトバッファにnullが与えられました。処理中断します。");
+        }
+        final File fileTarget = getFile(argPath);
+
+        final File targetPackageDirectory = fileTarget.getParentFile();
+        if (targetPackageDirectory.exists() == false) {
+            // 別スレッドが先に作成した場合にも mkdirs は失敗を戻すため、ディレクトリの存在を確認しなおします。
+            if (targetPackageDirectory.mkdirs() == false
+                    && targetPackageDirectory.isDirectory() == false) {
+                throw new IllegalArgumentException("出力先のパッケージディレクトリ["
+                        + targetPackageDirectory.getAbsolutePath()
+                        + "]の生成に失敗しました。");
+            }
+        }
+
+        if (fManifest == null) {
+            return buffer2FileIfNecessary(argBuffer, fileTarget);
+        }
+
+        final String contentDigest = BlancoCgFingerprintUtil
+                .createDigest(argBuffer);
+        final int status = buffer2FileIfNecessary(argBuffer, fileTarget,
+                contentDigest);
+        fManifest.put(fileTarget, argFingerprint, contentDigest);
+        return status;
+    }
+
+    public File getFile(final String argPath) {
+        return new File(fOutputDirectory.getAbsolutePath() + "/" + argPath);
+    }
+
+    /**
+     * 必要な場合にのみ、ソースコードのバイトバッファをファイルに出力します。
+     * 
+     * マニフェストに出力済みのファイルの内容のダイジェストが記録されていれば、ファイルを読み込まずにダイジェストで比較します。<br>
+     * 記録がない場合や、ジェネレータの外でファイルが変更された場合には、ファイルの内容を読み込んで比較します。
+     * 
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。
+     * @param argFile
+     *            出力先のファイル。
+     * @param argContentDigest
+     *            ソースコードのバイトバッファのダイジェスト。
+     * @return 出力の状況。BlancoCgTransformResultの STATUS_ で始まる定数のいずれか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private int buffer2FileIfNecessary(final ByteBuffer argBuffer,
+            final File argFile, final String argContentDigest)
+            throws IOException {
+        final String contentDigestPast = fManifest.getContentDigest(argFile);
+        if (contentDigestPast != null) {
+            // 前回の出力から変更されていないファイルなので、記録のダイジェストと比較します。
+            if (contentDigestPast.equals(argContentDigest)) {
+                return BlancoCgTransformResult.STATUS_SKIP;
+            }
+            buffer2File(argBuffer, argFile,
+                    argFile.length() != argBuffer.remaining());
+            return BlancoCgTransformResult.STATUS_UPDATE;
+        }
+
+        // 比較に利用できる記録がないため、出力済みのファイルの内容と比較します。
+        return buffer2FileIfNecessary(argBuffer, argFile);
+    }
+
+    /**
+     * 出力済みのファイルと内容が異なる場合にのみ、ソースコードのバイトバッファをファイルに出力します。
+     * 
+     * ファイルサイズが異なれば内容を読み込まずに出力します。<br>
+     * ファイルサイズが同じ場合にはファイルチャネルを介して内容を比較し、大きなファイルはメモリにマップして比較します。
+     * 
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。
+     * @param argFile
+     *            出力先のファイル。
+     * @return 出力の状況。BlancoCgTransformResultの STATUS_ で始まる定数のいずれか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private static int buffer2FileIfNecessary(final ByteBuffer argBuffer,
+            final File argFile) throws IOException {
+        if (argFile.exists() == false) {
+            buffer2File(argBuffer, argFile, true);
+            return BlancoCgTransformResult.STATUS_CREATE;
+        }
+
+        final long length = argFile.length();
+        if (length != argBuffer.remaining()) {
+            buffer2File(argBuffer, argFile, true);
+            return BlancoCgTransformResult.STATUS_UPDATE;
+        }
+
+        final RandomAccessFile fileCompare = new RandomAccessFile(argFile, "r");
+        boolean isSame = false;
+        try {
+            isSame = isSameContent(argBuffer, fileCompare.getChannel(), length);
+        } finally {
+            fileCompare.close();
+        }
+        if (isSame) {
+            return BlancoCgTransformResult.STATUS_SKIP;
+        }
+
+        // ファイルサイズは同じなので、切り詰めずに先頭から上書きします。
+        // マップ済みの領域が解放される前でも、切り詰めを伴わない上書きは失敗しません。
+        buffer2File(argBuffer, argFile, false);
+        return BlancoCgTransformResult.STATUS_UPDATE;
+    }
+
+    /**
+     * ファイルチャネルの内容がバイトバッファと同一かどうかを判定します。
+     * 
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。
+     * @param argChannel
+     *            出力済みのファイルのチャネル。
+     * @param argLength
+     *            出力済みのファイルのサイズ。バイトバッファの残りと同じであること。
+     * @return 同一であれば true。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private static boolean isSameContent(final ByteBuffer argBuffer,
+            final FileChannel argChannel, final long argLength)
+            throws IOException {
+        if (argLength >= MAPPED_COMPARE_THRESHOLD) {
+            // 大きなファイルは、読み込みバッファへ複写せずにマップした領域と比較します。
+            final ByteBuffer mapped = argChannel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, argLength);
+            try {
+                return mapped.equals(argBuffer.duplicate());
+            } finally {
+                // マップした領域は、ガベージコレクションを待たずに解放します。
+                BlancoCgByteBufferPool.free(mapped);
+            }
+        }
+
+        final ByteBuffer readBuffer = BlancoCgByteBufferPool
+                .acquire(READ_BUFFER_CAPACITY);
+        try {
+            return isSameContent(argBuffer, argChannel, readBuffer);
+        } finally {
+            BlancoCgByteBufferPool.release(readBuffer);
+        }
+    }
+
+    /**
+     * ファイルチャネルの内容を読み込みバッファへ順に読み込み、バイトバッファと同一かどうかを判定します。
+     * 
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。
+     * @param argChannel
+     *            出力済みのファイルのチャネル。
+     * @param argReadBuffer
+     *            読み込みバッファ。
+     * @return 同一であれば true。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private static boolean isSameContent(final ByteBuffer argBuffer,
+            final FileChannel argChannel, final ByteBuffer argReadBuffer)
+            throws IOException {
+        final ByteBuffer expected = argBuffer.duplicate();
+        long position = 0;
+        while (expected.hasRemaining()) {
+            argReadBuffer.clear();
+            argReadBuffer.limit(Math.min(argReadBuffer.capacity(), expected
+                    .remaining()));
+            while (argReadBuffer.hasRemaining()) {
+                final int count = argChannel.read(argReadBuffer, position);
+                if (count < 0) {
+                    // ファイルが途中で切り詰められました。
+                    return false;
+                }
+                position += count;
+            }
+            argReadBuffer.flip();
+
+            final ByteBuffer expectedPart = expected.duplicate();
+            expectedPart.limit(expectedPart.position()
+                    + argReadBuffer.remaining());
+            if (expectedPart.equals(argReadBuffer) == false) {
+                return false;
+            }
+            expected.position(expectedPart.limit());
+        }
+        return true;
+    }
+
+    /**
+     * ソースコードのバイトバッファをファイルチャネルへ直接出力します。
+     * 
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。位置は変更しません。
+     * @param argFile
+     *            出力先のファイル。
+     * @param argIsTruncate
+     *            既存のファイルを切り詰めてから出力するかどうか。false の場合には先頭から上書きします。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private static void buffer2File(final ByteBuffer argBuffer,
+            final File argFile, final boolean argIsTruncate)
+            throws IOException {
+        final FileChannel channel = (argIsTruncate ? new FileOutputStream(
+                argFile).getChannel() : new RandomAccessFile(argFile, "rw")
+                .getChannel());
+        try {
+            final ByteBuffer buffer = argBuffer.duplicate();
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import blanco.cg.util.BlancoCgModelWalker;
+import blanco.cg.util.BlancoCgVisitor;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgException;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgReturn;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.cg.valueobject.BlancoCgType;
+
+/**
+ * ソースファイルを 1 回巡回して収集した、import対象の候補となる型の一覧です。
+ * 
+ * 親クラス・親インタフェース・フィールド・メソッドのパラメータ・戻り値・例外の型と、本体を展開するメソッドを、
+ * 種類ごとに宣言順で保持します。どの候補を import対象とするかは、プログラミング言語ごとの BlancoCgImportResolver が決定します。<br>
+ * 複数のプログラミング言語へ変換する場合には、1 回だけ収集して各言語の変換で共有します。
+ * 収集後は変更しないため、複数のスレッドから同時に参照できます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgImportCandidates {
+    /**
+     * クラスの親クラス・親インタフェースの型名の一覧。
+     */
+    private final List<java.lang.String> fClassTypeList = new ArrayList<java.lang.String>();
+
+    /**
+     * フィールドの型名の一覧。
+     */
+    private final List<java.lang.String> fFieldTypeList = new ArrayList<java.lang.String>();
+
+    /**
+     * メソッドのパラメータ・戻り値・例外の型名の一覧。
+     */
+    private final List<java.lang.String> fMethodTypeList = new ArrayList<java.lang.String>();
+
+    /**
+     * 本体を展開するメソッドの一覧。抽象メソッドとインタフェースのメソッドは含みません。
+     */
+    private final List<BlancoCgMethod> fBodyMethodList = new ArrayList<BlancoCgMethod>();
+
+    /**
+     * 候補の一覧を作成します。収集は collect でおこないます。
+     */
+    private BlancoCgImportCandidates() {
+    }
+
+    /**
+     * ソースファイルを巡回して、import対象の候補となる型を収集します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return 収集した候補の一覧。
+     */
+    public static BlancoCgImportCandidates collect(
+            final BlancoCgSourceFile argSourceFile) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイルにnullが与えられました。処理中断します。");
+        }
+        final BlancoCgImportCandidates candidates = new BlancoCgImportCandidates();
+        BlancoCgModelWalker.walk(argSourceFile, candidates.new CandidateVisitor());
+        return candidates;
+    }
+
+    /**
+     * クラスの親クラス・親インタフェースの型名の一覧を取得します。
+     * 
+     * @return 変更できない一覧。
+     */
+    public List<java.lang.String> getClassTypeList() {
+        return Collections.unmodifiableList(fClassTypeList);
+    }
+
+    /**
+     * フィールドの型名の一覧を取得します。
+     * 
+     * @return 変更できない一覧。
+     */
+    public List<java.lang.String> getFieldTypeList() {
+        return Collections.unmodifiableList(fFieldTypeList);
+    }
+
+    /**
+     * メソッドのパラメータ・戻り値・例外の型名の一覧を取得します。
+     * 
+     * @return 変更できない一覧。
+     */
+    public List<java.lang.String> getMethodTypeList() {
+        return Collections.unmodifiableList(fMethodTypeList);
+    }
+
+    /**
+     * 本体を展開するメソッドの一覧を取得します。
+     * 
+     * @return 変更できない一覧。
+     */
+    public List<BlancoCgMethod> getBodyMethodList() {
+        return Collections.unmodifiableList(fBodyMethodList);
+    }
+
+    /**
+     * 巡回の間だけ利用するビジターです。
+     */
+    private class CandidateVisitor implements BlancoCgVisitor {
+        /**
+         * インタフェースの中を巡回しているかどうか。
+         */
+        private boolean fIsInterface = false;
+
+        public void visitClass(final BlancoCgClass argClass) {
+            fIsInterface = false;
+            for (BlancoCgType type : argClass.getExtendClassList()) {
+                fClassTypeList.add(type.getName());
+            }
+            for (BlancoCgType type : argClass.getImplementInterfaceList()) {
+                fClassTypeList.add(type.getName());
+            }
+        }
+
+        public void visitInterface(final BlancoCgInterface argInterface) {
+            // インタフェースの親クラスは候補としません。
+            fIsInterface = true;
+        }
+
+        public void visitEnum(final BlancoCgEnum argEnum) {
+            // 列挙体には候補となる型はありません。
+        }
+
+        public void visitField(final BlancoCgField argField) {
+            fFieldTypeList.add(argField.getType().getName());
+        }
+
+        public void visitMethod(final BlancoCgMethod argMethod) {
+            if (argMethod.getAbstract() == false && fIsInterface == false) {
+                fBodyMethodList.add(argMethod);
+            }
+        }
+
+        public void visitParameter(final BlancoCgParameter argParameter) {
+            fMethodTypeList.add(argParameter.getType().getName());
+        }
+
+        public void visitReturn(final BlancoCgReturn argReturn) {
+            fMethodTypeList.add(argReturn.getType().getName());
+        }
+
+        public void visitException(final BlancoCgException argException) {
+            fMethodTypeList.add(argException.getType().getName());
+        }
+    }
+}
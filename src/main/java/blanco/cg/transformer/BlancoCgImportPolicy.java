@@ -0,0 +1,196 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import blanco.cg.util.BlancoCgTypeNameTable;
+
+/**
+ * import一覧を確定する際の、プログラミング言語ごとの規則です。
+ *
+ * BlancoCgImportSet は、この規則に従って import対象を正規化・除外・グループ分けします。<br>
+ * 規則はプログラミング言語ごとに 1 つ作成し、import展開のエキスパンダーの間で共有します。状態を持たないため、複数のスレッドから同時に利用できます。
+ *
+ * @author IGA Tosiki
+ */
+public abstract class BlancoCgImportPolicy {
+    /**
+     * 優先して展開するパッケージの一覧。この順にグループ分けし、いずれにも該当しないものを最後のグループとします。
+     */
+    private final String[] fPreferredPackages;
+
+    /**
+     * 暗黙のうちに importされるパッケージの一覧。
+     */
+    private final String[] fImplicitPackages;
+
+    /**
+     * import対象が名前空間そのものであるかどうか。
+     */
+    private final boolean fIsNamespace;
+
+    /**
+     * 規則を作成します。
+     *
+     * @param argPreferredPackages
+     *            優先して展開するパッケージの一覧。java. のように前方一致で判定します。
+     * @param argImplicitPackages
+     *            暗黙のうちに importされるパッケージの一覧。java.lang など。
+     * @param argIsNamespace
+     *            import対象が名前空間そのものであるかどうか。C#.NETなどのように名前空間単位で指定する場合には
+     *            true、Java言語のようにクラス単位で指定する場合には false。
+     */
+    protected BlancoCgImportPolicy(final String[] argPreferredPackages,
+            final String[] argImplicitPackages, final boolean argIsNamespace) {
+        if (argPreferredPackages == null) {
+            throw new IllegalArgumentException(
+                    "優先パッケージの一覧にnullが与えられました。処理中断します。");
+        }
+        if (argImplicitPackages == null) {
+            throw new IllegalArgumentException(
+                    "暗黙のパッケージの一覧にnullが与えられました。処理中断します。");
+        }
+        fPreferredPackages = argPreferredPackages.clone();
+        fImplicitPackages = argImplicitPackages.clone();
+        fIsNamespace = argIsNamespace;
+    }
+
+    /**
+     * import対象を正規化します。
+     *
+     * クラス名終端に付与されている配列表現を除去します。名前空間単位で指定する場合には、さらにクラス名を除去します。
+     *
+     * @param argImport
+     *            import対象。
+     * @return 正規化後の import対象。
+     */
+    protected String normalize(final String argImport) {
+        String strImport = argImport;
+        while (strImport.endsWith("[]")) {
+            // 配列表現で終了している限り繰り返します。
+            strImport = strImport.substring(0, strImport.length() - 2);
+        }
+
+        if (fIsNamespace) {
+            // 名前空間単位で指定するため、クラス名を除去します。
+            final int findLastDot = strImport.lastIndexOf('.');
+            if (findLastDot > 0) {
+                strImport = strImport.substring(0, findLastDot);
+            }
+        }
+        return strImport;
+    }
+
+    /**
+     * import対象がプリミティブ型などの言語の予約語であるかどうかを判定します。
+     *
+     * 予約語は importの対象から除外します。
+     *
+     * @param argImport
+     *            正規化後の import対象。
+     * @return 予約語である場合には true。
+     */
+    protected abstract boolean isReservedKeyword(final String argImport);
+
+    /**
+     * 自分自身が所属するパッケージに対する importを抑制するかどうか。
+     *
+     * @return 抑制する場合には true。
+     */
+    protected boolean isSelfPackageSuppressed() {
+        return true;
+    }
+
+    /**
+     * 正規化後の import対象から、パッケージの比較に用いるキーを取得します。
+     *
+     * @param argImport
+     *            正規化後の import対象。
+     * @return パッケージのキー。パッケージ構造を持たない場合には null。
+     */
+    String getPackageKey(final String argImport) {
+        if (fIsNamespace) {
+            // 名前空間が格納されています。名前空間同士を直接比較します。
+            return argImport;
+        }
+
+        if (argImport.indexOf('.') < 0) {
+            // パッケージ構造を持たないため、比較の対象とはしません。
+            return null;
+        }
+        // import処理においては、blancoCgのTypeに関する共通処理を利用することはできません。
+        final String strImportWithoutPackage = BlancoCgTypeNameTable
+                .trimJavaPackage(argImport);
+        return argImport.substring(0, argImport.length()
+                - strImportWithoutPackage.length());
+    }
+
+    /**
+     * パッケージ名から、パッケージの比較に用いるキーを取得します。
+     *
+     * @param argPackage
+     *            パッケージ名。
+     * @return パッケージのキー。
+     */
+    String toPackageKey(final String argPackage) {
+        if (fIsNamespace) {
+            return argPackage;
+        }
+        return argPackage + ".";
+    }
+
+    /**
+     * 暗黙のうちに importされるパッケージの一覧を取得します。
+     *
+     * @return 暗黙のパッケージの一覧。
+     */
+    String[] getImplicitPackages() {
+        return fImplicitPackages;
+    }
+
+    /**
+     * グループの数を取得します。優先パッケージの数に、いずれにも該当しないもののグループを加えた数です。
+     *
+     * @return グループの数。
+     */
+    int getGroupCount() {
+        return fPreferredPackages.length + 1;
+    }
+
+    /**
+     * import対象が所属するグループを取得します。
+     *
+     * @param argImport
+     *            import対象。
+     * @return 最初に前方一致した優先パッケージの番号。いずれにも該当しない場合には優先パッケージの数。
+     */
+    int getGroupIndex(final String argImport) {
+        for (int index = 0; index < fPreferredPackages.length; index++) {
+            if (argImport.startsWith(fPreferredPackages[index])) {
+                return index;
+            }
+        }
+        return fPreferredPackages.length;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 本体部の展開に先立って、ソースファイルが必要とする import対象の型を収集します。
+ * 
+ * BlancoCgImportCandidates が収集した親クラス・親インタフェース・フィールド・メソッドのパラメータ・戻り値・例外の型のうち、
+ * プログラミング言語ごとに必要なものをソースファイルの import一覧に追加します。<br>
+ * import一覧へ追加するのはこのクラスだけです。各エキスパンダーは本体部の展開の過程で import一覧を変更しません。
+ * これにより、import部を確定した後で、本体部を保持することなく続けて出力することができます。<br>
+ * プログラミング言語ごとの違いは、コンストラクタの指定とメソッド本体に関するメソッドのオーバーライドで表現します。
+ * 状態を持たないため、複数のスレッドから同時に利用できます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgImportResolver {
+    /**
+     * クラスの親クラス・親インタフェースを import対象とするかどうか。
+     */
+    private final boolean fIsClassTypeResolved;
+
+    /**
+     * フィールドの型を import対象とするかどうか。
+     */
+    private final boolean fIsFieldTypeResolved;
+
+    /**
+     * 収集の規則を作成します。
+     * 
+     * メソッドのパラメータ・戻り値・例外の型は、常に import対象とします。
+     * 
+     * @param argIsClassTypeResolved
+     *            クラスの親クラス・親インタフェースを import対象とするかどうか。
+     * @param argIsFieldTypeResolved
+     *            フィールドの型を import対象とするかどうか。
+     */
+    public BlancoCgImportResolver(final boolean argIsClassTypeResolved,
+            final boolean argIsFieldTypeResolved) {
+        fIsClassTypeResolved = argIsClassTypeResolved;
+        fIsFieldTypeResolved = argIsFieldTypeResolved;
+    }
+
+    /**
+     * ソースファイルが必要とする import対象の型を、ソースファイルの import一覧に追加します。
+     * 
+     * import一覧に既に含まれる型は追加しません。
+     * 
+     * @param argSourceFile
+     *            ソースファイル。
+     * @param argCandidates
+     *            ソースファイルから収集済みの候補の一覧。
+     */
+    public void resolve(final BlancoCgSourceFile argSourceFile,
+            final BlancoCgImportCandidates argCandidates) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイルにnullが与えられました。処理中断します。");
+        }
+        if (argCandidates == null) {
+            throw new IllegalArgumentException(
+                    "importの候補の一覧にnullが与えられました。処理中断します。");
+        }
+        final List<java.lang.String> importList = argSourceFile.getImportList();
+        if (importList == null) {
+            throw new IllegalArgumentException("importのリストにnullが与えられました。");
+        }
+
+        final List<java.lang.String> resolvedList = new ArrayList<java.lang.String>();
+        if (fIsClassTypeResolved) {
+            resolvedList.addAll(argCandidates.getClassTypeList());
+        }
+        if (fIsFieldTypeResolved) {
+            resolvedList.addAll(argCandidates.getFieldTypeList());
+        }
+        resolvedList.addAll(argCandidates.getMethodTypeList());
+        for (BlancoCgMethod cgMethod : argCandidates.getBodyMethodList()) {
+            resolveMethodBody(cgMethod, resolvedList);
+        }
+
+        // 同じバリューオブジェクトを繰り返し変換しても import一覧が増え続けないよう、未登録のものだけを追加します。
+        final Set<java.lang.String> registeredSet = new HashSet<java.lang.String>(
+                importList);
+        for (String strImport : resolvedList) {
+            if (registeredSet.add(strImport)) {
+                importList.add(strImport);
+            }
+        }
+    }
+
+    /**
+     * メソッド本体の展開で必要となる型を import一覧に追加します。
+     * 
+     * 抽象メソッドとインタフェースのメソッドでは本体を展開しないため、呼び出されません。<br>
+     * パラメータの非null制約のチェックで例外クラスを利用する言語などは、このメソッドをオーバーライドします。
+     * 
+     * @param argMethod
+     *            本体を展開するメソッド。
+     * @param argImportList
+     *            型を追加する import一覧。
+     */
+    protected void resolveMethodBody(final BlancoCgMethod argMethod,
+            final List<java.lang.String> argImportList) {
+        // デフォルトでは、メソッド本体で必要となる型はありません。
+    }
+}
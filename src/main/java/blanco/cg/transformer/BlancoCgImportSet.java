@@ -0,0 +1,211 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * import対象を、ソート済みかつ重複のない集合として保持します。
+ *
+ * 追加された import対象は、プログラミング言語ごとの規則に従ってその場で正規化し、
+ * 予約語・暗黙のパッケージ・自分自身が所属するパッケージに該当するものを除外します。<br>
+ * パッケージの判定は import対象 1 件につき 1 回だけおこない、ソートと重複の除去は木構造の集合でおこないます。
+ * import対象を一覧から 1 件ずつ除去することはないため、件数が多い場合にも処理時間は件数に比例した程度に収まります。<br>
+ * 集合はソースファイル 1 つごとに作成し、スレッド間で共有しないでください。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgImportSet {
+    /**
+     * プログラミング言語ごとの規則。
+     */
+    private final BlancoCgImportPolicy fPolicy;
+
+    /**
+     * 除外する、自分自身が所属するパッケージのキー。抑制しない場合には null。
+     */
+    private final String fSelfPackageKey;
+
+    /**
+     * 除外する、暗黙のパッケージのキーの一覧。
+     */
+    private final String[] fImplicitPackageKeys;
+
+    /**
+     * ソート済みの import対象の集合。
+     */
+    private final TreeSet<java.lang.String> fImportSet = new TreeSet<java.lang.String>();
+
+    /**
+     * import対象の集合を作成します。
+     *
+     * @param argPolicy
+     *            プログラミング言語ごとの規則。
+     * @param argSelfPackage
+     *            自分自身が所属するパッケージ。
+     */
+    public BlancoCgImportSet(final BlancoCgImportPolicy argPolicy,
+            final String argSelfPackage) {
+        if (argPolicy == null) {
+            throw new IllegalArgumentException("importの規則にnullが与えられました。処理中断します。");
+        }
+        fPolicy = argPolicy;
+        fSelfPackageKey = (argPolicy.isSelfPackageSuppressed() ? argPolicy
+                .toPackageKey(argSelfPackage) : null);
+
+        final String[] implicitPackages = argPolicy.getImplicitPackages();
+        fImplicitPackageKeys = new String[implicitPackages.length];
+        for (int index = 0; index < implicitPackages.length; index++) {
+            fImplicitPackageKeys[index] = argPolicy
+                    .toPackageKey(implicitPackages[index]);
+        }
+    }
+
+    /**
+     * ソースファイルの import一覧から集合を作成します。
+     *
+     * ソースファイルの import一覧は呼び出し元が所有するものであるため、変更しません。確定後の一覧は、戻り値の集合から取得してください。
+     *
+     * @param argPolicy
+     *            プログラミング言語ごとの規則。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return 作成した import対象の集合。
+     */
+    public static BlancoCgImportSet resolve(
+            final BlancoCgImportPolicy argPolicy,
+            final BlancoCgSourceFile argSourceFile) {
+        final BlancoCgImportSet importSet = new BlancoCgImportSet(argPolicy,
+                argSourceFile.getPackage());
+        importSet.addAll(argSourceFile.getImportList());
+        return importSet;
+    }
+
+    /**
+     * import対象を追加します。
+     *
+     * 正規化した結果が除外の対象となる場合や、既に追加済みの場合には何もしません。
+     *
+     * @param argImport
+     *            import対象。
+     */
+    public void add(final String argImport) {
+        if (argImport == null) {
+            throw new IllegalArgumentException("import対象にnullが与えられました。処理中断します。");
+        }
+
+        final String strImport = fPolicy.normalize(argImport);
+        if (fPolicy.isReservedKeyword(strImport)) {
+            // プリミティブ型などは importの必要がありません。
+            return;
+        }
+
+        final String packageKey = fPolicy.getPackageKey(strImport);
+        if (packageKey != null) {
+            for (int index = 0; index < fImplicitPackageKeys.length; index++) {
+                if (packageKey.equals(fImplicitPackageKeys[index])) {
+                    // java.langなど、暗黙のうちに importされるパッケージです。
+                    return;
+                }
+            }
+            if (packageKey.equals(fSelfPackageKey)) {
+                // 自クラスが所属するパッケージです。
+                return;
+            }
+        }
+
+        fImportSet.add(strImport);
+    }
+
+    /**
+     * import対象の一覧をまとめて追加します。
+     *
+     * @param argImportList
+     *            import対象の一覧。
+     */
+    public void addAll(final Collection<java.lang.String> argImportList) {
+        for (String strImport : argImportList) {
+            add(strImport);
+        }
+    }
+
+    /**
+     * 保持している import対象の数を取得します。
+     *
+     * @return import対象の数。
+     */
+    public int size() {
+        return fImportSet.size();
+    }
+
+    /**
+     * 保持している import対象を、ソート済みの一覧として取得します。
+     *
+     * @return import対象の一覧。
+     */
+    public List<java.lang.String> toList() {
+        return new ArrayList<java.lang.String>(fImportSet);
+    }
+
+    /**
+     * 保持している import対象を、優先パッケージの順にグループ分けして取得します。
+     *
+     * @return グループごとの import対象の一覧。該当のない場合にも、グループの数だけ一覧を戻します。
+     */
+    public List<List<java.lang.String>> getGroupList() {
+        return createGroupList(fPolicy, fImportSet);
+    }
+
+    /**
+     * 与えられた import対象の一覧を、正規化や除外をおこなわずに、優先パッケージの順にグループ分けします。
+     *
+     * 自動インポートが無効な場合など、与えられた一覧をそのまま展開する際に利用します。各グループの中の順序は与えられた一覧の順序のままです。
+     *
+     * @param argPolicy
+     *            プログラミング言語ごとの規則。
+     * @param argImportList
+     *            import対象の一覧。
+     * @return グループごとの import対象の一覧。該当のない場合にも、グループの数だけ一覧を戻します。
+     */
+    public static List<List<java.lang.String>> createGroupList(
+            final BlancoCgImportPolicy argPolicy,
+            final Collection<java.lang.String> argImportList) {
+        final int groupCount = argPolicy.getGroupCount();
+        final List<List<java.lang.String>> groupList = new ArrayList<List<java.lang.String>>(
+                groupCount);
+        for (int index = 0; index < groupCount; index++) {
+            groupList.add(new ArrayList<java.lang.String>());
+        }
+        for (String strImport : argImportList) {
+            groupList.get(argPolicy.getGroupIndex(strImport)).add(strImport);
+        }
+        return groupList;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ソースコード整形の字下げ判定の規則を保持する表です。
+ *
+ * プログラミング言語ごとのフォーマッタは、キーワードと字下げ判定の組を規則としてこの表に登録します。<br>
+ * 判定の際には、行を先頭から 1 回だけ走査し、各位置の文字から始まるキーワードの規則だけを照合します。<br>
+ * 規則を登録し終えた表は変更されないため、複数のスレッドから同時に利用することができます。
+ *
+ * @author IGA Tosiki
+ */
+final class BlancoCgIndentRuleTable {
+    /**
+     * 照合方法: 行がキーワードで始まる。
+     */
+    static final int STARTS_WITH = 0;
+
+    /**
+     * 照合方法: 行がキーワードと等しい。
+     */
+    static final int EQUALS = 1;
+
+    /**
+     * 照合方法: 行がキーワードを含む。
+     */
+    static final int CONTAINS = 2;
+
+    /**
+     * 照合方法: 行がキーワードを単語として含む。正規表現の \b と同様に、前後が文字・数字またはアンダースコアではない場合に一致します。
+     */
+    static final int CONTAINS_WORD = 3;
+
+    /**
+     * 規則を振り分ける文字の範囲。キーワードの先頭文字は ASCII に限ります。
+     */
+    private static final int CHAR_RANGE = 128;
+
+    /**
+     * 登録された規則の一覧。
+     */
+    private final List<Rule> fRuleList = new ArrayList<Rule>();
+
+    /**
+     * キーワードの先頭文字ごとに振り分けた規則の表。
+     */
+    private final Rule[][] fRuleTable = new Rule[CHAR_RANGE][];
+
+    /**
+     * 排他的な規則を登録します。
+     *
+     * 排他的な規則は、登録した順に優先されます。一致した規則のうち最初に登録されたものだけが採用されます。
+     *
+     * @param argMatchType
+     *            照合方法。STARTS_WITH などの定数で指定します。
+     * @param argKeyword
+     *            キーワード。
+     * @param argIndent
+     *            一致した場合の字下げ判定。
+     * @return この表。
+     */
+    BlancoCgIndentRuleTable add(final int argMatchType,
+            final String argKeyword, final int argIndent) {
+        return addRule(new Rule(argMatchType, argKeyword, argIndent, true,
+                fRuleList.size()));
+    }
+
+    /**
+     * 排他的な規則の結果に加えて、常に判定される規則を登録します。
+     *
+     * @param argMatchType
+     *            照合方法。STARTS_WITH などの定数で指定します。
+     * @param argKeyword
+     *            キーワード。
+     * @param argIndent
+     *            一致した場合に加える字下げ判定。
+     * @return この表。
+     */
+    BlancoCgIndentRuleTable addAlways(final int argMatchType,
+            final String argKeyword, final int argIndent) {
+        return addRule(new Rule(argMatchType, argKeyword, argIndent, false,
+                fRuleList.size()));
+    }
+
+    /**
+     * 字下げの判定を行います。
+     *
+     * @param argLine
+     *            前後の空白を除去済みの、空行ではないソースコード行。
+     * @return 一致した規則の字下げ判定。
+     */
+    int judge(final String argLine) {
+        final int length = argLine.length();
+        int bestOrder = Integer.MAX_VALUE;
+        int bestIndent = 0;
+        int alwaysIndent = 0;
+
+        for (int index = 0; index < length; index++) {
+            final char ch = argLine.charAt(index);
+            if (ch >= CHAR_RANGE) {
+                continue;
+            }
+            final Rule[] rules = fRuleTable[ch];
+            if (rules == null) {
+                continue;
+            }
+            for (int indexRule = 0; indexRule < rules.length; indexRule++) {
+                final Rule rule = rules[indexRule];
+                if (rule.fIsExclusive && rule.fOrder >= bestOrder) {
+                    // より優先される規則に既に一致しています。
+                    continue;
+                }
+                if (rule.matches(argLine, index)) {
+                    if (rule.fIsExclusive) {
+                        bestOrder = rule.fOrder;
+                        bestIndent = rule.fIndent;
+                    } else {
+                        alwaysIndent |= rule.fIndent;
+                    }
+                }
+            }
+        }
+        return bestIndent | alwaysIndent;
+    }
+
+    /**
+     * 規則を登録し、先頭文字ごとの表を更新します。
+     *
+     * @param argRule
+     *            規則。
+     * @return この表。
+     */
+    private BlancoCgIndentRuleTable addRule(final Rule argRule) {
+        final char firstChar = argRule.fKeyword.charAt(0);
+        if (firstChar >= CHAR_RANGE) {
+            throw new IllegalArgumentException(
+                    "字下げ判定のキーワードはASCII文字で始めてください。(" + argRule.fKeyword
+                            + ")");
+        }
+        fRuleList.add(argRule);
+
+        final Rule[] rulesPast = fRuleTable[firstChar];
+        final Rule[] rules = new Rule[rulesPast == null ? 1
+                : rulesPast.length + 1];
+        if (rulesPast != null) {
+            System.arraycopy(rulesPast, 0, rules, 0, rulesPast.length);
+        }
+        rules[rules.length - 1] = argRule;
+        fRuleTable[firstChar] = rules;
+        return this;
+    }
+
+    /**
+     * 字下げ判定の規則 1 件です。
+     */
+    private static final class Rule {
+        /**
+         * 照合方法。
+         */
+        private final int fMatchType;
+
+        /**
+         * キーワード。
+         */
+        private final String fKeyword;
+
+        /**
+         * 一致した場合の字下げ判定。
+         */
+        private final int fIndent;
+
+        /**
+         * 排他的な規則かどうか。
+         */
+        private final boolean fIsExclusive;
+
+        /**
+         * 登録順。
+         */
+        private final int fOrder;
+
+        /**
+         * 規則を作成します。
+         *
+         * @param argMatchType
+         *            照合方法。
+         * @param argKeyword
+         *            キーワード。
+         * @param argIndent
+         *            一致した場合の字下げ判定。
+         * @param argIsExclusive
+         *            排他的な規則かどうか。
+         * @param argOrder
+         *            登録順。
+         */
+        Rule(final int argMatchType, final String argKeyword,
+                final int argIndent, final boolean argIsExclusive,
+                final int argOrder) {
+            if (argKeyword == null || argKeyword.length() == 0) {
+                throw new IllegalArgumentException(
+                        "字下げ判定のキーワードに空の文字列が与えられました。");
+            }
+            fMatchType = argMatchType;
+            fKeyword = argKeyword;
+            fIndent = argIndent;
+            fIsExclusive = argIsExclusive;
+            fOrder = argOrder;
+        }
+
+        /**
+         * 行の指定の位置でこの規則に一致するかどうかを判定します。
+         *
+         * @param argLine
+         *            行。
+         * @param argIndex
+         *            位置。
+         * @return 一致する場合には true。
+         */
+        boolean matches(final String argLine, final int argIndex) {
+            switch (fMatchType) {
+            case STARTS_WITH:
+                return argIndex == 0 && argLine.startsWith(fKeyword);
+            case EQUALS:
+                return argIndex == 0 && argLine.equals(fKeyword);
+            case CONTAINS:
+                return argLine.startsWith(fKeyword, argIndex);
+            case CONTAINS_WORD:
+                if (argLine.startsWith(fKeyword, argIndex) == false) {
+                    return false;
+                }
+                final int end = argIndex + fKeyword.length();
+                return (argIndex == 0 || isWordChar(argLine
+                        .charAt(argIndex - 1)) == false)
+                        && (end == argLine.length() || isWordChar(argLine
+                                .charAt(end)) == false);
+            default:
+                throw new IllegalArgumentException("字下げ判定の照合方法(" + fMatchType
+                        + ")が不正です。");
+            }
+        }
+
+        /**
+         * 単語を構成する文字かどうかを判定します。
+         *
+         * @param argChar
+         *            文字。
+         * @return 文字・数字またはアンダースコアであれば true。
+         */
+        private static boolean isWordChar(final char argChar) {
+            return Character.isLetterOrDigit(argChar) || argChar == '_';
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 生成したソースファイルを、ディスクに出力することなくメモリ上に保持する出力先です。
+ * 
+ * 出力先ルートからの相対パスと、ソースコードのバイト列の対応を保持します。<br>
+ * 同じパスへ同じ内容が出力された場合にはスキップ、異なる内容の場合には更新とします。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgMemoryOutputSink implements BlancoCgOutputSink {
+    /**
+     * 相対パスと、ソースコードのバイト列のマップ。
+     */
+    private final Map<String, byte[]> fContentMap = new TreeMap<String, byte[]>();
+
+    public boolean isFingerprintRequired() {
+        return false;
+    }
+
+    public boolean isUpToDate(final String argPath, final String argFingerprint) {
+        return false;
+    }
+
+    public synchronized int write(final String argPath, final byte[] argBytes,
+            final String argFingerprint) {
+        final byte[] bytesPast = fContentMap.put(argPath, argBytes.clone());
+        if (bytesPast == null) {
+            return BlancoCgTransformResult.STATUS_CREATE;
+        }
+        if (Arrays.equals(bytesPast, argBytes)) {
+            return BlancoCgTransformResult.STATUS_SKIP;
+        }
+        return BlancoCgTransformResult.STATUS_UPDATE;
+    }
+
+    public File getFile(final String argPath) {
+        return null;
+    }
+
+    /**
+     * 出力されたソースコードのバイト列を取得します。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @return ソースコードのバイト列。出力されていない場合には null。
+     */
+    public synchronized byte[] getBytes(final String argPath) {
+        final byte[] bytes = fContentMap.get(argPath);
+        return (bytes == null ? null : bytes.clone());
+    }
+
+    /**
+     * 出力されたソースコードの一覧を取得します。
+     * 
+     * @return 相対パスの順に並んだ、相対パスとソースコードのバイト列のマップ。呼び出し時点の複製を戻します。
+     */
+    public synchronized Map<String, byte[]> getContentMap() {
+        final Map<String, byte[]> result = new TreeMap<String, byte[]>();
+        for (Map.Entry<String, byte[]> entry : fContentMap.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().clone());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 1つのソースファイル・バリューオブジェクトを、複数のプログラミング言語のソースコードへまとめて変換するためのトランスフォーマーです。
+ *
+ * 入力チェック・ソースファイル名の導出・import対象の候補となる型の収集など、プログラミング言語に依存しない前処理は 1 回だけ実施し、各言語の変換で共有します。<br>
+ * 各言語の変換は副作用のないトランスフォーマーでおこなうため、与えられたバリューオブジェクトは変更されません。<br>
+ * スレッド数に 2 以上を指定した場合には、言語ごとの変換を並列に実行します。
+ * ある言語で例外が発生しても処理は中断せず、言語ごとの出力結果として戻します。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgMultiLangTransformer {
+    /**
+     * 出力先のプログラミング言語の一覧。
+     */
+    private final int[] fTargetLangs;
+
+    /**
+     * 出力先のプログラミング言語ごとのトランスフォーマー。
+     */
+    private final AbstractBlancoCgTransformer[] fTransformers;
+
+    /**
+     * 利用するスレッドプール。null の場合には変換の都度 作成します。
+     */
+    private final ExecutorService fExecutor;
+
+    /**
+     * スレッドプールを作成する際のスレッド数。
+     */
+    private final int fThreadCount;
+
+    /**
+     * 呼び出し元のスレッドで言語ごとに順に変換するトランスフォーマーを作成します。
+     *
+     * @param argTargetLangs
+     *            出力先のプログラミング言語の一覧。BlancoCgSupportedLangで指定します。
+     */
+    public BlancoCgMultiLangTransformer(final int[] argTargetLangs) {
+        this(argTargetLangs, 1);
+    }
+
+    /**
+     * 指定のスレッド数で言語ごとに並列に変換するトランスフォーマーを作成します。
+     *
+     * @param argTargetLangs
+     *            出力先のプログラミング言語の一覧。BlancoCgSupportedLangで指定します。
+     * @param argThreadCount
+     *            スレッド数。1 の場合には呼び出し元のスレッドで順に変換します。
+     */
+    public BlancoCgMultiLangTransformer(final int[] argTargetLangs,
+            final int argThreadCount) {
+        if (argThreadCount <= 0) {
+            throw new IllegalArgumentException("スレッド数には1以上の値を指定してください。("
+                    + argThreadCount + ")");
+        }
+        fTargetLangs = copyTargetLangs(argTargetLangs);
+        fTransformers = createTransformers(fTargetLangs);
+        fExecutor = null;
+        fThreadCount = argThreadCount;
+    }
+
+    /**
+     * 呼び出し元が用意したスレッドプールで言語ごとに並列に変換するトランスフォーマーを作成します。
+     *
+     * 与えられたスレッドプールのシャットダウンは呼び出し元の責任でおこなってください。
+     *
+     * @param argTargetLangs
+     *            出力先のプログラミング言語の一覧。BlancoCgSupportedLangで指定します。
+     * @param argExecutor
+     *            スレッドプール。
+     */
+    public BlancoCgMultiLangTransformer(final int[] argTargetLangs,
+            final ExecutorService argExecutor) {
+        if (argExecutor == null) {
+            throw new IllegalArgumentException(
+                    "スレッドプールにnullが与えられました。処理中断します。");
+        }
+        fTargetLangs = copyTargetLangs(argTargetLangs);
+        fTransformers = createTransformers(fTargetLangs);
+        fExecutor = argExecutor;
+        fThreadCount = 0;
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを各プログラミング言語のソースコードに変換して出力先ディレクトリに出力します。
+     *
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param outputDirectory
+     *            出力先ルートディレクトリ。
+     * @return 言語ごとの出力結果。コンストラクタで与えられたプログラミング言語と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final BlancoCgSourceFile argSourceFile, final File outputDirectory) {
+        return executeTransform(argSourceFile,
+                new BlancoCgDirectoryOutputSink(outputDirectory), null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを各プログラミング言語のソースコードに変換して出力先ディレクトリに出力します。
+     * 
+     * 指紋がマニフェストの記録と一致し、出力済みのファイルが変更されていない場合には、ソースコードの展開を省略します。<br>
+     * マニフェストの保存は呼び出し元でおこなってください。
+     *
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param outputDirectory
+     *            出力先ルートディレクトリ。
+     * @param argManifest
+     *            出力先ルートディレクトリのマニフェスト。
+     * @return 言語ごとの出力結果。コンストラクタで与えられたプログラミング言語と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final BlancoCgSourceFile argSourceFile, final File outputDirectory,
+            final BlancoCgTransformManifest argManifest) {
+        if (argManifest == null) {
+            throw new IllegalArgumentException("マニフェストにnullが与えられました。処理中断します。");
+        }
+        return executeTransform(argSourceFile,
+                new BlancoCgDirectoryOutputSink(outputDirectory, argManifest),
+                null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを各プログラミング言語のソースコードに変換して出力先に出力します。
+     *
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @return 言語ごとの出力結果。コンストラクタで与えられたプログラミング言語と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink) {
+        return executeTransform(argSourceFile, argSink, null);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを各プログラミング言語のソースコードに変換して出力先に出力します。
+     *
+     * 変換の段階ごとの所要時間などをリスナーへ通知します。この場合、ファイルごとのコマンドラインへの表示はおこないません。
+     *
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。複数のスレッドから同時に呼び出されることがあります。
+     * @return 言語ごとの出力結果。コンストラクタで与えられたプログラミング言語と同じ順序で戻します。
+     */
+    public List<BlancoCgTransformResult> transform(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener) {
+        if (argListener == null) {
+            throw new IllegalArgumentException("リスナーにnullが与えられました。処理中断します。");
+        }
+        return executeTransform(argSourceFile, argSink, argListener);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを各プログラミング言語のソースコードに変換して出力先に出力します。
+     *
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argSink
+     *            出力先。
+     * @param argListener
+     *            リスナー。コマンドラインへ表示する場合には null。
+     * @return 言語ごとの出力結果。コンストラクタで与えられたプログラミング言語と同じ順序で戻します。
+     */
+    private List<BlancoCgTransformResult> executeTransform(
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgOutputSink argSink,
+            final BlancoCgTransformListener argListener) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
+        }
+        if (argSink == null) {
+            throw new IllegalArgumentException("出力先にnullが与えられました。処理中断します。");
+        }
+
+        // プログラミング言語に依存しない前処理を 1 回だけ実施します。
+        final BlancoCgSourceFile cgSourceFile = prepareSourceFile(argSourceFile);
+
+        // import対象の候補となる型は、ツリーを 1 回だけ巡回して収集し、各言語の import解決で共有します。
+        final BlancoCgImportCandidates importCandidates = BlancoCgImportCandidates
+                .collect(cgSourceFile);
+
+        final List<Callable<BlancoCgTransformResult>> taskList = new ArrayList<Callable<BlancoCgTransformResult>>(
+                fTransformers.length);
+        for (int index = 0; index < fTransformers.length; index++) {
+            taskList.add(new TransformTask(fTransformers[index],
+                    argSourceFile, cgSourceFile, importCandidates, argSink,
+                    argListener));
+        }
+
+        if (fExecutor == null && fThreadCount == 1) {
+            // 呼び出し元のスレッドで順に変換します。
+            final List<BlancoCgTransformResult> resultList = new ArrayList<BlancoCgTransformResult>(
+                    taskList.size());
+            for (Callable<BlancoCgTransformResult> task : taskList) {
+                resultList.add(((TransformTask) task).call());
+            }
+            return resultList;
+        }
+
+        final ExecutorService executor = (fExecutor == null ? Executors
+                .newFixedThreadPool(Math.min(fThreadCount, taskList.size()))
+                : fExecutor);
+        try {
+            final List<BlancoCgTransformResult> resultList = new ArrayList<BlancoCgTransformResult>(
+                    taskList.size());
+            for (Future<BlancoCgTransformResult> future : executor
+                    .invokeAll(taskList)) {
+                resultList.add(future.get());
+            }
+            return resultList;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(
+                    "ソースコードの複数言語への変換の途中で割り込みが発生しました。処理中断します。"
+                            + ex.toString());
+        } catch (ExecutionException ex) {
+            // 実行時例外はタスクの中で出力結果に変換しているため、ここに到達するのはエラーの場合のみです。
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalArgumentException(
+                    "ソースコードの複数言語への変換の過程で例外が発生しました。" + ex.toString());
+        } finally {
+            if (fExecutor == null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 各言語の変換で共有する作業用のソースファイル・バリューオブジェクトを準備します。
+     *
+     * ソースファイル名が未確定の場合には、ここでクラス名またはインタフェース名から 1 回だけ導出します。<br>
+     * 導出できない場合には、どの言語の変換も実施せずに例外とします。
+     *
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @return 作業用のソースファイル・バリューオブジェクト。
+     */
+    private BlancoCgSourceFile prepareSourceFile(
+            final BlancoCgSourceFile argSourceFile) {
+        if (argSourceFile.getClassList() == null
+                || argSourceFile.getInterfaceList() == null
+                || argSourceFile.getEnumList() == null
+                || argSourceFile.getImportList() == null) {
+            throw new IllegalArgumentException("ソースファイル["
+                    + argSourceFile.getName()
+                    + "]のクラス・インタフェース・列挙体・importの一覧にnullが含まれています。処理中断します。");
+        }
+
+        // リストは各言語のトランスフォーマーが必要に応じて複製するため、ここでは共有します。
+        final BlancoCgSourceFile cgSourceFile = new BlancoCgSourceFile();
+        argSourceFile.copyTo(cgSourceFile);
+        cgSourceFile.setImportList(argSourceFile.getImportList());
+        cgSourceFile.setEnumList(argSourceFile.getEnumList());
+        cgSourceFile.setInterfaceList(argSourceFile.getInterfaceList());
+        cgSourceFile.setClassList(argSourceFile.getClassList());
+        cgSourceFile.setLangDoc(argSourceFile.getLangDoc());
+
+        if (cgSourceFile.getName() == null) {
+            // ファイル名の導出規則は言語によらず共通です。
+            fTransformers[0].decideFilenameFromClassOrInterfaceName(cgSourceFile);
+        }
+        return cgSourceFile;
+    }
+
+    /**
+     * 出力先のプログラミング言語の一覧を検査して複製します。
+     *
+     * @param argTargetLangs
+     *            出力先のプログラミング言語の一覧。
+     * @return 複製した一覧。
+     */
+    private static int[] copyTargetLangs(final int[] argTargetLangs) {
+        if (argTargetLangs == null || argTargetLangs.length == 0) {
+            throw new IllegalArgumentException(
+                    "出力先のプログラミング言語を1つ以上指定してください。");
+        }
+        final int[] targetLangs = new int[argTargetLangs.length];
+        for (int index = 0; index < argTargetLangs.length; index++) {
+            for (int indexPast = 0; indexPast < index; indexPast++) {
+                if (targetLangs[indexPast] == argTargetLangs[index]) {
+                    throw new IllegalArgumentException("出力先のプログラミング言語("
+                            + argTargetLangs[index] + ")が重複して指定されました。");
+                }
+            }
+            targetLangs[index] = argTargetLangs[index];
+        }
+        return targetLangs;
+    }
+
+    /**
+     * 出力先のプログラミング言語ごとに、副作用のないトランスフォーマーを取得します。
+     *
+     * @param argTargetLangs
+     *            出力先のプログラミング言語の一覧。
+     * @return トランスフォーマーの一覧。
+     */
+    private static AbstractBlancoCgTransformer[] createTransformers(
+            final int[] argTargetLangs) {
+        final AbstractBlancoCgTransformer[] transformers = new AbstractBlancoCgTransformer[argTargetLangs.length];
+        for (int index = 0; index < argTargetLangs.length; index++) {
+            // 対応しないプログラミング言語の場合には、ここで例外とします。
+            transformers[index] = (AbstractBlancoCgTransformer) BlancoCgTransformerFactory
+                    .getSourceTransformer(argTargetLangs[index], true);
+        }
+        return transformers;
+    }
+
+    /**
+     * 1 言語分の変換をおこなうタスクです。
+     */
+    private static class TransformTask implements
+            Callable<BlancoCgTransformResult> {
+        /**
+         * 利用するトランスフォーマー。
+         */
+        private final AbstractBlancoCgTransformer fTransformer;
+
+        /**
+         * 呼び出し元から与えられたソースファイル・バリューオブジェクト。
+         */
+        private final BlancoCgSourceFile fSourceFile;
+
+        /**
+         * 前処理済みの作業用ソースファイル・バリューオブジェクト。
+         */
+        private final BlancoCgSourceFile fPreparedSourceFile;
+
+        /**
+         * 各言語で共有する import対象の候補の一覧。
+         */
+        private final BlancoCgImportCandidates fImportCandidates;
+
+        /**
+         * 出力先。
+         */
+        private final BlancoCgOutputSink fSink;
+
+        /**
+         * リスナー。コマンドラインへ表示する場合には null。
+         */
+        private final BlancoCgTransformListener fListener;
+
+        /**
+         * タスクを作成します。
+         *
+         * @param argTransformer
+         *            利用するトランスフォーマー。
+         * @param argSourceFile
+         *            呼び出し元から与えられたソースファイル・バリューオブジェクト。
+         * @param argPreparedSourceFile
+         *            前処理済みの作業用ソースファイル・バリューオブジェクト。
+         * @param argImportCandidates
+         *            各言語で共有する import対象の候補の一覧。
+         * @param argSink
+         *            出力先。
+         * @param argListener
+         *            リスナー。コマンドラインへ表示する場合には null。
+         */
+        TransformTask(final AbstractBlancoCgTransformer argTransformer,
+                final BlancoCgSourceFile argSourceFile,
+                final BlancoCgSourceFile argPreparedSourceFile,
+                final BlancoCgImportCandidates argImportCandidates,
+                final BlancoCgOutputSink argSink,
+                final BlancoCgTransformListener argListener) {
+            fTransformer = argTransformer;
+            fSourceFile = argSourceFile;
+            fPreparedSourceFile = argPreparedSourceFile;
+            fImportCandidates = argImportCandidates;
+            fSink = argSink;
+            fListener = argListener;
+        }
+
+        public BlancoCgTransformResult call() {
+            try {
+                final BlancoCgTransformResult result = fTransformer
+                        .transformFile(fPreparedSourceFile, fSink, fListener,
+                                fImportCandidates);
+
+                // 出力結果には、呼び出し元から与えられたバリューオブジェクトを記録します。
+                return new BlancoCgTransformResult(fSourceFile, result
+                        .getPath(), result.getFile(), result.getStatus(), null);
+            } catch (RuntimeException ex) {
+                return new BlancoCgTransformResult(fSourceFile, null,
+                        BlancoCgTransformResult.STATUS_FAILED, ex);
+            }
+        }
+    }
+}
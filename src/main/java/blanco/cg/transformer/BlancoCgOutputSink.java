@@ -0,0 +1,86 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * トランスフォーマーが生成したソースコードの出力先です。
+ * 
+ * 出力先ルートからの相対パスは、トランスフォーマーがパッケージ名・ソースファイル名・拡張子から決定します。<br>
+ * パスの区切り文字にはスラッシュを利用します。<br>
+ * 実装は複数のスレッドから同時に呼び出されることを考慮してください。
+ * 
+ * @author IGA Tosiki
+ */
+public interface BlancoCgOutputSink {
+    /**
+     * ソースコードの展開を省略するかどうかの判定に、バリューオブジェクトの指紋を必要とするかどうか。
+     * 
+     * 指紋の算出には負荷がかかるため、false を戻す出力先に対しては指紋を算出しません。
+     * 
+     * @return 指紋を必要とする場合には true。
+     */
+    boolean isFingerprintRequired();
+
+    /**
+     * 出力済みの内容が、与えられた指紋から生成されたまま変更されていないかどうかを判定します。
+     * 
+     * true を戻した場合、トランスフォーマーはソースコードの展開そのものを省略します。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @param argFingerprint
+     *            生成元バリューオブジェクトの指紋。指紋を必要としない出力先には null が与えられます。
+     * @return 展開が不要であれば true。
+     */
+    boolean isUpToDate(String argPath, String argFingerprint);
+
+    /**
+     * ソースコードのバイト列を出力します。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @param argBytes
+     *            ソースコードのバイト列。
+     * @param argFingerprint
+     *            生成元バリューオブジェクトの指紋。指紋を必要としない出力先には null が与えられます。
+     * @return 出力状況。BlancoCgTransformResultの STATUS_ で始まる定数のいずれか。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    int write(String argPath, byte[] argBytes, String argFingerprint)
+            throws IOException;
+
+    /**
+     * 出力先のファイルを取得します。
+     * 
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @return 出力先のファイル。ファイルに出力しない出力先の場合には null。
+     */
+    File getFile(String argPath);
+}
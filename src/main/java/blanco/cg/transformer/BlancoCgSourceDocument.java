@@ -0,0 +1,190 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 展開途中のソースコードを、ヘッダー部・import部・本体部に分けて保持するドキュメントです。
+ *
+ * import文の一覧は本体部の展開を経て初めて確定します。<br>
+ * 各部を別々の出力先として保持し、出力時に連結することで、本体部に手を触れることなく import部を展開できます。<br>
+ * 本体部の展開に先立って import文の一覧を確定できる場合には、beginBody を呼び出すことで、
+ * 本体部を保持せずにヘッダー部と同じ出力先へ直接追加することができます。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgSourceDocument {
+    /**
+     * ヘッダー部の行を保持するバッファ。ファイルヘッダーやパッケージ宣言などが追加されます。ヘッダー部を直接出力する場合には null。
+     */
+    private final BlancoCgSourceLineBuffer fHeaderLines;
+
+    /**
+     * import部の行を保持するバッファ。
+     */
+    private final BlancoCgSourceLineBuffer fImportLines =
+            new BlancoCgSourceLineBuffer();
+
+    /**
+     * 本体部の行を保持するバッファ。
+     */
+    private final BlancoCgSourceLineBuffer fBodyLines =
+            new BlancoCgSourceLineBuffer();
+
+    /**
+     * ヘッダー部を直接出力するソースコードの出力先。ヘッダー部を保持する場合には null。
+     */
+    private final BlancoCgSourceLineWriter fWriter;
+
+    /**
+     * 本体部の追加を開始したかどうか。
+     */
+    private boolean fIsBodyStarted = false;
+
+    /**
+     * ドキュメントを作成します。
+     */
+    public BlancoCgSourceDocument() {
+        fHeaderLines = new BlancoCgSourceLineBuffer();
+        fWriter = null;
+    }
+
+    /**
+     * ヘッダー部をソースコードの出力先へ直接出力するドキュメントを作成します。
+     *
+     * @param argWriter
+     *            ヘッダー部の出力先となるソースコードの出力先。
+     */
+    BlancoCgSourceDocument(final BlancoCgSourceLineWriter argWriter) {
+        fHeaderLines = null;
+        fWriter = argWriter;
+    }
+
+    /**
+     * import部を確定し、本体部の追加を開始します。
+     *
+     * ヘッダー部をソースコードの出力先へ直接出力するドキュメントでは、import部をヘッダー部に続けて出力し、
+     * これ以降 本体部に追加された行も同じ出力先へ直接出力します。<br>
+     * このメソッドは、import部の展開を終えてから本体部の展開を始める前に、一度だけ呼び出します。
+     * 呼び出さない場合には、従来どおり本体部の展開を終えてから import部と本体部を出力します。
+     */
+    public void beginBody() {
+        if (fIsBodyStarted) {
+            throw new IllegalArgumentException("本体部の追加は既に開始されています。");
+        }
+        if (fBodyLines.size() > 0) {
+            throw new IllegalArgumentException(
+                    "本体部に既に行が追加されています。本体部の追加の開始は、本体部の展開より前に呼び出してください。");
+        }
+        fIsBodyStarted = true;
+        if (fWriter == null) {
+            // ヘッダー部を保持するドキュメントでは、各部を別々に保持したままとします。
+            return;
+        }
+
+        fImportLines.addTo(fWriter);
+    }
+
+    /**
+     * import部と本体部がヘッダー部と同じ出力先へ直接出力されているかどうかを取得します。
+     *
+     * @return 直接出力されている場合には true。
+     */
+    boolean isBodyStreamed() {
+        return fIsBodyStarted && fWriter != null;
+    }
+
+    /**
+     * 保持している import部と本体部を、ヘッダー部に続けて出力します。
+     *
+     * import部と本体部を直接出力している場合には何もしません。
+     */
+    void flushBody() {
+        if (fWriter == null) {
+            throw new IllegalArgumentException(
+                    "ヘッダー部を保持するドキュメントは出力できません。toLineList で行リストを取得してください。");
+        }
+        if (isBodyStreamed()) {
+            return;
+        }
+        fImportLines.addTo(fWriter);
+        fBodyLines.addTo(fWriter);
+    }
+
+    /**
+     * ヘッダー部の出力先を取得します。
+     *
+     * @return ヘッダー部の出力先。
+     */
+    public BlancoCgSourceLineSink getHeaderLines() {
+        if (fWriter != null) {
+            return fWriter;
+        }
+        return fHeaderLines;
+    }
+
+    /**
+     * import部の行を保持するバッファを取得します。
+     *
+     * @return import部のバッファ。
+     */
+    public BlancoCgSourceLineBuffer getImportLines() {
+        return fImportLines;
+    }
+
+    /**
+     * 本体部の出力先を取得します。
+     *
+     * @return 本体部の出力先。
+     */
+    public BlancoCgSourceLineSink getBodyLines() {
+        if (isBodyStreamed()) {
+            return fWriter;
+        }
+        return fBodyLines;
+    }
+
+    /**
+     * ヘッダー部・import部・本体部を連結した行リストを取得します。
+     *
+     * ヘッダー部をソースコードの出力先へ直接出力するドキュメントでは、行を保持していないため利用できません。
+     *
+     * @return 連結後の行リスト。
+     */
+    public List<java.lang.String> toLineList() {
+        if (fWriter != null) {
+            throw new IllegalArgumentException(
+                    "出力先へ直接出力するドキュメントの行リストは取得できません。");
+        }
+        final List<java.lang.String> result = new ArrayList<java.lang.String>(
+                fHeaderLines.size() + fImportLines.size() + fBodyLines.size());
+        fHeaderLines.addTextTo(result);
+        fImportLines.addTextTo(result);
+        fBodyLines.addTextTo(result);
+        return result;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ソースコードを 1 行ずつ整形するための抽象フォーマッタです。
+ *
+ * 字下げの状態を保持するため、インスタンスはソースファイル 1 つごとに生成して利用します。<br>
+ * 行を与えられた順に整形するため、ソースコード全体が揃うのを待たずに整形することができます。
+ *
+ * @author IGA Tosiki
+ */
+abstract class BlancoCgSourceFormatter {
+    /**
+     * 字下げ判定: この行の次の行から字下げを開始します。
+     */
+    protected static final int BEGIN_INDENT = BlancoCgSourceLine.INDENT_BEGIN;
+
+    /**
+     * 字下げ判定: この行から字下げを終了します。
+     */
+    protected static final int END_INDENT = BlancoCgSourceLine.INDENT_END;
+
+    /**
+     * 字下げ 1 つ分の文字列。4タブで字下げします。
+     */
+    private static final String INDENT_UNIT = "    ";
+
+    /**
+     * 字下げの数ごとにあらかじめ作成しておく字下げ文字列の表。
+     */
+    private static final String[] INDENT_PREFIX_CACHE = new String[32];
+
+    static {
+        final StringBuffer buf = new StringBuffer();
+        for (int index = 0; index < INDENT_PREFIX_CACHE.length; index++) {
+            INDENT_PREFIX_CACHE[index] = buf.toString();
+            buf.append(INDENT_UNIT);
+        }
+    }
+
+    /**
+     * 共有する行モデルの対象とする行の最大の長さ。
+     */
+    private static final int SHARED_LINE_MAX_LENGTH = 3;
+
+    /**
+     * 現在の字下げの数。
+     */
+    private int fSourceIndent = 0;
+
+    /**
+     * } や * などの短いソースコード行について、判定済みの行モデルを共有するためのマップ。
+     */
+    private final Map<String, BlancoCgSourceLine> fSharedLineMap = new HashMap<String, BlancoCgSourceLine>();
+
+    /**
+     * ソースコード行の文字列から、字下げ判定済みの行モデルを作成します。
+     *
+     * 行の文字列を解析するのはこのメソッドの中だけです。
+     *
+     * @param argLine
+     *            整形前のソースコード行。
+     * @param argKind
+     *            空行以外の場合の行の種類。
+     * @param argSource
+     *            行の元になったバリューオブジェクト。不明な場合には null。
+     * @return 字下げ判定済みの行モデル。
+     */
+    BlancoCgSourceLine createLine(final String argLine, final int argKind,
+            final Object argSource) {
+        // 前後の空白は、あらかじめ除去します。
+        final String strLine = argLine.trim();
+        if (strLine.length() == 0) {
+            // 空行です。与えられた行をそのまま出力します。
+            return BlancoCgSourceLine.valueOf(argLine, argKind);
+        }
+
+        final boolean isShared = (argKind == BlancoCgSourceLine.KIND_CODE
+                && argSource == null && strLine.length() <= SHARED_LINE_MAX_LENGTH);
+        if (isShared) {
+            final BlancoCgSourceLine sharedLine = fSharedLineMap.get(strLine);
+            if (sharedLine != null) {
+                return sharedLine;
+            }
+        }
+
+        final BlancoCgSourceLine line = new BlancoCgSourceLine(
+                decorateLine(strLine), argKind,
+                judgeIndent(strLine), argSource);
+        if (isShared) {
+            fSharedLineMap.put(strLine, line);
+        }
+        return line;
+    }
+
+    /**
+     * 行モデルを 1 行整形します。
+     *
+     * 字下げ判定済みの行モデルについては、行の文字列を解析し直すことなく字下げだけを反映します。
+     *
+     * @param argLine
+     *            行モデル。
+     * @return 整形後のソースコード行。
+     */
+    String formatLine(final BlancoCgSourceLine argLine) {
+        if (argLine.getKind() == BlancoCgSourceLine.KIND_BLANK) {
+            // 空行です。与えられた行をそのまま戻します。
+            return argLine.getText();
+        }
+        if (argLine.isIndentDecided() == false) {
+            return formatLine(createLine(argLine.getText(), argLine.getKind(),
+                    argLine.getSource()));
+        }
+
+        final int indent = argLine.getIndent();
+        if ((indent & END_INDENT) != 0) {
+            // フラグ一回につき、インデント一個を反映します。
+            fSourceIndent--;
+        }
+
+        // インデントを実施します。
+        String strLine = argLine.getText();
+        if (fSourceIndent > 0) {
+            strLine = getIndentPrefix(fSourceIndent).concat(strLine);
+        }
+        if ((indent & BEGIN_INDENT) != 0) {
+            fSourceIndent++;
+        }
+
+        return strLine;
+    }
+
+    /**
+     * 字下げの数に対応する字下げ文字列を取得します。
+     *
+     * 通常の深さであれば作成済みの文字列を戻すため、行ごとに文字列を連結し直すことはありません。
+     *
+     * @param argIndent
+     *            字下げの数。
+     * @return 字下げ文字列。
+     */
+    static String getIndentPrefix(final int argIndent) {
+        if (argIndent < INDENT_PREFIX_CACHE.length) {
+            return INDENT_PREFIX_CACHE[argIndent];
+        }
+
+        final StringBuffer buf = new StringBuffer(argIndent
+                * INDENT_UNIT.length());
+        for (int index = 0; index < argIndent; index++) {
+            buf.append(INDENT_UNIT);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * 字下げの判定を行います。
+     *
+     * @param argLine
+     *            前後の空白を除去済みの、空行ではないソースコード行。
+     * @return BEGIN_INDENT と END_INDENT の組み合わせ。
+     */
+    protected abstract int judgeIndent(final String argLine);
+
+    /**
+     * 字下げの前に行を修飾します。
+     *
+     * @param argLine
+     *            前後の空白を除去済みの、空行ではないソースコード行。
+     * @return 修飾後のソースコード行。
+     */
+    protected String decorateLine(final String argLine) {
+        return argLine;
+    }
+}
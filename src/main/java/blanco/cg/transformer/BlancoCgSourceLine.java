@@ -0,0 +1,219 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+/**
+ * 整形・出力の対象となるソースコード 1 行を表す行モデルです。
+ *
+ * 行の文字列に加えて、行の種類・字下げ判定・行の元になったバリューオブジェクトを保持します。<br>
+ * 字下げ判定は行を受け取った時点で 1 度だけおこない、整形と空行の抑制はこのモデルの情報だけを利用して進めます。<br>
+ * インスタンスは不変であり、空行などの頻出する行は 1 つのインスタンスを共有します。<br>
+ * エキスパンダーは BlancoCgSourceLineSink の addLine を利用して、字下げ判定済みの行モデルを出力先へ直接追加します。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgSourceLine {
+    /**
+     * 行の種類: ソースコード行。
+     */
+    public static final int KIND_CODE = 0;
+
+    /**
+     * 行の種類: 言語ドキュメント(コメント)行。
+     */
+    public static final int KIND_DOC = 1;
+
+    /**
+     * 行の種類: 空行。
+     */
+    public static final int KIND_BLANK = 2;
+
+    /**
+     * 行の種類: import行。
+     */
+    public static final int KIND_IMPORT = 3;
+
+    /**
+     * 字下げ判定: 未判定。整形の際にフォーマッタが判定します。
+     */
+    public static final int INDENT_UNDECIDED = -1;
+
+    /**
+     * 字下げ判定: 字下げを変更しません。
+     */
+    public static final int INDENT_NONE = 0;
+
+    /**
+     * 字下げ判定: この行の次の行から字下げを開始します。
+     */
+    public static final int INDENT_BEGIN = 1;
+
+    /**
+     * 字下げ判定: この行から字下げを終了します。
+     */
+    public static final int INDENT_END = 2;
+
+    /**
+     * 共有される空行。
+     */
+    public static final BlancoCgSourceLine BLANK = new BlancoCgSourceLine("",
+            KIND_BLANK, 0, null);
+
+    /**
+     * 行の文字列。
+     */
+    private final String fText;
+
+    /**
+     * 行の種類。
+     */
+    private final int fKind;
+
+    /**
+     * 字下げ判定。INDENT_BEGIN と INDENT_END の組み合わせ、または INDENT_UNDECIDED。
+     */
+    private final int fIndent;
+
+    /**
+     * 行の元になったバリューオブジェクト。不明な場合には null。
+     */
+    private final Object fSource;
+
+    /**
+     * 行モデルを作成します。
+     *
+     * @param argText
+     *            行の文字列。
+     * @param argKind
+     *            行の種類。KIND_CODE などの定数で指定します。
+     * @param argIndent
+     *            字下げ判定。未判定の場合には INDENT_UNDECIDED。
+     * @param argSource
+     *            行の元になったバリューオブジェクト。不明な場合には null。
+     */
+    public BlancoCgSourceLine(final String argText, final int argKind,
+            final int argIndent, final Object argSource) {
+        if (argText == null) {
+            throw new IllegalArgumentException("行の文字列にnullが与えられました。処理中断します。");
+        }
+        if (argKind < KIND_CODE || argKind > KIND_IMPORT) {
+            throw new IllegalArgumentException("行の種類(" + argKind
+                    + ")が不正です。");
+        }
+        fText = argText;
+        fKind = argKind;
+        fIndent = argIndent;
+        fSource = argSource;
+    }
+
+    /**
+     * 整形しない行の文字列から、字下げ判定済みの行モデルを取得します。
+     *
+     * @param argText
+     *            行の文字列。
+     * @param argKind
+     *            空行以外の場合の行の種類。
+     * @return 行モデル。空行の場合には共有のインスタンスを戻します。
+     */
+    static BlancoCgSourceLine valueOf(final String argText, final int argKind) {
+        if (argText.length() == 0) {
+            return BLANK;
+        }
+        return new BlancoCgSourceLine(argText,
+                (argText.trim().length() == 0 ? KIND_BLANK : argKind), 0, null);
+    }
+
+    /**
+     * 行の文字列を取得します。
+     *
+     * @return 行の文字列。
+     */
+    public String getText() {
+        return fText;
+    }
+
+    /**
+     * 行の種類を取得します。
+     *
+     * @return 行の種類。
+     */
+    public int getKind() {
+        return fKind;
+    }
+
+    /**
+     * 字下げ判定を取得します。
+     *
+     * @return INDENT_BEGIN と INDENT_END の組み合わせ、または INDENT_UNDECIDED。
+     */
+    public int getIndent() {
+        return fIndent;
+    }
+
+    /**
+     * 字下げ判定が済んでいるかどうかを取得します。
+     *
+     * @return 判定済みの場合には true。
+     */
+    public boolean isIndentDecided() {
+        return fIndent != INDENT_UNDECIDED;
+    }
+
+    /**
+     * 行の元になったバリューオブジェクトを取得します。
+     *
+     * @return バリューオブジェクト。不明な場合には null。
+     */
+    public Object getSource() {
+        return fSource;
+    }
+
+    /**
+     * 出力すると長さ 0 の行となるかどうかを判定します。
+     *
+     * @return 長さ 0 の行であれば true。
+     */
+    boolean isEmpty() {
+        return fText.length() == 0;
+    }
+
+    /**
+     * ブロックのスタートとなる行かどうかを判定します。
+     *
+     * @return 行末が { であれば true。
+     */
+    boolean isBlockStart() {
+        return fText.length() > 0 && fText.charAt(fText.length() - 1) == '{';
+    }
+
+    /**
+     * この行モデルの文字列表現を取得します。
+     *
+     * @return 行の文字列。
+     */
+    public String toString() {
+        return fText;
+    }
+}
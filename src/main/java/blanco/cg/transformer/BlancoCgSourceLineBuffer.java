@@ -0,0 +1,115 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 展開したソースコード行を、行モデルのまま一時的に保持するための出力先です。
+ *
+ * メンバーを並列に展開する場合など、行をいったん別の出力先へ展開してから連結する際に利用します。<br>
+ * 文字列として追加された行は字下げ未判定の行モデルとして保持し、連結先で判定します。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgSourceLineBuffer implements BlancoCgSourceLineSink {
+    /**
+     * 保持している行モデルのリスト。
+     */
+    private final List<BlancoCgSourceLine> fLineList = new ArrayList<BlancoCgSourceLine>();
+
+    /**
+     * 行モデルを追加します。
+     *
+     * @param argLine
+     *            行モデル。
+     */
+    public void addLine(final BlancoCgSourceLine argLine) {
+        if (argLine == null) {
+            throw new IllegalArgumentException("行モデルにnullが与えられました。処理中断します。");
+        }
+        fLineList.add(argLine);
+    }
+
+    /**
+     * 字下げ未判定の行を追加します。
+     *
+     * @param argLine
+     *            ソースコード行。
+     */
+    public void addText(final String argLine) {
+        if (argLine == null) {
+            throw new IllegalArgumentException("ソースコード行にnullが与えられました。処理中断します。");
+        }
+        fLineList.add(new BlancoCgSourceLine(argLine,
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_UNDECIDED, null));
+    }
+
+    /**
+     * 保持している行数を取得します。
+     *
+     * @return 行数。
+     */
+    public int size() {
+        return fLineList.size();
+    }
+
+    /**
+     * 保持している行モデルを取得します。
+     *
+     * @param index
+     *            インデックス。
+     * @return 行モデル。
+     */
+    public BlancoCgSourceLine getLine(final int index) {
+        return fLineList.get(index);
+    }
+
+    /**
+     * 保持している行を、行モデルのまま別の出力先へ追加します。
+     *
+     * @param argSink
+     *            追加先の出力先。
+     */
+    public void addTo(final BlancoCgSourceLineSink argSink) {
+        for (BlancoCgSourceLine line : fLineList) {
+            argSink.addLine(line);
+        }
+    }
+
+    /**
+     * 保持している行の文字列を、行リストへ追加します。
+     *
+     * @param argSourceLines
+     *            追加先の行リスト。
+     */
+    public void addTextTo(final List<java.lang.String> argSourceLines) {
+        for (BlancoCgSourceLine line : fLineList) {
+            argSourceLines.add(line.getText());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 出力したソースコードの行番号から、行の元になったバリューオブジェクトを求めるための対応表です。
+ *
+ * ライターへ実際に出力した行ごとに、行モデルが保持するバリューオブジェクトと、その行を囲むブロックのバリューオブジェクトを記録します。<br>
+ * ブロックは、字下げを開始する行モデルから字下げを終了する行モデルまでの範囲です。<br>
+ * 出力したソースコードを解析し直すことなく、コンパイラの診断情報の行番号などから生成元のクラスやメソッドを求めることができます。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgSourceLineMap {
+    /**
+     * 出力した行ごとの、行モデルが保持するバリューオブジェクト。
+     */
+    private final List<Object> fSourceList = new ArrayList<Object>();
+
+    /**
+     * 出力した行ごとの、その行を囲むブロックのバリューオブジェクト。
+     */
+    private final List<Object> fEnclosingList = new ArrayList<Object>();
+
+    /**
+     * ブロックのバリューオブジェクトから、それを囲むブロックのバリューオブジェクトへの対応。
+     */
+    private final Map<Object, Object> fParentMap = new IdentityHashMap<Object, Object>();
+
+    /**
+     * 現在開いているブロックのバリューオブジェクトのスタック。
+     */
+    private final List<Object> fBlockStack = new ArrayList<Object>();
+
+    /**
+     * ライターへ出力した行を記録します。
+     *
+     * @param argLine
+     *            出力した行モデル。
+     * @param argOutputLineCount
+     *            出力した物理的な行数。行の文字列が改行を含む場合には 2 以上となります。
+     */
+    void addLine(final BlancoCgSourceLine argLine,
+            final int argOutputLineCount) {
+        final Object source = argLine.getSource();
+        if (source != null && argLine.isIndentDecided()) {
+            // 字下げ判定済みの行モデルに基づいて、ブロックの開始と終了を追跡します。
+            if ((argLine.getIndent() & BlancoCgSourceLine.INDENT_END) != 0
+                    && getCurrentBlock() == source) {
+                fBlockStack.remove(fBlockStack.size() - 1);
+            }
+            if ((argLine.getIndent() & BlancoCgSourceLine.INDENT_BEGIN) != 0) {
+                fParentMap.put(source, getCurrentBlock());
+                fBlockStack.add(source);
+            }
+        }
+
+        // ブロックを開始した行は、開いたブロック自身ではなく、その外側のブロックに囲まれます。
+        final Object enclosing = (source != null
+                && source == getCurrentBlock() ? fParentMap.get(source)
+                : getCurrentBlock());
+        for (int index = 0; index < argOutputLineCount; index++) {
+            fSourceList.add(source);
+            fEnclosingList.add(enclosing);
+        }
+    }
+
+    /**
+     * 記録した行数を取得します。
+     *
+     * @return 行数。
+     */
+    public int getLineCount() {
+        return fSourceList.size();
+    }
+
+    /**
+     * 指定の行の元になったバリューオブジェクトを取得します。
+     *
+     * @param argLineNumber
+     *            1 から始まる行番号。
+     * @return バリューオブジェクト。行モデルがバリューオブジェクトを保持していない場合や、範囲外の行番号の場合には null。
+     */
+    public Object getSource(final long argLineNumber) {
+        if (argLineNumber < 1 || argLineNumber > fSourceList.size()) {
+            return null;
+        }
+        return fSourceList.get((int) argLineNumber - 1);
+    }
+
+    /**
+     * 指定の行の元になった、または指定の行を囲む、指定の型のバリューオブジェクトを求めます。
+     *
+     * 行の元になったバリューオブジェクトから始めて、内側のブロックから外側のブロックへ順に探します。
+     *
+     * @param <T>
+     *            バリューオブジェクトの型。
+     * @param argLineNumber
+     *            1 から始まる行番号。
+     * @param argType
+     *            バリューオブジェクトの型。
+     * @return バリューオブジェクト。求められなかった場合や、範囲外の行番号の場合には null。
+     */
+    public <T> T findSource(final long argLineNumber, final Class<T> argType) {
+        if (argType == null) {
+            throw new IllegalArgumentException("型にnullが与えられました。処理中断します。");
+        }
+        if (argLineNumber < 1 || argLineNumber > fSourceList.size()) {
+            return null;
+        }
+        final int index = (int) argLineNumber - 1;
+        if (argType.isInstance(fSourceList.get(index))) {
+            return argType.cast(fSourceList.get(index));
+        }
+        for (Object block = fEnclosingList.get(index); block != null; block = fParentMap
+                .get(block)) {
+            if (argType.isInstance(block)) {
+                return argType.cast(block);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 現在開いている最も内側のブロックのバリューオブジェクトを取得します。
+     *
+     * @return バリューオブジェクト。ブロックが開いていない場合には null。
+     */
+    private Object getCurrentBlock() {
+        return (fBlockStack.size() == 0 ? null : fBlockStack
+                .get(fBlockStack.size() - 1));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+/**
+ * エキスパンダーが展開したソースコード行を受け取る出力先です。
+ * 
+ * バリューオブジェクトの構造から生成する行は、字下げ判定済みの行モデルとして addLine で追加します。<br>
+ * メソッドの行など、バリューオブジェクトに文字列として与えられた行は addText で追加し、字下げは出力先のフォーマッタが判定します。
+ * 
+ * @author IGA Tosiki
+ */
+public interface BlancoCgSourceLineSink {
+    /**
+     * 行モデルを追加します。
+     * 
+     * @param argLine
+     *            行モデル。行の文字列は前後の空白を除去し、修飾を済ませておきます。
+     */
+    void addLine(BlancoCgSourceLine argLine);
+
+    /**
+     * 字下げ未判定の行を文字列のまま追加します。
+     * 
+     * @param argLine
+     *            ソースコード行。
+     */
+    void addText(String argLine);
+}
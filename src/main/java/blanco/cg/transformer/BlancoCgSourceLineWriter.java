@@ -0,0 +1,284 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/**
+ * 展開されたソースコード行を受け取り、受け取った順に整形してライターへ出力する出力先です。
+ *
+ * エキスパンダーはこの出力先に行を追加するだけで、ソースコード全体を保持することなく出力が進みます。<br>
+ * 文字列として受け取った行はその場で行モデルに変換し、整形と空行の抑制は行モデルの情報に基づいておこないます。<br>
+ * 出力済みの行は保持しません。
+ *
+ * @author IGA Tosiki
+ */
+class BlancoCgSourceLineWriter implements BlancoCgSourceLineSink {
+    /**
+     * 行の整形に利用するフォーマッタ。整形しない場合には null。
+     */
+    private final BlancoCgSourceFormatter fFormatter;
+
+    /**
+     * 出力先ライター。
+     */
+    private final BufferedWriter fWriter;
+
+    /**
+     * これまでに受け取った行数。
+     */
+    private int fLineCount = 0;
+
+    /**
+     * 前回出力した行が空行であったかどうか。
+     */
+    private boolean fIsPastLineBlank = false;
+
+    /**
+     * 前回出力した行がブロックのスタートであったかどうか。
+     */
+    private boolean fIsPastBlockStart = false;
+
+    /**
+     * 出力の過程で発生した入出力例外。
+     */
+    private IOException fException = null;
+
+    /**
+     * 整形とエンコードの所要時間を計測するかどうか。
+     */
+    private final boolean fIsTimed;
+
+    /**
+     * 整形の所要時間の合計(ナノ秒)。
+     */
+    private long fFormatNanos = 0;
+
+    /**
+     * エンコードの所要時間の合計(ナノ秒)。
+     */
+    private long fEncodeNanos = 0;
+
+    /**
+     * 出力した行の元になったバリューオブジェクトを記録する対応表。記録しない場合には null。
+     */
+    private BlancoCgSourceLineMap fLineMap = null;
+
+    /**
+     * 出力先を作成します。
+     *
+     * @param argFormatter
+     *            行の整形に利用するフォーマッタ。整形しない場合には null。
+     * @param argWriter
+     *            出力先ライター。
+     */
+    BlancoCgSourceLineWriter(final BlancoCgSourceFormatter argFormatter,
+            final BufferedWriter argWriter) {
+        this(argFormatter, argWriter, false);
+    }
+
+    /**
+     * 所要時間の計測の有無を指定して出力先を作成します。
+     *
+     * @param argFormatter
+     *            行の整形に利用するフォーマッタ。整形しない場合には null。
+     * @param argWriter
+     *            出力先ライター。
+     * @param argIsTimed
+     *            整形とエンコードの所要時間を計測するかどうか。
+     */
+    BlancoCgSourceLineWriter(final BlancoCgSourceFormatter argFormatter,
+            final BufferedWriter argWriter, final boolean argIsTimed) {
+        fFormatter = argFormatter;
+        fWriter = argWriter;
+        fIsTimed = argIsTimed;
+    }
+
+    /**
+     * 字下げ未判定の行を追加します。
+     *
+     * 追加された行は、その場で字下げを判定し、整形して出力します。
+     *
+     * @param argLine
+     *            ソースコード行。
+     */
+    public void addText(final String argLine) {
+        if (argLine == null) {
+            throw new IllegalArgumentException("ソースコード行にnullが与えられました。処理中断します。");
+        }
+        fLineCount++;
+        final long startFormat = (fIsTimed ? System.nanoTime() : 0);
+        final BlancoCgSourceLine line = (fFormatter == null ? BlancoCgSourceLine
+                .valueOf(argLine, BlancoCgSourceLine.KIND_CODE)
+                : fFormatter.createLine(argLine, BlancoCgSourceLine.KIND_CODE,
+                        null));
+        if (fIsTimed) {
+            fFormatNanos += System.nanoTime() - startFormat;
+        }
+        writeLine(line);
+    }
+
+    /**
+     * 行モデルを追加します。
+     *
+     * 字下げ判定済みの行モデルは、行の文字列を解析し直すことなく整形して出力します。
+     *
+     * @param argLine
+     *            行モデル。
+     */
+    public void addLine(final BlancoCgSourceLine argLine) {
+        if (argLine == null) {
+            throw new IllegalArgumentException("行モデルにnullが与えられました。処理中断します。");
+        }
+        fLineCount++;
+        writeLine(argLine);
+    }
+
+    /**
+     * 出力した行の元になったバリューオブジェクトを記録する対応表を設定します。
+     *
+     * 空行の抑制によって出力を見送った行は記録しません。
+     *
+     * @param argLineMap
+     *            対応表。記録しない場合には null。
+     */
+    void setLineMap(final BlancoCgSourceLineMap argLineMap) {
+        fLineMap = argLineMap;
+    }
+
+    /**
+     * これまでに受け取った行数を取得します。
+     *
+     * @return 行数。
+     */
+    int getLineCount() {
+        return fLineCount;
+    }
+
+    /**
+     * 整形の所要時間の合計を取得します。
+     *
+     * @return 所要時間(ナノ秒)。計測しない場合には 0。
+     */
+    long getFormatNanos() {
+        return fFormatNanos;
+    }
+
+    /**
+     * エンコードの所要時間の合計を取得します。
+     *
+     * @return 所要時間(ナノ秒)。計測しない場合には 0。
+     */
+    long getEncodeNanos() {
+        return fEncodeNanos;
+    }
+
+    /**
+     * ライターへの出力を確定します。
+     *
+     * 出力の過程で入出力例外が発生していた場合には、ここで例外を送出します。
+     *
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    void flush() throws IOException {
+        if (fException != null) {
+            throw fException;
+        }
+    }
+
+    /**
+     * 行モデルを整形してライターへ 1 行出力します。
+     *
+     * @param argLine
+     *            行モデル。
+     */
+    private void writeLine(final BlancoCgSourceLine argLine) {
+        if (fException != null) {
+            // 既に入出力例外が発生しているので、これ以降は出力しません。
+            return;
+        }
+
+        final long startFormat = (fIsTimed ? System.nanoTime() : 0);
+        final String line = (fFormatter == null ? argLine.getText()
+                : fFormatter.formatLine(argLine));
+        if (fIsTimed) {
+            fFormatNanos += System.nanoTime() - startFormat;
+        }
+
+        // 連続する空行の出力を抑制します。
+        if (argLine.isEmpty()) {
+            if (fIsPastLineBlank) {
+                // 前回に引き続き今回も空行であったため 今回は出力を見送ります。
+                return;
+            }
+            // 今回は空行でした。
+            fIsPastLineBlank = true;
+        } else {
+            // 今回は空行ではありません。
+            fIsPastLineBlank = false;
+        }
+
+        if (fIsPastBlockStart && argLine.isEmpty()) {
+            // 前回がブロックのスタートで、今回が空行の場合には出力を見送ります。
+            return;
+        }
+
+        fIsPastBlockStart = argLine.isBlockStart();
+
+        try {
+            // 行を 1行 出力します。
+            final long startEncode = (fIsTimed ? System.nanoTime() : 0);
+            fWriter.write(line);
+            fWriter.newLine();
+            if (fIsTimed) {
+                fEncodeNanos += System.nanoTime() - startEncode;
+            }
+
+            if (fLineMap != null) {
+                fLineMap.addLine(argLine, countOutputLine(line));
+            }
+        } catch (IOException ex) {
+            fException = ex;
+        }
+    }
+
+    /**
+     * 整形した行の文字列が、出力先で何行になるかを数えます。
+     *
+     * @param argLine
+     *            整形した行の文字列。
+     * @return 行数。
+     */
+    private static int countOutputLine(final String argLine) {
+        int count = 1;
+        for (int index = argLine.indexOf('\n'); index >= 0; index = argLine
+                .indexOf('\n', index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+
+import blanco.cg.BlancoCgTransformer;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 出力先やマニフェスト、リスナーを指定した変換を提供するトランスフォーマーのインタフェースです。
+ *
+ * BlancoCgTransformerFactory が戻すトランスフォーマーは、すべてこのインタフェースを実装しています。<br>
+ * 複数のスレッドから同時に呼び出すことができます。
+ *
+ * @author IGA Tosiki
+ */
+public interface BlancoCgSourceTransformer extends BlancoCgTransformer {
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先ディレクトリに出力します。
+     *
+     * バリューオブジェクトの指紋がマニフェストの記録と一致し、出力済みのファイルが変更されていない場合には、ソースコードの展開を省略します。<br>
+     * マニフェストの保存は呼び出し元でおこなってください。
+     *
+     * @param sourceFile ソースファイル・バリューオブジェクト。
+     * @param outputDirectory 出力先ルートディレクトリ。
+     * @param manifest 出力先ルートディレクトリのマニフェスト。
+     */
+    void transform(final BlancoCgSourceFile sourceFile, final File outputDirectory,
+            final BlancoCgTransformManifest manifest);
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力します。
+     *
+     * 出力先ルートからの相対パスは、パッケージ名・ソースファイル名・拡張子から決定します。
+     *
+     * @param sourceFile ソースファイル・バリューオブジェクト。
+     * @param sink 出力先。
+     * @return 出力結果。
+     */
+    BlancoCgTransformResult transform(final BlancoCgSourceFile sourceFile,
+            final BlancoCgOutputSink sink);
+
+    /**
+     * ソースファイル・バリューオブジェクトをソースコードに変換して出力先に出力します。
+     *
+     * 変換の段階ごとの所要時間などをリスナーへ通知します。この場合、コマンドラインへの表示はおこないません。
+     *
+     * @param sourceFile ソースファイル・バリューオブジェクト。
+     * @param sink 出力先。
+     * @param listener リスナー。
+     * @return 出力結果。
+     */
+    BlancoCgTransformResult transform(final BlancoCgSourceFile sourceFile,
+            final BlancoCgOutputSink sink, final BlancoCgTransformListener listener);
+
+    /**
+     * ソースファイルの出力先ルートからの相対パスを取得します。
+     *
+     * ファイル名が確定していない場合には、クラス名またはインタフェース名から導出します。
+     * 与えられたバリューオブジェクトは変更しません。
+     *
+     * @param sourceFile ソースファイル・バリューオブジェクト。
+     * @return 出力先ルートからの相対パス。区切り文字は / です。
+     */
+    String getSourcePath(final BlancoCgSourceFile sourceFile);
+}
@@ -0,0 +1,227 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.concurrent.ExecutorService;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * ソースファイル 1 つ分の変換処理に固有の状態を保持するコンテキストです。
+ *
+ * トランスフォーマーおよびエキスパンダーは状態を持たず、ソースファイルごとの状態はすべてこのコンテキストを経由して受け渡します。<br>
+ * このため、トランスフォーマーおよびエキスパンダーのインスタンスは複数のスレッドから同時に利用することができます。<br>
+ * コンテキスト自体はソースファイルごとに作成し、スレッド間で共有しないでください。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgTransformContext {
+    /**
+     * 入力となるソースファイル・バリューオブジェクト。
+     */
+    private final BlancoCgSourceFile fSourceFile;
+
+    /**
+     * 展開先のドキュメント。
+     */
+    private final BlancoCgSourceDocument fDocument;
+
+    /**
+     * import解決を開始した時刻(ナノ秒)。まだ開始していない場合には -1。
+     */
+    private long fImportPhaseStart = -1;
+
+    /**
+     * import解決を終了した時刻(ナノ秒)。本体部の展開を終えるまで import解決が続く場合には -1。
+     */
+    private long fImportPhaseEnd = -1;
+
+    /**
+     * 段階の開始と終了を通知するリスナー。計測しない場合には null。
+     */
+    private BlancoCgTransformListener fListener = null;
+
+    /**
+     * 変換中のソースファイルの計測情報。計測しない場合には null。
+     */
+    private BlancoCgTransformEvent fEvent = null;
+
+    /**
+     * クラスのメンバーを並列に展開する際に利用するスレッドプール。逐次に展開する場合には null。
+     */
+    private ExecutorService fMemberExecutor = null;
+
+    /**
+     * import対象の候補の一覧。まだ収集していない場合には null。
+     */
+    private BlancoCgImportCandidates fImportCandidates = null;
+
+    /**
+     * コンテキストを作成します。
+     *
+     * @param argSourceFile
+     *            入力となるソースファイル・バリューオブジェクト。
+     * @param argDocument
+     *            展開先のドキュメント。
+     */
+    public BlancoCgTransformContext(final BlancoCgSourceFile argSourceFile,
+            final BlancoCgSourceDocument argDocument) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイルにnullが与えられました。処理中断します。");
+        }
+        if (argDocument == null) {
+            throw new IllegalArgumentException(
+                    "展開先のドキュメントにnullが与えられました。処理中断します。");
+        }
+        fSourceFile = argSourceFile;
+        fDocument = argDocument;
+    }
+
+    /**
+     * 入力となるソースファイル・バリューオブジェクトを取得します。
+     *
+     * @return ソースファイル・バリューオブジェクト。
+     */
+    public BlancoCgSourceFile getSourceFile() {
+        return fSourceFile;
+    }
+
+    /**
+     * 展開先のドキュメントを取得します。
+     *
+     * @return 展開先のドキュメント。
+     */
+    public BlancoCgSourceDocument getDocument() {
+        return fDocument;
+    }
+
+    /**
+     * import解決の開始を記録します。
+     *
+     * ソースファイルのエキスパンダーは、import解決を始める直前に呼び出します。通常は本体部の展開に先立つこととなります。<br>
+     * 変換の計測において、展開とimport解決の所要時間を分けるために利用します。
+     */
+    public void markImportPhase() {
+        fImportPhaseStart = System.nanoTime();
+        if (fListener != null) {
+            fListener.phaseStarted(fEvent, BlancoCgTransformEvent.PHASE_IMPORT);
+        }
+    }
+
+    /**
+     * import解決の終了を記録します。
+     *
+     * 本体部の展開に先立って import解決をおこなうエキスパンダーは、import解決を終えて本体部の展開を始める直前に呼び出します。<br>
+     * 本体部の展開の後で import解決をおこなう場合には、呼び出す必要はありません。
+     */
+    public void markImportPhaseEnd() {
+        fImportPhaseEnd = System.nanoTime();
+        if (fListener != null && fImportPhaseStart >= 0) {
+            fEvent.addDuration(BlancoCgTransformEvent.PHASE_IMPORT,
+                    fImportPhaseEnd - fImportPhaseStart);
+            fListener.phaseCompleted(fEvent,
+                    BlancoCgTransformEvent.PHASE_IMPORT);
+        }
+    }
+
+    /**
+     * クラスのメンバーを並列に展開する際に利用するスレッドプールを設定します。
+     *
+     * @param argMemberExecutor
+     *            スレッドプール。逐次に展開する場合には null。
+     */
+    public void setMemberExecutor(final ExecutorService argMemberExecutor) {
+        fMemberExecutor = argMemberExecutor;
+    }
+
+    /**
+     * クラスのメンバーを並列に展開する際に利用するスレッドプールを取得します。
+     *
+     * @return スレッドプール。逐次に展開する場合には null。
+     */
+    public ExecutorService getMemberExecutor() {
+        return fMemberExecutor;
+    }
+
+    /**
+     * 収集済みの import対象の候補の一覧を設定します。
+     *
+     * 複数のプログラミング言語へ変換する場合など、同じソースファイルから収集済みの一覧を共有する際に利用します。
+     *
+     * @param argImportCandidates
+     *            import対象の候補の一覧。展開の際に収集する場合には null。
+     */
+    public void setImportCandidates(
+            final BlancoCgImportCandidates argImportCandidates) {
+        fImportCandidates = argImportCandidates;
+    }
+
+    /**
+     * import対象の候補の一覧を取得します。
+     *
+     * 設定されていない場合には、ここでソースファイルを巡回して収集します。
+     *
+     * @return import対象の候補の一覧。
+     */
+    public BlancoCgImportCandidates getImportCandidates() {
+        if (fImportCandidates == null) {
+            fImportCandidates = BlancoCgImportCandidates.collect(fSourceFile);
+        }
+        return fImportCandidates;
+    }
+
+    /**
+     * import解決の開始と終了を通知するリスナーを設定します。
+     *
+     * @param argListener
+     *            段階の開始と終了を通知するリスナー。計測しない場合には null。
+     * @param argEvent
+     *            変換中のソースファイルの計測情報。計測しない場合には null。
+     */
+    void setListener(final BlancoCgTransformListener argListener,
+            final BlancoCgTransformEvent argEvent) {
+        fListener = argListener;
+        fEvent = argEvent;
+    }
+
+    /**
+     * import解決を開始した時刻を取得します。
+     *
+     * @return 時刻(ナノ秒)。まだ開始していない場合には -1。
+     */
+    long getImportPhaseStart() {
+        return fImportPhaseStart;
+    }
+
+    /**
+     * import解決を終了した時刻を取得します。
+     *
+     * @return 時刻(ナノ秒)。本体部の展開を終えるまで import解決が続く場合には -1。
+     */
+    long getImportPhaseEnd() {
+        return fImportPhaseEnd;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * ソースファイル 1 件分の変換の計測情報です。
+ *
+ * 段階ごとの所要時間(ナノ秒)、受け取った行数、出力したバイト数、出力状況を保持します。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgTransformEvent {
+    /**
+     * 段階: 指紋の算出と、前回の出力との比較。
+     */
+    public static final int PHASE_COMPARE = 0;
+
+    /**
+     * 段階: ソースコードへの展開。import解決・整形・エンコードに要した時間は含みません。
+     */
+    public static final int PHASE_EXPAND = 1;
+
+    /**
+     * 段階: import解決。
+     */
+    public static final int PHASE_IMPORT = 2;
+
+    /**
+     * 段階: 整形。
+     */
+    public static final int PHASE_FORMAT = 3;
+
+    /**
+     * 段階: エンコード。
+     */
+    public static final int PHASE_ENCODE = 4;
+
+    /**
+     * 段階: 出力先への書き込み。
+     */
+    public static final int PHASE_WRITE = 5;
+
+    /**
+     * 段階の数。
+     */
+    public static final int PHASE_COUNT = 6;
+
+    /**
+     * 段階の名前。
+     */
+    private static final String[] PHASE_NAMES = { "compare", "expand",
+            "import", "format", "encode", "write" };
+
+    /**
+     * 処理対象のソースファイル・バリューオブジェクト。
+     */
+    private final BlancoCgSourceFile fSourceFile;
+
+    /**
+     * 変換をおこなったトランスフォーマーのクラス名。
+     */
+    private final String fTransformerName;
+
+    /**
+     * 出力先ルートからの相対パス。確定する前は null。
+     */
+    private String fPath = null;
+
+    /**
+     * 段階ごとの所要時間(ナノ秒)。
+     */
+    private final long[] fDurations = new long[PHASE_COUNT];
+
+    /**
+     * 受け取った行数。
+     */
+    private int fLineCount = 0;
+
+    /**
+     * 出力したバイト数。
+     */
+    private int fByteCount = 0;
+
+    /**
+     * 出力状況。
+     */
+    private int fStatus = BlancoCgTransformResult.STATUS_FAILED;
+
+    /**
+     * 失敗した場合の例外。
+     */
+    private RuntimeException fException = null;
+
+    /**
+     * 計測情報を作成します。
+     *
+     * @param argSourceFile
+     *            処理対象のソースファイル・バリューオブジェクト。
+     * @param argTransformerName
+     *            変換をおこなうトランスフォーマーのクラス名。
+     */
+    BlancoCgTransformEvent(final BlancoCgSourceFile argSourceFile,
+            final String argTransformerName) {
+        fSourceFile = argSourceFile;
+        fTransformerName = argTransformerName;
+    }
+
+    /**
+     * 段階の名前を取得します。
+     *
+     * @param argPhase
+     *            段階。
+     * @return 段階の名前。
+     */
+    public static String getPhaseName(final int argPhase) {
+        if (argPhase < 0 || argPhase >= PHASE_COUNT) {
+            throw new IllegalArgumentException("段階(" + argPhase + ")が不正です。");
+        }
+        return PHASE_NAMES[argPhase];
+    }
+
+    /**
+     * 処理対象のソースファイル・バリューオブジェクトを取得します。
+     *
+     * @return ソースファイル・バリューオブジェクト。
+     */
+    public BlancoCgSourceFile getSourceFile() {
+        return fSourceFile;
+    }
+
+    /**
+     * 変換をおこなったトランスフォーマーのクラス名を取得します。
+     *
+     * @return クラス名。
+     */
+    public String getTransformerName() {
+        return fTransformerName;
+    }
+
+    /**
+     * 出力先ルートからの相対パスを取得します。
+     *
+     * @return 相対パス。確定する前に失敗した場合には null。
+     */
+    public String getPath() {
+        return fPath;
+    }
+
+    /**
+     * 段階の所要時間を取得します。
+     *
+     * @param argPhase
+     *            段階。
+     * @return 所要時間(ナノ秒)。
+     */
+    public long getDuration(final int argPhase) {
+        getPhaseName(argPhase);
+        return fDurations[argPhase];
+    }
+
+    /**
+     * 全段階の所要時間の合計を取得します。
+     *
+     * @return 所要時間(ナノ秒)。
+     */
+    public long getTotalDuration() {
+        long total = 0;
+        for (int index = 0; index < PHASE_COUNT; index++) {
+            total += fDurations[index];
+        }
+        return total;
+    }
+
+    /**
+     * エキスパンダーから受け取った行数を取得します。
+     *
+     * @return 行数。展開を省略した場合には 0。
+     */
+    public int getLineCount() {
+        return fLineCount;
+    }
+
+    /**
+     * エンコード後のバイト数を取得します。
+     *
+     * @return バイト数。展開を省略した場合には 0。
+     */
+    public int getByteCount() {
+        return fByteCount;
+    }
+
+    /**
+     * 出力状況を取得します。
+     *
+     * @return BlancoCgTransformResult.STATUS_CREATE などの出力状況。
+     */
+    public int getStatus() {
+        return fStatus;
+    }
+
+    /**
+     * 失敗した場合の例外を取得します。
+     *
+     * @return 例外。失敗していない場合には null。
+     */
+    public RuntimeException getException() {
+        return fException;
+    }
+
+    /**
+     * 出力先ルートからの相対パスを設定します。
+     *
+     * @param argPath
+     *            相対パス。
+     */
+    void setPath(final String argPath) {
+        fPath = argPath;
+    }
+
+    /**
+     * 段階の所要時間を加算します。
+     *
+     * @param argPhase
+     *            段階。
+     * @param argDuration
+     *            所要時間(ナノ秒)。
+     */
+    void addDuration(final int argPhase, final long argDuration) {
+        fDurations[argPhase] += argDuration;
+    }
+
+    /**
+     * 行数とバイト数を設定します。
+     *
+     * @param argLineCount
+     *            行数。
+     * @param argByteCount
+     *            バイト数。
+     */
+    void setCount(final int argLineCount, final int argByteCount) {
+        fLineCount = argLineCount;
+        fByteCount = argByteCount;
+    }
+
+    /**
+     * 出力状況を設定します。
+     *
+     * @param argStatus
+     *            出力状況。
+     * @param argException
+     *            失敗した場合の例外。
+     */
+    void setStatus(final int argStatus, final RuntimeException argException) {
+        fStatus = argStatus;
+        fException = argException;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+/**
+ * ソースファイルの変換の進行を受け取るリスナーです。
+ *
+ * 段階ごとの所要時間、行数・バイト数、出力状況を通知します。<br>
+ * 複数のスレッドから同時に呼び出されることがあるため、実装はスレッドセーフにしてください。<br>
+ * リスナーを指定した変換では、ファイルごとのコマンドラインへの表示はおこないません。
+ *
+ * @author IGA Tosiki
+ */
+public interface BlancoCgTransformListener {
+    /**
+     * ソースファイル 1 件分の変換の開始を受け取ります。
+     *
+     * この時点では出力先のパスなどは確定していません。
+     *
+     * @param argEvent
+     *            変換を始めるソースファイルの計測情報。
+     */
+    void transformStarted(final BlancoCgTransformEvent argEvent);
+
+    /**
+     * 段階の開始を受け取ります。
+     *
+     * 各段階の開始と終了は対になって通知され、ソースファイル 1 件分の変換の開始と終了の内側に入れ子となります。<br>
+     * import解決は展開の内側に入れ子となります。import解決をおこなわない言語では、import解決は通知しません。<br>
+     * 整形とエンコードは展開された行ごとに展開と並行して進むため、展開の開始とともに開始し、展開の後で終了します。
+     * これらの正味の所要時間は、終了の通知の時点で計測情報から取得できます。<br>
+     * 変換に失敗した場合には、開始した段階の終了が通知されないことがあります。
+     *
+     * @param argEvent
+     *            変換中のソースファイルの計測情報。
+     * @param argPhase
+     *            開始した段階。BlancoCgTransformEvent.PHASE_EXPAND などの定数です。
+     */
+    void phaseStarted(final BlancoCgTransformEvent argEvent,
+            final int argPhase);
+
+    /**
+     * 段階の終了を受け取ります。
+     *
+     * 終了した段階の所要時間は、この時点で計測情報に記録済みです。
+     *
+     * @param argEvent
+     *            変換中のソースファイルの計測情報。
+     * @param argPhase
+     *            終了した段階。BlancoCgTransformEvent.PHASE_EXPAND などの定数です。
+     */
+    void phaseCompleted(final BlancoCgTransformEvent argEvent,
+            final int argPhase);
+
+    /**
+     * ソースファイル 1 件分の変換の終了を受け取ります。失敗した場合にも通知します。
+     *
+     * @param argEvent
+     *            変換を終えたソースファイルの計測情報。
+     */
+    void transformCompleted(final BlancoCgTransformEvent argEvent);
+}
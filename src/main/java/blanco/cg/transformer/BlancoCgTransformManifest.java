@@ -0,0 +1,551 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import blanco.cg.util.BlancoCgFingerprintUtil;
+
+/**
+ * 出力先ディレクトリに生成したソースファイルについて、生成元バリューオブジェクトの指紋と出力内容のダイジェストを記録するマニフェストです。
+ * 
+ * マニフェストは出力先ルートディレクトリに MANIFEST_FILENAME のファイル名で保存します。<br>
+ * 指紋とジェネレータのバージョンが前回と一致し、出力済みのファイルが前回から変更されていなければ、
+ * トランスフォーマーはソースコードの展開そのものを省略します。<br>
+ * 展開した場合にも、出力内容のダイジェストを記録と比較することで、出力済みのファイルを読み込むことなく
+ * 作成・更新・スキップを判定します。ファイルのサイズまたは更新日時が記録と異なる場合には、
+ * ジェネレータの外でファイルが変更されたものとみなし、ファイルの内容を読み込んで判定します。<br>
+ * 複数のスレッドから同時に利用することができます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgTransformManifest {
+    /**
+     * マニフェストのファイル名。
+     */
+    public static final String MANIFEST_FILENAME = ".blancocg-manifest";
+
+    /**
+     * jar に含まれる Maven のプロパティ・ファイルのパス。
+     */
+    private static final String POM_PROPERTIES_PATH = "/META-INF/maven/jp.igapyon.blanco.cg/blanco-cg/pom.properties";
+
+    /**
+     * ダイジェストの算出対象とする、ジェネレータのクラスとリソースのルート。
+     */
+    private static final String CLASS_ROOT = "blanco/cg/";
+
+    /**
+     * バージョンを取得できなかった場合のジェネレータのバージョン。
+     */
+    private static final String UNKNOWN_VERSION = "unknown";
+
+    /**
+     * 開発中のバージョンを表す接尾辞。
+     */
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    /**
+     * ジェネレータのクラスやリソースを読み込む際の単位。
+     */
+    private static final int READ_CHUNK = 8192;
+
+    /**
+     * ジェネレータを構成するクラスとリソースのダイジェスト。算出できない場合には null。
+     */
+    private static final String CLASS_DIGEST = loadClassDigest();
+
+    /**
+     * jar に含まれる pom.properties のバージョン、またはパッケージの実装バージョン。取得できない場合には UNKNOWN_VERSION。
+     */
+    private static final String RELEASE_VERSION = loadGeneratorVersion();
+
+    /**
+     * ジェネレータのバージョン。
+     * 
+     * jar に含まれる pom.properties のバージョン(取得できない場合にはパッケージの実装バージョン)に、
+     * ジェネレータを構成するクラスとリソースのダイジェストを付与したものです。<br>
+     * ダイジェストを付与するため、開発中のバージョン(-SNAPSHOT)やクラスディレクトリからの実行でも、ジェネレータを修正すればバージョンが変わります。<br>
+     * バージョンが異なるマニフェストの記録は、すべて破棄されます。
+     */
+    public static final String GENERATOR_VERSION = (CLASS_DIGEST == null ? RELEASE_VERSION
+            : RELEASE_VERSION + "+" + CLASS_DIGEST);
+
+    /**
+     * マニフェストの記録を信頼できるかどうか。
+     * 
+     * ダイジェストを算出できず、バージョンが不明または開発中のバージョンの場合には、ジェネレータの変更を検出できないため記録を利用しません。
+     */
+    static final boolean IS_VERSION_TRUSTED = (CLASS_DIGEST != null || (UNKNOWN_VERSION
+            .equals(RELEASE_VERSION) == false && RELEASE_VERSION
+            .endsWith(SNAPSHOT_SUFFIX) == false));
+
+    /**
+     * マニフェストの 1 行目に記録するバージョンの接頭辞。
+     */
+    private static final String VERSION_PREFIX = "#blancoCg ";
+
+    /**
+     * 1 行の記録に含まれる、パスより前の項目の数。
+     */
+    private static final int ENTRY_FIELD_COUNT = 4;
+
+    /**
+     * 出力先ルートディレクトリ。
+     */
+    private final File fOutputDirectory;
+
+    /**
+     * 出力先ルートディレクトリからの相対パスと、記録のマップ。
+     */
+    private final Map<String, Entry> fEntryMap = new TreeMap<String, Entry>();
+
+    /**
+     * 読み込み以降に記録が変更されたかどうか。
+     */
+    private boolean fIsModified = false;
+
+    /**
+     * 出力先ルートディレクトリのマニフェストを読み込みます。
+     * 
+     * マニフェストが存在しない場合や、ジェネレータのバージョンが異なる場合、ジェネレータのバージョンを確定できない場合には、空のマニフェストとなります。
+     * 
+     * @param argOutputDirectory
+     *            出力先ルートディレクトリ。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public BlancoCgTransformManifest(final File argOutputDirectory)
+            throws IOException {
+        if (argOutputDirectory == null) {
+            throw new IllegalArgumentException(
+                    "出力先ルートディレクトリにnullが与えられました。処理中断します。");
+        }
+        fOutputDirectory = argOutputDirectory;
+
+        final File fileManifest = getManifestFile();
+        if (fileManifest.isFile() == false) {
+            return;
+        }
+        if (IS_VERSION_TRUSTED == false) {
+            // ジェネレータの変更を検出できないため、記録を利用しません。
+            fIsModified = true;
+            return;
+        }
+
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(fileManifest), "UTF-8"));
+        try {
+            if ((VERSION_PREFIX + GENERATOR_VERSION).equals(reader.readLine()) == false) {
+                // ジェネレータのバージョンが異なるため、記録を利用しません。
+                fIsModified = true;
+                return;
+            }
+            for (String line = reader.readLine(); line != null; line = reader
+                    .readLine()) {
+                // 各項目とパスはタブで区切られています。パスは行末までとします。
+                final String[] fields = line.split("\t", ENTRY_FIELD_COUNT + 1);
+                if (fields.length != ENTRY_FIELD_COUNT + 1) {
+                    // 不正な行は無視します。
+                    continue;
+                }
+                try {
+                    fEntryMap.put(fields[ENTRY_FIELD_COUNT], new Entry(
+                            fields[0], Long.parseLong(fields[1]), Long
+                                    .parseLong(fields[2]), fields[3]));
+                } catch (NumberFormatException ex) {
+                    // 不正な行は無視します。
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 出力済みのファイルが、与えられた指紋から生成されたまま変更されていないかどうかを判定します。
+     * 
+     * @param argFile
+     *            出力先のファイル。
+     * @param argFingerprint
+     *            生成元バリューオブジェクトの指紋。
+     * @return ファイルの再生成が不要であれば true。
+     */
+    public synchronized boolean isUpToDate(final File argFile,
+            final String argFingerprint) {
+        final Entry entry = fEntryMap.get(getRelativePath(argFile));
+        if (entry == null || entry.isUnchanged(argFile) == false) {
+            return false;
+        }
+        return entry.fFingerprint.equals(argFingerprint);
+    }
+
+    /**
+     * 出力済みのファイルの内容のダイジェストを取得します。
+     * 
+     * 記録がない場合や、ファイルのサイズまたは更新日時が記録と異なる場合には null を戻します。
+     * その場合には、ファイルの内容を読み込んで比較する必要があります。
+     * 
+     * @param argFile
+     *            出力先のファイル。
+     * @return 記録されたダイジェスト。利用できない場合には null。
+     */
+    public synchronized String getContentDigest(final File argFile) {
+        final Entry entry = fEntryMap.get(getRelativePath(argFile));
+        if (entry == null || entry.isUnchanged(argFile) == false) {
+            return null;
+        }
+        return entry.fContentDigest;
+    }
+
+    /**
+     * 出力したファイルの指紋と内容のダイジェストを記録します。
+     * 
+     * ファイルの出力を終えた後に呼び出します。
+     * 
+     * @param argFile
+     *            出力先のファイル。
+     * @param argFingerprint
+     *            生成元バリューオブジェクトの指紋。
+     * @param argContentDigest
+     *            出力内容のダイジェスト。
+     */
+    public synchronized void put(final File argFile,
+            final String argFingerprint, final String argContentDigest) {
+        final Entry entry = new Entry(argFingerprint, argFile.length(),
+                argFile.lastModified(), argContentDigest);
+        final Entry entryPast = fEntryMap.put(getRelativePath(argFile), entry);
+        if (entryPast == null
+                || entry.toString().equals(entryPast.toString()) == false) {
+            fIsModified = true;
+        }
+    }
+
+    /**
+     * マニフェストを出力先ルートディレクトリに保存します。
+     * 
+     * 記録に変更がない場合には、ファイルを更新しません。
+     * 
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public synchronized void store() throws IOException {
+        if (fIsModified == false) {
+            return;
+        }
+
+        final BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(getManifestFile()),
+                        "UTF-8"));
+        try {
+            writer.write(VERSION_PREFIX + GENERATOR_VERSION);
+            writer.newLine();
+            for (Iterator<Map.Entry<String, Entry>> ite = fEntryMap.entrySet()
+                    .iterator(); ite.hasNext();) {
+                final Map.Entry<String, Entry> entry = ite.next();
+                writer.write(entry.getValue().toString() + "\t"
+                        + entry.getKey());
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+        fIsModified = false;
+    }
+
+    /**
+     * ジェネレータのバージョンを取得します。
+     * 
+     * @return ジェネレータのバージョン。取得できない場合には UNKNOWN_VERSION。
+     */
+    private static String loadGeneratorVersion() {
+        final InputStream inStream = BlancoCgTransformManifest.class
+                .getResourceAsStream(POM_PROPERTIES_PATH);
+        if (inStream != null) {
+            try {
+                try {
+                    final Properties prop = new Properties();
+                    prop.load(inStream);
+                    final String version = prop.getProperty("version");
+                    if (version != null && version.trim().length() > 0) {
+                        return version.trim();
+                    }
+                } finally {
+                    inStream.close();
+                }
+            } catch (IOException ex) {
+                // 読み込めない場合には、パッケージの実装バージョンを利用します。
+            }
+        }
+
+        final Package pkg = BlancoCgTransformManifest.class.getPackage();
+        if (pkg != null && pkg.getImplementationVersion() != null) {
+            return pkg.getImplementationVersion();
+        }
+        return UNKNOWN_VERSION;
+    }
+
+    /**
+     * ジェネレータを構成するクラスとリソースのダイジェストを算出します。
+     * 
+     * このクラスを読み込んだ jar またはクラスディレクトリから、blanco/cg/ 以下のエントリを名前の順に読み込み、名前と内容からダイジェストを算出します。
+     * 
+     * @return ダイジェスト。算出できない場合には null。
+     */
+    private static String loadClassDigest() {
+        try {
+            final ProtectionDomain domain = BlancoCgTransformManifest.class
+                    .getProtectionDomain();
+            final CodeSource codeSource = (domain == null ? null : domain
+                    .getCodeSource());
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            final File location = new File(codeSource.getLocation().toURI());
+
+            final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+            final DataOutputStream dataOutStream = new DataOutputStream(
+                    outStream);
+            if (location.isDirectory()) {
+                final File root = new File(location, CLASS_ROOT);
+                if (root.isDirectory() == false) {
+                    return null;
+                }
+                final Map<String, File> fileMap = new TreeMap<String, File>();
+                collectFiles(root, CLASS_ROOT, fileMap);
+                for (Map.Entry<String, File> entry : fileMap.entrySet()) {
+                    final InputStream inStream = new FileInputStream(entry
+                            .getValue());
+                    try {
+                        writeEntry(dataOutStream, entry.getKey(), inStream);
+                    } finally {
+                        inStream.close();
+                    }
+                }
+            } else if (location.isFile()) {
+                final ZipFile zipFile = new ZipFile(location);
+                try {
+                    final Map<String, ZipEntry> entryMap = new TreeMap<String, ZipEntry>();
+                    for (Enumeration<? extends ZipEntry> entries = zipFile
+                            .entries(); entries.hasMoreElements();) {
+                        final ZipEntry zipEntry = entries.nextElement();
+                        if (zipEntry.isDirectory() == false
+                                && zipEntry.getName().startsWith(CLASS_ROOT)) {
+                            entryMap.put(zipEntry.getName(), zipEntry);
+                        }
+                    }
+                    for (Map.Entry<String, ZipEntry> entry : entryMap
+                            .entrySet()) {
+                        final InputStream inStream = zipFile
+                                .getInputStream(entry.getValue());
+                        try {
+                            writeEntry(dataOutStream, entry.getKey(), inStream);
+                        } finally {
+                            inStream.close();
+                        }
+                    }
+                } finally {
+                    zipFile.close();
+                }
+            } else {
+                return null;
+            }
+            dataOutStream.flush();
+            if (outStream.size() == 0) {
+                return null;
+            }
+            return BlancoCgFingerprintUtil.createDigest(outStream
+                    .toByteArray());
+        } catch (Exception ex) {
+            // 算出できない場合には、バージョンだけで判定します。
+            return null;
+        }
+    }
+
+    /**
+     * ディレクトリ以下のファイルを、ルートからの相対パスをキーとして収集します。
+     * 
+     * @param argDirectory
+     *            ディレクトリ。
+     * @param argPath
+     *            ディレクトリのルートからの相対パス。末尾は / です。
+     * @param argFileMap
+     *            収集先のマップ。
+     */
+    private static void collectFiles(final File argDirectory,
+            final String argPath, final Map<String, File> argFileMap) {
+        final File[] files = argDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (int index = 0; index < files.length; index++) {
+            if (files[index].isDirectory()) {
+                collectFiles(files[index], argPath + files[index].getName()
+                        + "/", argFileMap);
+            } else {
+                argFileMap.put(argPath + files[index].getName(), files[index]);
+            }
+        }
+    }
+
+    /**
+     * エントリの名前と内容を、それぞれ長さを付与して書き出します。
+     * 
+     * @param argOutStream
+     *            出力先ストリーム。
+     * @param argName
+     *            エントリの名前。
+     * @param argInStream
+     *            エントリの内容。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private static void writeEntry(final DataOutputStream argOutStream,
+            final String argName, final InputStream argInStream)
+            throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buf = new byte[READ_CHUNK];
+        for (int length = argInStream.read(buf); length >= 0; length = argInStream
+                .read(buf)) {
+            content.write(buf, 0, length);
+        }
+        argOutStream.writeUTF(argName);
+        argOutStream.writeInt(content.size());
+        content.writeTo(argOutStream);
+    }
+
+    /**
+     * マニフェストのファイルを取得します。
+     * 
+     * @return マニフェストのファイル。
+     */
+    File getManifestFile() {
+        return new File(fOutputDirectory, MANIFEST_FILENAME);
+    }
+
+    /**
+     * 出力先ルートディレクトリからの相対パスを取得します。
+     * 
+     * @param argFile
+     *            出力先のファイル。
+     * @return 相対パス。
+     */
+    private String getRelativePath(final File argFile) {
+        final String rootPath = fOutputDirectory.getAbsolutePath();
+        String path = argFile.getAbsolutePath();
+        if (path.startsWith(rootPath + File.separator)) {
+            path = path.substring(rootPath.length() + 1);
+        }
+        return path.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * 出力したファイル 1 件分の記録です。
+     */
+    private static class Entry {
+        /**
+         * 生成元バリューオブジェクトの指紋。
+         */
+        private final String fFingerprint;
+
+        /**
+         * 出力時のファイルのサイズ。
+         */
+        private final long fLength;
+
+        /**
+         * 出力時のファイルの更新日時。
+         */
+        private final long fLastModified;
+
+        /**
+         * 出力内容のダイジェスト。
+         */
+        private final String fContentDigest;
+
+        /**
+         * 記録を作成します。
+         * 
+         * @param argFingerprint
+         *            生成元バリューオブジェクトの指紋。
+         * @param argLength
+         *            出力時のファイルのサイズ。
+         * @param argLastModified
+         *            出力時のファイルの更新日時。
+         * @param argContentDigest
+         *            出力内容のダイジェスト。
+         */
+        Entry(final String argFingerprint, final long argLength,
+                final long argLastModified, final String argContentDigest) {
+            fFingerprint = argFingerprint;
+            fLength = argLength;
+            fLastModified = argLastModified;
+            fContentDigest = argContentDigest;
+        }
+
+        /**
+         * 出力後にファイルが変更されていないかどうかを判定します。
+         * 
+         * サイズと更新日時が記録と一致すれば、変更されていないものとみなします。
+         * 
+         * @param argFile
+         *            出力先のファイル。
+         * @return 変更されていなければ true。
+         */
+        boolean isUnchanged(final File argFile) {
+            return argFile.isFile() && argFile.length() == fLength
+                    && argFile.lastModified() == fLastModified;
+        }
+
+        /**
+         * マニフェストに保存する際の文字列表現を取得します。
+         * 
+         * @return タブ区切りの文字列表現。
+         */
+        public String toString() {
+            return fFingerprint + "\t" + fLength + "\t" + fLastModified
+                    + "\t" + fContentDigest;
+        }
+    }
+}
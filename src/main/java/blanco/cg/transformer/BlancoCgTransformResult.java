@@ -0,0 +1,170 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * ソースファイル 1 件分の出力結果をあらわすクラスです。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgTransformResult {
+    /**
+     * 出力状況: 失敗。例外が発生してファイルを出力できませんでした。
+     */
+    public static final int STATUS_FAILED = -1;
+
+    /**
+     * 出力状況: スキップ。既存のファイルと内容が同一であったため出力を見送りました。
+     */
+    public static final int STATUS_SKIP = 0;
+
+    /**
+     * 出力状況: 新規作成。
+     */
+    public static final int STATUS_CREATE = 1;
+
+    /**
+     * 出力状況: 更新。
+     */
+    public static final int STATUS_UPDATE = 2;
+
+    /**
+     * 処理対象となったソースファイル・バリューオブジェクト。
+     */
+    private final BlancoCgSourceFile fSourceFile;
+
+    /**
+     * 出力先ルートからの相対パス。
+     */
+    private final String fPath;
+
+    /**
+     * 出力先のファイル。
+     */
+    private final File fFile;
+
+    /**
+     * 出力状況。
+     */
+    private final int fStatus;
+
+    /**
+     * 失敗した場合の例外。
+     */
+    private final RuntimeException fException;
+
+    /**
+     * 出力結果のインスタンスを生成します。
+     *
+     * @param argSourceFile
+     *            処理対象となったソースファイル・バリューオブジェクト。
+     * @param argFile
+     *            出力先のファイル。確定できなかった場合には null。
+     * @param argStatus
+     *            出力状況。STATUS_で始まる定数のいずれか。
+     * @param argException
+     *            失敗した場合の例外。成功した場合には null。
+     */
+    public BlancoCgTransformResult(final BlancoCgSourceFile argSourceFile,
+            final File argFile, final int argStatus,
+            final RuntimeException argException) {
+        this(argSourceFile, null, argFile, argStatus, argException);
+    }
+
+    /**
+     * 出力先ルートからの相対パスを指定して、出力結果のインスタンスを生成します。
+     *
+     * @param argSourceFile
+     *            処理対象となったソースファイル・バリューオブジェクト。
+     * @param argPath
+     *            出力先ルートからの相対パス。確定できなかった場合には null。
+     * @param argFile
+     *            出力先のファイル。ファイルに出力しない場合や、確定できなかった場合には null。
+     * @param argStatus
+     *            出力状況。STATUS_で始まる定数のいずれか。
+     * @param argException
+     *            失敗した場合の例外。成功した場合には null。
+     */
+    public BlancoCgTransformResult(final BlancoCgSourceFile argSourceFile,
+            final String argPath, final File argFile, final int argStatus,
+            final RuntimeException argException) {
+        fSourceFile = argSourceFile;
+        fPath = argPath;
+        fFile = argFile;
+        fStatus = argStatus;
+        fException = argException;
+    }
+
+    /**
+     * 処理対象となったソースファイル・バリューオブジェクトを取得します。
+     *
+     * @return ソースファイル・バリューオブジェクト。
+     */
+    public BlancoCgSourceFile getSourceFile() {
+        return fSourceFile;
+    }
+
+    /**
+     * 出力先ルートからの相対パスを取得します。
+     *
+     * パスの区切り文字にはスラッシュを利用します。
+     *
+     * @return 相対パス。確定できなかった場合には null。
+     */
+    public String getPath() {
+        return fPath;
+    }
+
+    /**
+     * 出力先のファイルを取得します。
+     *
+     * @return 出力先のファイル。ファイルに出力しない場合や、確定できなかった場合には null。
+     */
+    public File getFile() {
+        return fFile;
+    }
+
+    /**
+     * 出力状況を取得します。
+     *
+     * @return STATUS_で始まる定数のいずれか。
+     */
+    public int getStatus() {
+        return fStatus;
+    }
+
+    /**
+     * 失敗した場合の例外を取得します。
+     *
+     * @return 例外。成功した場合には null。
+     */
+    public RuntimeException getException() {
+        return fException;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 変換の計測情報を集計する標準のリスナーです。
+ *
+ * 段階ごとの所要時間の合計とパーセンタイル、出力状況ごとの件数、行数・バイト数の合計を集計します。<br>
+ * 所要時間の長いソースファイルを取り出せるため、生成時間を支配しているバリューオブジェクトを特定することができます。<br>
+ * 複数のスレッドから同時に利用することができます。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgTransformStatistics implements BlancoCgTransformListener {
+    /**
+     * 受け取った計測情報の一覧。
+     */
+    private final List<BlancoCgTransformEvent> fEventList = new ArrayList<BlancoCgTransformEvent>();
+
+    /**
+     * 変換の開始を受け取ります。集計は変換の終了時におこなうため、何もしません。
+     *
+     * @param argEvent
+     *            変換を始めるソースファイルの計測情報。
+     */
+    public void transformStarted(final BlancoCgTransformEvent argEvent) {
+    }
+
+    /**
+     * 段階の開始を受け取ります。集計は変換の終了時におこなうため、何もしません。
+     *
+     * @param argEvent
+     *            変換中のソースファイルの計測情報。
+     * @param argPhase
+     *            開始した段階。
+     */
+    public void phaseStarted(final BlancoCgTransformEvent argEvent,
+            final int argPhase) {
+    }
+
+    /**
+     * 段階の終了を受け取ります。集計は変換の終了時におこなうため、何もしません。
+     *
+     * @param argEvent
+     *            変換中のソースファイルの計測情報。
+     * @param argPhase
+     *            終了した段階。
+     */
+    public void phaseCompleted(final BlancoCgTransformEvent argEvent,
+            final int argPhase) {
+    }
+
+    /**
+     * ソースファイル 1 件分の計測情報を集計に加えます。
+     *
+     * @param argEvent
+     *            変換を終えたソースファイルの計測情報。
+     */
+    public synchronized void transformCompleted(
+            final BlancoCgTransformEvent argEvent) {
+        fEventList.add(argEvent);
+    }
+
+    /**
+     * 集計したソースファイルの件数を取得します。
+     *
+     * @return 件数。
+     */
+    public synchronized int getCount() {
+        return fEventList.size();
+    }
+
+    /**
+     * 指定の出力状況となったソースファイルの件数を取得します。
+     *
+     * @param argStatus
+     *            BlancoCgTransformResult.STATUS_CREATE などの出力状況。
+     * @return 件数。
+     */
+    public synchronized int getCount(final int argStatus) {
+        int count = 0;
+        for (BlancoCgTransformEvent event : fEventList) {
+            if (event.getStatus() == argStatus) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 受け取った行数の合計を取得します。
+     *
+     * @return 行数。
+     */
+    public synchronized long getLineCount() {
+        long count = 0;
+        for (BlancoCgTransformEvent event : fEventList) {
+            count += event.getLineCount();
+        }
+        return count;
+    }
+
+    /**
+     * 出力したバイト数の合計を取得します。
+     *
+     * @return バイト数。
+     */
+    public synchronized long getByteCount() {
+        long count = 0;
+        for (BlancoCgTransformEvent event : fEventList) {
+            count += event.getByteCount();
+        }
+        return count;
+    }
+
+    /**
+     * 段階の所要時間の合計を取得します。
+     *
+     * @param argPhase
+     *            段階。BlancoCgTransformEvent.PHASE_EXPAND などの定数です。
+     * @return 所要時間(ナノ秒)。
+     */
+    public synchronized long getTotalDuration(final int argPhase) {
+        long total = 0;
+        for (BlancoCgTransformEvent event : fEventList) {
+            total += event.getDuration(argPhase);
+        }
+        return total;
+    }
+
+    /**
+     * ソースファイルごとの段階の所要時間について、パーセンタイルを取得します。
+     *
+     * @param argPhase
+     *            段階。BlancoCgTransformEvent.PHASE_EXPAND などの定数です。
+     * @param argPercentile
+     *            パーセンタイル。0 より大きく 100 以下の値で指定します。
+     * @return 所要時間(ナノ秒)。集計したソースファイルがない場合には 0。
+     */
+    public synchronized long getPercentile(final int argPhase,
+            final double argPercentile) {
+        if (argPercentile <= 0.0 || argPercentile > 100.0) {
+            throw new IllegalArgumentException("パーセンタイルには0より大きく100以下の値を指定してください。("
+                    + argPercentile + ")");
+        }
+        if (fEventList.size() == 0) {
+            return 0;
+        }
+
+        final long[] durations = new long[fEventList.size()];
+        for (int index = 0; index < durations.length; index++) {
+            durations[index] = fEventList.get(index).getDuration(argPhase);
+        }
+        Arrays.sort(durations);
+
+        // 最近順位法で求めます。
+        final int rank = (int) Math.ceil(argPercentile / 100.0
+                * durations.length);
+        return durations[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * 全段階の所要時間の合計が長い順に、ソースファイルの計測情報を取得します。
+     *
+     * @param argCount
+     *            取得する件数。
+     * @return 計測情報の一覧。
+     */
+    public synchronized List<BlancoCgTransformEvent> getSlowestEvents(
+            final int argCount) {
+        final List<BlancoCgTransformEvent> eventList = new ArrayList<BlancoCgTransformEvent>(
+                fEventList);
+        Collections.sort(eventList, new Comparator<BlancoCgTransformEvent>() {
+            public int compare(final BlancoCgTransformEvent arg0,
+                    final BlancoCgTransformEvent arg1) {
+                final long duration0 = arg0.getTotalDuration();
+                final long duration1 = arg1.getTotalDuration();
+                return (duration0 > duration1 ? -1
+                        : (duration0 == duration1 ? 0 : 1));
+            }
+        });
+        return eventList.subList(0, Math.min(argCount, eventList.size()));
+    }
+
+    /**
+     * 集計結果を文字列として取得します。
+     *
+     * @return 集計結果。所要時間はミリ秒で表記します。
+     */
+    public synchronized String toString() {
+        final StringBuffer buf = new StringBuffer();
+        buf.append("files=" + getCount());
+        buf.append(", create=" + getCount(BlancoCgTransformResult.STATUS_CREATE));
+        buf.append(", update=" + getCount(BlancoCgTransformResult.STATUS_UPDATE));
+        buf.append(", skip=" + getCount(BlancoCgTransformResult.STATUS_SKIP));
+        buf.append(", failed=" + getCount(BlancoCgTransformResult.STATUS_FAILED));
+        buf.append(", lines=" + getLineCount());
+        buf.append(", bytes=" + getByteCount());
+        for (int phase = 0; phase < BlancoCgTransformEvent.PHASE_COUNT; phase++) {
+            buf.append("\n" + BlancoCgTransformEvent.getPhaseName(phase) + ": ");
+            buf.append("total=" + toMillis(getTotalDuration(phase)));
+            buf.append(", p50=" + toMillis(getPercentile(phase, 50.0)));
+            buf.append(", p90=" + toMillis(getPercentile(phase, 90.0)));
+            buf.append(", p99=" + toMillis(getPercentile(phase, 99.0)));
+            buf.append(", max=" + toMillis(getPercentile(phase, 100.0)));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * ナノ秒をミリ秒の表記に変換します。
+     *
+     * @param argNanos
+     *            ナノ秒。
+     * @return ミリ秒の表記。
+     */
+    private static String toMillis(final long argNanos) {
+        return (argNanos / 1000000) + "." + (argNanos / 100000 % 10) + "ms";
+    }
+}
@@ -41,11 +41,129 @@ import blanco.cg.transformer.vb.BlancoCgVbSourceTransformer;
  * BlancoCgTransformerを取得するためのファクトリです。
  * 
  * BlancoCgTransformerは、blancoCgのバリューオブジェクトをソースコードに変換します。
- * 現在の仕様では、変換時にバリューオブジェクトの内容が更新されるため、ソースコード変換は１度しか実行できない点にご注意下さい。
+ * 出力先やマニフェスト、リスナーを指定した変換を利用する場合には、BlancoCgSourceTransformer を戻す getSourceTransformer(int, boolean) を利用してください。<br>
+ * 従来からの取得メソッドは、既にコンパイル済みの呼び出し元との互換性のため BlancoCgTransformer を戻します。
+ * 
+ * 従来からの取得メソッドが戻すトランスフォーマーは、変換時にバリューオブジェクトの内容(ソースファイル名と import一覧)を更新します。<br>
+ * 同じバリューオブジェクトを繰り返し、あるいは複数のスレッドから同時に変換したい場合には、
+ * getSourceTransformer(int, boolean) に true を与えて、副作用のない変換をおこなうトランスフォーマーを取得してください。
+ * 
+ * トランスフォーマーは状態を持たないため、このファクトリはプログラミング言語ごとに共有のインスタンスを戻します。<br>
+ * 異なるソースファイル・バリューオブジェクトであれば、同じトランスフォーマーを複数のスレッドから同時に利用することができます。
  * 
  * @author IGA Tosiki
  */
 public class BlancoCgTransformerFactory {
+    /**
+     * Javaソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer JAVA_SOURCE_TRANSFORMER = new BlancoCgJavaSourceTransformer();
+
+    /**
+     * C#.NETソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer CS_SOURCE_TRANSFORMER = new BlancoCgCsSourceTransformer();
+
+    /**
+     * JavaScriptソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer JS_SOURCE_TRANSFORMER = new BlancoCgJsSourceTransformer();
+
+    /**
+     * VB.NETソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer VB_SOURCE_TRANSFORMER = new BlancoCgVbSourceTransformer();
+
+    /**
+     * PHPソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer PHP_SOURCE_TRANSFORMER = new BlancoCgPhpSourceTransformer();
+
+    /**
+     * Rubyソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer RUBY_SOURCE_TRANSFORMER = new BlancoCgRubySourceTransformer();
+
+    /**
+     * Pythonソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer PYTHON_SOURCE_TRANSFORMER = new BlancoCgPythonSourceTransformer();
+
+    /**
+     * Delphiソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer DELPHI_SOURCE_TRANSFORMER = new BlancoCgDelphiSourceTransformer();
+
+    /**
+     * C++11ソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer CPP11_SOURCE_TRANSFORMER = new BlancoCgCpp11SourceTransformer();
+
+    /**
+     * Swiftソースコードを生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer SWIFT_SOURCE_TRANSFORMER = new BlancoCgSwiftSourceTransformer();
+
+    /**
+     * Javaソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer JAVA_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgJavaSourceTransformer(
+            true);
+
+    /**
+     * C#.NETソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer CS_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgCsSourceTransformer(
+            true);
+
+    /**
+     * JavaScriptソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer JS_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgJsSourceTransformer(
+            true);
+
+    /**
+     * VB.NETソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer VB_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgVbSourceTransformer(
+            true);
+
+    /**
+     * PHPソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer PHP_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgPhpSourceTransformer(
+            true);
+
+    /**
+     * Rubyソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer RUBY_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgRubySourceTransformer(
+            true);
+
+    /**
+     * Pythonソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer PYTHON_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgPythonSourceTransformer(
+            true);
+
+    /**
+     * Delphiソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer DELPHI_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgDelphiSourceTransformer(
+            true);
+
+    /**
+     * C++11ソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer CPP11_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgCpp11SourceTransformer(
+            true);
+
+    /**
+     * Swiftソースコードを副作用なしに生成するトランスフォーマーの共有インスタンス。
+     */
+    private static final BlancoCgSourceTransformer SWIFT_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER = new BlancoCgSwiftSourceTransformer(
+            true);
+
     /**
      * 指定されたプログラミング言語に対応したトランスフォーマーを取得します。
      * 
@@ -55,27 +173,73 @@ public class BlancoCgTransformerFactory {
      */
     public static final BlancoCgTransformer getSourceTransformer(
             final int targetLang) {
+        return getSourceTransformer(targetLang, false);
+    }
+
+    /**
+     * 指定されたプログラミング言語に対応したトランスフォーマーを、副作用の有無を指定して取得します。
+     * 
+     * 副作用のない変換を指定した場合には、変換によってバリューオブジェクトの内容が更新されることはありません。<br>
+     * 同じバリューオブジェクトを繰り返し、あるいは複数のスレッドから同時に変換することができます。
+     * 
+     * @param targetLang
+     *            取得したいトランスフォーマのプログラミング言語。BlancoCgSupportedLangで指定します。
+     * @param isSideEffectFree
+     *            副作用のない変換をおこなうかどうか。false を指定した場合には、従来からの取得メソッドと同じ共有インスタンスを戻します。
+     * @return 出力先やマニフェスト、リスナーを指定した変換も利用できる、ソースコード変換のためのトランスフォーマー。
+     */
+    public static final BlancoCgSourceTransformer getSourceTransformer(
+            final int targetLang, final boolean isSideEffectFree) {
+        if (isSideEffectFree == false) {
+            switch (targetLang) {
+            case BlancoCgSupportedLang.JAVA:
+                return JAVA_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.CS:
+                return CS_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.JS:
+                return JS_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.VB:
+                return VB_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.PHP:
+                return PHP_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.RUBY:
+                return RUBY_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.PYTHON:
+                return PYTHON_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.DELPHI:
+                return DELPHI_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.CPP11:
+                return CPP11_SOURCE_TRANSFORMER;
+            case BlancoCgSupportedLang.SWIFT:
+                return SWIFT_SOURCE_TRANSFORMER;
+            default:
+                throw new IllegalArgumentException(
+                        "BlancoCgTransformerFactory.getSourceTransformer: 対応しないプログラミング言語("
+                                + targetLang + ")が指定されました。");
+            }
+        }
+
         switch (targetLang) {
         case BlancoCgSupportedLang.JAVA:
-            return BlancoCgTransformerFactory.getJavaSourceTransformer();
+            return JAVA_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.CS:
-            return BlancoCgTransformerFactory.getCsSourceTransformer();
+            return CS_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.JS:
-            return BlancoCgTransformerFactory.getJsSourceTransformer();
+            return JS_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.VB:
-            return BlancoCgTransformerFactory.getVbSourceTransformer();
+            return VB_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.PHP:
-            return BlancoCgTransformerFactory.getPhpSourceTransformer();
+            return PHP_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.RUBY:
-            return BlancoCgTransformerFactory.getRubySourceTransformer();
+            return RUBY_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.PYTHON:
-            return BlancoCgTransformerFactory.getPythonSourceTransformer();
+            return PYTHON_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.DELPHI:
-            return BlancoCgTransformerFactory.getDelphiSourceTransformer();
+            return DELPHI_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.CPP11:
-            return BlancoCgTransformerFactory.getCpp11SourceTransformer();
+            return CPP11_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         case BlancoCgSupportedLang.SWIFT:
-            return BlancoCgTransformerFactory.getSwiftSourceTransformer();
+            return SWIFT_SIDE_EFFECT_FREE_SOURCE_TRANSFORMER;
         default:
             throw new IllegalArgumentException(
                     "BlancoCgTransformerFactory.getSourceTransformer: 対応しないプログラミング言語("
@@ -89,7 +253,7 @@ public class BlancoCgTransformerFactory {
      * @return Java言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getJavaSourceTransformer() {
-        return new BlancoCgJavaSourceTransformer();
+        return JAVA_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -98,7 +262,7 @@ public class BlancoCgTransformerFactory {
      * @return C#.NET言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getCsSourceTransformer() {
-        return new BlancoCgCsSourceTransformer();
+        return CS_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -107,7 +271,7 @@ public class BlancoCgTransformerFactory {
      * @return JavaScript言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getJsSourceTransformer() {
-        return new BlancoCgJsSourceTransformer();
+        return JS_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -116,7 +280,7 @@ public class BlancoCgTransformerFactory {
      * @return VB.NET言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getVbSourceTransformer() {
-        return new BlancoCgVbSourceTransformer();
+        return VB_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -125,7 +289,7 @@ public class BlancoCgTransformerFactory {
      * @return PHP言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getPhpSourceTransformer() {
-        return new BlancoCgPhpSourceTransformer();
+        return PHP_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -135,7 +299,7 @@ public class BlancoCgTransformerFactory {
      * @return Ruby言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getRubySourceTransformer() {
-        return new BlancoCgRubySourceTransformer();
+        return RUBY_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -145,7 +309,7 @@ public class BlancoCgTransformerFactory {
      * @return Python言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getPythonSourceTransformer() {
-        return new BlancoCgPythonSourceTransformer();
+        return PYTHON_SOURCE_TRANSFORMER;
     }
  
     /**
@@ -154,7 +318,7 @@ public class BlancoCgTransformerFactory {
      * @return Delphi言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getDelphiSourceTransformer() {
-        return new BlancoCgDelphiSourceTransformer();
+        return DELPHI_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -163,7 +327,7 @@ public class BlancoCgTransformerFactory {
      * @return C++11 言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getCpp11SourceTransformer() {
-        return new BlancoCgCpp11SourceTransformer();
+        return CPP11_SOURCE_TRANSFORMER;
     }
 
     /**
@@ -172,6 +336,6 @@ public class BlancoCgTransformerFactory {
      * @return Swift 言語ソースコードを生成するトランスフォーマー。
      */
     public static BlancoCgTransformer getSwiftSourceTransformer() {
-        return new BlancoCgSwiftSourceTransformer();
+        return SWIFT_SOURCE_TRANSFORMER;
     }
 }
\ No newline at end of file
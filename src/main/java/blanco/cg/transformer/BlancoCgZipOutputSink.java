@@ -0,0 +1,106 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 生成したソースファイルを、1 つの zip ストリームへエントリとして順に出力する出力先です。
+ * 
+ * ファイルを 1 件ずつ作成するかわりに 1 本のストリームへ書き込むため、大量の小さなソースファイルを生成する際の入出力を削減できます。<br>
+ * jar ファイルへ出力する場合には、JarOutputStream を与えてください。<br>
+ * 既存の内容との比較はおこなわないため、出力状況は常に新規作成となります。
+ * 同じパスへの出力が繰り返された場合には例外となります。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgZipOutputSink implements BlancoCgOutputSink {
+    /**
+     * 出力先の zip ストリーム。
+     */
+    private final ZipOutputStream fZipStream;
+
+    /**
+     * 与えられたストリームへ zip 形式で出力する出力先を作成します。
+     * 
+     * @param argOutStream
+     *            出力先ストリーム。
+     */
+    public BlancoCgZipOutputSink(final OutputStream argOutStream) {
+        this(new ZipOutputStream(argOutStream));
+    }
+
+    /**
+     * 与えられた zip ストリームへ出力する出力先を作成します。
+     * 
+     * @param argZipStream
+     *            出力先の zip ストリーム。JarOutputStream を与えることもできます。
+     */
+    public BlancoCgZipOutputSink(final ZipOutputStream argZipStream) {
+        if (argZipStream == null) {
+            throw new IllegalArgumentException(
+                    "出力先ストリームにnullが与えられました。処理中断します。");
+        }
+        fZipStream = argZipStream;
+    }
+
+    public boolean isFingerprintRequired() {
+        return false;
+    }
+
+    public boolean isUpToDate(final String argPath, final String argFingerprint) {
+        return false;
+    }
+
+    public synchronized int write(final String argPath, final byte[] argBytes,
+            final String argFingerprint) throws IOException {
+        // エントリは 1 本のストリームに順に書き込むため、エントリ単位で排他します。
+        fZipStream.putNextEntry(new ZipEntry(argPath));
+        fZipStream.write(argBytes);
+        fZipStream.closeEntry();
+        return BlancoCgTransformResult.STATUS_CREATE;
+    }
+
+    public File getFile(final String argPath) {
+        return null;
+    }
+
+    /**
+     * zip ストリームの出力を完了します。
+     * 
+     * 元となったストリームはクローズしません。
+     * 
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public synchronized void finish() throws IOException {
+        fZipStream.finish();
+        fZipStream.flush();
+    }
+}
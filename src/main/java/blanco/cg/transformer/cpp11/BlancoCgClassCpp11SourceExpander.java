@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.cpp11;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgField;
@@ -43,6 +44,11 @@ import blanco.cg.valueobject.BlancoCgType;
  */
 class BlancoCgClassCpp11SourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassCpp11SourceExpander INSTANCE = new BlancoCgClassCpp11SourceExpander();
+
     /**
      * ここでClassを展開します。
      * 
@@ -53,19 +59,14 @@ class BlancoCgClassCpp11SourceExpander {
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocCpp11SourceExpander().transformLangDoc(cgClass
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocCpp11SourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgClass, argSourceLines);
@@ -90,10 +91,14 @@ class BlancoCgClassCpp11SourceExpander {
         expandImplementInterfaceList(cgClass, argSourceFile, buf);
 
         // 行を確定して書き出しを実施。
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgClass));
 
         // クラスのブロックの開始。
-        argSourceLines.add("{");
+        argSourceLines.addLine(new BlancoCgSourceLine("{",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgClass));
 
         // ここで列挙体を展開。
         expandEnumList(cgClass, argSourceFile, argSourceLines);
@@ -105,7 +110,9 @@ class BlancoCgClassCpp11SourceExpander {
         expandMethodList(cgClass, argSourceFile, argSourceLines);
 
         // クラスのブロックの終了。
-        argSourceLines.add("};");
+        argSourceLines.addLine(new BlancoCgSourceLine("};",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgClass));
     }
 
     /**
@@ -117,11 +124,15 @@ class BlancoCgClassCpp11SourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgClass cgClass,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgClass.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgClass.getAnnotationList().get(index);
+            final String strAnnotation = cgClass.getAnnotationList()
+                    .get(index);
             // C++11 にはAnnotationは無い、、、はず。
-            argSourceLines.add("// [" + strAnnotation + "]");
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    "// [" + strAnnotation + "]",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgClass));
         }
     }
 
@@ -139,7 +150,8 @@ class BlancoCgClassCpp11SourceExpander {
     private void expandExtendClassList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             // C++ においては、この方式では追加不能。import文に型を追加。
             // C++ においては、この方式では追加不能。argSourceFile.getImportList().add(type.getName());
@@ -170,8 +182,8 @@ class BlancoCgClassCpp11SourceExpander {
     private void expandImplementInterfaceList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getImplementInterfaceList().size(); index++) {
-            final BlancoCgType type = cgClass.getImplementInterfaceList().get(
-                    index);
+            final BlancoCgType type = cgClass
+                    .getImplementInterfaceList().get(index);
 
             // C++ においては、この方式では追加不能。import文に型を追加。
             // C++ においては、この方式では追加不能。argSourceFile.getImportList().add(type.getName());
@@ -198,13 +210,13 @@ class BlancoCgClassCpp11SourceExpander {
      */
     private void expandEnumList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getEnumList() == null) {
             return;
         }
 
         for (BlancoCgEnum cgEnum : cgClass.getEnumList()) {
-            new BlancoCgEnumCpp11SourceExpander().transformEnum(cgEnum,
+            BlancoCgEnumCpp11SourceExpander.INSTANCE.transformEnum(cgEnum,
                     argSourceFile, argSourceLines);
         }
     }
@@ -224,7 +236,7 @@ class BlancoCgClassCpp11SourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -234,7 +246,7 @@ class BlancoCgClassCpp11SourceExpander {
         for (int index = 0; index < cgClass.getFieldList().size(); index++) {
             final BlancoCgField cgField = cgClass.getFieldList().get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldCpp11SourceExpander().transformField(cgField,
+            BlancoCgFieldCpp11SourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -251,14 +263,15 @@ class BlancoCgClassCpp11SourceExpander {
      */
     private void expandMethodList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+            final BlancoCgMethod cgMethod = cgClass.getMethodList()
+                    .get(index);
             // クラスのメソッドとして展開を行います。
-            new BlancoCgMethodCpp11SourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodCpp11SourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -24,11 +24,11 @@
  */
 package blanco.cg.transformer.cpp11;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgEnumElement;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -48,6 +48,17 @@ class BlancoCgEnumCpp11SourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JAVA;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgEnumCpp11SourceExpander INSTANCE = new BlancoCgEnumCpp11SourceExpander();
+
     /**
      * ここで列挙体を展開します。
      * 
@@ -62,26 +73,21 @@ class BlancoCgEnumCpp11SourceExpander {
      */
     public void transformEnum(final BlancoCgEnum cgEnum,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (BlancoStringUtil.null2Blank(cgEnum.getName()).length() == 0) {
             throw new IllegalArgumentException("列挙体の名前に適切な値が設定されていません。");
         }
 
         // 有無をいわさず改行を付与します。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         // 最初にフィールド情報をLangDocに展開。
-        if (cgEnum.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgEnum.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgEnum.getLangDoc().getTitle() == null) {
-            cgEnum.getLangDoc().setTitle(cgEnum.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgEnum.getLangDoc(), cgEnum.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocCpp11SourceExpander().transformLangDoc(cgEnum
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocCpp11SourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         final StringBuffer buf = new StringBuffer();
 
@@ -110,13 +116,15 @@ class BlancoCgEnumCpp11SourceExpander {
 
             if (BlancoStringUtil.null2Blank(element.getDescription()).length() > 0) {
                 buf.append(" /* "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                element.getDescription()) + " */");
+                        + DIALECT.escapeStringAsLangDoc(element
+                            .getDescription()) + " */");
             }
         }
         buf.append("}");
 
-        buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-        argSourceLines.add(buf.toString());
+        buf.append(DIALECT.getTerminator());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgEnum));
     }
 }
@@ -24,10 +24,11 @@
  */
 package blanco.cg.transformer.cpp11;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgSourceFile;
@@ -46,6 +47,17 @@ class BlancoCgFieldCpp11SourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.CS;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgFieldCpp11SourceExpander INSTANCE = new BlancoCgFieldCpp11SourceExpander();
+
     /**
      * ここでフィールドを展開します。
      * 
@@ -60,7 +72,7 @@ class BlancoCgFieldCpp11SourceExpander {
      */
     public void transformField(final BlancoCgField cgField,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgField.getName()).length() == 0) {
             throw new IllegalArgumentException("フィールドの名前に適切な値が設定されていません。");
@@ -71,20 +83,15 @@ class BlancoCgFieldCpp11SourceExpander {
         }
 
         // 有無をいわさず改行を付与します。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         // 最初にフィールド情報をLangDocに展開。
-        if (cgField.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgField.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgField.getLangDoc().getTitle() == null) {
-            cgField.getLangDoc().setTitle(cgField.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgField.getLangDoc(), cgField.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocCpp11SourceExpander().transformLangDoc(cgField
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocCpp11SourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         final StringBuffer buf = new StringBuffer();
 
@@ -117,7 +124,9 @@ class BlancoCgFieldCpp11SourceExpander {
         if (BlancoStringUtil.null2Blank(cgField.getDefault()).length() > 0) {
             buf.append(" = " + cgField.getDefault());
         }
-        buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-        argSourceLines.add(buf.toString());
+        buf.append(DIALECT.getTerminator());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgField));
     }
 }
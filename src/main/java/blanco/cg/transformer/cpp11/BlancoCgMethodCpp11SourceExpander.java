@@ -24,11 +24,11 @@
  */
 package blanco.cg.transformer.cpp11;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgMethod;
@@ -49,6 +49,17 @@ class BlancoCgMethodCpp11SourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.CS;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgMethodCpp11SourceExpander INSTANCE = new BlancoCgMethodCpp11SourceExpander();
+
     /**
      * ここでメソッドを展開します。
      * 
@@ -63,7 +74,7 @@ class BlancoCgMethodCpp11SourceExpander {
      */
     public void transformMethod(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
             throw new IllegalArgumentException("メソッドの名前に適切な値が設定されていません。");
@@ -73,15 +84,14 @@ class BlancoCgMethodCpp11SourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
-        prepareExpand(cgMethod, argSourceFile);
+        final BlancoCgLangDoc langDoc = prepareExpand(cgMethod, argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocCpp11SourceExpander().transformLangDoc(cgMethod
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocCpp11SourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgMethod, argSourceLines);
@@ -98,58 +108,39 @@ class BlancoCgMethodCpp11SourceExpander {
      *            メソッドオブジェクト。
      * @param argSourceFile
      *            ソースファイル。
+     * @return 作業用の言語ドキュメント。
      */
-    private void prepareExpand(final BlancoCgMethod cgMethod,
+    private BlancoCgLangDoc prepareExpand(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile) {
         // 最初にメソッド情報をLangDocに展開。
-        if (cgMethod.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgMethod.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgMethod.getLangDoc().getParameterList() == null) {
-            cgMethod.getLangDoc().setParameterList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgParameter>());
-        }
-        if (cgMethod.getLangDoc().getThrowList() == null) {
-            cgMethod.getLangDoc().setThrowList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgException>());
-        }
-        if (cgMethod.getLangDoc().getTitle() == null) {
-            cgMethod.getLangDoc().setTitle(cgMethod.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgMethod.getLangDoc(), cgMethod.getDescription());
 
         for (int indexParameter = 0; indexParameter < cgMethod
                 .getParameterList().size(); indexParameter++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(indexParameter);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgParameter.getType().getName());
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(indexParameter);
 
             // 言語ドキュメントにパラメータを追加。
-            cgMethod.getLangDoc().getParameterList().add(cgParameter);
+            langDoc.getParameterList().add(cgParameter);
         }
 
         if (cgMethod.getReturn() != null) {
-            // import文に型を追加。
-            argSourceFile.getImportList().add(
-                    cgMethod.getReturn().getType().getName());
-
             // 言語ドキュメントにreturnを追加。
-            cgMethod.getLangDoc().setReturn(cgMethod.getReturn());
+            langDoc.setReturn(cgMethod.getReturn());
         }
 
         // 例外についてLangDoc構造体に展開
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgException.getType().getName());
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
 
             // 言語ドキュメントに例外を追加。
-            cgMethod.getLangDoc().getThrowList().add(cgException);
+            langDoc.getThrowList().add(cgException);
         }
+
+        return langDoc;
     }
 
     /**
@@ -164,7 +155,7 @@ class BlancoCgMethodCpp11SourceExpander {
      */
     private void expandMethodBody(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         final StringBuffer buf = new StringBuffer();
 
@@ -216,8 +207,8 @@ class BlancoCgMethodCpp11SourceExpander {
 
         buf.append(cgMethod.getName() + "(");
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のパラメータ[" + cgParameter.getName()
@@ -265,14 +256,20 @@ class BlancoCgMethodCpp11SourceExpander {
 
         if (cgMethod.getAbstract() || argIsInterface) {
             // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-            buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            argSourceLines.add(buf.toString());
+            buf.append(DIALECT.getTerminator());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         } else {
             // ここでいったん、行を確定。
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
 
             // メソッドブロックの開始。
-            argSourceLines.add("{");
+            argSourceLines.addLine(new BlancoCgSourceLine("{",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN, cgMethod));
 
             // パラメータの非null制約の展開。
             expandParameterCheck(cgMethod, argSourceFile, argSourceLines);
@@ -281,7 +278,9 @@ class BlancoCgMethodCpp11SourceExpander {
             expandLineList(cgMethod, argSourceLines);
 
             // メソッドブロックの終了。
-            argSourceLines.add("}");
+            argSourceLines.addLine(new BlancoCgSourceLine("}",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_END, cgMethod));
         }
     }
 
@@ -294,13 +293,16 @@ class BlancoCgMethodCpp11SourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgMethod.getAnnotationList().size(); index++) {
             final String strAnnotation = cgMethod.getAnnotationList()
                     .get(index);
 
             // C++11 にはAnnotationは無い、、、はず。
-            argSourceLines.add("// [" + strAnnotation + "]");
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    "// [" + strAnnotation + "]",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
     }
 
@@ -314,28 +316,27 @@ class BlancoCgMethodCpp11SourceExpander {
      */
     private void expandParameterCheck(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isProcessed = false;
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getNotnull()) {
                 isProcessed = true;
-                argSourceFile.getImportList().add("System.ArgumentException");
 
-                argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                        cgParameter.getName() + " == null"));
-                argSourceLines.add("throw new ArgumentException(\"メソッド["
+                argSourceLines.addText(DIALECT.getIfBegin(cgParameter.getName()
+                        + " == null"));
+                argSourceLines.addText("throw new ArgumentException(\"メソッド["
                         + cgMethod.getName() + "]のパラメータ["
                         + cgParameter.getName()
                         + "]にnullが与えられました。しかし、このパラメータにnullを与えることはできません。\");");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
         }
 
         if (isProcessed) {
             // パラメータチェックが展開された場合には空行を挿入します。
-            argSourceLines.add("");
+            argSourceLines.addText("");
         }
     }
 
@@ -348,10 +349,10 @@ class BlancoCgMethodCpp11SourceExpander {
      *            出力行リスト。
      */
     private void expandLineList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int indexLine = 0; indexLine < cgMethod.getLineList().size(); indexLine++) {
             final String strLine = cgMethod.getLineList().get(indexLine);
-            argSourceLines.add(strLine);
+            argSourceLines.addText(strLine);
         }
     }
 
@@ -24,12 +24,8 @@
  */
 package blanco.cg.transformer.cs;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.util.List;
-
 import blanco.cg.transformer.AbstractBlancoCgJavaStyleTransformer;
-import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.cg.transformer.BlancoCgTransformContext;
 
 /**
  * blancoCgのバリューオブジェクトからソースコードを自動生成するトランスフォーマーのエントリポイントです。
@@ -41,38 +37,32 @@ import blanco.cg.valueobject.BlancoCgSourceFile;
  */
 public class BlancoCgCsSourceTransformer extends
         AbstractBlancoCgJavaStyleTransformer {
+    /**
+     * トランスフォーマーを作成します。
+     */
+    public BlancoCgCsSourceTransformer() {
+        super();
+    }
 
     /**
-     * ソースファイル・バリューオブジェクトをC#.NETソースコードに変換してライターに出力します。
-     * 
-     * このAPIではパッケージ構造をディレクトリ構造とは考慮しません。この処理の中ではライターに向けて出力するだけです。
+     * 副作用の有無を指定してトランスフォーマーを作成します。
      * 
-     * @param argSourceFile
-     *            ソースファイル・バリューオブジェクト。
-     * @param argWriter
-     *            出力先のライター。
-     * @throws IOException 入出力例外が発生した場合
+     * @param argIsSideEffectFree
+     *            副作用のない変換をおこなうかどうか。
      */
-    public void transform(final BlancoCgSourceFile argSourceFile,
-            final BufferedWriter argWriter) throws IOException {
-        if (argSourceFile == null) {
-            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
-        }
-        if (argWriter == null) {
-            throw new IllegalArgumentException("出力先ライターにnullが与えられました。処理中断します。");
-        }
-
-        final List<java.lang.String> sourceLines = new BlancoCgSourceFileCsSourceExpander()
-                .transformSourceFile(argSourceFile);
-
-        // ソースコードを整形します。
-        formatSource(sourceLines);
-
-        // ソースコードをライタへと出力します。
-        source2Writer(sourceLines, argWriter);
+    public BlancoCgCsSourceTransformer(final boolean argIsSideEffectFree) {
+        super(argIsSideEffectFree);
+    }
 
-        // 念のためフラッシュを実施。
-        argWriter.flush();
+    /**
+     * ソースファイル・バリューオブジェクトをC#.NETソースコードに展開します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    protected void expandSourceFile(final BlancoCgTransformContext argContext) {
+        BlancoCgSourceFileCsSourceExpander.INSTANCE
+                .transformSourceFile(argContext);
     }
 
     /**
@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.cs;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgInterface;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -43,6 +44,11 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgInterfaceCsSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgInterfaceCsSourceExpander INSTANCE = new BlancoCgInterfaceCsSourceExpander();
+
     /**
      * ここでinterfaceを展開します。
      * 
@@ -55,21 +61,16 @@ class BlancoCgInterfaceCsSourceExpander {
      */
     public void transformInterface(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // インタフェースの場合には Java言語同様にフィールドやメソッドからpublicが除外されます。
 
         // 最初にインタフェース情報をLangDocに展開。
-        if (cgInterface.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgInterface.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgInterface.getLangDoc().getTitle() == null) {
-            cgInterface.getLangDoc().setTitle(cgInterface.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgInterface.getLangDoc(), cgInterface.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocCsSourceExpander().transformLangDoc(cgInterface
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocCsSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         final StringBuffer buf = new StringBuffer();
 
@@ -84,9 +85,13 @@ class BlancoCgInterfaceCsSourceExpander {
 
         // ※ポイント: 親インタフェース展開は interfaceには存在しません。
 
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgInterface));
 
-        argSourceLines.add("{");
+        argSourceLines.addLine(new BlancoCgSourceLine("{",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgInterface));
 
         // ここでフィールドを展開。
         expandFieldList(cgInterface, argSourceFile, argSourceLines);
@@ -94,7 +99,9 @@ class BlancoCgInterfaceCsSourceExpander {
         // ここでメソッドを展開。
         expandMethodList(cgInterface, argSourceFile, argSourceLines);
 
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgInterface));
     }
 
     /**
@@ -106,7 +113,8 @@ class BlancoCgInterfaceCsSourceExpander {
     private void expandExtendClassList(final BlancoCgInterface cgClass,
             final StringBuffer buf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 buf.append(" : "
@@ -128,7 +136,7 @@ class BlancoCgInterfaceCsSourceExpander {
      */
     private void expandFieldList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -136,8 +144,9 @@ class BlancoCgInterfaceCsSourceExpander {
         }
 
         for (int index = 0; index < cgInterface.getFieldList().size(); index++) {
-            final BlancoCgField cgField = cgInterface.getFieldList().get(index);
-            new BlancoCgFieldCsSourceExpander().transformField(cgField,
+            final BlancoCgField cgField = cgInterface.getFieldList()
+                    .get(index);
+            BlancoCgFieldCsSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, true);
         }
     }
@@ -151,14 +160,14 @@ class BlancoCgInterfaceCsSourceExpander {
      */
     private void expandMethodList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgInterface.getMethodList().size(); index++) {
             final BlancoCgMethod cgMethod = cgInterface.getMethodList().get(
                     index);
-            new BlancoCgMethodCsSourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodCsSourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, true);
         }
     }
@@ -27,6 +27,9 @@ package blanco.cg.transformer.delphi;
 import java.util.ArrayList;
 import java.util.List;
 
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgField;
@@ -44,6 +47,11 @@ import blanco.cg.valueobject.BlancoCgType;
  */
 class BlancoCgClassDelphiSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassDelphiSourceExpander INSTANCE = new BlancoCgClassDelphiSourceExpander();
+
     /**
      * ここでClassを展開します。
      * 
@@ -54,19 +62,14 @@ class BlancoCgClassDelphiSourceExpander {
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocDelphiSourceExpander().transformLangDoc(cgClass
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocDelphiSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgClass, argSourceLines);
@@ -93,10 +96,12 @@ class BlancoCgClassDelphiSourceExpander {
         expandImplementInterfaceList(cgClass, argSourceFile, buf);
 
         // 行を確定して書き出しを実施。
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgClass));
 
         // クラスのブロックの開始。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         // ここで列挙体を展開。
         // expandEnumList(cgClass, argSourceFile, argSourceLines);
@@ -108,16 +113,23 @@ class BlancoCgClassDelphiSourceExpander {
         expandMethodDeclarationList(cgClass, argSourceFile, argSourceLines);
 
         // クラスのブロックの終了。
-        argSourceLines.add("end;");
+        argSourceLines.addLine(new BlancoCgSourceLine("end;",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgClass));
 
         // implementation
-        argSourceLines.add("implementation");
+        argSourceLines.addLine(new BlancoCgSourceLine("implementation",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN
+                        | BlancoCgSourceLine.INDENT_END, cgClass));
 
         // ここでメソッドを展開。
         expandMethodList(cgClass, argSourceFile, argSourceLines);
 
         // end.
-        argSourceLines.add("end.");
+        argSourceLines.addLine(new BlancoCgSourceLine("end.",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgClass));
 
     }
 
@@ -130,11 +142,15 @@ class BlancoCgClassDelphiSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgClass cgClass,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgClass.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgClass.getAnnotationList().get(index);
+            final String strAnnotation = cgClass.getAnnotationList()
+                    .get(index);
             // C#.NET言語のAnnotationは []で記述します。
-            argSourceLines.add("[" + strAnnotation + "]");
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    "[" + strAnnotation + "]",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgClass));
         }
     }
 
@@ -156,7 +172,8 @@ class BlancoCgClassDelphiSourceExpander {
             return;
         }
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             // import文に型を追加。
             // argSourceFile.getImportList().add(type.getName());
@@ -188,8 +205,8 @@ class BlancoCgClassDelphiSourceExpander {
     private void expandImplementInterfaceList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getImplementInterfaceList().size(); index++) {
-            final BlancoCgType type = cgClass.getImplementInterfaceList().get(
-                    index);
+            final BlancoCgType type = cgClass
+                    .getImplementInterfaceList().get(index);
 
             // import文に型を追加。
             // argSourceFile.getImportList().add(type.getName());
@@ -216,13 +233,13 @@ class BlancoCgClassDelphiSourceExpander {
      */
     private void expandEnumList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getEnumList() == null) {
             return;
         }
 
         for (BlancoCgEnum cgEnum : cgClass.getEnumList()) {
-            new BlancoCgEnumDelphiSourceExpander().transformEnum(cgEnum,
+            BlancoCgEnumDelphiSourceExpander.INSTANCE.transformEnum(cgEnum,
                     argSourceFile, argSourceLines);
         }
     }
@@ -242,7 +259,7 @@ class BlancoCgClassDelphiSourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -271,34 +288,43 @@ class BlancoCgClassDelphiSourceExpander {
 
         // published フィールドの展開
         if (publishedList.size() > 0) {
-            argSourceLines.add("published");
+            argSourceLines.addLine(new BlancoCgSourceLine("published",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgClass));
         }
         for (int index = 0; index < publishedList.size(); index++) {
             final BlancoCgField cgField = publishedList.get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldDelphiSourceExpander().transformField(cgField,
+            BlancoCgFieldDelphiSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
 
         // public フィールドの展開
         if (publicList.size() > 0) {
-            argSourceLines.add("public");
+            argSourceLines.addLine(new BlancoCgSourceLine("public",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgClass));
         }
         for (int index = 0; index < publicList.size(); index++) {
             final BlancoCgField cgField = publicList.get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldDelphiSourceExpander().transformField(cgField,
+            BlancoCgFieldDelphiSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
 
         // private フィールドの展開
         if (privateList.size() > 0) {
-            argSourceLines.add("private");
+            argSourceLines.addLine(new BlancoCgSourceLine("private",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgClass));
         }
         for (int index = 0; index < privateList.size(); index++) {
             final BlancoCgField cgField = privateList.get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldDelphiSourceExpander().transformField(cgField,
+            BlancoCgFieldDelphiSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -315,7 +341,7 @@ class BlancoCgClassDelphiSourceExpander {
      */
     private void expandMethodDeclarationList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
@@ -325,7 +351,8 @@ class BlancoCgClassDelphiSourceExpander {
         List<BlancoCgMethod> privateList = new ArrayList<BlancoCgMethod>();
 
         for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+            final BlancoCgMethod cgMethod = cgClass.getMethodList()
+                    .get(index);
             String access = cgMethod.getAccess();
 
             if (isPublished(access)) {
@@ -342,13 +369,16 @@ class BlancoCgClassDelphiSourceExpander {
         // published メソッドの展開
         if (publishedList.size() > 0) {
             // 改行を付与。
-            argSourceLines.add("");
-            argSourceLines.add("published");
+            argSourceLines.addText("");
+            argSourceLines.addLine(new BlancoCgSourceLine("published",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgClass));
         }
         for (int index = 0; index < publishedList.size(); index++) {
             final BlancoCgMethod cgMethod = publishedList.get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgMethodDelphiSourceExpander()
+            BlancoCgMethodDelphiSourceExpander.INSTANCE
                     .transformMethodDeclaration(cgMethod, argSourceFile,
                             argSourceLines, false);
         }
@@ -356,13 +386,16 @@ class BlancoCgClassDelphiSourceExpander {
         // public メソッドの展開
         if (publicList.size() > 0) {
             // 改行を付与。
-            argSourceLines.add("");
-            argSourceLines.add("public");
+            argSourceLines.addText("");
+            argSourceLines.addLine(new BlancoCgSourceLine("public",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgClass));
         }
         for (int index = 0; index < publicList.size(); index++) {
             final BlancoCgMethod cgMethod = publicList.get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgMethodDelphiSourceExpander()
+            BlancoCgMethodDelphiSourceExpander.INSTANCE
                     .transformMethodDeclaration(cgMethod, argSourceFile,
                             argSourceLines, false);
         }
@@ -370,13 +403,16 @@ class BlancoCgClassDelphiSourceExpander {
         // private メソッドの展開
         if (privateList.size() > 0) {
             // 改行を付与。
-            argSourceLines.add("");
-            argSourceLines.add("private");
+            argSourceLines.addText("");
+            argSourceLines.addLine(new BlancoCgSourceLine("private",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgClass));
         }
         for (int index = 0; index < privateList.size(); index++) {
             final BlancoCgMethod cgMethod = privateList.get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgMethodDelphiSourceExpander()
+            BlancoCgMethodDelphiSourceExpander.INSTANCE
                     .transformMethodDeclaration(cgMethod, argSourceFile,
                             argSourceLines, false);
         }
@@ -395,14 +431,15 @@ class BlancoCgClassDelphiSourceExpander {
      */
     private void expandMethodList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+            final BlancoCgMethod cgMethod = cgClass.getMethodList()
+                    .get(index);
             // クラスのメソッドとして展開を行います。
-            new BlancoCgMethodDelphiSourceExpander().transformMethod(cgClass
+            BlancoCgMethodDelphiSourceExpander.INSTANCE.transformMethod(cgClass
                     .getName(), cgMethod, argSourceFile, argSourceLines, false);
         }
     }
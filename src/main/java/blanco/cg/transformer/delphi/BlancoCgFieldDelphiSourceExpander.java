@@ -24,10 +24,11 @@
  */
 package blanco.cg.transformer.delphi;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgSourceFile;
@@ -46,6 +47,17 @@ class BlancoCgFieldDelphiSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.DELPHI;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgFieldDelphiSourceExpander INSTANCE = new BlancoCgFieldDelphiSourceExpander();
+
     /**
      * ここでフィールドを展開します。
      * 
@@ -60,7 +72,7 @@ class BlancoCgFieldDelphiSourceExpander {
      */
     public void transformField(final BlancoCgField cgField,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgField.getName()).length() == 0) {
             throw new IllegalArgumentException("フィールドの名前に適切な値が設定されていません。");
@@ -71,20 +83,15 @@ class BlancoCgFieldDelphiSourceExpander {
         }
 
         // 有無をいわさず改行を付与します。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         // 最初にフィールド情報をLangDocに展開。
-        if (cgField.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgField.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgField.getLangDoc().getTitle() == null) {
-            cgField.getLangDoc().setTitle(cgField.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgField.getLangDoc(), cgField.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocDelphiSourceExpander().transformLangDoc(cgField
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocDelphiSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         final StringBuffer buf = new StringBuffer();
 
@@ -122,7 +129,9 @@ class BlancoCgFieldDelphiSourceExpander {
 //        if (BlancoStringUtil.null2Blank(cgField.getDefault()).length() > 0) {
 //            buf.append(" = " + cgField.getDefault());
 //        }
-        buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-        argSourceLines.add(buf.toString());
+        buf.append(DIALECT.getTerminator());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgField));
     }
 }
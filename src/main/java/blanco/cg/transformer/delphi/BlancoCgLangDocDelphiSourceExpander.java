@@ -24,11 +24,10 @@
  */
 package blanco.cg.transformer.delphi;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgParameter;
 import blanco.commons.util.BlancoStringUtil;
@@ -47,6 +46,17 @@ class BlancoCgLangDocDelphiSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.CS;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgLangDocDelphiSourceExpander INSTANCE = new BlancoCgLangDocDelphiSourceExpander();
+
     /**
      * 言語ドキュメント情報を元にソースコードを展開します。
      * 
@@ -56,7 +66,7 @@ class BlancoCgLangDocDelphiSourceExpander {
      *            ソースコード。
      */
     public void transformLangDoc(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 開始・終了を除く本体を展開します。
         transformLangDocBody(langDoc, argSourceLines, false);
     }
@@ -72,18 +82,17 @@ class BlancoCgLangDocDelphiSourceExpander {
      *            ファイルヘッダかどうか。
      */
     public void transformLangDocBody(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean isFileHeader) {
         boolean isLangDocTitleStarted = false;
 
-        String commentString = BlancoCgLineUtil
-                .getSingleLineCommentPrefix(TARGET_LANG);
+        String commentString = DIALECT.getSingleLineCommentPrefix();
 
         if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0) {
             isLangDocTitleStarted = true;
-            argSourceLines.add(commentString
-                    + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                            langDoc.getTitle()));
+            addDocLine(commentString
+                    + DIALECT.escapeStringAsLangDoc(langDoc.getTitle()),
+                    langDoc, argSourceLines);
         }
 
         // 空行が挿入済みかどうかをチェックするためのフラグ。
@@ -97,22 +106,23 @@ class BlancoCgLangDocDelphiSourceExpander {
             if (isLangDocDescriptionStarted == false) {
                 if (isLangDocTitleStarted == false) {
                     isLangDocTitleStarted = true;
-                    argSourceLines.add(commentString
-                            + BlancoCgSourceUtil.escapeStringAsLangDoc(
-                                    TARGET_LANG, strDescrption));
+                    addDocLine(commentString
+                            + DIALECT.escapeStringAsLangDoc(strDescrption),
+                            langDoc, argSourceLines);
                 } else {
                     isLangDocDescriptionStarted = true;
-                    // argSourceLines.add(commentString + "<remarks>");
-                    // argSourceLines.add(commentString + "<newpara>"
+                    // argSourceLines.addText(commentString + "<remarks>");
+                    // argSourceLines.addText(commentString + "<newpara>"
                     // + strDescrption + "</newpara>");
                 }
             } else {
-                argSourceLines.add(commentString + "@param " + strDescrption);
+                addDocLine(commentString + "@param " + strDescrption,
+                        langDoc, argSourceLines);
             }
         }
 
         // if (isLangDocDescriptionStarted) {
-        // argSourceLines.add(commentString + "</remarks>");
+        // argSourceLines.addText(commentString + "</remarks>");
         // }
 
         // TODO authorを展開。
@@ -130,10 +140,10 @@ class BlancoCgLangDocDelphiSourceExpander {
                     + cgParameter.getName());
             if (BlancoStringUtil.null2Blank(cgParameter.getDescription())
                     .length() > 0) {
-                bufParameter.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, cgParameter.getDescription()));
+                bufParameter.append(DIALECT.escapeStringAsLangDoc(cgParameter
+                        .getDescription()));
             }
-            argSourceLines.add(bufParameter.toString());
+            addDocLine(bufParameter.toString(), langDoc, argSourceLines);
         }
 
         if (langDoc.getReturn() != null
@@ -143,13 +153,39 @@ class BlancoCgLangDocDelphiSourceExpander {
             bufReturn.append(commentString + "@return ");
             if (BlancoStringUtil.null2Blank(
                     langDoc.getReturn().getDescription()).length() > 0) {
-                bufReturn.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, langDoc.getReturn().getDescription()));
+                bufReturn.append(DIALECT.escapeStringAsLangDoc(langDoc
+                        .getReturn().getDescription()));
             }
-            argSourceLines.add(bufReturn.toString());
+            addDocLine(bufReturn.toString(), langDoc, argSourceLines);
         }
 
         // ※throwsリスト展開は C#.NETには存在しません。
         // TODO throwリスト展開について、言語ドキュメントの説明部分へと展開すること。
     }
+
+    /**
+     * 言語ドキュメントの行を、字下げ判定済みの行モデルとして追加します。
+     * 
+     * 行の文字列の内容が、字下げに影響することはありません。
+     * 
+     * @param argLine
+     *            言語ドキュメントの行。
+     * @param langDoc
+     *            行の元になった言語ドキュメント情報。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    static void addDocLine(final String argLine,
+            final BlancoCgLangDoc langDoc,
+            final BlancoCgSourceLineSink argSourceLines) {
+        final String strLine = argLine.trim();
+        if (strLine.length() == 0) {
+            // 空行は、そのまま追加します。
+            argSourceLines.addText(argLine);
+            return;
+        }
+        argSourceLines.addLine(new BlancoCgSourceLine(strLine,
+                BlancoCgSourceLine.KIND_DOC,
+                BlancoCgSourceLine.INDENT_NONE, langDoc));
+    }
 }
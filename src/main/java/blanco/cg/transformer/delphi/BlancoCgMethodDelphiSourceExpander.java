@@ -24,11 +24,11 @@
  */
 package blanco.cg.transformer.delphi;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgLocalVariable;
@@ -51,6 +51,17 @@ class BlancoCgMethodDelphiSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.DELPHI;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgMethodDelphiSourceExpander INSTANCE = new BlancoCgMethodDelphiSourceExpander();
+
     /**
      * ここでメソッドを展開します。
      * 
@@ -65,7 +76,7 @@ class BlancoCgMethodDelphiSourceExpander {
      */
     public void transformMethodDeclaration(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
             throw new IllegalArgumentException("メソッドの名前に適切な値が設定されていません。");
@@ -75,14 +86,14 @@ class BlancoCgMethodDelphiSourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         prepareExpand(cgMethod, argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
         // 次に LangDocをソースコード形式に展開。
-        // new BlancoCgLangDocCsSourceExpander().transformLangDoc(cgMethod
+        // BlancoCgLangDocCsSourceExpander.INSTANCE.transformLangDoc(cgMethod
         // .getLangDoc(), argSourceLines);
 
         // アノテーションを展開。
@@ -109,7 +120,7 @@ class BlancoCgMethodDelphiSourceExpander {
      */
     public void transformMethod(String typeName, final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
 
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
@@ -120,14 +131,14 @@ class BlancoCgMethodDelphiSourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         prepareExpand(cgMethod, argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
         // 次に LangDocをソースコード形式に展開。
-        // new BlancoCgLangDocCsSourceExpander().transformLangDoc(cgMethod
+        // BlancoCgLangDocCsSourceExpander.INSTANCE.transformLangDoc(cgMethod
         // .getLangDoc(), argSourceLines);
 
         // アノテーションを展開。
@@ -145,36 +156,25 @@ class BlancoCgMethodDelphiSourceExpander {
      *            メソッドオブジェクト。
      * @param argSourceFile
      *            ソースファイル。
+     * @return 作業用の言語ドキュメント。
      */
-    private void prepareExpand(final BlancoCgMethod cgMethod,
+    private BlancoCgLangDoc prepareExpand(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile) {
         // 最初にメソッド情報をLangDocに展開。
-        if (cgMethod.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgMethod.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgMethod.getLangDoc().getParameterList() == null) {
-            cgMethod.getLangDoc().setParameterList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgParameter>());
-        }
-        if (cgMethod.getLangDoc().getThrowList() == null) {
-            cgMethod.getLangDoc().setThrowList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgException>());
-        }
-        if (cgMethod.getLangDoc().getTitle() == null) {
-            cgMethod.getLangDoc().setTitle(cgMethod.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgMethod.getLangDoc(), cgMethod.getDescription());
 
         for (int indexParameter = 0; indexParameter < cgMethod
                 .getParameterList().size(); indexParameter++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(indexParameter);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(indexParameter);
 
             // import文に型を追加。
 //            argSourceFile.getImportList().add(cgParameter.getType().getName());
 
             // 言語ドキュメントにパラメータを追加。
-            cgMethod.getLangDoc().getParameterList().add(cgParameter);
+            langDoc.getParameterList().add(cgParameter);
         }
 
         if (cgMethod.getReturn() != null) {
@@ -183,33 +183,37 @@ class BlancoCgMethodDelphiSourceExpander {
 //                    cgMethod.getReturn().getType().getName());
 
             // 言語ドキュメントにreturnを追加。
-            cgMethod.getLangDoc().setReturn(cgMethod.getReturn());
+            langDoc.setReturn(cgMethod.getReturn());
         }
 
         // 例外についてLangDoc構造体に展開
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
 
             // import文に型を追加。
 //            argSourceFile.getImportList().add(cgException.getType().getName());
 
             // 言語ドキュメントに例外を追加。
-            cgMethod.getLangDoc().getThrowList().add(cgException);
+            langDoc.getThrowList().add(cgException);
         }
+
+        return langDoc;
     }
 
     private void expandMethodLocalVariableDeclaration(BlancoCgMethod cgMethod,
-            List<String> argSourceLines) {
+            BlancoCgSourceLineSink argSourceLines) {
         
         if (cgMethod.getLocalVariableList().size() > 0){
-            argSourceLines.add("var");
+            argSourceLines.addLine(new BlancoCgSourceLine("var",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
         
         for (int index = 0; index < cgMethod.getLocalVariableList().size(); index++) {
             final StringBuffer buf = new StringBuffer();
-            final BlancoCgLocalVariable cgLocalVariable = cgMethod.getLocalVariableList()
-                    .get(index);
+            final BlancoCgLocalVariable cgLocalVariable = cgMethod
+                    .getLocalVariableList().get(index);
             if (cgLocalVariable.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のローカル変数[" + cgLocalVariable.getName()
@@ -221,7 +225,9 @@ class BlancoCgMethodDelphiSourceExpander {
             buf.append(BlancoCgTypeDelphiSourceExpander
                     .toTypeString(cgLocalVariable.getType()));
             buf.append(";");
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgLocalVariable));
         }
     }
 
@@ -241,7 +247,7 @@ class BlancoCgMethodDelphiSourceExpander {
     private void expandMethodBody(String typeName,
             final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         final StringBuffer buf = new StringBuffer();
 
@@ -297,8 +303,8 @@ class BlancoCgMethodDelphiSourceExpander {
         }
 
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のパラメータ[" + cgParameter.getName()
@@ -360,17 +366,23 @@ class BlancoCgMethodDelphiSourceExpander {
 
         if (cgMethod.getAbstract() || argIsInterface) {
             // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-            buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            argSourceLines.add(buf.toString());
+            buf.append(DIALECT.getTerminator());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         } else {
             // ここでいったん、行を確定。
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
 
             // ローカル変数定義を展開します。 
             expandMethodLocalVariableDeclaration(cgMethod, argSourceLines);
             
             // メソッドブロックの開始。
-            argSourceLines.add("begin");
+            argSourceLines.addLine(new BlancoCgSourceLine("begin",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN, cgMethod));
 
             // パラメータの非null制約の展開。
             expandParameterCheck(cgMethod, argSourceFile, argSourceLines);
@@ -379,7 +391,9 @@ class BlancoCgMethodDelphiSourceExpander {
             expandLineList(cgMethod, argSourceLines);
 
             // メソッドブロックの終了。
-            argSourceLines.add("end;");
+            argSourceLines.addLine(new BlancoCgSourceLine("end;",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_END, cgMethod));
         }
     }
 
@@ -395,7 +409,7 @@ class BlancoCgMethodDelphiSourceExpander {
      */
     private void expandMethodDeclaration(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         final StringBuffer buf = new StringBuffer();
 
@@ -451,8 +465,8 @@ class BlancoCgMethodDelphiSourceExpander {
         }
 
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のパラメータ[" + cgParameter.getName()
@@ -513,11 +527,15 @@ class BlancoCgMethodDelphiSourceExpander {
 
         if (cgMethod.getAbstract() || argIsInterface) {
             // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-            buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            argSourceLines.add(buf.toString());
+            buf.append(DIALECT.getTerminator());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         } else {
             // ここでいったん、行を確定。
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
     }
 
@@ -530,13 +548,16 @@ class BlancoCgMethodDelphiSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgMethod.getAnnotationList().size(); index++) {
             final String strAnnotation = cgMethod.getAnnotationList()
                     .get(index);
 
             // C#.NET言語のAnnotationは []で記述します。
-            argSourceLines.add("[" + strAnnotation + "]");
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    "[" + strAnnotation + "]",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
     }
 
@@ -550,28 +571,28 @@ class BlancoCgMethodDelphiSourceExpander {
      */
     private void expandParameterCheck(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isProcessed = false;
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getNotnull() && isNullableType(cgParameter.getType())) {
                 isProcessed = true;
 //                argSourceFile.getImportList().add("System.ArgumentException");
 
-                argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                        cgParameter.getName() + " = nil"));
-                argSourceLines.add("throw new ArgumentException(\"メソッド["
+                argSourceLines.addText(DIALECT.getIfBegin(cgParameter.getName()
+                        + " = nil"));
+                argSourceLines.addText("throw new ArgumentException(\"メソッド["
                         + cgMethod.getName() + "]のパラメータ["
                         + cgParameter.getName()
                         + "]にnullが与えられました。しかし、このパラメータにnullを与えることはできません。\");");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
         }
 
         if (isProcessed) {
             // パラメータチェックが展開された場合には空行を挿入します。
-            argSourceLines.add("");
+            argSourceLines.addText("");
         }
     }
 
@@ -592,10 +613,10 @@ class BlancoCgMethodDelphiSourceExpander {
      *            出力行リスト。
      */
     private void expandLineList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int indexLine = 0; indexLine < cgMethod.getLineList().size(); indexLine++) {
             final String strLine = cgMethod.getLineList().get(indexLine);
-            argSourceLines.add(strLine);
+            argSourceLines.addText(strLine);
         }
     }
 
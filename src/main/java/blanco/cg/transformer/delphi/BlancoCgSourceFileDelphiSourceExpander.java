@@ -24,11 +24,14 @@
  */
 package blanco.cg.transformer.delphi;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceDocument;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.transformer.BlancoCgTransformContext;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.util.BlancoCgSourceFileUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
@@ -49,17 +52,15 @@ class BlancoCgSourceFileDelphiSourceExpander {
     protected static final int TARGET_LANG = BlancoCgSupportedLang.CS;
 
     /**
-     * 入力となるソースコード構造。
+     * このクラスが処理対象とするプログラミング言語の方言。
      */
-    private BlancoCgSourceFile fCgSourceFile = null;
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
 
     /**
-     * 中間的に利用するソースコードをあらわすList。java.lang.Stringがリストに格納されます。(BlancoCgLineではありません。
-     * )
-     * 
-     * ここでは整形前ソースコードが中間的にたくわえられます。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private List<java.lang.String> fSourceLines = null;
+    static final BlancoCgSourceFileDelphiSourceExpander INSTANCE = new BlancoCgSourceFileDelphiSourceExpander();
 
     /**
      * SourceFileから整形前ソースコードリストを生成します。
@@ -70,94 +71,126 @@ class BlancoCgSourceFileDelphiSourceExpander {
      */
     public List<java.lang.String> transformSourceFile(
             final BlancoCgSourceFile argSourceFile) {
-        // 確実にソース行のリストを初期化します。
-        fSourceLines = new ArrayList<java.lang.String>();
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, new BlancoCgSourceDocument());
+        transformSourceFile(context);
+        return context.getDocument().toLineList();
+    }
 
-        fCgSourceFile = argSourceFile;
+    /**
+     * SourceFileを展開し、整形前ソースコードを与えられたドキュメントのヘッダー部・import部・本体部へ追加します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    public void transformSourceFile(final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceDocument document = argContext.getDocument();
+        BlancoCgSourceLineSink sourceLines = document.getHeaderLines();
 
         // ソースファイルのファイルヘッダーを出力処理します。
-        expandSourceFileHeader();
+        expandSourceFileHeader(argContext);
 
         //unitヘディングの生成
-        fSourceLines.add("unit " + fCgSourceFile.getName() + ";");
-        fSourceLines.add("");
+        sourceLines.addLine(new BlancoCgSourceLine(
+                "unit " + cgSourceFile.getName() + ";",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgSourceFile));
+        sourceLines.addText("");
         
         // interface部分の生成。
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
-            fSourceLines.add("interface");
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
+            sourceLines.addLine(new BlancoCgSourceLine("interface",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN
+                            | BlancoCgSourceLine.INDENT_END, cgSourceFile));
         }
 
-        // 処理の後半でuses文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。
-        BlancoCgImportDelphiSourceExpander.insertAnchorString(fSourceLines);
-
-
-        if (fCgSourceFile.getImportList() == null) {
+        if (cgSourceFile.getImportList() == null) {
             throw new IllegalArgumentException("importのリストにnullが与えられました。");
         }
+        if (cgSourceFile.getClassList() == null) {
+            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
+        }
+
+        // ここから import解決です。計測のために開始を記録します。
+        argContext.markImportPhase();
+
+        // importの展開をします。
+        // Delphiでは与えられた import一覧だけを展開するため、本体部の展開に先立って import文の一覧が確定しています。
+        // これにより、本体部を保持することなく ヘッダー部・import部に続けて出力することができます。
+        BlancoCgImportDelphiSourceExpander.INSTANCE.transformImport(cgSourceFile,
+                document.getImportLines());
+        argContext.markImportPhaseEnd();
+
+        // ここまでがヘッダー部と import部です。これ以降は本体部へ展開します。
+        document.beginBody();
+        sourceLines = document.getBodyLines();
 
         // 列挙体の展開を実施します。
-        for (BlancoCgEnum cgEnum : fCgSourceFile.getEnumList()) {
-            new BlancoCgEnumDelphiSourceExpander().transformEnum(cgEnum,
-                    argSourceFile, fSourceLines);
+        for (BlancoCgEnum cgEnum : cgSourceFile.getEnumList()) {
+            BlancoCgEnumDelphiSourceExpander.INSTANCE.transformEnum(cgEnum,
+                    cgSourceFile, sourceLines);
         }
 
         // インタフェースの展開を実施します。
-//        if (fCgSourceFile.getInterfaceList() == null) {
+//        if (cgSourceFile.getInterfaceList() == null) {
 //            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
 //        }
-//        for (BlancoCgInterface cgInterface : fCgSourceFile.getInterfaceList()) {
-//            new BlancoCgInterfaceCsSourceExpander().transformInterface(
-//                    cgInterface, fCgSourceFile, fSourceLines);
+//        for (BlancoCgInterface cgInterface : cgSourceFile.getInterfaceList()) {
+//            BlancoCgInterfaceCsSourceExpander.INSTANCE.transformInterface(
+//                    cgInterface, cgSourceFile, sourceLines);
 //        }
 
         // クラスの展開を実施します。
-        if (fCgSourceFile.getClassList() == null) {
-            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
-        }
         // typeセクションの開始
-        fSourceLines.add("type");
+        sourceLines.addLine(new BlancoCgSourceLine("type",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN
+                        | BlancoCgSourceLine.INDENT_END, cgSourceFile));
         // typeセクションの開始
-        for (BlancoCgClass cgClass : fCgSourceFile.getClassList()) {
-            new BlancoCgClassDelphiSourceExpander().transformClass(cgClass,
-                    fCgSourceFile, fSourceLines);
+        for (BlancoCgClass cgClass : cgSourceFile.getClassList()) {
+            BlancoCgClassDelphiSourceExpander.INSTANCE.transformClass(cgClass,
+                    cgSourceFile, sourceLines);
         }
         // typeの終わり。空行のみ出力。
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
-            fSourceLines.add("");
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
+            sourceLines.addText("");
         }
-
-        
-        // importの展開をします。
-        // この処理が、クラス展開より後に実施されているのには意味があります。
-        // クラス展開などを経て、初めてインポート文の一覧が確定するからです。
-        new BlancoCgImportDelphiSourceExpander().transformImport(fCgSourceFile,
-                fSourceLines);
-
-        return fSourceLines;
     }
 
     /**
      * ソースファイルのファイルヘッダーを出力処理します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
      */
-    private void expandSourceFileHeader() {
+    private void expandSourceFileHeader(
+            final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceLineSink sourceLines = argContext.getDocument()
+                .getHeaderLines();
+
         // ソースファイルヘッダーのコメントは スラッシュ２個が妥当と考えられます。
 
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription())
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription())
                 .length() > 0) {
-            fSourceLines.add(BlancoCgLineUtil
-                    .getSingleLineCommentPrefix(TARGET_LANG)
-                    + fCgSourceFile.getDescription());
+            BlancoCgLangDocDelphiSourceExpander.addDocLine(
+                    DIALECT.getSingleLineCommentPrefix()
+                    + cgSourceFile.getDescription(),
+                    cgSourceFile.getLangDoc(), sourceLines);
         } else {
             // 指定が無い場合にはデフォルトのコメントを利用します。
-            for (String line : BlancoCgSourceFileUtil.getDefaultFileComment()) {
-                fSourceLines.add(BlancoCgLineUtil
-                        .getSingleLineCommentPrefix(TARGET_LANG)
-                        + line);
+            for (String line : BlancoCgSourceFileUtil
+                    .getDefaultFileComment(DIALECT
+                            .getSingleLineCommentPrefix())) {
+                BlancoCgLangDocDelphiSourceExpander.addDocLine(line,
+                        cgSourceFile.getLangDoc(), sourceLines);
             }
         }
 
         // 言語ドキュメントの中間部を生成します。
-        new BlancoCgLangDocDelphiSourceExpander().transformLangDocBody(
-                fCgSourceFile.getLangDoc(), fSourceLines, true);
+        BlancoCgLangDocDelphiSourceExpander.INSTANCE.transformLangDocBody(
+                cgSourceFile.getLangDoc(), sourceLines, true);
     }
 }
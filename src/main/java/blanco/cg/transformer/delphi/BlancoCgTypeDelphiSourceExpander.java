@@ -24,6 +24,9 @@
  */
 package blanco.cg.transformer.delphi;
 
+import blanco.cg.BlancoCgSupportedLang;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgTypeNameTable;
 import blanco.cg.valueobject.BlancoCgType;
 import blanco.commons.util.BlancoStringUtil;
 
@@ -36,11 +39,15 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgTypeDelphiSourceExpander {
     /**
-     * プログラミング言語の予約語一覧。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private static final String[] LANGUAGE_RESERVED_KEYWORD = { "void", "byte",
-            "short", "int", "long", "char", "float", "double", "decimal",
-            "bool", "string" };
+    static final BlancoCgTypeDelphiSourceExpander INSTANCE = new BlancoCgTypeDelphiSourceExpander();
+
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    private static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(BlancoCgSupportedLang.DELPHI);
 
     /**
      * blancoCg型を、具体的な文字列へと変換します。
@@ -54,6 +61,19 @@ class BlancoCgTypeDelphiSourceExpander {
      * @return プログラミング言語における型を示す文字列。
      */
     public static String toTypeString(final BlancoCgType argType) {
+        if (argType.getName() != null && argType.getArray() == false
+                && BlancoStringUtil.null2Blank(argType.getGenerics()).length() == 0) {
+            // 配列でもジェネリクスでもない型は、型名をそのまま利用します。
+            return argType.getName();
+        }
+
+        final String typeString = BlancoCgTypeNameTable.getTypeString(
+                BlancoCgSupportedLang.DELPHI, argType);
+        if (typeString != null) {
+            // 同じ型名・ジェネリクス・配列の次元の型は、展開済みの文字列を共有します。
+            return typeString;
+        }
+
         final StringBuffer buf = new StringBuffer();
         buf.append(argType.getName());
 
@@ -72,7 +92,8 @@ class BlancoCgTypeDelphiSourceExpander {
             buf.append(argType.getGenerics());
         }
 
-        return buf.toString();
+        return BlancoCgTypeNameTable.putTypeString(
+                BlancoCgSupportedLang.DELPHI, argType, buf.toString());
     }
 
     /**
@@ -83,14 +104,6 @@ class BlancoCgTypeDelphiSourceExpander {
      * @return プログラミング言語の予約語に該当したかどうか。
      */
     public static boolean isLanguageReservedKeyword(final String argCheck) {
-        for (int index = 0; index < LANGUAGE_RESERVED_KEYWORD.length; index++) {
-            if (LANGUAGE_RESERVED_KEYWORD[index].equals(argCheck)) {
-                // この文字列はプログラミング言語の予約語です。
-                return true;
-            }
-        }
-
-        // キーワードにヒットしませんでした。この文字列はプログラミング言語の予約語ではありません。
-        return false;
+        return DIALECT.isReservedKeyword(argCheck);
     }
 }
@@ -24,8 +24,17 @@
  */
 package blanco.cg.transformer.java;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineBuffer;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgField;
@@ -44,29 +53,57 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgClassJavaSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassJavaSourceExpander INSTANCE = new BlancoCgClassJavaSourceExpander();
+
+    /**
+     * メンバーを並列に展開する対象とする、クラスのメンバー(列挙体・フィールド・メソッド)の最小の数。
+     * 
+     * メンバーの少ないクラスでは並列化の手間のほうが大きいため、逐次に展開します。
+     */
+    private static final int PARALLEL_MEMBER_THRESHOLD = 64;
+
+    /**
+     * ここでClassを展開します。
+     * 
+     * @param cgClass
+     *            処理対象となるクラス。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    public void transformClass(final BlancoCgClass cgClass,
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgSourceLineSink argSourceLines) {
+        transformClass(cgClass, argSourceFile, argSourceLines, null);
+    }
+
     /**
      * ここでClassを展開します。
      * 
+     * スレッドプールが与えられ、メンバーの数が多いクラスの場合には、メンバーを並列に展開します。
+     * 
      * @param cgClass
      *            処理対象となるクラス。
+     * @param argSourceFile
+     *            ソースファイル。
      * @param argSourceLines
      *            ソースコード。
+     * @param argMemberExecutor
+     *            メンバーの展開に利用するスレッドプール。逐次に展開する場合には null。
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines,
+            final ExecutorService argMemberExecutor) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocJavaSourceExpander().transformLangDoc(cgClass
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocJavaSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgClass, argSourceLines);
@@ -94,19 +131,33 @@ class BlancoCgClassJavaSourceExpander {
         buf.append(" {");
 
         // 行を確定して書き出しを実施。
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf
+                .toString(), BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgClass));
 
-        // ここで列挙体を展開。
-        expandEnumList(cgClass, argSourceFile, argSourceLines);
+        final int memberCount = cgClass.getEnumList().size()
+                + cgClass.getFieldList().size()
+                + cgClass.getMethodList().size();
+        if (argMemberExecutor != null
+                && memberCount >= PARALLEL_MEMBER_THRESHOLD) {
+            // 列挙体・フィールド・メソッドを並列に展開。
+            expandMemberListInParallel(cgClass, argSourceFile,
+                    argSourceLines, argMemberExecutor);
+        } else {
+            // ここで列挙体を展開。
+            expandEnumList(cgClass, argSourceFile, argSourceLines);
 
-        // ここでフィールドを展開。
-        expandFieldList(cgClass, argSourceFile, argSourceLines);
+            // ここでフィールドを展開。
+            expandFieldList(cgClass, argSourceFile, argSourceLines);
 
-        // ここでメソッドを展開。
-        expandMethodList(cgClass, argSourceFile, argSourceLines);
+            // ここでメソッドを展開。
+            expandMethodList(cgClass, argSourceFile, argSourceLines);
+        }
 
         // クラスのブロックの終了。
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE, BlancoCgSourceLine.INDENT_END,
+                cgClass));
     }
 
     /**
@@ -118,10 +169,12 @@ class BlancoCgClassJavaSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgClass cgClass,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (String strAnnotation : cgClass.getAnnotationList()) {
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgClass));
         }
     }
 
@@ -139,13 +192,8 @@ class BlancoCgClassJavaSourceExpander {
     private void expandExtendClassList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
-
-            if (argSourceFile.getIsAutoImport()) {
-                // 自動インポートが有効な場合は
-                // import文に型を追加。
-                argSourceFile.getImportList().add(type.getName());
-            }
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 argBuf.append(" extends "
@@ -167,14 +215,8 @@ class BlancoCgClassJavaSourceExpander {
     private void expandImplementInterfaceList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getImplementInterfaceList().size(); index++) {
-            final BlancoCgType type = cgClass.getImplementInterfaceList().get(
-                    index);
-
-            if (argSourceFile.getIsAutoImport()) {
-                // 自動インポートが有効な場合は
-                // import文に型を追加。
-                argSourceFile.getImportList().add(type.getName());
-            }
+            final BlancoCgType type = cgClass
+                    .getImplementInterfaceList().get(index);
 
             if (index == 0) {
                 argBuf.append(" implements ");
@@ -197,13 +239,13 @@ class BlancoCgClassJavaSourceExpander {
      */
     private void expandEnumList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getEnumList() == null) {
             return;
         }
 
         for (BlancoCgEnum cgEnum : cgClass.getEnumList()) {
-            new BlancoCgEnumJavaSourceExpander().transformEnum(cgEnum,
+            BlancoCgEnumJavaSourceExpander.INSTANCE.transformEnum(cgEnum,
                     argSourceFile, argSourceLines);
         }
     }
@@ -223,7 +265,7 @@ class BlancoCgClassJavaSourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -232,7 +274,7 @@ class BlancoCgClassJavaSourceExpander {
 
         for (BlancoCgField cgField : cgClass.getFieldList()) {
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldJavaSourceExpander().transformField(cgField,
+            BlancoCgFieldJavaSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -249,14 +291,131 @@ class BlancoCgClassJavaSourceExpander {
      */
     private void expandMethodList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (BlancoCgMethod cgMethod : cgClass.getMethodList()) {
             // クラスのメソッドとして展開を行います。
-            new BlancoCgMethodJavaSourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodJavaSourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, false);
         }
     }
+
+    /**
+     * クラスに含まれる列挙体・フィールド・メソッドを並列に展開します。
+     * 
+     * メンバーごとに作業用のバッファを用意して並列に展開し、宣言順に行を連結します。このため、逐次に展開した場合と同じソースコードが得られます。<br>
+     * import文の一覧は本体部の展開に先立って確定済みであり、各メンバーの展開ではソースファイルを参照するだけです。<br>
+     * 展開の途中で例外が発生した場合には、宣言順で最初に失敗したメンバーの例外を送出します。
+     * 
+     * @param cgClass
+     *            処理中のクラス。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @param argSourceLines
+     *            ソースコード行リスト。
+     * @param argMemberExecutor
+     *            メンバーの展開に利用するスレッドプール。
+     */
+    private void expandMemberListInParallel(final BlancoCgClass cgClass,
+            final BlancoCgSourceFile argSourceFile,
+            final BlancoCgSourceLineSink argSourceLines,
+            final ExecutorService argMemberExecutor) {
+        final List<Object> memberList = new ArrayList<Object>();
+        memberList.addAll(cgClass.getEnumList());
+        memberList.addAll(cgClass.getFieldList());
+        memberList.addAll(cgClass.getMethodList());
+
+        final List<MemberTask> taskList = new ArrayList<MemberTask>(memberList
+                .size());
+        final List<Future<Object>> futureList = new ArrayList<Future<Object>>(
+                memberList.size());
+        try {
+            for (Object member : memberList) {
+                final MemberTask task = new MemberTask(member, argSourceFile);
+                taskList.add(task);
+                futureList.add(argMemberExecutor.submit(task));
+            }
+
+            // 展開を終えたメンバーから、宣言順に連結します。
+            for (int index = 0; index < taskList.size(); index++) {
+                futureList.get(index).get();
+
+                final MemberTask task = taskList.get(index);
+                task.fSourceLines.addTo(argSourceLines);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("クラス[" + cgClass.getName()
+                    + "]のメンバーの並列展開の途中で割り込みが発生しました。処理中断します。"
+                    + ex.toString());
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalArgumentException("クラス[" + cgClass.getName()
+                    + "]のメンバーの並列展開の過程で例外が発生しました。" + ex.toString());
+        } finally {
+            // 途中で中断した場合に備えて、未完了のタスクを取り消します。
+            for (Future<Object> future : futureList) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * クラスのメンバー 1 つ分を展開するタスクです。
+     */
+    private static class MemberTask implements Callable<Object> {
+        /**
+         * 展開対象の列挙体・フィールド・メソッドのいずれか。
+         */
+        private final Object fMember;
+
+        /**
+         * ソースファイル。展開の過程では参照するだけで、変更しません。
+         */
+        private final BlancoCgSourceFile fSourceFile;
+
+        /**
+         * メンバーを展開したソースコード行リスト。行モデルのまま保持します。
+         */
+        private final BlancoCgSourceLineBuffer fSourceLines = new BlancoCgSourceLineBuffer();
+
+        /**
+         * タスクを作成します。
+         * 
+         * @param argMember
+         *            展開対象の列挙体・フィールド・メソッドのいずれか。
+         * @param argSourceFile
+         *            ソースファイル。
+         */
+        MemberTask(final Object argMember,
+                final BlancoCgSourceFile argSourceFile) {
+            fMember = argMember;
+            fSourceFile = argSourceFile;
+        }
+
+        public Object call() {
+            if (fMember instanceof BlancoCgEnum) {
+                BlancoCgEnumJavaSourceExpander.INSTANCE.transformEnum(
+                        (BlancoCgEnum) fMember, fSourceFile, fSourceLines);
+            } else if (fMember instanceof BlancoCgField) {
+                // クラスのフィールドとして展開を行います。
+                BlancoCgFieldJavaSourceExpander.INSTANCE.transformField(
+                        (BlancoCgField) fMember, fSourceFile,
+                        fSourceLines, false);
+            } else {
+                // クラスのメソッドとして展開を行います。
+                BlancoCgMethodJavaSourceExpander.INSTANCE.transformMethod(
+                        (BlancoCgMethod) fMember, fSourceFile,
+                        fSourceLines, false);
+            }
+            return null;
+        }
+    }
 }
@@ -24,10 +24,11 @@
  */
 package blanco.cg.transformer.java;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgSourceFile;
@@ -46,6 +47,17 @@ class BlancoCgFieldJavaSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JAVA;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgFieldJavaSourceExpander INSTANCE = new BlancoCgFieldJavaSourceExpander();
+
     /**
      * ここでフィールドを展開します。
      * 
@@ -59,7 +71,8 @@ class BlancoCgFieldJavaSourceExpander {
      *            インタフェースかどうか。クラスの場合にはfalse。インタフェースの場合にはtrue。
      */
     public void transformField(final BlancoCgField cgField, final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines, final boolean argIsInterface) {
+            final BlancoCgSourceLineSink argSourceLines,
+            final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgField.getName()).length() == 0) {
             throw new IllegalArgumentException("フィールドの名前に適切な値が設定されていません。");
         }
@@ -68,23 +81,19 @@ class BlancoCgFieldJavaSourceExpander {
         }
 
         // 有無をいわさず改行を付与します。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         // 最初にフィールド情報をLangDocに展開。
-        if (cgField.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgField.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgField.getLangDoc().getTitle() == null) {
-            cgField.getLangDoc().setTitle(cgField.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgField.getLangDoc(), cgField.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        if (BlancoStringUtil.null2Blank(cgField.getLangDoc().getTitle()).length() > 0 //
-                || cgField.getLangDoc().getDescriptionList().size() > 0 //
-                || cgField.getLangDoc().getTagList().size() > 0) {
+        if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0 //
+                || langDoc.getDescriptionList().size() > 0 //
+                || langDoc.getTagList().size() > 0) {
             // 明示的な情報記載がある場合にのみ LangDoc を生成。
-            new BlancoCgLangDocJavaSourceExpander().transformLangDoc(cgField.getLangDoc(), argSourceLines);
+            BlancoCgLangDocJavaSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
         }
         
         // アノテーションを展開。
@@ -107,12 +116,6 @@ class BlancoCgFieldJavaSourceExpander {
             buf.append("final ");
         }
 
-        if (argSourceFile.getIsAutoImport()) {
-            // 自動インポートが有効な場合は
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgField.getType().getName());
-        }
-
         // フィールド生成の本体部分を展開します。
         buf.append(BlancoCgTypeJavaSourceExpander.toTypeString(cgField.getType()) + " ");
         buf.append(cgField.getName());
@@ -121,8 +124,10 @@ class BlancoCgFieldJavaSourceExpander {
         if (BlancoStringUtil.null2Blank(cgField.getDefault()).length() > 0) {
             buf.append(" = " + cgField.getDefault());
         }
-        buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-        argSourceLines.add(buf.toString());
+        buf.append(DIALECT.getTerminator());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf
+                .toString(), BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgField));
     }
 
     /**
@@ -133,10 +138,13 @@ class BlancoCgFieldJavaSourceExpander {
      * @param argSourceLines
      *            ソースコード。
      */
-    private void expandAnnotationList(final BlancoCgField cgField, final List<java.lang.String> argSourceLines) {
+    private void expandAnnotationList(final BlancoCgField cgField,
+            final BlancoCgSourceLineSink argSourceLines) {
         for (String strAnnotation : cgField.getAnnotationList()) {
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgField));
         }
     }
 }
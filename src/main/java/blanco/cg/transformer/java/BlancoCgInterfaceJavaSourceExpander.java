@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.java;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgInterface;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -43,6 +44,11 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgInterfaceJavaSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgInterfaceJavaSourceExpander INSTANCE = new BlancoCgInterfaceJavaSourceExpander();
+
     /**
      * ここでinterfaceを展開します。
      * 
@@ -53,21 +59,16 @@ class BlancoCgInterfaceJavaSourceExpander {
      */
     public void transformInterface(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // インタフェースの場合には フィールドやメソッドからpublicが除外されます。
 
         // 最初にインタフェース情報をLangDocに展開。
-        if (cgInterface.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgInterface.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgInterface.getLangDoc().getTitle() == null) {
-            cgInterface.getLangDoc().setTitle(cgInterface.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgInterface.getLangDoc(), cgInterface.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocJavaSourceExpander().transformLangDoc(cgInterface
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocJavaSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgInterface, argSourceLines);
@@ -87,7 +88,9 @@ class BlancoCgInterfaceJavaSourceExpander {
 
         buf.append(" {");
 
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf
+                .toString(), BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgInterface));
 
         // ここでフィールドを展開。
         expandFieldList(cgInterface, argSourceFile, argSourceLines);
@@ -95,7 +98,9 @@ class BlancoCgInterfaceJavaSourceExpander {
         // ここでメソッドを展開。
         expandMethodList(cgInterface, argSourceFile, argSourceLines);
 
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE, BlancoCgSourceLine.INDENT_END,
+                cgInterface));
     }
 
     /**
@@ -107,10 +112,12 @@ class BlancoCgInterfaceJavaSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgInterface cgInterface,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (String strAnnotation : cgInterface.getAnnotationList()) {
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgInterface));
         }
     }
 
@@ -123,7 +130,8 @@ class BlancoCgInterfaceJavaSourceExpander {
     private void expandExtendClassList(final BlancoCgInterface cgClass,
             final StringBuffer buf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 buf.append(" extends "
@@ -143,7 +151,7 @@ class BlancoCgInterfaceJavaSourceExpander {
      */
     private void expandFieldList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -151,7 +159,7 @@ class BlancoCgInterfaceJavaSourceExpander {
         }
 
         for (BlancoCgField cgField : cgInterface.getFieldList()) {
-            new BlancoCgFieldJavaSourceExpander().transformField(cgField,
+            BlancoCgFieldJavaSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, true);
         }
     }
@@ -165,12 +173,12 @@ class BlancoCgInterfaceJavaSourceExpander {
      */
     private void expandMethodList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (BlancoCgMethod cgMethod : cgInterface.getMethodList()) {
-            new BlancoCgMethodJavaSourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodJavaSourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, true);
         }
     }
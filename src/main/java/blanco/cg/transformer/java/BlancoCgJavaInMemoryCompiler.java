@@ -0,0 +1,178 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer.java;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import blanco.cg.transformer.BlancoCgSourceLineMap;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * ソースファイル・バリューオブジェクトからJavaソースコードを生成し、ファイルを経由せずにコンパイルするためのクラスです。
+ * 
+ * 生成したソースコードは javax.tools のソースファイル・オブジェクトとして JavaCompiler に渡します。<br>
+ * コンパイル結果のクラスファイルもメモリ上に保持し、getClassLoader() で取得したクラスローダーから読み込むことができます。<br>
+ * コンパイラの診断情報のソースは BlancoCgJavaSourceFileObject となり、展開の際に記録した対応表によって、行番号から生成元のクラスやメソッドを求めることができます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgJavaInMemoryCompiler {
+    /**
+     * 利用するコンパイラ。
+     */
+    private final JavaCompiler fCompiler;
+
+    /**
+     * コンパイル結果を保持するファイル・マネージャー。
+     */
+    private final BlancoCgJavaMemoryFileManager fFileManager;
+
+    /**
+     * コンパイル結果を読み込むクラスローダー。
+     */
+    private final ClassLoader fClassLoader;
+
+    /**
+     * 実行環境のシステム Java コンパイラを利用するインスタンスを作成します。
+     */
+    public BlancoCgJavaInMemoryCompiler() {
+        this(ToolProvider.getSystemJavaCompiler());
+    }
+
+    /**
+     * 与えられたコンパイラを利用するインスタンスを作成します。
+     * 
+     * @param argCompiler
+     *            コンパイラ。
+     */
+    public BlancoCgJavaInMemoryCompiler(final JavaCompiler argCompiler) {
+        if (argCompiler == null) {
+            throw new IllegalArgumentException(
+                    "Java コンパイラが利用できません。JRE ではなく JDK で実行してください。");
+        }
+        fCompiler = argCompiler;
+        fFileManager = new BlancoCgJavaMemoryFileManager(argCompiler
+                .getStandardFileManager(null, null, null));
+        fClassLoader = fFileManager
+                .createClassLoader(BlancoCgJavaInMemoryCompiler.class
+                        .getClassLoader());
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトの一覧から、Javaソースファイル・オブジェクトの一覧を作成します。
+     * 
+     * 副作用のないトランスフォーマーを利用するため、与えられたバリューオブジェクトは変更されません。
+     * 
+     * @param argSourceFileList
+     *            ソースファイル・バリューオブジェクトの一覧。
+     * @return Javaソースファイル・オブジェクトの一覧。与えられた一覧と同じ順序で戻します。
+     */
+    public List<BlancoCgJavaSourceFileObject> createSourceFileObjects(
+            final Collection<BlancoCgSourceFile> argSourceFileList) {
+        if (argSourceFileList == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイルの一覧にnullが与えられました。処理中断します。");
+        }
+
+        final BlancoCgJavaSourceTransformer transformer = new BlancoCgJavaSourceTransformer(
+                true);
+
+        final List<BlancoCgJavaSourceFileObject> result = new ArrayList<BlancoCgJavaSourceFileObject>(
+                argSourceFileList.size());
+        for (BlancoCgSourceFile cgSourceFile : argSourceFileList) {
+            // 文字列のまま受け渡すため、エンコードせずにライターへ展開します。
+            // あわせて、出力した行の元になったバリューオブジェクトを対応表に記録します。
+            final StringWriter stringWriter = new StringWriter();
+            final BlancoCgSourceLineMap lineMap = new BlancoCgSourceLineMap();
+            try {
+                final BufferedWriter writer = new BufferedWriter(stringWriter);
+                transformer.transform(cgSourceFile, writer, lineMap);
+                writer.flush();
+            } catch (IOException ex) {
+                throw new IllegalArgumentException(
+                        "ソースコードを展開する過程で例外が発生しました。" + ex.toString());
+            }
+            result.add(new BlancoCgJavaSourceFileObject(cgSourceFile,
+                    transformer.getSourcePath(cgSourceFile), stringWriter
+                            .toString(), lineMap));
+        }
+        return result;
+    }
+
+    /**
+     * Javaソースファイル・オブジェクトの一覧をまとめてコンパイルします。
+     * 
+     * @param argSourceFileObjectList
+     *            Javaソースファイル・オブジェクトの一覧。
+     * @param argOptions
+     *            コンパイラのオプション。オプションがない場合には null。
+     * @param argDiagnosticListener
+     *            診断情報を受け取るリスナー。標準エラー出力へ出力する場合には null。
+     * @return コンパイルに成功した場合には true。
+     */
+    public boolean compile(
+            final List<BlancoCgJavaSourceFileObject> argSourceFileObjectList,
+            final Iterable<String> argOptions,
+            final DiagnosticListener<? super JavaFileObject> argDiagnosticListener) {
+        if (argSourceFileObjectList == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイル・オブジェクトの一覧にnullが与えられました。処理中断します。");
+        }
+        final Boolean isSuccess = fCompiler.getTask(null, fFileManager,
+                argDiagnosticListener, argOptions, null,
+                argSourceFileObjectList).call();
+        return isSuccess != null && isSuccess.booleanValue();
+    }
+
+    /**
+     * コンパイル結果のクラスを読み込むためのクラスローダーを取得します。
+     * 
+     * @return クラスローダー。
+     */
+    public ClassLoader getClassLoader() {
+        return fClassLoader;
+    }
+
+    /**
+     * コンパイル結果のクラスファイルのバイト列を取得します。
+     * 
+     * @param argClassName
+     *            クラスのバイナリ名。
+     * @return クラスファイルのバイト列。存在しない場合には null。
+     */
+    public byte[] getClassBytes(final String argClassName) {
+        return fFileManager.getClassBytes(argClassName);
+    }
+}
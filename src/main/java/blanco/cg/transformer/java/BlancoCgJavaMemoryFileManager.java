@@ -0,0 +1,164 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * コンパイル結果のクラスファイルをメモリ上に保持するファイル・マネージャーです。
+ * 
+ * クラスファイルの出力以外は、与えられたファイル・マネージャーに委譲します。<br>
+ * 保持したクラスファイルは、このファイル・マネージャーのクラスローダーから読み込むことができます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgJavaMemoryFileManager extends
+        ForwardingJavaFileManager<JavaFileManager> {
+    /**
+     * クラスのバイナリ名と、クラスファイルのバイト列を保持するオブジェクトのマップ。
+     */
+    private final Map<String, ClassFileObject> fClassFileMap = new HashMap<String, ClassFileObject>();
+
+    /**
+     * ファイル・マネージャーを作成します。
+     * 
+     * @param argFileManager
+     *            委譲先のファイル・マネージャー。
+     */
+    public BlancoCgJavaMemoryFileManager(final JavaFileManager argFileManager) {
+        super(argFileManager);
+    }
+
+    /**
+     * クラスファイルの出力先として、メモリ上のファイル・オブジェクトを戻します。
+     * 
+     * @param location
+     *            出力先の場所。
+     * @param className
+     *            クラスのバイナリ名。
+     * @param kind
+     *            ファイルの種類。
+     * @param sibling
+     *            出力の元となったファイル・オブジェクト。
+     * @return ファイル・オブジェクト。
+     * @throws java.io.IOException
+     *             入出力例外が発生した場合。
+     */
+    public JavaFileObject getJavaFileForOutput(final Location location,
+            final String className, final JavaFileObject.Kind kind,
+            final FileObject sibling) throws java.io.IOException {
+        if (location != StandardLocation.CLASS_OUTPUT
+                || kind != JavaFileObject.Kind.CLASS) {
+            return super.getJavaFileForOutput(location, className, kind,
+                    sibling);
+        }
+
+        final ClassFileObject classFile = new ClassFileObject(className);
+        synchronized (fClassFileMap) {
+            fClassFileMap.put(className, classFile);
+        }
+        return classFile;
+    }
+
+    /**
+     * コンパイル結果のクラスファイルのバイト列を取得します。
+     * 
+     * @param argClassName
+     *            クラスのバイナリ名。
+     * @return クラスファイルのバイト列。存在しない場合には null。
+     */
+    public byte[] getClassBytes(final String argClassName) {
+        final ClassFileObject classFile;
+        synchronized (fClassFileMap) {
+            classFile = fClassFileMap.get(argClassName);
+        }
+        return (classFile == null ? null : classFile.getBytes());
+    }
+
+    /**
+     * コンパイル結果のクラスを読み込むためのクラスローダーを作成します。
+     * 
+     * @param argParent
+     *            親クラスローダー。
+     * @return クラスローダー。
+     */
+    public ClassLoader createClassLoader(final ClassLoader argParent) {
+        return new ClassLoader(argParent) {
+            protected Class<?> findClass(final String name)
+                    throws ClassNotFoundException {
+                final byte[] bytes = getClassBytes(name);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+    }
+
+    /**
+     * クラスファイルのバイト列をメモリ上に保持するファイル・オブジェクトです。
+     */
+    private static class ClassFileObject extends SimpleJavaFileObject {
+        /**
+         * クラスファイルの出力先ストリーム。
+         */
+        private final ByteArrayOutputStream fOutStream = new ByteArrayOutputStream();
+
+        /**
+         * ファイル・オブジェクトを作成します。
+         * 
+         * @param argClassName
+         *            クラスのバイナリ名。
+         */
+        ClassFileObject(final String argClassName) {
+            super(URI.create("bytes:///" + argClassName.replace('.', '/')
+                    + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        public OutputStream openOutputStream() {
+            return fOutStream;
+        }
+
+        /**
+         * クラスファイルのバイト列を取得します。
+         * 
+         * @return バイト列。
+         */
+        byte[] getBytes() {
+            return fOutStream.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.transformer.java;
+
+import java.net.URI;
+
+import javax.tools.SimpleJavaFileObject;
+
+import blanco.cg.transformer.BlancoCgSourceLineMap;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 生成したJavaソースコードをメモリ上に保持する、javax.tools のソースファイル・オブジェクトです。
+ * 
+ * ファイルを経由せずに JavaCompiler へ渡すことができます。<br>
+ * 展開の際に記録した対応表によって、コンパイラの診断情報の行番号から生成元のクラスやメソッドを求めることができます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgJavaSourceFileObject extends SimpleJavaFileObject {
+    /**
+     * 生成元のソースファイル・バリューオブジェクト。
+     */
+    private final BlancoCgSourceFile fSourceFile;
+
+    /**
+     * 出力先ルートからの相対パス。
+     */
+    private final String fPath;
+
+    /**
+     * 生成したソースコード。
+     */
+    private final String fSourceCode;
+
+    /**
+     * 生成したソースコードの行番号と、行の元になったバリューオブジェクトとの対応表。
+     */
+    private final BlancoCgSourceLineMap fLineMap;
+
+    /**
+     * ソースファイル・オブジェクトを作成します。
+     * 
+     * @param argSourceFile
+     *            生成元のソースファイル・バリューオブジェクト。
+     * @param argPath
+     *            出力先ルートからの相対パス。
+     * @param argSourceCode
+     *            生成したソースコード。
+     * @param argLineMap
+     *            ソースコードの展開の際に記録した対応表。
+     */
+    public BlancoCgJavaSourceFileObject(final BlancoCgSourceFile argSourceFile,
+            final String argPath, final String argSourceCode,
+            final BlancoCgSourceLineMap argLineMap) {
+        super(URI.create("string:///" + argPath), Kind.SOURCE);
+        if (argLineMap == null) {
+            throw new IllegalArgumentException(
+                    "行の対応表にnullが与えられました。処理中断します。");
+        }
+        fSourceFile = argSourceFile;
+        fPath = argPath;
+        fSourceCode = argSourceCode;
+        fLineMap = argLineMap;
+    }
+
+    /**
+     * 生成したソースコードを取得します。
+     * 
+     * @param ignoreEncodingErrors
+     *            エンコーディングの誤りを無視するかどうか。メモリ上の文字列のため利用しません。
+     * @return ソースコード。
+     */
+    public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return fSourceCode;
+    }
+
+    /**
+     * 生成元のソースファイル・バリューオブジェクトを取得します。
+     * 
+     * @return ソースファイル・バリューオブジェクト。
+     */
+    public BlancoCgSourceFile getSourceFile() {
+        return fSourceFile;
+    }
+
+    /**
+     * 出力先ルートからの相対パスを取得します。
+     * 
+     * @return 相対パス。
+     */
+    public String getPath() {
+        return fPath;
+    }
+
+    /**
+     * 指定の行を含むクラスを、生成元のクラス・バリューオブジェクトから求めます。
+     * 
+     * @param argLineNumber
+     *            1 から始まる行番号。コンパイラの診断情報の行番号を与えます。
+     * @return クラス・バリューオブジェクト。求められなかった場合には null。
+     */
+    public BlancoCgClass findClass(final long argLineNumber) {
+        return fLineMap.findSource(argLineNumber, BlancoCgClass.class);
+    }
+
+    /**
+     * 指定の行を含むメソッドを、生成元のメソッド・バリューオブジェクトから求めます。
+     * 
+     * メソッドの宣言・アノテーション・本体・終わりの行が該当します。言語ドキュメントの行は該当しません。
+     * 
+     * @param argLineNumber
+     *            1 から始まる行番号。コンパイラの診断情報の行番号を与えます。
+     * @return メソッド・バリューオブジェクト。メソッドの外側の行の場合や、求められなかった場合には null。
+     */
+    public BlancoCgMethod findMethod(final long argLineNumber) {
+        return fLineMap.findSource(argLineNumber, BlancoCgMethod.class);
+    }
+}
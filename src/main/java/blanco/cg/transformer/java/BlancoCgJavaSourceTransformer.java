@@ -24,12 +24,10 @@
  */
 package blanco.cg.transformer.java;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import blanco.cg.transformer.AbstractBlancoCgJavaStyleTransformer;
-import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.cg.transformer.BlancoCgTransformContext;
 
 /**
  * blancoCgのバリューオブジェクトからソースコードを自動生成するトランスフォーマーのエントリポイントです。
@@ -41,38 +39,64 @@ import blanco.cg.valueobject.BlancoCgSourceFile;
  */
 public class BlancoCgJavaSourceTransformer extends
         AbstractBlancoCgJavaStyleTransformer {
+    /**
+     * 大きなクラスのメンバーを並列に展開する際に利用するスレッドプール。逐次に展開する場合には null。
+     */
+    private final ExecutorService fMemberExecutor;
+
+    /**
+     * トランスフォーマーを作成します。
+     */
+    public BlancoCgJavaSourceTransformer() {
+        super();
+        fMemberExecutor = null;
+    }
 
     /**
-     * ソースファイル・バリューオブジェクトをJavaソースコードに変換してライターに出力します。
+     * 副作用の有無を指定してトランスフォーマーを作成します。
      * 
-     * このAPIではパッケージ構造をディレクトリ構造とは考慮しません。この処理の中ではライターに向けて出力するだけです。
+     * @param argIsSideEffectFree
+     *            副作用のない変換をおこなうかどうか。
+     */
+    public BlancoCgJavaSourceTransformer(final boolean argIsSideEffectFree) {
+        super(argIsSideEffectFree);
+        fMemberExecutor = null;
+    }
+
+    /**
+     * 大きなクラスのメンバーを並列に展開するトランスフォーマーを作成します。
      * 
-     * @param argSourceFile
-     *            ソースファイル・バリューオブジェクト。
-     * @param argWriter
-     *            出力先のライター。
-     * @throws IOException 入出力例外が発生した場合
+     * メンバーの数が多いクラスについて、列挙体・フィールド・メソッドをメンバーごとのバッファへ並列に展開し、
+     * 宣言順に連結します。生成されるソースコードは逐次に展開した場合と同一です。<br>
+     * 与えられたスレッドプールのシャットダウンは呼び出し元の責任でおこなってください。
+     * BlancoCgBatchTransformer と同じスレッドプールを指定すると、空きスレッドがなくなり処理が進まなくなる場合があるため、
+     * 別のスレッドプールを指定してください。
+     * 
+     * @param argIsSideEffectFree
+     *            副作用のない変換をおこなうかどうか。
+     * @param argMemberExecutor
+     *            メンバーの展開に利用するスレッドプール。
      */
-    public void transform(final BlancoCgSourceFile argSourceFile,
-            final BufferedWriter argWriter) throws IOException {
-        if (argSourceFile == null) {
-            throw new IllegalArgumentException("ソースファイルにnullが与えられました。処理中断します。");
-        }
-        if (argWriter == null) {
-            throw new IllegalArgumentException("出力先ライターにnullが与えられました。処理中断します。");
+    public BlancoCgJavaSourceTransformer(final boolean argIsSideEffectFree,
+            final ExecutorService argMemberExecutor) {
+        super(argIsSideEffectFree);
+        if (argMemberExecutor == null) {
+            throw new IllegalArgumentException(
+                    "スレッドプールにnullが与えられました。処理中断します。");
         }
+        fMemberExecutor = argMemberExecutor;
+    }
 
-        final List<java.lang.String> sourceLines = new BlancoCgSourceFileJavaSourceExpander()
-                .transformSourceFile(argSourceFile);
-
-        // ソースコードを整形します。
-        formatSource(sourceLines);
-
-        // ソースコードをライタへと出力します。
-        source2Writer(sourceLines, argWriter);
-
-        // 念のためフラッシュを実施。
-        argWriter.flush();
+    /**
+     * ソースファイル・バリューオブジェクトをJavaソースコードに展開します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    protected void expandSourceFile(final BlancoCgTransformContext argContext) {
+        argContext.setMemberExecutor(fMemberExecutor);
+        BlancoCgSourceFileJavaSourceExpander.INSTANCE
+                .transformSourceFile(argContext);
     }
 
     /**
@@ -24,10 +24,10 @@
  */
 package blanco.cg.transformer.java;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgLangDocTag;
@@ -49,6 +49,17 @@ class BlancoCgLangDocJavaSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JAVA;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgLangDocJavaSourceExpander INSTANCE = new BlancoCgLangDocJavaSourceExpander();
+
     /**
      * 言語ドキュメント情報を元にソースコードを展開します。
      * 
@@ -58,13 +69,13 @@ class BlancoCgLangDocJavaSourceExpander {
      *            ソースコード。
      */
     public void transformLangDoc(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
-        argSourceLines.add("/**");
+            final BlancoCgSourceLineSink argSourceLines) {
+        addDocLine("/**", langDoc, argSourceLines);
 
         // 開始・終了を除く本体を展開します。
         transformLangDocBody(langDoc, argSourceLines);
 
-        argSourceLines.add("*/");
+        addDocLine("*/", langDoc, argSourceLines);
     }
 
     /**
@@ -76,17 +87,17 @@ class BlancoCgLangDocJavaSourceExpander {
      * @param argSourceLines
      */
     public void transformLangDocBody(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isLangDocTitleStarted = false;
 
         if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0) {
             isLangDocTitleStarted = true;
 
             // 改行が含まれている場合、適切に分割する。
-            for (String line : BlancoNameUtil.splitString(BlancoCgSourceUtil
-                    .escapeStringAsLangDoc(TARGET_LANG, langDoc.getTitle()),
+            for (String line : BlancoNameUtil.splitString(DIALECT
+                    .escapeStringAsLangDoc(langDoc.getTitle()),
                     '\n')) {
-                argSourceLines.add("* " + line);
+                addDocLine("* " + line, langDoc, argSourceLines);
             }
         }
 
@@ -98,13 +109,13 @@ class BlancoCgLangDocJavaSourceExpander {
             if (isLangDocDescriptionStarted == false) {
                 isLangDocDescriptionStarted = true;
                 if (isLangDocTitleStarted) {
-                    argSourceLines.add("*");
+                    addDocLine("*", langDoc, argSourceLines);
                 }
             }
 
             // 改行が含まれている場合、適切に分割する。
             for (String line : BlancoNameUtil.splitString(strDescrption, '\n')) {
-                argSourceLines.add("* " + line);
+                addDocLine("* " + line, langDoc, argSourceLines);
             }
         }
 
@@ -117,7 +128,7 @@ class BlancoCgLangDocJavaSourceExpander {
                 // 空行挿入。
                 if (isLangDocTagStarted == false) {
                     isLangDocTagStarted = true;
-                    argSourceLines.add("*");
+                    addDocLine("*", langDoc, argSourceLines);
                 }
 
                 if (langDocTag.getName() == null) {
@@ -136,9 +147,9 @@ class BlancoCgLangDocJavaSourceExpander {
                 if (BlancoStringUtil.null2Blank(langDocTag.getKey()).length() > 0) {
                     buf.append(langDocTag.getKey() + " ");
                 }
-                buf.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, langDocTag.getValue()));
-                argSourceLines.add(buf.toString());
+                buf.append(DIALECT.escapeStringAsLangDoc(langDocTag
+                        .getValue()));
+                addDocLine(buf.toString(), langDoc, argSourceLines);
             }
         }
 
@@ -147,7 +158,7 @@ class BlancoCgLangDocJavaSourceExpander {
             // 空行挿入。
             if (isLangDocTagStarted == false) {
                 isLangDocTagStarted = true;
-                argSourceLines.add("*");
+                addDocLine("*", langDoc, argSourceLines);
             }
 
             final StringBuffer bufParameter = new StringBuffer();
@@ -155,10 +166,10 @@ class BlancoCgLangDocJavaSourceExpander {
             if (BlancoStringUtil.null2Blank(cgParameter.getDescription())
                     .length() > 0) {
                 bufParameter.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                cgParameter.getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(cgParameter
+                            .getDescription()));
             }
-            argSourceLines.add(bufParameter.toString());
+            addDocLine(bufParameter.toString(), langDoc, argSourceLines);
         }
 
         if (langDoc.getReturn() != null
@@ -167,7 +178,7 @@ class BlancoCgLangDocJavaSourceExpander {
             // 空行挿入。
             if (isLangDocTagStarted == false) {
                 isLangDocTagStarted = true;
-                argSourceLines.add("*");
+                addDocLine("*", langDoc, argSourceLines);
             }
 
             final StringBuffer bufReturn = new StringBuffer();
@@ -175,10 +186,10 @@ class BlancoCgLangDocJavaSourceExpander {
             if (BlancoStringUtil.null2Blank(
                     langDoc.getReturn().getDescription()).length() > 0) {
                 bufReturn.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                langDoc.getReturn().getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(langDoc.getReturn()
+                            .getDescription()));
             }
-            argSourceLines.add(bufReturn.toString());
+            addDocLine(bufReturn.toString(), langDoc, argSourceLines);
         }
 
         // throwsリストを展開。
@@ -186,7 +197,7 @@ class BlancoCgLangDocJavaSourceExpander {
             // 空行挿入。
             if (isLangDocTagStarted == false) {
                 isLangDocTagStarted = true;
-                argSourceLines.add("*");
+                addDocLine("*", langDoc, argSourceLines);
             }
 
             final StringBuffer bufThrow = new StringBuffer();
@@ -199,10 +210,35 @@ class BlancoCgLangDocJavaSourceExpander {
             if (BlancoStringUtil.null2Blank(cgException.getDescription())
                     .length() > 0) {
                 bufThrow.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                cgException.getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(cgException
+                            .getDescription()));
             }
-            argSourceLines.add(bufThrow.toString());
+            addDocLine(bufThrow.toString(), langDoc, argSourceLines);
+        }
+    }
+
+    /**
+     * 言語ドキュメントの行を、字下げ判定済みの行モデルとして追加します。
+     * 
+     * 行の文字列に { や } が含まれていても、字下げに影響することはありません。
+     * 
+     * @param argLine
+     *            言語ドキュメントの行。
+     * @param langDoc
+     *            行の元になった言語ドキュメント情報。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    static void addDocLine(final String argLine,
+            final BlancoCgLangDoc langDoc,
+            final BlancoCgSourceLineSink argSourceLines) {
+        String strLine = argLine.trim();
+        if (strLine.length() > 0 && strLine.charAt(0) == '*') {
+            // 継続行・終了行は一文字字下げします。
+            strLine = " " + strLine;
         }
+        argSourceLines.addLine(new BlancoCgSourceLine(
+                strLine, BlancoCgSourceLine.KIND_DOC,
+                BlancoCgSourceLine.INDENT_NONE, langDoc));
     }
 }
@@ -24,11 +24,11 @@
  */
 package blanco.cg.transformer.java;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgMethod;
@@ -50,6 +50,17 @@ class BlancoCgMethodJavaSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JAVA;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgMethodJavaSourceExpander INSTANCE = new BlancoCgMethodJavaSourceExpander();
+
     /**
      * ここでメソッドを展開します。
      * 
@@ -64,7 +75,7 @@ class BlancoCgMethodJavaSourceExpander {
      */
     public void transformMethod(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
             throw new IllegalArgumentException("メソッドの名前に適切な値が設定されていません。");
@@ -81,15 +92,14 @@ class BlancoCgMethodJavaSourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
-        prepareExpand(cgMethod, argSourceFile);
+        final BlancoCgLangDoc langDoc = prepareExpand(cgMethod, argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocJavaSourceExpander().transformLangDoc(cgMethod
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocJavaSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgMethod, argSourceLines);
@@ -105,60 +115,32 @@ class BlancoCgMethodJavaSourceExpander {
      *            メソッドオブジェクト。
      * @param argSourceFile
      *            ソースファイル。
+     * @return 作業用の言語ドキュメント。
      */
-    private void prepareExpand(final BlancoCgMethod cgMethod,
+    private BlancoCgLangDoc prepareExpand(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile) {
         // 最初にメソッド情報をLangDocに展開。
-        if (cgMethod.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgMethod.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgMethod.getLangDoc().getParameterList() == null) {
-            cgMethod.getLangDoc().setParameterList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgParameter>());
-        }
-        if (cgMethod.getLangDoc().getThrowList() == null) {
-            cgMethod.getLangDoc().setThrowList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgException>());
-        }
-        if (cgMethod.getLangDoc().getTitle() == null) {
-            cgMethod.getLangDoc().setTitle(cgMethod.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgMethod.getLangDoc(), cgMethod.getDescription());
 
         for (BlancoCgParameter cgParameter : cgMethod.getParameterList()) {
-            if (argSourceFile.getIsAutoImport()) {
-                // 自動インポートが有効な場合は
-                // import文に型を追加。
-                argSourceFile.getImportList().add(cgParameter.getType().getName());
-            }
-
             // 言語ドキュメントにパラメータを追加。
-            cgMethod.getLangDoc().getParameterList().add(cgParameter);
+            langDoc.getParameterList().add(cgParameter);
         }
 
         if (cgMethod.getReturn() != null) {
-            if (argSourceFile.getIsAutoImport()) {
-                // 自動インポートが有効な場合は
-                // import文に型を追加。
-                argSourceFile.getImportList().add(
-                    cgMethod.getReturn().getType().getName());
-            }
-
             // 言語ドキュメントにreturnを追加。
-            cgMethod.getLangDoc().setReturn(cgMethod.getReturn());
+            langDoc.setReturn(cgMethod.getReturn());
         }
 
         // 例外についてLangDoc構造体に展開
         for (BlancoCgException cgException : cgMethod.getThrowList()) {
-            if (argSourceFile.getIsAutoImport()) {
-                // 自動インポートが有効な場合は
-                // import文に型を追加。
-                argSourceFile.getImportList().add(cgException.getType().getName());
-            }
-
             // 言語ドキュメントに例外を追加。
-            cgMethod.getLangDoc().getThrowList().add(cgException);
+            langDoc.getThrowList().add(cgException);
         }
+
+        return langDoc;
     }
 
     /**
@@ -172,7 +154,7 @@ class BlancoCgMethodJavaSourceExpander {
      *            インタフェースとして展開するかどうか。
      */
     private void expandMethodBody(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         final StringBuffer buf = new StringBuffer();
 
@@ -263,21 +245,25 @@ class BlancoCgMethodJavaSourceExpander {
 
         if (cgMethod.getAbstract() || argIsInterface) {
             // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-            buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            argSourceLines.add(buf.toString());
+            buf.append(DIALECT.getTerminator());
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    buf.toString(), BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         } else {
             // メソッドブロックの開始。
             buf.append(" {");
 
             // ここでいったん、行を確定。
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    buf.toString(), BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN, cgMethod));
 
             // 親クラスメソッド実行機能の展開。
             if (BlancoStringUtil.null2Blank(cgMethod.getSuperclassInvocation())
                     .length() > 0) {
                 // super(引数) などが含まれます。
-                argSourceLines.add(cgMethod.getSuperclassInvocation()
-                        + BlancoCgLineUtil.getTerminator(TARGET_LANG));
+                argSourceLines.addText(cgMethod.getSuperclassInvocation()
+                        + DIALECT.getTerminator());
             }
 
             // パラメータの非null制約の展開。
@@ -287,7 +273,9 @@ class BlancoCgMethodJavaSourceExpander {
             expandLineList(cgMethod, argSourceLines);
 
             // メソッドブロックの終了。
-            argSourceLines.add("}");
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    "}", BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_END, cgMethod));
         }
     }
 
@@ -302,8 +290,8 @@ class BlancoCgMethodJavaSourceExpander {
     private void expandThrowList(final BlancoCgMethod cgMethod,
             final StringBuffer buf) {
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
             if (index == 0) {
                 buf.append(" throws ");
             } else {
@@ -325,15 +313,19 @@ class BlancoCgMethodJavaSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgMethod.getOverride()) {
             // Java言語では overrideはアノテーションで表現します。
-            argSourceLines.add("@Override");
+            argSourceLines.addLine(new BlancoCgSourceLine("@Override",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
 
         for (String strAnnotation : cgMethod.getAnnotationList()) {
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
     }
 
@@ -346,25 +338,25 @@ class BlancoCgMethodJavaSourceExpander {
      *            ソースコード。
      */
     private void expandParameterCheck(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isProcessed = false;
         for (BlancoCgParameter cgParameter : cgMethod.getParameterList()) {
             if (cgParameter.getNotnull()) {
                 isProcessed = true;
 
-                argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                        cgParameter.getName() + " == null"));
-                argSourceLines.add("throw new IllegalArgumentException(\"メソッド["
+                argSourceLines.addText(DIALECT.getIfBegin(cgParameter.getName()
+                        + " == null"));
+                argSourceLines.addText("throw new IllegalArgumentException(\"メソッド["
                         + cgMethod.getName() + "]のパラメータ["
                         + cgParameter.getName()
                         + "]にnullが与えられました。しかし、このパラメータにnullを与えることはできません。\");");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
         }
 
         if (isProcessed) {
             // パラメータチェックが展開された場合には空行を挿入します。
-            argSourceLines.add("");
+            argSourceLines.addText("");
         }
     }
 
@@ -377,9 +369,9 @@ class BlancoCgMethodJavaSourceExpander {
      *            出力行リスト。
      */
     private void expandLineList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (String strLine : cgMethod.getLineList()) {
-            argSourceLines.add(strLine);
+            argSourceLines.addText(strLine);
         }
     }
 
@@ -389,7 +381,7 @@ class BlancoCgMethodJavaSourceExpander {
      * @param argSourceLine 出力行リスト。
      */
     private void expandCommentOnlyMethod(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLine) {
+            final BlancoCgSourceLineSink argSourceLine) {
 
         if (cgMethod.getDescription() == null){
             return;
@@ -398,7 +390,7 @@ class BlancoCgMethodJavaSourceExpander {
         String[] splittedDescription = cgMethod.getDescription().split(System.lineSeparator());
 
         for (String descriptionLine : splittedDescription){
-            argSourceLine.add(descriptionLine);
+            argSourceLine.addText(descriptionLine);
         }
     }
 }
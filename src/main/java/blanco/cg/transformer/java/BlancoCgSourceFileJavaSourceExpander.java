@@ -24,11 +24,14 @@
  */
 package blanco.cg.transformer.java;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceDocument;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.transformer.BlancoCgTransformContext;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgInterface;
@@ -49,17 +52,15 @@ class BlancoCgSourceFileJavaSourceExpander {
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JAVA;
 
     /**
-     * 入力となるソースコード構造。
+     * このクラスが処理対象とするプログラミング言語の方言。
      */
-    private BlancoCgSourceFile fCgSourceFile = null;
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
 
     /**
-     * 中間的に利用するソースコードをあらわすList。java.lang.Stringがリストに格納されます。(BlancoCgLineではありません。
-     * )
-     * 
-     * ここでは整形前ソースコードが中間的にたくわえられます。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private List<java.lang.String> fSourceLines = null;
+    static final BlancoCgSourceFileJavaSourceExpander INSTANCE = new BlancoCgSourceFileJavaSourceExpander();
 
     /**
      * SourceFileから整形前ソースコードリストを生成します。
@@ -70,83 +71,115 @@ class BlancoCgSourceFileJavaSourceExpander {
      */
     public List<java.lang.String> transformSourceFile(
             final BlancoCgSourceFile argSourceFile) {
-        // 確実にソース行のリストを初期化します。
-        fSourceLines = new ArrayList<java.lang.String>();
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, new BlancoCgSourceDocument());
+        transformSourceFile(context);
+        return context.getDocument().toLineList();
+    }
 
-        fCgSourceFile = argSourceFile;
+    /**
+     * SourceFileを展開し、整形前ソースコードを与えられたドキュメントのヘッダー部・import部・本体部へ追加します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    public void transformSourceFile(final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceDocument document = argContext.getDocument();
+        BlancoCgSourceLineSink sourceLines = document.getHeaderLines();
 
         // ソースファイルのファイルヘッダーを出力処理します。
-        expandSourceFileHeader();
+        expandSourceFileHeader(argContext);
 
         // パッケージ部分の生成。
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
-            fSourceLines.add("package " + fCgSourceFile.getPackage()
-                    + BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            fSourceLines.add("");
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
+            sourceLines.addLine(new BlancoCgSourceLine(
+                    "package " + cgSourceFile.getPackage()
+                    + DIALECT.getTerminator(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgSourceFile));
+            sourceLines.addText("");
         }
 
-        if (fCgSourceFile.getImportList() == null) {
+        if (cgSourceFile.getImportList() == null) {
             throw new IllegalArgumentException("importのリストにnullが与えられました。");
         }
+        if (cgSourceFile.getInterfaceList() == null) {
+            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
+        }
+        if (cgSourceFile.getClassList() == null) {
+            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
+        }
+
+        // ここから import解決です。計測のために開始を記録します。
+        argContext.markImportPhase();
 
-        // 処理の後半でインポート文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。
-        BlancoCgImportJavaSourceExpander.insertAnchorString(fSourceLines);
+        // importの展開をします。
+        // 本体部の展開に先立ち、バリューオブジェクトのツリーを巡回して import文の一覧を確定します。
+        // これにより、本体部を保持することなく ヘッダー部・import部に続けて出力することができます。
+        BlancoCgImportJavaSourceExpander.INSTANCE.resolveImport(argContext);
+        BlancoCgImportJavaSourceExpander.INSTANCE.transformImport(cgSourceFile,
+                document.getImportLines());
+        argContext.markImportPhaseEnd();
+
+        // ここまでがヘッダー部と import部です。これ以降は本体部へ展開します。
+        document.beginBody();
+        sourceLines = document.getBodyLines();
 
         // 列挙体の展開を実施します。
-        for (BlancoCgEnum cgEnum : fCgSourceFile.getEnumList()) {
-            new BlancoCgEnumJavaSourceExpander().transformEnum(cgEnum,
-                    argSourceFile, fSourceLines);
+        for (BlancoCgEnum cgEnum : cgSourceFile.getEnumList()) {
+            BlancoCgEnumJavaSourceExpander.INSTANCE.transformEnum(cgEnum,
+                    cgSourceFile, sourceLines);
         }
 
         // インタフェースの展開を実施します。
-        if (fCgSourceFile.getInterfaceList() == null) {
-            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
-        }
-        for (BlancoCgInterface cgInterface : fCgSourceFile.getInterfaceList()) {
-            new BlancoCgInterfaceJavaSourceExpander().transformInterface(
-                    cgInterface, fCgSourceFile, fSourceLines);
+        for (BlancoCgInterface cgInterface : cgSourceFile.getInterfaceList()) {
+            BlancoCgInterfaceJavaSourceExpander.INSTANCE.transformInterface(
+                    cgInterface, cgSourceFile, sourceLines);
         }
 
         // クラスの展開を実施します。
-        if (fCgSourceFile.getClassList() == null) {
-            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
+        for (BlancoCgClass cgClass : cgSourceFile.getClassList()) {
+            BlancoCgClassJavaSourceExpander.INSTANCE.transformClass(cgClass,
+                    cgSourceFile, sourceLines, argContext
+                            .getMemberExecutor());
         }
-        for (BlancoCgClass cgClass : fCgSourceFile.getClassList()) {
-            new BlancoCgClassJavaSourceExpander().transformClass(cgClass,
-                    fCgSourceFile, fSourceLines);
-        }
-
-        // importの展開をします。
-        // この処理が、クラス展開より後に実施されているのには意味があります。
-        // クラス展開などを経て、初めてインポート文の一覧が確定するからです。
-        new BlancoCgImportJavaSourceExpander().transformImport(fCgSourceFile,
-                fSourceLines);
-
-        return fSourceLines;
     }
 
     /**
      * ソースファイルのファイルヘッダーを出力処理します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
      */
-    private void expandSourceFileHeader() {
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription()).length() == 0
-                && BlancoStringUtil.null2Blank(fCgSourceFile.getLangDoc().getTitle()).length() == 0
-                && fCgSourceFile.getLangDoc().getDescriptionList().size() == 0
+    private void expandSourceFileHeader(
+            final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceLineSink sourceLines = argContext.getDocument()
+                .getHeaderLines();
+
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription()).length() == 0
+                && BlancoStringUtil.null2Blank(cgSourceFile.getLangDoc().getTitle()).length() == 0
+                && cgSourceFile.getLangDoc().getDescriptionList().size() == 0
                 ) {
             // 言語コメントが全く指定されない場合には出力を抑止します。
             // 当初デフォルトコメントを出力していましたがこれは廃止しました。
             return;
         }
         
-        fSourceLines.add("/*");
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription()).length() > 0) {
-            fSourceLines.add("* " + fCgSourceFile.getDescription());
+        BlancoCgLangDocJavaSourceExpander.addDocLine("/*",
+                cgSourceFile.getLangDoc(), sourceLines);
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription()).length() > 0) {
+            BlancoCgLangDocJavaSourceExpander.addDocLine(
+                    "* " + cgSourceFile.getDescription(),
+                    cgSourceFile.getLangDoc(), sourceLines);
         }
 
         // 言語ドキュメントの中間部を生成します。
-        new BlancoCgLangDocJavaSourceExpander().transformLangDocBody(
-                fCgSourceFile.getLangDoc(), fSourceLines);
+        BlancoCgLangDocJavaSourceExpander.INSTANCE.transformLangDocBody(
+                cgSourceFile.getLangDoc(), sourceLines);
 
-        fSourceLines.add("*/");
+        BlancoCgLangDocJavaSourceExpander.addDocLine("*/",
+                cgSourceFile.getLangDoc(), sourceLines);
     }
 }
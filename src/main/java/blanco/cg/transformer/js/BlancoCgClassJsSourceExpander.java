@@ -24,13 +24,19 @@
  */
 package blanco.cg.transformer.js;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import blanco.cg.BlancoCgObjectFactory;
+import blanco.cg.resourcebundle.BlancoCgResourceBundle;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgMethod;
 import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.commons.util.BlancoStringUtil;
 
 /**
  * BlancoCgClassをソースコードへと展開します。
@@ -40,38 +46,63 @@ import blanco.cg.valueobject.BlancoCgSourceFile;
  * @author IGA Tosiki
  */
 class BlancoCgClassJsSourceExpander {
+    /**
+     * リソースバンドル・メッセージを扱うためのクラス。
+     */
+    protected static final BlancoCgResourceBundle fBundle = new BlancoCgResourceBundle();
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassJsSourceExpander INSTANCE = new BlancoCgClassJsSourceExpander();
 
     /**
      * ここでClassを展開します。
      * 
      * @param cgClass
      *            処理対象となるクラス。
+     * @param argSourceFile
+     *            ソースファイル。
      * @param argSourceLines
      *            ソースコード。
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
+
+        // ファイル情報をクラスへと移送します。
+        String fileDescription = argSourceFile.getDescription();
+        if (BlancoStringUtil.null2Blank(fileDescription).length() == 0) {
+            fileDescription = fBundle.getDefaultFileComment();
         }
+        langDoc.getTagList().add(
+                BlancoCgObjectFactory.getInstance().createLangDocTag(
+                        "fileoverview", null, fileDescription));
+        // ポイント：ここではファイルヘッダー情報のみ移送しています。Description以外は移送の必要はありません。
 
         // 次に LangDocをソースコード形式に展開。
-        // new BlancoCgLangDocJsSourceExpander().transformLangDoc(cgClass
+        // BlancoCgLangDocJsSourceExpander.INSTANCE.transformLangDoc(cgClass
         // .getLangDoc(), argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgClass, argSourceLines);
 
+        if (cgClass.getMethodList() == null) {
+            throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
+        }
+
+        // バリューオブジェクトのメソッドのリストは変更せず、作業用のメソッドのリストを利用します。
+        final List<BlancoCgMethod> methodList = new ArrayList<BlancoCgMethod>(
+                cgClass.getMethodList());
+
         // コンストラクタが存在するか、あるいはひとつも存在しないかどうかチェックします。
         boolean isConstructorExist = false;
-        for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+        for (int index = 0; index < methodList.size(); index++) {
+            final BlancoCgMethod cgMethod = methodList.get(index);
             if (cgMethod.getConstructor()) {
                 isConstructorExist = true;
                 break;
@@ -84,36 +115,22 @@ class BlancoCgClassJsSourceExpander {
             final BlancoCgMethod cgMethod = BlancoCgObjectFactory.getInstance()
                     .createMethod(cgClass.getName(), "デフォルトコンストラクタ");
             cgMethod.setConstructor(true);
-            cgClass.getMethodList().add(cgMethod);
+            methodList.add(cgMethod);
         }
 
         // クラスの情報は、クラスのコンストラクタへと移送します。
         // これは JavaScriptの言語仕様としてのクラスの構造の特色に由来するものです。
         // クラスの宣言部がコンストラクタそのものであるので、コンストラクタにクラスの情報を移送する必要があるからです。
-        for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
-            if (cgMethod.getConstructor()) {
-                // クラスの情報をコンストラクタに移送します。
-                // ただしタイトルは移送しません。
-                for (int indexClassLangDoc = 0; indexClassLangDoc < cgClass
-                        .getLangDoc().getDescriptionList().size(); indexClassLangDoc++) {
-                    cgMethod.getLangDoc().getDescriptionList().add(
-                            cgClass.getLangDoc().getDescriptionList().get(
-                                    indexClassLangDoc));
-                }
-                for (int indexClassLangDoc = 0; indexClassLangDoc < cgClass
-                        .getLangDoc().getTagList().size(); indexClassLangDoc++) {
-                    cgMethod.getLangDoc().getTagList().add(
-                            cgClass.getLangDoc().getTagList().get(
-                                    indexClassLangDoc));
-                }
-            }
-        }
+        // 移送はコンストラクタの作業用の言語ドキュメントに対して、メソッドの展開の中で実施します。
 
         // ここでメソッドを展開。
-        expandMethodList(cgClass, argSourceFile, argSourceLines);
+        expandMethodList(cgClass, methodList, langDoc, argSourceFile,
+                argSourceLines);
 
-        argSourceLines.add("/* クラス[" + cgClass.getName() + "]宣言の終了。 */");
+        argSourceLines.addLine(new BlancoCgSourceLine(
+                "/* クラス[" + cgClass.getName() + "]宣言の終了。 */",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgClass));
     }
 
     /**
@@ -125,15 +142,16 @@ class BlancoCgClassJsSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgClass cgClass,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgClass.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgClass.getAnnotationList().get(index);
+            final String strAnnotation = cgClass.getAnnotationList()
+                    .get(index);
 
             throw new IllegalArgumentException(
                     "現バージョンの blancoCgは JavaScript言語の際にはアノテーションをサポートしません。"
                             + strAnnotation);
             // JavaScript言語のAnnotationは不明です。
-            // argSourceLines.add("@" + strAnnotation);
+            // argSourceLines.addText("@" + strAnnotation);
         }
     }
 
@@ -142,41 +160,46 @@ class BlancoCgClassJsSourceExpander {
      * 
      * @param cgClass
      *            処理中のクラス。
+     * @param argMethodList
+     *            作業用のメソッドのリスト。
+     * @param argClassLangDoc
+     *            クラスの作業用の言語ドキュメント。
      * @param argSourceFile
      *            ソースファイル。
      * @param argSourceLines
      *            ソースコード行リスト。
      */
     private void expandMethodList(final BlancoCgClass cgClass,
+            final List<BlancoCgMethod> argMethodList,
+            final BlancoCgLangDoc argClassLangDoc,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
-        if (cgClass.getMethodList() == null) {
-            throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
-        }
+            final BlancoCgSourceLineSink argSourceLines) {
 
         // 最初にコンストラクタを展開。
-        for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+        for (int index = 0; index < argMethodList.size(); index++) {
+            final BlancoCgMethod cgMethod = argMethodList.get(index);
 
             if (cgMethod.getConstructor()) {
                 // コンストラクタのみを最初に展開します。
-                new BlancoCgMethodJsSourceExpander().transformMethod(cgClass,
-                        cgMethod, argSourceFile, argSourceLines);
+                BlancoCgMethodJsSourceExpander.INSTANCE.transformMethod(cgClass,
+                        argClassLangDoc, cgMethod, argSourceFile,
+                        argSourceLines);
             }
         }
 
         // クラスフィールド (staticなフィールド)を展開します。
-        new BlancoCgMethodJsSourceExpander().transformStaticFieldList(cgClass,
+        BlancoCgMethodJsSourceExpander.INSTANCE.transformStaticFieldList(cgClass,
                 argSourceFile, argSourceLines);
 
         // 次に一般のメソッドを展開。
-        for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+        for (int index = 0; index < argMethodList.size(); index++) {
+            final BlancoCgMethod cgMethod = argMethodList.get(index);
 
             if (cgMethod.getConstructor() == false) {
                 // コンストラクタ以外を展開します。
-                new BlancoCgMethodJsSourceExpander().transformMethod(cgClass,
-                        cgMethod, argSourceFile, argSourceLines);
+                BlancoCgMethodJsSourceExpander.INSTANCE.transformMethod(cgClass,
+                        argClassLangDoc, cgMethod, argSourceFile,
+                        argSourceLines);
             }
         }
     }
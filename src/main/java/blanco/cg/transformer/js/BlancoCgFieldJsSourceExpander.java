@@ -24,11 +24,12 @@
  */
 package blanco.cg.transformer.js;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgObjectFactory;
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -48,6 +49,17 @@ class BlancoCgFieldJsSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JS;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgFieldJsSourceExpander INSTANCE = new BlancoCgFieldJsSourceExpander();
+
     /**
      * ここでフィールドを展開します。
      * 
@@ -63,7 +75,7 @@ class BlancoCgFieldJsSourceExpander {
     public void transformField(final BlancoCgClass cgClass,
             final BlancoCgField cgField,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (BlancoStringUtil.null2Blank(cgField.getName()).length() == 0) {
             throw new IllegalArgumentException("フィールドの名前に適切な値が設定されていません。");
         }
@@ -73,22 +85,18 @@ class BlancoCgFieldJsSourceExpander {
         }
 
         // 有無をいわさず改行を付与します。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
         // 最初にフィールド情報をLangDocに展開。
-        if (cgField.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgField.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgField.getLangDoc().getTitle() == null) {
-            cgField.getLangDoc().setTitle(cgField.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgField.getLangDoc(), cgField.getDescription());
 
         if (BlancoStringUtil.null2Blank(cgField.getAccess()).equals("private")
                 || BlancoStringUtil.null2Blank(cgField.getAccess()).equals(
                         "protected")) {
             // protected または private の場合にのみスコープ表現を展開します。
-            cgField.getLangDoc().getTagList().add(
+            langDoc.getTagList().add(
                     BlancoCgObjectFactory.getInstance().createLangDocTag(
                             cgField.getAccess(), null, ""));
         }
@@ -96,14 +104,13 @@ class BlancoCgFieldJsSourceExpander {
         if (BlancoStringUtil.null2Blank(cgField.getType().getName()).length() > 0
                 || BlancoStringUtil.null2Blank(cgField.getType().getName())
                         .equals("void") == false) {
-            cgField.getLangDoc().getTagList().add(
+            langDoc.getTagList().add(
                     BlancoCgObjectFactory.getInstance().createLangDocTag(
                             "type", null, cgField.getType().getName()));
         }
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocJsSourceExpander().transformLangDoc(cgField
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocJsSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         final StringBuffer buf = new StringBuffer();
 
@@ -121,14 +128,13 @@ class BlancoCgFieldJsSourceExpander {
         // デフォルト値の指定がある場合にはこれを展開します。
         if (BlancoStringUtil.null2Blank(cgField.getDefault()).length() > 0) {
             buf.append(" = " + cgField.getDefault()
-                    + BlancoCgLineUtil.getTerminator(TARGET_LANG));
+                    + DIALECT.getTerminator());
         } else {
-            buf.append(" = null" + BlancoCgLineUtil.getTerminator(TARGET_LANG));
+            buf.append(" = null" + DIALECT.getTerminator());
         }
 
-        argSourceLines.add(buf.toString());
-
-        // import文に型を追加。
-        argSourceFile.getImportList().add(cgField.getType().getName());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgField));
     }
 }
@@ -24,8 +24,7 @@
  */
 package blanco.cg.transformer.js;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLineSink;
 import blanco.cg.valueobject.BlancoCgSourceFile;
 
 /**
@@ -38,87 +37,23 @@ import blanco.cg.valueobject.BlancoCgSourceFile;
  */
 class BlancoCgImportJsSourceExpander {
     /**
-     * import文を展開するためのアンカー文字列。
-     */
-    private static final String REPLACE_IMPORT_HERE = "/*replace import here*/";
-
-    /**
-     * 発見されたアンカー文字列のインデックス。
-     * 
-     * このクラスの処理の過程で import文が編集されますが、その都度 この値も更新されます。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private int fFindReplaceImport = -1;
+    static final BlancoCgImportJsSourceExpander INSTANCE = new BlancoCgImportJsSourceExpander();
 
     /**
      * importを展開します。
      * 
-     * このメソッドはクラス展開・メソッド展開など一式が終了した後に呼び出すようにします。
+     * このメソッドは本体部の展開に先立って呼び出すようにします。
      * 
      * @param argSourceFile
      *            ソースファイルインスタンス。
-     * @param argSourceLines
-     *            ソース行イメージ。(java.lang.Stringが格納されます)
+     * @param argImportLines
+     *            import部のソースコード行リスト。展開したimport文を追加します。
      */
     public void transformImport(final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
-        // アンカー文字列を検索します。
-        fFindReplaceImport = findAnchorString(argSourceLines);
-        if (fFindReplaceImport < 0) {
-            throw new IllegalArgumentException("import文の置換文字列を発見することができませんでした。");
-        }
-
-        // アンカー文字列を除去します。
-        removeAnchorString(argSourceLines);
-    }
-
-    /**
-     * 置換アンカー文字列の行数(0オリジン)を検索します。
-     * 
-     * @return 発見したアンカー文字列の位置(0オリジン)。発見できなかった場合には-1。
-     * @param argSourceLines
-     *            ソースリスト。
-     */
-    private static final int findAnchorString(
-            final List<java.lang.String> argSourceLines) {
-        for (int index = 0; index < argSourceLines.size(); index++) {
-            final String line = argSourceLines.get(index);
-            if (line.equals(REPLACE_IMPORT_HERE)) {
-                // 発見しました。
-                return index;
-            }
-        }
-
-        // 発見できませんでした。発見できなかったことを示す -1 を戻します。
-        return -1;
+            final BlancoCgSourceLineSink argImportLines) {
+        // JavaScriptでは import文を展開しません。
     }
 
-    /**
-     * アンカー文字列を挿入します。
-     * 
-     * 処理の後半でインポート文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。<br>
-     * このメソッドは他のクラスから呼び出されます。
-     * 
-     * @param argSourceLines
-     *            ソースリスト。
-     */
-    public static final void insertAnchorString(
-            final List<java.lang.String> argSourceLines) {
-        argSourceLines.add(BlancoCgImportJsSourceExpander.REPLACE_IMPORT_HERE);
-    }
-
-    /**
-     * アンカー文字列を除去します。
-     * 
-     * @param argSourceLines
-     *            ソースリスト。
-     */
-    private static final void removeAnchorString(
-            final List<java.lang.String> argSourceLines) {
-        // 最後にアンカー文字列そのものを除去。
-        int findReplaceImport2 = findAnchorString(argSourceLines);
-        if (findReplaceImport2 < 0) {
-            throw new IllegalArgumentException("import文の置換文字列を発見することができませんでした。");
-        }
-        argSourceLines.remove(findReplaceImport2);
-    }
 }
@@ -24,10 +24,10 @@
  */
 package blanco.cg.transformer.js;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgLangDocTag;
@@ -49,6 +49,17 @@ class BlancoCgLangDocJsSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JS;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgLangDocJsSourceExpander INSTANCE = new BlancoCgLangDocJsSourceExpander();
+
     /**
      * 言語ドキュメント情報を元にソースコードを展開します。
      * 
@@ -58,14 +69,14 @@ class BlancoCgLangDocJsSourceExpander {
      *            ソースコード。
      */
     public void transformLangDoc(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 現在は JSDocのタグを出力しています。
-        argSourceLines.add("/**");
+        addDocLine("/**", langDoc, argSourceLines);
 
         // 開始・終了を除く本体を展開します。
         transformLangDocBody(langDoc, argSourceLines);
 
-        argSourceLines.add("*/");
+        addDocLine("*/", langDoc, argSourceLines);
     }
 
     /**
@@ -77,19 +88,19 @@ class BlancoCgLangDocJsSourceExpander {
      * @param argSourceLines
      */
     public void transformLangDocBody(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
 
         if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0) {
-            argSourceLines.add("* "
-                    + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                            langDoc.getTitle()));
+            addDocLine("* "
+                    + DIALECT.escapeStringAsLangDoc(langDoc.getTitle()),
+                    langDoc, argSourceLines);
         }
 
         // authorなど付加情報を展開。
         if (langDoc.getTagList() != null) {
             for (int index = 0; index < langDoc.getTagList().size(); index++) {
-                final BlancoCgLangDocTag langDocTag = langDoc.getTagList().get(
-                        index);
+                final BlancoCgLangDocTag langDocTag = langDoc
+                        .getTagList().get(index);
 
                 if (langDocTag.getName() == null) {
                     throw new IllegalArgumentException(
@@ -107,9 +118,9 @@ class BlancoCgLangDocJsSourceExpander {
                 if (BlancoStringUtil.null2Blank(langDocTag.getKey()).length() > 0) {
                     buf.append(langDocTag.getKey() + " ");
                 }
-                buf.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, langDocTag.getValue()));
-                argSourceLines.add(buf.toString());
+                buf.append(DIALECT.escapeStringAsLangDoc(langDocTag
+                        .getValue()));
+                addDocLine(buf.toString(), langDoc, argSourceLines);
             }
         }
 
@@ -125,10 +136,10 @@ class BlancoCgLangDocJsSourceExpander {
             if (BlancoStringUtil.null2Blank(cgParameter.getDescription())
                     .length() > 0) {
                 bufParameter.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                cgParameter.getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(cgParameter
+                            .getDescription()));
             }
-            argSourceLines.add(bufParameter.toString());
+            addDocLine(bufParameter.toString(), langDoc, argSourceLines);
         }
 
         if (langDoc.getReturn() != null
@@ -139,20 +150,21 @@ class BlancoCgLangDocJsSourceExpander {
             if (BlancoStringUtil.null2Blank(
                     langDoc.getReturn().getDescription()).length() > 0) {
                 bufReturn.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                langDoc.getReturn().getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(langDoc.getReturn()
+                            .getDescription()));
             }
-            argSourceLines.add(bufReturn.toString());
+            addDocLine(bufReturn.toString(), langDoc, argSourceLines);
 
             // JSDocでは @type により型を表現するようになっています。
-            argSourceLines.add("* @type "
-                    + langDoc.getReturn().getType().getName());
+            addDocLine("* @type "
+                    + langDoc.getReturn().getType().getName(),
+                    langDoc, argSourceLines);
         }
 
         // throwsリストを展開。
         for (int indexThrow = 0; indexThrow < langDoc.getThrowList().size(); indexThrow++) {
-            final BlancoCgException cgException = langDoc.getThrowList().get(
-                    indexThrow);
+            final BlancoCgException cgException = langDoc
+                    .getThrowList().get(indexThrow);
 
             final StringBuffer bufThrow = new StringBuffer();
 
@@ -164,10 +176,10 @@ class BlancoCgLangDocJsSourceExpander {
             if (BlancoStringUtil.null2Blank(cgException.getDescription())
                     .length() > 0) {
                 bufThrow.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                cgException.getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(cgException
+                            .getDescription()));
             }
-            argSourceLines.add(bufThrow.toString());
+            addDocLine(bufThrow.toString(), langDoc, argSourceLines);
         }
 
         for (int indexDescription = 0; indexDescription < langDoc
@@ -175,7 +187,37 @@ class BlancoCgLangDocJsSourceExpander {
             final String strDescrption = langDoc.getDescriptionList().get(
                     indexDescription);
 
-            argSourceLines.add("* " + strDescrption);
+            addDocLine("* " + strDescrption, langDoc, argSourceLines);
+        }
+    }
+
+    /**
+     * 言語ドキュメントの行を、字下げ判定済みの行モデルとして追加します。
+     * 
+     * 行の文字列に { や } が含まれていても、字下げに影響することはありません。
+     * 
+     * @param argLine
+     *            言語ドキュメントの行。
+     * @param langDoc
+     *            行の元になった言語ドキュメント情報。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    static void addDocLine(final String argLine,
+            final BlancoCgLangDoc langDoc,
+            final BlancoCgSourceLineSink argSourceLines) {
+        String strLine = argLine.trim();
+        if (strLine.length() == 0) {
+            // 空行は、そのまま追加します。
+            argSourceLines.addText(argLine);
+            return;
+        }
+        if (strLine.charAt(0) == '*') {
+            // 継続行・終了行は一文字字下げします。
+            strLine = " " + strLine;
         }
+        argSourceLines.addLine(new BlancoCgSourceLine(strLine,
+                BlancoCgSourceLine.KIND_DOC,
+                BlancoCgSourceLine.INDENT_NONE, langDoc));
     }
 }
@@ -24,12 +24,12 @@
  */
 package blanco.cg.transformer.js;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import blanco.cg.BlancoCgObjectFactory;
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgField;
@@ -52,9 +52,24 @@ class BlancoCgMethodJsSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JS;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgMethodJsSourceExpander INSTANCE = new BlancoCgMethodJsSourceExpander();
+
     /**
      * ここでメソッドを展開します。
      * 
+     * @param cgClass
+     *            処理中のクラス。
+     * @param argClassLangDoc
+     *            クラスの作業用の言語ドキュメント。コンストラクタの場合には、その内容をコンストラクタへ移送します。
      * @param cgMethod
      *            処理対象となるメソッド。
      * @param argSourceFile
@@ -63,9 +78,10 @@ class BlancoCgMethodJsSourceExpander {
      *            出力先行リスト。
      */
     public void transformMethod(final BlancoCgClass cgClass,
+            final BlancoCgLangDoc argClassLangDoc,
             final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
             throw new IllegalArgumentException("メソッドの名前に適切な値が設定されていません。");
         }
@@ -74,15 +90,15 @@ class BlancoCgMethodJsSourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
-        prepareExpand(cgClass, cgMethod, argSourceFile);
+        final BlancoCgLangDoc langDoc = prepareExpand(cgClass,
+                argClassLangDoc, cgMethod, argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocJsSourceExpander().transformLangDoc(cgMethod
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocJsSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgMethod, argSourceLines);
@@ -105,7 +121,7 @@ class BlancoCgMethodJsSourceExpander {
      */
     public void transformStaticFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -117,7 +133,7 @@ class BlancoCgMethodJsSourceExpander {
 
             if (cgField.getStatic()) {
                 // ここではクラスのフィールド (staticなフィールド) のみを展開します。
-                new BlancoCgFieldJsSourceExpander().transformField(cgClass,
+                BlancoCgFieldJsSourceExpander.INSTANCE.transformField(cgClass,
                         cgField, argSourceFile, argSourceLines);
             }
         }
@@ -126,84 +142,76 @@ class BlancoCgMethodJsSourceExpander {
     /**
      * ソースコード展開に先立ち、必要な情報の収集を行います。
      * 
+     * @param cgClass
+     *            処理中のクラス。
+     * @param argClassLangDoc
+     *            クラスの作業用の言語ドキュメント。
      * @param cgMethod
      *            メソッドオブジェクト。
      * @param argSourceFile
      *            ソースファイル。
+     * @return 作業用の言語ドキュメント。
      */
-    private void prepareExpand(final BlancoCgClass cgClass,
+    private BlancoCgLangDoc prepareExpand(final BlancoCgClass cgClass,
+            final BlancoCgLangDoc argClassLangDoc,
             final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile) {
         // 最初にメソッド情報をLangDocに展開。
-        if (cgMethod.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgMethod.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgMethod.getLangDoc().getParameterList() == null) {
-            cgMethod.getLangDoc().setParameterList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgParameter>());
-        }
-        if (cgMethod.getLangDoc().getThrowList() == null) {
-            cgMethod.getLangDoc().setThrowList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgException>());
-        }
-        if (cgMethod.getLangDoc().getTitle() == null) {
-            cgMethod.getLangDoc().setTitle(cgMethod.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgMethod.getLangDoc(), cgMethod.getDescription());
 
         if (cgMethod.getConstructor()) {
+            // クラスの情報をコンストラクタに移送します。
+            // ただしタイトルは移送しません。
+            langDoc.getDescriptionList().addAll(
+                    argClassLangDoc.getDescriptionList());
+            langDoc.getTagList().addAll(argClassLangDoc.getTagList());
+
             // ファンクション名そのものをLangDocに展開します。
-            cgMethod.getLangDoc().getTagList().add(
+            langDoc.getTagList().add(
                     BlancoCgObjectFactory.getInstance().createLangDocTag(
                             "class", null, cgClass.getDescription()));
 
-            cgMethod.getLangDoc().getTagList().add(
+            langDoc.getTagList().add(
                     BlancoCgObjectFactory.getInstance().createLangDocTag(
                             "constructor", null, ""));
         } else {
-            cgMethod.getLangDoc().getTagList().add(
+            langDoc.getTagList().add(
                     BlancoCgObjectFactory.getInstance().createLangDocTag(
                             "addon", null, ""));
         }
 
         if (BlancoStringUtil.null2Blank(cgMethod.getAccess()).equals("private")) {
-            cgMethod.getLangDoc().getTagList().add(
+            langDoc.getTagList().add(
                     BlancoCgObjectFactory.getInstance().createLangDocTag(
                             "private", null, ""));
         }
 
         for (int indexParameter = 0; indexParameter < cgMethod
                 .getParameterList().size(); indexParameter++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(indexParameter);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgParameter.getType().getName());
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(indexParameter);
 
             // 言語ドキュメントにパラメータを追加。
-            cgMethod.getLangDoc().getParameterList().add(cgParameter);
+            langDoc.getParameterList().add(cgParameter);
         }
 
         if (cgMethod.getReturn() != null) {
-            // import文に型を追加。
-            argSourceFile.getImportList().add(
-                    cgMethod.getReturn().getType().getName());
-
             // 言語ドキュメントにreturnを追加。
-            cgMethod.getLangDoc().setReturn(cgMethod.getReturn());
+            langDoc.setReturn(cgMethod.getReturn());
         }
 
         // 例外についてLangDoc構造体に展開
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgException.getType().getName());
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
 
             // 言語ドキュメントに例外を追加。
-            cgMethod.getLangDoc().getThrowList().add(cgException);
+            langDoc.getThrowList().add(cgException);
         }
+
+        return langDoc;
     }
 
     /**
@@ -221,7 +229,7 @@ class BlancoCgMethodJsSourceExpander {
     private void expandMethodBody(final BlancoCgClass cgClass,
             final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         final StringBuffer buf = new StringBuffer();
 
         if (cgMethod.getConstructor()) {
@@ -240,8 +248,8 @@ class BlancoCgMethodJsSourceExpander {
 
         buf.append("(");
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のパラメータ[" + cgParameter.getName()
@@ -266,29 +274,32 @@ class BlancoCgMethodJsSourceExpander {
 
         if (cgMethod.getAbstract()) {
             // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-            buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            argSourceLines.add(buf.toString());
+            buf.append(DIALECT.getTerminator());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         } else {
             // メソッドブロックの開始。
             buf.append(" {");
 
             // ここでいったん、行を確定。
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN, cgMethod));
 
             // 引数チェックの自動生成を行います。
-            argSourceLines.add("/* パラメータの数、型チェックを行います。 */");
-            argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                    "arguments.length !== "
+            argSourceLines.addText("/* パラメータの数、型チェックを行います。 */");
+            argSourceLines.addText(DIALECT.getIfBegin("arguments.length !== "
                             + cgMethod.getParameterList().size()));
             argSourceLines
-                    .add("throw new Error(\"[ArgumentException]: "
+                    .addText("throw new Error(\"[ArgumentException]: "
                             + cgClass.getName()
                             + "."
                             + cgMethod.getName()
                             + " のパラメータは["
                             + cgMethod.getParameterList().size()
                             + "]個である必要があります。しかし実際には[\" + arguments.length +  \"]個のパラメータを伴って呼び出されました。\");");
-            argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+            argSourceLines.addText(DIALECT.getIfEnd());
 
             for (int indexParameter = 0; indexParameter < cgMethod
                     .getParameterList().size(); indexParameter++) {
@@ -297,25 +308,25 @@ class BlancoCgMethodJsSourceExpander {
                 if (BlancoCgTypeJsSourceExpander
                         .isLanguageReservedKeyword(BlancoStringUtil
                                 .null2Blank(cgParameter.getType().getName()))) {
-                    argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                            "typeof(" + cgParameter.getName() + ") != \""
+                    argSourceLines.addText(DIALECT.getIfBegin("typeof("
+                            + cgParameter.getName() + ") != \""
                                     + cgParameter.getType().getName() + "\""));
                 } else {
-                    argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                            cgParameter.getName() + " instanceof "
+                    argSourceLines.addText(DIALECT.getIfBegin(cgParameter.getName()
+                            + " instanceof "
                                     + cgParameter.getType().getName()
                                     + " == false"));
                 }
-                argSourceLines.add("throw new Error(\"[ArgumentException]: "
+                argSourceLines.addText("throw new Error(\"[ArgumentException]: "
                         + cgClass.getName() + "." + cgMethod.getName() + " の"
                         + (indexParameter + 1) + "番目のパラメータは["
                         + cgParameter.getType().getName()
                         + "]型でなくてはなりません。しかし実際には[\" + typeof("
                         + cgParameter.getName() + ") + \"]型が与えられました。\");");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
 
-            argSourceLines.add("");
+            argSourceLines.addText("");
 
             if (cgMethod.getConstructor()) {
                 // コンストラクタであるのでフィールドを展開します。
@@ -327,8 +338,8 @@ class BlancoCgMethodJsSourceExpander {
             if (BlancoStringUtil.null2Blank(cgMethod.getSuperclassInvocation())
                     .length() > 0) {
                 // super(引数) などが含まれます。
-                argSourceLines.add(cgMethod.getSuperclassInvocation()
-                        + BlancoCgLineUtil.getTerminator(TARGET_LANG));
+                argSourceLines.addText(cgMethod.getSuperclassInvocation()
+                        + DIALECT.getTerminator());
             }
 
             // 行を展開します。
@@ -337,10 +348,14 @@ class BlancoCgMethodJsSourceExpander {
             // メソッドブロックの終了。
             if (cgMethod.getConstructor()) {
                 // クラス宣言では最後にセミコロンが付与しません。
-                argSourceLines.add("}");
+                argSourceLines.addLine(new BlancoCgSourceLine("}",
+                        BlancoCgSourceLine.KIND_CODE,
+                        BlancoCgSourceLine.INDENT_END, cgMethod));
             } else {
                 // JavaScriptでは最後にセミコロンが付与されます。
-                argSourceLines.add("};");
+                argSourceLines.addLine(new BlancoCgSourceLine("};",
+                        BlancoCgSourceLine.KIND_CODE,
+                        BlancoCgSourceLine.INDENT_END, cgMethod));
             }
         }
     }
@@ -359,7 +374,7 @@ class BlancoCgMethodJsSourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -371,7 +386,7 @@ class BlancoCgMethodJsSourceExpander {
 
             if (cgField.getStatic() == false) {
                 // コンストラクタの中で、staticではないフィールドを展開します。
-                new BlancoCgFieldJsSourceExpander().transformField(cgClass,
+                BlancoCgFieldJsSourceExpander.INSTANCE.transformField(cgClass,
                         cgField, argSourceFile, argSourceLines);
             }
         }
@@ -386,12 +401,12 @@ class BlancoCgMethodJsSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgMethod.getOverride()) {
             // JavaScript言語での override表現は現時点ではサポート外です。
             throw new IllegalArgumentException(
                     "現バージョンの blancoCgは JavaScript言語の際にはオーバーライド表現をサポートしません。");
-            // argSourceLines.add("@Override");
+            // argSourceLines.addText("@Override");
         }
 
         for (int index = 0; index < cgMethod.getAnnotationList().size(); index++) {
@@ -401,7 +416,7 @@ class BlancoCgMethodJsSourceExpander {
                     "現バージョンの blancoCgは JavaScript言語の際にはアノテーションをサポートしません。"
                             + strAnnotation);
             // JavaScript言語のAnnotationは不明です。
-            // argSourceLines.add("@" + strAnnotation);
+            // argSourceLines.addText("@" + strAnnotation);
         }
     }
 
@@ -414,10 +429,10 @@ class BlancoCgMethodJsSourceExpander {
      *            出力行リスト。
      */
     private void expandLineList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int indexLine = 0; indexLine < cgMethod.getLineList().size(); indexLine++) {
             final String strLine = cgMethod.getLineList().get(indexLine);
-            argSourceLines.add(strLine);
+            argSourceLines.addText(strLine);
         }
     }
 }
@@ -24,11 +24,12 @@
  */
 package blanco.cg.transformer.js;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import blanco.cg.BlancoCgObjectFactory;
 import blanco.cg.resourcebundle.BlancoCgResourceBundle;
+import blanco.cg.transformer.BlancoCgSourceDocument;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.transformer.BlancoCgTransformContext;
 import blanco.cg.util.BlancoCgSourceFileUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgSourceFile;
@@ -48,17 +49,9 @@ class BlancoCgSourceFileJsSourceExpander {
     protected static final BlancoCgResourceBundle fBundle = new BlancoCgResourceBundle();
 
     /**
-     * 入力となるソースコード構造。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private BlancoCgSourceFile fCgSourceFile = null;
-
-    /**
-     * 中間的に利用するソースコードをあらわすList。java.lang.Stringがリストに格納されます。(BlancoCgLineではありません。
-     * )
-     * 
-     * ここでは整形前ソースコードが中間的にたくわえられます。
-     */
-    private List<java.lang.String> fSourceLines = null;
+    static final BlancoCgSourceFileJsSourceExpander INSTANCE = new BlancoCgSourceFileJsSourceExpander();
 
     /**
      * SourceFileから整形前ソースコードリストを生成します。
@@ -69,83 +62,102 @@ class BlancoCgSourceFileJsSourceExpander {
      */
     public List<java.lang.String> transformSourceFile(
             final BlancoCgSourceFile argSourceFile) {
-        // 確実にソース行のリストを初期化します。
-        fSourceLines = new ArrayList<java.lang.String>();
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, new BlancoCgSourceDocument());
+        transformSourceFile(context);
+        return context.getDocument().toLineList();
+    }
 
-        fCgSourceFile = argSourceFile;
+    /**
+     * SourceFileを展開し、整形前ソースコードを与えられたドキュメントのヘッダー部・import部・本体部へ追加します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    public void transformSourceFile(final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceDocument document = argContext.getDocument();
+        BlancoCgSourceLineSink sourceLines = document.getHeaderLines();
 
         // ソースファイルのファイルヘッダーを出力処理します。
-        expandSourceFileHeader();
+        expandSourceFileHeader(argContext);
 
         // パッケージ部分の生成。
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
-            // fSourceLines.add("/* package " + fCgSourceFile.getPackage()
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
+            // sourceLines.addText("/* package " + cgSourceFile.getPackage()
             // + "; */");
-            // fSourceLines.add("");
+            // sourceLines.addText("");
         }
 
-        if (fCgSourceFile.getImportList() == null) {
+        if (cgSourceFile.getImportList() == null) {
             throw new IllegalArgumentException("importのリストにnullが与えられました。");
         }
-
-        // 処理の後半でインポート文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。
-        BlancoCgImportJsSourceExpander.insertAnchorString(fSourceLines);
+        if (cgSourceFile.getClassList() == null) {
+            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
+        }
 
         // インタフェースの展開は JavaScriptには存在しません。
-        if (fCgSourceFile.getInterfaceList().size() > 0) {
+        if (cgSourceFile.getInterfaceList().size() > 0) {
             throw new IllegalArgumentException("JavaScriptにはインタフェースは存在しません。");
         }
 
-        // クラスの展開を実施します。
-        if (fCgSourceFile.getClassList() == null) {
-            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
-        }
-        for (int index = 0; index < fCgSourceFile.getClassList().size(); index++) {
-            final BlancoCgClass cgClass = fCgSourceFile.getClassList().get(
-                    index);
+        // ここから import解決です。計測のために開始を記録します。
+        argContext.markImportPhase();
 
-            // ファイル情報をクラスへと移送します。
-            String fileDescription = fCgSourceFile.getDescription();
-            if (BlancoStringUtil.null2Blank(fileDescription).length() == 0) {
-                fileDescription = fBundle.getDefaultFileComment();
-            }
-            cgClass.getLangDoc().getTagList().add(
-                    BlancoCgObjectFactory.getInstance().createLangDocTag(
-                            "fileoverview", null, fileDescription));
-            // ポイント：ここではファイルヘッダー情報のみ移送しています。Description以外は移送の必要はありません。
+        // importの展開をします。
+        // JavaScriptでは import文を展開しないため、本体部を保持することなく ヘッダー部に続けて出力することができます。
+        BlancoCgImportJsSourceExpander.INSTANCE.transformImport(cgSourceFile,
+                document.getImportLines());
+        argContext.markImportPhaseEnd();
 
-            new BlancoCgClassJsSourceExpander().transformClass(cgClass,
-                    fCgSourceFile, fSourceLines);
-        }
+        // ここまでがヘッダー部と import部です。これ以降は本体部へ展開します。
+        document.beginBody();
+        sourceLines = document.getBodyLines();
 
-        // importの展開をします。
-        // この処理が、クラス展開より後に実施されているのには意味があります。
-        // クラス展開などを経て、初めてインポート文の一覧が確定するからです。
-        new BlancoCgImportJsSourceExpander().transformImport(fCgSourceFile,
-                fSourceLines);
+        // クラスの展開を実施します。
+        for (int index = 0; index < cgSourceFile.getClassList().size(); index++) {
+            final BlancoCgClass cgClass = cgSourceFile.getClassList().get(
+                    index);
 
-        return fSourceLines;
+            // ファイル情報のクラスへの移送は、クラスの展開の中で実施します。
+            BlancoCgClassJsSourceExpander.INSTANCE.transformClass(cgClass,
+                    cgSourceFile, sourceLines);
+        }
     }
 
     /**
      * ソースファイルのファイルヘッダーを出力処理します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
      */
-    private void expandSourceFileHeader() {
-        fSourceLines.add("/*");
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription())
+    private void expandSourceFileHeader(
+            final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceLineSink sourceLines = argContext.getDocument()
+                .getHeaderLines();
+
+        BlancoCgLangDocJsSourceExpander.addDocLine("/*",
+                cgSourceFile.getLangDoc(), sourceLines);
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription())
                 .length() > 0) {
-            fSourceLines.add("* " + fCgSourceFile.getDescription());
+            BlancoCgLangDocJsSourceExpander.addDocLine(
+                    "* " + cgSourceFile.getDescription(),
+                    cgSourceFile.getLangDoc(), sourceLines);
         } else {
             // 指定が無い場合にはデフォルトのコメントを利用します。
-            for (String line : BlancoCgSourceFileUtil.getDefaultFileComment()) {
-                fSourceLines.add("* " + line);
+            for (String line : BlancoCgSourceFileUtil
+                    .getDefaultFileComment("* ")) {
+                BlancoCgLangDocJsSourceExpander.addDocLine(line,
+                        cgSourceFile.getLangDoc(), sourceLines);
             }
         }
 
         // 言語ドキュメントの中間部を生成します。
-        new BlancoCgLangDocJsSourceExpander().transformLangDocBody(
-                fCgSourceFile.getLangDoc(), fSourceLines);
+        BlancoCgLangDocJsSourceExpander.INSTANCE.transformLangDocBody(
+                cgSourceFile.getLangDoc(), sourceLines);
 
-        fSourceLines.add("*/");
+        BlancoCgLangDocJsSourceExpander.addDocLine("*/",
+                cgSourceFile.getLangDoc(), sourceLines);
     }
 }
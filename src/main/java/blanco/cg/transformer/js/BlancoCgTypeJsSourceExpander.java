@@ -24,8 +24,10 @@
  */
 package blanco.cg.transformer.js;
 
+import blanco.cg.BlancoCgSupportedLang;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgTypeNameTable;
 import blanco.cg.valueobject.BlancoCgType;
-import blanco.commons.util.BlancoNameUtil;
 import blanco.commons.util.BlancoStringUtil;
 
 /**
@@ -37,11 +39,15 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgTypeJsSourceExpander {
     /**
-     * プログラミング言語の予約語一覧。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private static final String[] LANGUAGE_RESERVED_KEYWORD = { "void", "byte",
-            "short", "int", "long", "char", "float", "double", "boolean",
-            "string" };
+    static final BlancoCgTypeJsSourceExpander INSTANCE = new BlancoCgTypeJsSourceExpander();
+
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    private static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(BlancoCgSupportedLang.JS);
 
     /**
      * blancoCg型を、具体的な文字列へと変換します。
@@ -54,8 +60,24 @@ class BlancoCgTypeJsSourceExpander {
      * @return プログラミング言語における型を示す文字列。
      */
     public static String toTypeString(final BlancoCgType argType) {
+        // パッケージ名を除去した型名は、同じ型名ごとに共有します。
+        final String typeName = BlancoCgTypeNameTable.trimJavaPackage(argType
+                .getName());
+        if (argType.getArray() == false
+                && BlancoStringUtil.null2Blank(argType.getGenerics()).length() == 0) {
+            // 配列でもジェネリクスでもない型は、型名をそのまま利用します。
+            return typeName;
+        }
+
+        final String typeString = BlancoCgTypeNameTable.getTypeString(
+                BlancoCgSupportedLang.JS, argType);
+        if (typeString != null) {
+            // 同じ型名・ジェネリクス・配列の次元の型は、展開済みの文字列を共有します。
+            return typeString;
+        }
+
         final StringBuffer buf = new StringBuffer();
-        buf.append(BlancoNameUtil.trimJavaPackage(argType.getName()));
+        buf.append(typeName);
 
         // 配列を展開します。
         if (argType.getArray()) {
@@ -67,7 +89,8 @@ class BlancoCgTypeJsSourceExpander {
             buf.append(argType.getGenerics());
         }
 
-        return buf.toString();
+        return BlancoCgTypeNameTable.putTypeString(
+                BlancoCgSupportedLang.JS, argType, buf.toString());
     }
 
     /**
@@ -78,14 +101,6 @@ class BlancoCgTypeJsSourceExpander {
      * @return プログラミング言語の予約語に該当したかどうか。
      */
     public static boolean isLanguageReservedKeyword(final String argCheck) {
-        for (int index = 0; index < LANGUAGE_RESERVED_KEYWORD.length; index++) {
-            if (LANGUAGE_RESERVED_KEYWORD[index].equals(argCheck)) {
-                // この文字列はプログラミング言語の予約語です。
-                return true;
-            }
-        }
-
-        // キーワードにヒットしませんでした。この文字列はプログラミング言語の予約語ではありません。
-        return false;
+        return DIALECT.isReservedKeyword(argCheck);
     }
 }
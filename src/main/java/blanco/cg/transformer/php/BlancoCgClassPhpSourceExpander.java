@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.php;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -42,6 +43,11 @@ import blanco.cg.valueobject.BlancoCgType;
  */
 class BlancoCgClassPhpSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassPhpSourceExpander INSTANCE = new BlancoCgClassPhpSourceExpander();
+
     /**
      * ここでClassを展開します。
      * 
@@ -52,19 +58,14 @@ class BlancoCgClassPhpSourceExpander {
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocPhpSourceExpander().transformLangDoc(cgClass
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocPhpSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgClass, argSourceLines);
@@ -93,7 +94,9 @@ class BlancoCgClassPhpSourceExpander {
         buf.append(" {");
 
         // 行を確定して書き出しを実施。
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgClass));
 
         // ここでフィールドを展開。
         expandFieldList(cgClass, argSourceFile, argSourceLines);
@@ -102,7 +105,9 @@ class BlancoCgClassPhpSourceExpander {
         expandMethodList(cgClass, argSourceFile, argSourceLines);
 
         // クラスのブロックの終了。
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgClass));
     }
 
     /**
@@ -114,12 +119,15 @@ class BlancoCgClassPhpSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgClass cgClass,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgClass.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgClass.getAnnotationList().get(index);
+            final String strAnnotation = cgClass.getAnnotationList()
+                    .get(index);
 
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgClass));
         }
     }
 
@@ -137,10 +145,8 @@ class BlancoCgClassPhpSourceExpander {
     private void expandExtendClassList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(type.getName());
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 argBuf.append(" extends "
@@ -162,11 +168,8 @@ class BlancoCgClassPhpSourceExpander {
     private void expandImplementInterfaceList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getImplementInterfaceList().size(); index++) {
-            final BlancoCgType type = cgClass.getImplementInterfaceList().get(
-                    index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(type.getName());
+            final BlancoCgType type = cgClass
+                    .getImplementInterfaceList().get(index);
 
             if (index == 0) {
                 argBuf.append(" implements ");
@@ -192,7 +195,7 @@ class BlancoCgClassPhpSourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -203,7 +206,7 @@ class BlancoCgClassPhpSourceExpander {
             final BlancoCgField cgField = cgClass.getFieldList().get(index);
 
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldPhpSourceExpander().transformField(cgField,
+            BlancoCgFieldPhpSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -220,15 +223,16 @@ class BlancoCgClassPhpSourceExpander {
      */
     private void expandMethodList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+            final BlancoCgMethod cgMethod = cgClass.getMethodList()
+                    .get(index);
 
             // クラスのメソッドとして展開を行います。
-            new BlancoCgMethodPhpSourceExpander().transformMethod(cgClass
+            BlancoCgMethodPhpSourceExpander.INSTANCE.transformMethod(cgClass
                     .getName(), cgMethod, argSourceFile, argSourceLines, false);
         }
     }
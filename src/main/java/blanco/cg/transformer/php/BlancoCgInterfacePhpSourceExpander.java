@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.php;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgInterface;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -43,6 +44,11 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgInterfacePhpSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgInterfacePhpSourceExpander INSTANCE = new BlancoCgInterfacePhpSourceExpander();
+
     /**
      * ここでinterfaceを展開します。
      * 
@@ -53,21 +59,16 @@ class BlancoCgInterfacePhpSourceExpander {
      */
     public void transformInterface(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // インタフェースの場合には フィールドやメソッドからpublicが除外されます。
 
         // 最初にインタフェース情報をLangDocに展開。
-        if (cgInterface.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgInterface.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgInterface.getLangDoc().getTitle() == null) {
-            cgInterface.getLangDoc().setTitle(cgInterface.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgInterface.getLangDoc(), cgInterface.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocPhpSourceExpander().transformLangDoc(cgInterface
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocPhpSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgInterface, argSourceLines);
@@ -87,7 +88,9 @@ class BlancoCgInterfacePhpSourceExpander {
 
         buf.append(" {");
 
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgInterface));
 
         // ここでフィールドを展開。
         expandFieldList(cgInterface, argSourceFile, argSourceLines);
@@ -95,7 +98,9 @@ class BlancoCgInterfacePhpSourceExpander {
         // ここでメソッドを展開。
         expandMethodList(cgInterface, argSourceFile, argSourceLines);
 
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgInterface));
     }
 
     /**
@@ -107,13 +112,15 @@ class BlancoCgInterfacePhpSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgInterface cgInterface,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgInterface.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgInterface.getAnnotationList().get(
-                    index);
+            final String strAnnotation = cgInterface
+                    .getAnnotationList().get(index);
 
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgInterface));
         }
     }
 
@@ -126,7 +133,8 @@ class BlancoCgInterfacePhpSourceExpander {
     private void expandExtendClassList(final BlancoCgInterface cgClass,
             final StringBuffer buf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 buf.append(" extends "
@@ -146,7 +154,7 @@ class BlancoCgInterfacePhpSourceExpander {
      */
     private void expandFieldList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -154,9 +162,10 @@ class BlancoCgInterfacePhpSourceExpander {
         }
 
         for (int index = 0; index < cgInterface.getFieldList().size(); index++) {
-            final BlancoCgField cgField = cgInterface.getFieldList().get(index);
+            final BlancoCgField cgField = cgInterface.getFieldList()
+                    .get(index);
 
-            new BlancoCgFieldPhpSourceExpander().transformField(cgField,
+            BlancoCgFieldPhpSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, true);
         }
     }
@@ -170,14 +179,14 @@ class BlancoCgInterfacePhpSourceExpander {
      */
     private void expandMethodList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgInterface.getMethodList().size(); index++) {
             final BlancoCgMethod cgMethod = cgInterface.getMethodList().get(
                     index);
-            new BlancoCgMethodPhpSourceExpander().transformMethod(cgInterface
+            BlancoCgMethodPhpSourceExpander.INSTANCE.transformMethod(cgInterface
                     .getName(), cgMethod, argSourceFile, argSourceLines, true);
         }
     }
@@ -24,11 +24,11 @@
  */
 package blanco.cg.transformer.php;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgMethod;
@@ -50,6 +50,17 @@ class BlancoCgMethodPhpSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.PHP;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgMethodPhpSourceExpander INSTANCE = new BlancoCgMethodPhpSourceExpander();
+
     /**
      * ここでメソッドを展開します。
      * 
@@ -67,7 +78,7 @@ class BlancoCgMethodPhpSourceExpander {
     public void transformMethod(final String strClassName,
             final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
             throw new IllegalArgumentException("メソッドの名前に適切な値が設定されていません。");
@@ -77,15 +88,14 @@ class BlancoCgMethodPhpSourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
 
-        prepareExpand(cgMethod, argSourceFile);
+        final BlancoCgLangDoc langDoc = prepareExpand(cgMethod, argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocPhpSourceExpander().transformLangDoc(cgMethod
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocPhpSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgMethod, argSourceLines);
@@ -102,58 +112,39 @@ class BlancoCgMethodPhpSourceExpander {
      *            メソッドオブジェクト。
      * @param argSourceFile
      *            ソースファイル。
+     * @return 作業用の言語ドキュメント。
      */
-    private void prepareExpand(final BlancoCgMethod cgMethod,
+    private BlancoCgLangDoc prepareExpand(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile) {
         // 最初にメソッド情報をLangDocに展開。
-        if (cgMethod.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgMethod.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgMethod.getLangDoc().getParameterList() == null) {
-            cgMethod.getLangDoc().setParameterList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgParameter>());
-        }
-        if (cgMethod.getLangDoc().getThrowList() == null) {
-            cgMethod.getLangDoc().setThrowList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgException>());
-        }
-        if (cgMethod.getLangDoc().getTitle() == null) {
-            cgMethod.getLangDoc().setTitle(cgMethod.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgMethod.getLangDoc(), cgMethod.getDescription());
 
         for (int indexParameter = 0; indexParameter < cgMethod
                 .getParameterList().size(); indexParameter++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(indexParameter);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgParameter.getType().getName());
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(indexParameter);
 
             // 言語ドキュメントにパラメータを追加。
-            cgMethod.getLangDoc().getParameterList().add(cgParameter);
+            langDoc.getParameterList().add(cgParameter);
         }
 
         if (cgMethod.getReturn() != null) {
-            // import文に型を追加。
-            argSourceFile.getImportList().add(
-                    cgMethod.getReturn().getType().getName());
-
             // 言語ドキュメントにreturnを追加。
-            cgMethod.getLangDoc().setReturn(cgMethod.getReturn());
+            langDoc.setReturn(cgMethod.getReturn());
         }
 
         // 例外についてLangDoc構造体に展開
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgException.getType().getName());
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
 
             // 言語ドキュメントに例外を追加。
-            cgMethod.getLangDoc().getThrowList().add(cgException);
+            langDoc.getThrowList().add(cgException);
         }
+
+        return langDoc;
     }
 
     /**
@@ -171,7 +162,7 @@ class BlancoCgMethodPhpSourceExpander {
     private void expandMethodBody(final String strClassName,
             final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         final StringBuffer buf = new StringBuffer();
 
@@ -219,8 +210,8 @@ class BlancoCgMethodPhpSourceExpander {
         }
 
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のパラメータ[" + cgParameter.getName()
@@ -249,35 +240,36 @@ class BlancoCgMethodPhpSourceExpander {
 
         if (cgMethod.getAbstract() || argIsInterface) {
             // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-            buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            argSourceLines.add(buf.toString());
+            buf.append(DIALECT.getTerminator());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         } else {
             // メソッドブロックの開始。
             buf.append(" {");
 
             // ここでいったん、行を確定。
-            argSourceLines.add(buf.toString());
+            argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_BEGIN, cgMethod));
 
-            argSourceLines.add("/* パラメータの数、型チェックを行います。 */");
-            argSourceLines.add(BlancoCgLineUtil
-                    .getIfBegin(TARGET_LANG, "func_num_args() !== "
+            argSourceLines.addText("/* パラメータの数、型チェックを行います。 */");
+            argSourceLines.addText(DIALECT.getIfBegin("func_num_args() !== "
                             + cgMethod.getParameterList().size()));
 
-            // standardをimport
-            argSourceFile.getImportList().add("standard.Exception");
-            argSourceLines.add("throw new \\Exception("
-                    + BlancoCgLineUtil.getStringLiteralEnclosure(TARGET_LANG)
+            argSourceLines.addText("throw new \\Exception("
+                    + DIALECT.getStringLiteralEnclosure()
                     + "[ArgumentException]: " + strClassName + "."
                     + cgMethod.getName() + " のパラメータは["
                     + cgMethod.getParameterList().size()
                     + "]個である必要があります。しかし実際には["
-                    + BlancoCgLineUtil.getStringLiteralEnclosure(TARGET_LANG)
+                    + DIALECT.getStringLiteralEnclosure()
                     + " . func_num_args() .  "
-                    + BlancoCgLineUtil.getStringLiteralEnclosure(TARGET_LANG)
+                    + DIALECT.getStringLiteralEnclosure()
                     + "]個のパラメータを伴って呼び出されました。"
-                    + BlancoCgLineUtil.getStringLiteralEnclosure(TARGET_LANG)
+                    + DIALECT.getStringLiteralEnclosure()
                     + ");");
-            argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+            argSourceLines.addText(DIALECT.getIfEnd());
 
             for (int indexParameter = 0; indexParameter < cgMethod
                     .getParameterList().size(); indexParameter++) {
@@ -293,34 +285,26 @@ class BlancoCgMethodPhpSourceExpander {
                         typeName = "double";
                     }
                     argSourceLines
-                            .add(BlancoCgLineUtil
-                                    .getIfBegin(
-                                            TARGET_LANG,
-                                            "gettype($"
+                            .addText(DIALECT.getIfBegin("gettype($"
                                                     + cgParameter.getName()
                                                     + ") !== "
-                                                    + BlancoCgLineUtil
-                                                            .getStringLiteralEnclosure(TARGET_LANG)
+                                                    + DIALECT.getStringLiteralEnclosure()
                                                     + typeName
-                                                    + BlancoCgLineUtil
-                                                            .getStringLiteralEnclosure(TARGET_LANG)
+                                                    + DIALECT.getStringLiteralEnclosure()
                                                     + " && gettype($"
                                                     + cgParameter.getName()
                                                     + ") !== "
-                                                    + BlancoCgLineUtil
-                                                            .getStringLiteralEnclosure(TARGET_LANG)
+                                                    + DIALECT.getStringLiteralEnclosure()
                                                     + "NULL"
-                                                    + BlancoCgLineUtil
-                                                            .getStringLiteralEnclosure(TARGET_LANG)));
+                                                    + DIALECT.getStringLiteralEnclosure()));
                 } else {
-                    argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                            "$" + cgParameter.getName() + " instanceof "
+                    argSourceLines.addText(DIALECT.getIfBegin("$"
+                            + cgParameter.getName() + " instanceof "
                                     + cgParameter.getType().getName()
                                     + " === FALSE"));
                 }
-                argSourceLines.add("throw new \\Exception("
-                        + BlancoCgLineUtil
-                                .getStringLiteralEnclosure(TARGET_LANG)
+                argSourceLines.addText("throw new \\Exception("
+                        + DIALECT.getStringLiteralEnclosure()
                         + "[ArgumentException]: "
                         + strClassName
                         + "."
@@ -330,11 +314,9 @@ class BlancoCgMethodPhpSourceExpander {
                         + "番目のパラメータは["
                         + cgParameter.getType().getName()
                         + "]型でなくてはなりません。しかし実際には["
-                        + BlancoCgLineUtil
-                                .getStringLiteralEnclosure(TARGET_LANG)
+                        + DIALECT.getStringLiteralEnclosure()
                         + " "
-                        + BlancoCgLineUtil
-                                .getStringConcatenationOperator(TARGET_LANG)
+                        + DIALECT.getStringConcatenationOperator()
                         + " "
                         + (BlancoCgTypePhpSourceExpander
                                 .isLanguageReservedKeyword(BlancoStringUtil
@@ -344,29 +326,26 @@ class BlancoCgMethodPhpSourceExpander {
                         + "$"
                         + cgParameter.getName()
                         + ") "
-                        + BlancoCgLineUtil
-                                .getStringConcatenationOperator(TARGET_LANG)
+                        + DIALECT.getStringConcatenationOperator()
                         + " "
-                        + BlancoCgLineUtil
-                                .getStringLiteralEnclosure(TARGET_LANG)
+                        + DIALECT.getStringLiteralEnclosure()
                         + "]型が与えられました。"
-                        + BlancoCgLineUtil
-                                .getStringLiteralEnclosure(TARGET_LANG) + ");");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                        + DIALECT.getStringLiteralEnclosure() + ");");
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
 
-            argSourceLines.add("");
+            argSourceLines.addText("");
 
             // 親クラスメソッド実行機能の展開。
             // パラメータチェックより後に展開。
             if (BlancoStringUtil.null2Blank(cgMethod.getSuperclassInvocation())
                     .length() > 0) {
                 // super(引数) などが含まれます。
-                argSourceLines.add(cgMethod.getSuperclassInvocation()
-                        + BlancoCgLineUtil.getTerminator(TARGET_LANG));
+                argSourceLines.addText(cgMethod.getSuperclassInvocation()
+                        + DIALECT.getTerminator());
             }
 
-            argSourceLines.add("");
+            argSourceLines.addText("");
 
             // パラメータの非null制約の展開。
             expandParameterCheck(cgMethod, argSourceLines);
@@ -375,7 +354,9 @@ class BlancoCgMethodPhpSourceExpander {
             expandLineList(cgMethod, argSourceLines);
 
             // メソッドブロックの終了。
-            argSourceLines.add("}");
+            argSourceLines.addLine(new BlancoCgSourceLine("}",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_END, cgMethod));
         }
     }
 
@@ -390,8 +371,8 @@ class BlancoCgMethodPhpSourceExpander {
     private void expandThrowList(final BlancoCgMethod cgMethod,
             final StringBuffer buf) {
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
 
             if (index == 0) {
                 buf.append(" throws ");
@@ -414,10 +395,12 @@ class BlancoCgMethodPhpSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgMethod.getOverride()) {
             // Java言語では overrideはアノテーションで表現します。
-            argSourceLines.add("@Override");
+            argSourceLines.addLine(new BlancoCgSourceLine("@Override",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
 
         for (int index = 0; index < cgMethod.getAnnotationList().size(); index++) {
@@ -425,7 +408,9 @@ class BlancoCgMethodPhpSourceExpander {
                     .get(index);
 
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
     }
 
@@ -438,27 +423,27 @@ class BlancoCgMethodPhpSourceExpander {
      *            ソースコード。
      */
     private void expandParameterCheck(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isProcessed = false;
         for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+            final BlancoCgParameter cgParameter = cgMethod
+                    .getParameterList().get(index);
             if (cgParameter.getNotnull()) {
                 isProcessed = true;
 
-                argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG, "$"
+                argSourceLines.addText(DIALECT.getIfBegin("$"
                         + cgParameter.getName() + " === null"));
-                argSourceLines.add("throw new \\Exception('メソッド["
+                argSourceLines.addText("throw new \\Exception('メソッド["
                         + cgMethod.getName() + "]のパラメータ["
                         + cgParameter.getName()
                         + "]にnullが与えられました。しかし、このパラメータにnullを与えることはできません。');");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
         }
 
         if (isProcessed) {
             // パラメータチェックが展開された場合には空行を挿入します。
-            argSourceLines.add("");
+            argSourceLines.addText("");
         }
     }
 
@@ -471,10 +456,10 @@ class BlancoCgMethodPhpSourceExpander {
      *            出力行リスト。
      */
     private void expandLineList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int indexLine = 0; indexLine < cgMethod.getLineList().size(); indexLine++) {
             final String strLine = cgMethod.getLineList().get(indexLine);
-            argSourceLines.add(strLine);
+            argSourceLines.addText(strLine);
         }
     }
 }
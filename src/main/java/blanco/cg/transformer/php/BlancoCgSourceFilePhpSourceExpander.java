@@ -24,11 +24,14 @@
  */
 package blanco.cg.transformer.php;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceDocument;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.transformer.BlancoCgTransformContext;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.util.BlancoCgSourceFileUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgInterface;
@@ -49,17 +52,15 @@ class BlancoCgSourceFilePhpSourceExpander {
     protected static final int TARGET_LANG = BlancoCgSupportedLang.PHP;
 
     /**
-     * 入力となるソースコード構造。
+     * このクラスが処理対象とするプログラミング言語の方言。
      */
-    private BlancoCgSourceFile fCgSourceFile = null;
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
 
     /**
-     * 中間的に利用するソースコードをあらわすList。java.lang.Stringがリストに格納されます。(BlancoCgLineではありません。
-     * )
-     * 
-     * ここでは整形前ソースコードが中間的にたくわえられます。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private List<java.lang.String> fSourceLines = null;
+    static final BlancoCgSourceFilePhpSourceExpander INSTANCE = new BlancoCgSourceFilePhpSourceExpander();
 
     /**
      * SourceFileから整形前ソースコードリストを生成します。
@@ -70,96 +71,131 @@ class BlancoCgSourceFilePhpSourceExpander {
      */
     public List<java.lang.String> transformSourceFile(
             final BlancoCgSourceFile argSourceFile) {
-        // 確実にソース行のリストを初期化します。
-        fSourceLines = new ArrayList<java.lang.String>();
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, new BlancoCgSourceDocument());
+        transformSourceFile(context);
+        return context.getDocument().toLineList();
+    }
 
-        fCgSourceFile = argSourceFile;
+    /**
+     * SourceFileを展開し、整形前ソースコードを与えられたドキュメントのヘッダー部・import部・本体部へ追加します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    public void transformSourceFile(final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceDocument document = argContext.getDocument();
+        BlancoCgSourceLineSink sourceLines = document.getHeaderLines();
 
-        fSourceLines.add("<?php");
+        sourceLines.addLine(new BlancoCgSourceLine("<?php",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgSourceFile));
 
         // ソースファイルのファイルヘッダーを出力処理します。
-        expandSourceFileHeader();
+        expandSourceFileHeader(argContext);
 
         // パッケージ部分の生成。
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
-            fSourceLines.add("namespace " + fCgSourceFile.getPackage() + BlancoCgLineUtil.getTerminator(TARGET_LANG));
-            fSourceLines.add("");
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
+            sourceLines.addLine(new BlancoCgSourceLine(
+                    "namespace " + cgSourceFile.getPackage()
+                    + DIALECT.getTerminator(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgSourceFile));
+            sourceLines.addText("");
         }
 
         // パッケージ部分の生成。
-//        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
+//        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
 //            // PHPにパッケージはありません。
-//            fSourceLines.add("/*. DOC <@package " + fCgSourceFile.getPackage()
-//                    + BlancoCgLineUtil.getTerminator(TARGET_LANG) + ">.*/");
-//            fSourceLines.add("");
+//            sourceLines.addText("/*. DOC <@package " + cgSourceFile.getPackage()
+//                    + DIALECT.getTerminator() + ">.*/");
+//            sourceLines.addText("");
 //        }
 
-        if (fCgSourceFile.getImportList() == null) {
+        if (cgSourceFile.getImportList() == null) {
             throw new IllegalArgumentException("importのリストにnullが与えられました。");
         }
+        if (cgSourceFile.getInterfaceList() == null) {
+            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
+        }
+        if (cgSourceFile.getClassList() == null) {
+            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
+        }
 
-        // 処理の後半でインポート文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。
+        // ここから import解決です。計測のために開始を記録します。
+        argContext.markImportPhase();
+
+        // importの展開をします。
+        // 本体部の展開に先立ち、バリューオブジェクトのツリーを巡回して import文の一覧を確定します。
+        // これにより、本体部を保持することなく ヘッダー部・import部に続けて出力することができます。
         // required を入れないためにcheck by tueda on 2015/09/11
-        if (fCgSourceFile.getIsImport()) {
-            BlancoCgImportPhpSourceExpander.insertAnchorString(fSourceLines);
+        if (cgSourceFile.getIsImport()) {
+            BlancoCgImportPhpSourceExpander.INSTANCE.resolveImport(argContext);
+            BlancoCgImportPhpSourceExpander.INSTANCE.transformImport(cgSourceFile,
+                    document.getImportLines());
         }
+        argContext.markImportPhaseEnd();
+
+        // ここまでがヘッダー部と import部です。これ以降は本体部へ展開します。
+        document.beginBody();
+        sourceLines = document.getBodyLines();
 
         // インタフェースの展開を実施します。
-        if (fCgSourceFile.getInterfaceList() == null) {
-            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
-        }
-        for (int index = 0; index < fCgSourceFile.getInterfaceList().size(); index++) {
-            final BlancoCgInterface cgInterface = fCgSourceFile
+        for (int index = 0; index < cgSourceFile.getInterfaceList().size(); index++) {
+            final BlancoCgInterface cgInterface = cgSourceFile
                     .getInterfaceList().get(index);
 
-            new BlancoCgInterfacePhpSourceExpander().transformInterface(
-                    cgInterface, fCgSourceFile, fSourceLines);
+            BlancoCgInterfacePhpSourceExpander.INSTANCE.transformInterface(
+                    cgInterface, cgSourceFile, sourceLines);
         }
 
         // クラスの展開を実施します。
-        if (fCgSourceFile.getClassList() == null) {
-            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
-        }
-        for (int index = 0; index < fCgSourceFile.getClassList().size(); index++) {
-            final BlancoCgClass cgClass = fCgSourceFile.getClassList().get(
+        for (int index = 0; index < cgSourceFile.getClassList().size(); index++) {
+            final BlancoCgClass cgClass = cgSourceFile.getClassList().get(
                     index);
-            new BlancoCgClassPhpSourceExpander().transformClass(cgClass,
-                    fCgSourceFile, fSourceLines);
+            BlancoCgClassPhpSourceExpander.INSTANCE.transformClass(cgClass,
+                    cgSourceFile, sourceLines);
         }
 
-        // importの展開をします。
-        // この処理が、クラス展開より後に実施されているのには意味があります。
-        // クラス展開などを経て、初めてインポート文の一覧が確定するからです。
-        // required を入れないためにcheck by tueda on 2015/09/11
-        if (fCgSourceFile.getIsImport()) {
-            new BlancoCgImportPhpSourceExpander().transformImport(fCgSourceFile,
-                fSourceLines);
-        }
-
-        fSourceLines.add("?>");
-
-        return fSourceLines;
+        sourceLines.addLine(new BlancoCgSourceLine("?>",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_NONE, cgSourceFile));
     }
 
     /**
      * ソースファイルのファイルヘッダーを出力処理します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
      */
-    private void expandSourceFileHeader() {
-        fSourceLines.add("/*");
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription())
+    private void expandSourceFileHeader(
+            final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceLineSink sourceLines = argContext.getDocument()
+                .getHeaderLines();
+
+        BlancoCgLangDocPhpSourceExpander.addDocLine("/*",
+                cgSourceFile.getLangDoc(), sourceLines);
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription())
                 .length() > 0) {
-            fSourceLines.add("* " + fCgSourceFile.getDescription());
+            BlancoCgLangDocPhpSourceExpander.addDocLine(
+                    "* " + cgSourceFile.getDescription(),
+                    cgSourceFile.getLangDoc(), sourceLines);
         } else {
             // 指定が無い場合にはデフォルトのコメントを利用します。
-            for (String line : BlancoCgSourceFileUtil.getDefaultFileComment()) {
-                fSourceLines.add("* " + line);
+            for (String line : BlancoCgSourceFileUtil
+                    .getDefaultFileComment("* ")) {
+                BlancoCgLangDocPhpSourceExpander.addDocLine(line,
+                        cgSourceFile.getLangDoc(), sourceLines);
             }
         }
 
         // 言語ドキュメントの中間部を生成します。
-        new BlancoCgLangDocPhpSourceExpander().transformLangDocBody(
-                fCgSourceFile.getLangDoc(), fSourceLines);
+        BlancoCgLangDocPhpSourceExpander.INSTANCE.transformLangDocBody(
+                cgSourceFile.getLangDoc(), sourceLines);
 
-        fSourceLines.add("*/");
+        BlancoCgLangDocPhpSourceExpander.addDocLine("*/",
+                cgSourceFile.getLangDoc(), sourceLines);
     }
 }
@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.python;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -42,6 +43,11 @@ import blanco.cg.valueobject.BlancoCgType;
  */
 class BlancoCgClassPythonSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassPythonSourceExpander INSTANCE = new BlancoCgClassPythonSourceExpander();
+
     /**
      * ここでClassを展開します。
      * 
@@ -52,15 +58,11 @@ class BlancoCgClassPythonSourceExpander {
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
 
         final StringBuffer buf = new StringBuffer();
 
@@ -81,11 +83,12 @@ class BlancoCgClassPythonSourceExpander {
         buf.append(":");
 
         // 行を確定して書き出しを実施。
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgClass));
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocPythonSourceExpander().transformLangDoc(cgClass
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocPythonSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // ここでフィールドを展開。
         expandFieldList(cgClass, argSourceFile, argSourceLines);
@@ -94,7 +97,9 @@ class BlancoCgClassPythonSourceExpander {
         expandMethodList(cgClass, argSourceFile, argSourceLines);
 
         // クラスのブロックの終了。
-        argSourceLines.add("#end");
+        argSourceLines.addLine(new BlancoCgSourceLine("#end",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgClass));
     }
 
     /**
@@ -111,10 +116,8 @@ class BlancoCgClassPythonSourceExpander {
     private void expandExtendClassList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(type.getName());
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 argBuf.append("("
@@ -146,7 +149,7 @@ class BlancoCgClassPythonSourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -157,7 +160,7 @@ class BlancoCgClassPythonSourceExpander {
             final BlancoCgField cgField = cgClass.getFieldList().get(index);
 
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldPythonSourceExpander().transformField(cgField,
+            BlancoCgFieldPythonSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -174,14 +177,15 @@ class BlancoCgClassPythonSourceExpander {
      */
     private void expandMethodList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+            final BlancoCgMethod cgMethod = cgClass.getMethodList()
+                    .get(index);
             // クラスのメソッドとして展開を行います。
-            new BlancoCgMethodPythonSourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodPythonSourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, false);
         }
     }
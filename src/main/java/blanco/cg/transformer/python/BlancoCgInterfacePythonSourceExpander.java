@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.python;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgField;
 import blanco.cg.valueobject.BlancoCgInterface;
 import blanco.cg.valueobject.BlancoCgLangDoc;
@@ -43,6 +44,11 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgInterfacePythonSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgInterfacePythonSourceExpander INSTANCE = new BlancoCgInterfacePythonSourceExpander();
+
     /**
      * ここでinterfaceを展開します。
      * 
@@ -53,21 +59,16 @@ class BlancoCgInterfacePythonSourceExpander {
      */
     public void transformInterface(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // インタフェースの場合には フィールドやメソッドからpublicが除外されます。
 
         // 最初にインタフェース情報をLangDocに展開。
-        if (cgInterface.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgInterface.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgInterface.getLangDoc().getTitle() == null) {
-            cgInterface.getLangDoc().setTitle(cgInterface.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgInterface.getLangDoc(), cgInterface.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocPythonSourceExpander().transformLangDoc(cgInterface
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocPythonSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgInterface, argSourceLines);
@@ -87,7 +88,9 @@ class BlancoCgInterfacePythonSourceExpander {
 
         buf.append(" {");
 
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgInterface));
 
         // ここでフィールドを展開。
         expandFieldList(cgInterface, argSourceFile, argSourceLines);
@@ -95,7 +98,9 @@ class BlancoCgInterfacePythonSourceExpander {
         // ここでメソッドを展開。
         expandMethodList(cgInterface, argSourceFile, argSourceLines);
 
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgInterface));
     }
 
     /**
@@ -107,13 +112,15 @@ class BlancoCgInterfacePythonSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgInterface cgInterface,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgInterface.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgInterface.getAnnotationList().get(
-                    index);
+            final String strAnnotation = cgInterface
+                    .getAnnotationList().get(index);
 
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgInterface));
         }
     }
 
@@ -126,7 +133,8 @@ class BlancoCgInterfacePythonSourceExpander {
     private void expandExtendClassList(final BlancoCgInterface cgClass,
             final StringBuffer buf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
             if (index == 0) {
                 buf.append(" extends "
                         + BlancoCgTypePythonSourceExpander.toTypeString(type));
@@ -145,7 +153,7 @@ class BlancoCgInterfacePythonSourceExpander {
      */
     private void expandFieldList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -153,8 +161,9 @@ class BlancoCgInterfacePythonSourceExpander {
         }
 
         for (int index = 0; index < cgInterface.getFieldList().size(); index++) {
-            final BlancoCgField cgField = cgInterface.getFieldList().get(index);
-            new BlancoCgFieldPythonSourceExpander().transformField(cgField,
+            final BlancoCgField cgField = cgInterface.getFieldList()
+                    .get(index);
+            BlancoCgFieldPythonSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, true);
         }
     }
@@ -168,14 +177,14 @@ class BlancoCgInterfacePythonSourceExpander {
      */
     private void expandMethodList(final BlancoCgInterface cgInterface,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgInterface.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgInterface.getMethodList().size(); index++) {
             final BlancoCgMethod cgMethod = cgInterface.getMethodList().get(
                     index);
-            new BlancoCgMethodPythonSourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodPythonSourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, true);
         }
     }
@@ -29,7 +29,10 @@ import java.util.List;
 
 import blanco.cg.BlancoCgObjectFactory;
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgMethod;
@@ -51,6 +54,17 @@ class BlancoCgMethodPythonSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.PYTHON;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgMethodPythonSourceExpander INSTANCE = new BlancoCgMethodPythonSourceExpander();
+
     /**
      * ここでメソッドを展開します。
      * 
@@ -65,7 +79,7 @@ class BlancoCgMethodPythonSourceExpander {
      */
     public void transformMethod(final BlancoCgMethod cgMethod,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         if (BlancoStringUtil.null2Blank(cgMethod.getName()).length() == 0) {
             throw new IllegalArgumentException("メソッドの名前に適切な値が設定されていません。");
@@ -75,9 +89,13 @@ class BlancoCgMethodPythonSourceExpander {
         }
 
         // 改行を付与。
-        argSourceLines.add("");
+        argSourceLines.addText("");
+
+        // バリューオブジェクトのパラメータ一覧は変更せず、作業用のパラメータ一覧を利用します。
+        final List<BlancoCgParameter> parameterList = createParameterList(cgMethod);
 
-        prepareExpand(cgMethod, argSourceFile);
+        final BlancoCgLangDoc langDoc = prepareExpand(cgMethod, parameterList,
+                argSourceFile);
 
         // 情報が一式そろったので、ソースコードの実際の展開を行います。
 
@@ -85,80 +103,79 @@ class BlancoCgMethodPythonSourceExpander {
         expandAnnotationList(cgMethod, argSourceLines);
 
         // メソッドの本体部分を展開。
-        expandMethodBody(cgMethod, argSourceLines, argIsInterface);
+        expandMethodBody(cgMethod, parameterList, langDoc, argSourceLines,
+                argIsInterface);
     }
 
     /**
-     * ソースコード展開に先立ち、必要な情報の収集を行います。
+     * 展開に利用する作業用のパラメータ一覧を作成します。
      * 
      * @param cgMethod
      *            メソッドオブジェクト。
-     * @param argSourceFile
-     *            ソースファイル。
+     * @return 先頭に self を追加したパラメータ一覧。
      */
-    private void prepareExpand(final BlancoCgMethod cgMethod,
-            final BlancoCgSourceFile argSourceFile) {
-
+    private List<BlancoCgParameter> createParameterList(
+            final BlancoCgMethod cgMethod) {
         final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
                 .getInstance();
 
-        // 最初にメソッド情報をLangDocに展開。
-        if (cgMethod.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgMethod.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgMethod.getLangDoc().getParameterList() == null) {
-            cgMethod.getLangDoc().setParameterList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgParameter>());
-        }
-        if (cgMethod.getLangDoc().getThrowList() == null) {
-            cgMethod.getLangDoc().setThrowList(
-                    new ArrayList<blanco.cg.valueobject.BlancoCgException>());
-        }
-        if (cgMethod.getLangDoc().getTitle() == null) {
-            cgMethod.getLangDoc().setTitle(cgMethod.getDescription());
-        }
+        final List<BlancoCgParameter> parameterList = new ArrayList<BlancoCgParameter>(
+                cgMethod.getParameterList().size() + 1);
 
         // 第１パラメータとしてselfを追加します。
         // これはPython言語の仕様です。
         // パラメータselfの入力チェックは行いません。
 
         // selfをパラメータの先頭に追加
-        cgMethod.getParameterList().add(0,
-                cgFactory.createParameter("self", "", "このメソッドを含むクラス自身。"));
+        parameterList.add(cgFactory.createParameter("self", "",
+                "このメソッドを含むクラス自身。"));
+        parameterList.addAll(cgMethod.getParameterList());
+        return parameterList;
+    }
 
-        for (int indexParameter = 0; indexParameter < cgMethod
-                .getParameterList().size(); indexParameter++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(indexParameter);
+    /**
+     * ソースコード展開に先立ち、必要な情報の収集を行います。
+     * 
+     * @param cgMethod
+     *            メソッドオブジェクト。
+     * @param argParameterList
+     *            作業用のパラメータ一覧。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return 作業用の言語ドキュメント。
+     */
+    private BlancoCgLangDoc prepareExpand(final BlancoCgMethod cgMethod,
+            final List<BlancoCgParameter> argParameterList,
+            final BlancoCgSourceFile argSourceFile) {
+        // 最初にメソッド情報をLangDocに展開。
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgMethod.getLangDoc(), cgMethod.getDescription());
 
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgParameter.getType().getName());
+        for (int indexParameter = 0; indexParameter < argParameterList
+                .size(); indexParameter++) {
+            final BlancoCgParameter cgParameter = argParameterList
+                    .get(indexParameter);
 
             // 言語ドキュメントにパラメータを追加。
-            cgMethod.getLangDoc().getParameterList().add(cgParameter);
+            langDoc.getParameterList().add(cgParameter);
         }
 
         if (cgMethod.getReturn() != null) {
-            // import文に型を追加。
-            argSourceFile.getImportList().add(
-                    cgMethod.getReturn().getType().getName());
-
             // 言語ドキュメントにreturnを追加。
-            cgMethod.getLangDoc().setReturn(cgMethod.getReturn());
+            langDoc.setReturn(cgMethod.getReturn());
         }
 
         // 例外についてLangDoc構造体に展開
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(cgException.getType().getName());
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
 
             // 言語ドキュメントに例外を追加。
-            cgMethod.getLangDoc().getThrowList().add(cgException);
+            langDoc.getThrowList().add(cgException);
         }
+
+        return langDoc;
     }
 
     /**
@@ -166,13 +183,19 @@ class BlancoCgMethodPythonSourceExpander {
      * 
      * @param cgMethod
      *            メソッドオブジェクト。
+     * @param argParameterList
+     *            作業用のパラメータ一覧。
+     * @param argLangDoc
+     *            作業用の言語ドキュメント。
      * @param argSourceLines
      *            ソースコード。
      * @param argIsInterface
      *            インタフェースとして展開するかどうか。
      */
     private void expandMethodBody(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines,
+            final List<BlancoCgParameter> argParameterList,
+            final BlancoCgLangDoc argLangDoc,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean argIsInterface) {
         final StringBuffer buf = new StringBuffer();
 
@@ -217,9 +240,8 @@ class BlancoCgMethodPythonSourceExpander {
         buf.append("def ");
 
         buf.append(cgMethod.getName() + "(");
-        for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+        for (int index = 0; index < argParameterList.size(); index++) {
+            final BlancoCgParameter cgParameter = argParameterList.get(index);
             if (cgParameter.getType() == null) {
                 throw new IllegalArgumentException("メソッド[" + cgMethod.getName()
                         + "]のパラメータ[" + cgParameter.getName()
@@ -245,36 +267,40 @@ class BlancoCgMethodPythonSourceExpander {
 
         // if (cgMethod.getAbstract() || argIsInterface) {
         // // 抽象メソッドまたはインタフェースの場合には、メソッドの本体を展開しません。
-        // buf.append(BlancoCgLineUtil.getTerminator(TARGET_LANG));
-        // argSourceLines.add(buf.toString());
+        // buf.append(DIALECT.getTerminator());
+        // argSourceLines.addText(buf.toString());
         // } else {
 
         // // メソッドブロックの開始。
         // buf.append(" {");
 
         // ここでいったん、行を確定。
-        argSourceLines.add(buf.toString());
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString(),
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgMethod));
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocPythonSourceExpander().transformLangDoc(cgMethod
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocPythonSourceExpander.INSTANCE.transformLangDoc(
+                argLangDoc, argSourceLines);
 
         // 親クラスメソッド実行機能の展開。
         if (BlancoStringUtil.null2Blank(cgMethod.getSuperclassInvocation())
                 .length() > 0) {
             // super(引数) などが含まれます。
-            argSourceLines.add(cgMethod.getSuperclassInvocation()
-                    + BlancoCgLineUtil.getTerminator(TARGET_LANG));
+            argSourceLines.addText(cgMethod.getSuperclassInvocation()
+                    + DIALECT.getTerminator());
         }
 
         // パラメータの非null制約の展開。
-        expandParameterCheck(cgMethod, argSourceLines);
+        expandParameterCheck(cgMethod, argParameterList, argSourceLines);
 
         // 行を展開します。
         expandLineList(cgMethod, argSourceLines);
 
         // // メソッドブロックの終了。
-        argSourceLines.add("#end");
+        argSourceLines.addLine(new BlancoCgSourceLine("#end",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgMethod));
 
     }
 
@@ -289,8 +315,8 @@ class BlancoCgMethodPythonSourceExpander {
     private void expandThrowList(final BlancoCgMethod cgMethod,
             final StringBuffer buf) {
         for (int index = 0; index < cgMethod.getThrowList().size(); index++) {
-            final BlancoCgException cgException = cgMethod.getThrowList().get(
-                    index);
+            final BlancoCgException cgException = cgMethod
+                    .getThrowList().get(index);
             if (index == 0) {
                 buf.append(" throws ");
             } else {
@@ -312,10 +338,12 @@ class BlancoCgMethodPythonSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgMethod.getOverride()) {
             // Java言語では overrideはアノテーションで表現します。
-            argSourceLines.add("@Override");
+            argSourceLines.addLine(new BlancoCgSourceLine("@Override",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
 
         for (int index = 0; index < cgMethod.getAnnotationList().size(); index++) {
@@ -323,7 +351,9 @@ class BlancoCgMethodPythonSourceExpander {
                     .get(index);
 
             // Java言語のAnnotationは @ から記述します。
-            argSourceLines.add("@" + strAnnotation);
+            argSourceLines.addLine(new BlancoCgSourceLine("@" + strAnnotation,
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgMethod));
         }
     }
 
@@ -332,31 +362,33 @@ class BlancoCgMethodPythonSourceExpander {
      * 
      * @param cgMethod
      *            メソッド。
+     * @param argParameterList
+     *            作業用のパラメータ一覧。
      * @param argSourceLines
      *            ソースコード。
      */
     private void expandParameterCheck(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final List<BlancoCgParameter> argParameterList,
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isProcessed = false;
-        for (int index = 0; index < cgMethod.getParameterList().size(); index++) {
-            final BlancoCgParameter cgParameter = cgMethod.getParameterList()
-                    .get(index);
+        for (int index = 0; index < argParameterList.size(); index++) {
+            final BlancoCgParameter cgParameter = argParameterList.get(index);
             if (cgParameter.getNotnull()) {
                 isProcessed = true;
 
-                argSourceLines.add(BlancoCgLineUtil.getIfBegin(TARGET_LANG,
-                        cgParameter.getName() + " is None"));
-                argSourceLines.add("raise ValueError, \"メソッド["
+                argSourceLines.addText(DIALECT.getIfBegin(cgParameter.getName()
+                        + " is None"));
+                argSourceLines.addText("raise ValueError, \"メソッド["
                         + cgMethod.getName() + "]のパラメータ["
                         + cgParameter.getName()
                         + "]にnullが与えられました。しかし、このパラメータにnullを与えることはできません。\"");
-                argSourceLines.add(BlancoCgLineUtil.getIfEnd(TARGET_LANG));
+                argSourceLines.addText(DIALECT.getIfEnd());
             }
         }
 
         if (isProcessed) {
             // パラメータチェックが展開された場合には空行を挿入します。
-            argSourceLines.add("");
+            argSourceLines.addText("");
         }
     }
 
@@ -369,10 +401,10 @@ class BlancoCgMethodPythonSourceExpander {
      *            出力行リスト。
      */
     private void expandLineList(final BlancoCgMethod cgMethod,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int indexLine = 0; indexLine < cgMethod.getLineList().size(); indexLine++) {
             final String strLine = cgMethod.getLineList().get(indexLine);
-            argSourceLines.add(strLine);
+            argSourceLines.addText(strLine);
         }
     }
 }
@@ -24,10 +24,10 @@
  */
 package blanco.cg.transformer.ruby;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgException;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgLangDocTag;
@@ -49,6 +49,17 @@ class BlancoCgLangDocRubySourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.JAVA;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgLangDocRubySourceExpander INSTANCE = new BlancoCgLangDocRubySourceExpander();
+
     /**
      * 言語ドキュメント情報を元にソースコードを展開します。
      * 
@@ -58,13 +69,13 @@ class BlancoCgLangDocRubySourceExpander {
      *            ソースコード。
      */
     public void transformLangDoc(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
-        argSourceLines.add("#");
+            final BlancoCgSourceLineSink argSourceLines) {
+        addDocLine("#", langDoc, argSourceLines);
 
         // 開始・終了を除く本体を展開します。
         transformLangDocBody(langDoc, argSourceLines);
 
-        argSourceLines.add("#");
+        addDocLine("#", langDoc, argSourceLines);
     }
 
     /**
@@ -76,14 +87,14 @@ class BlancoCgLangDocRubySourceExpander {
      * @param argSourceLines
      */
     public void transformLangDocBody(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         boolean isLangDocTitleStarted = false;
 
         if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0) {
             isLangDocTitleStarted = true;
-            argSourceLines.add("# "
-                    + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                            langDoc.getTitle()));
+            addDocLine("# "
+                    + DIALECT.escapeStringAsLangDoc(langDoc.getTitle()),
+                    langDoc, argSourceLines);
         }
 
         // 空行が挿入済みかどうかをチェックするためのフラグ。
@@ -98,11 +109,11 @@ class BlancoCgLangDocRubySourceExpander {
             if (isLangDocDescriptionStarted == false) {
                 isLangDocDescriptionStarted = true;
                 if (isLangDocTitleStarted) {
-                    argSourceLines.add("#");
+                    addDocLine("#", langDoc, argSourceLines);
                 }
             }
 
-            argSourceLines.add("# " + strDescrption);
+            addDocLine("# " + strDescrption, langDoc, argSourceLines);
         }
 
         // 空行が挿入済みかどうかをチェックするためのフラグ。
@@ -111,13 +122,13 @@ class BlancoCgLangDocRubySourceExpander {
         // authorなど付加情報を展開。
         if (langDoc.getTagList() != null) {
             for (int index = 0; index < langDoc.getTagList().size(); index++) {
-                final BlancoCgLangDocTag langDocTag = langDoc.getTagList().get(
-                        index);
+                final BlancoCgLangDocTag langDocTag = langDoc
+                        .getTagList().get(index);
 
                 // 空行挿入。
                 if (isLangDocTagStarted == false) {
                     isLangDocTagStarted = true;
-                    argSourceLines.add("#");
+                    addDocLine("#", langDoc, argSourceLines);
                 }
 
                 if (langDocTag.getName() == null) {
@@ -136,9 +147,9 @@ class BlancoCgLangDocRubySourceExpander {
                 if (BlancoStringUtil.null2Blank(langDocTag.getKey()).length() > 0) {
                     buf.append(langDocTag.getKey() + " ");
                 }
-                buf.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, langDocTag.getValue()));
-                argSourceLines.add(buf.toString());
+                buf.append(DIALECT.escapeStringAsLangDoc(langDocTag
+                        .getValue()));
+                addDocLine(buf.toString(), langDoc, argSourceLines);
             }
         }
 
@@ -151,7 +162,7 @@ class BlancoCgLangDocRubySourceExpander {
             // 空行挿入。
             if (isLangDocTagStarted == false) {
                 isLangDocTagStarted = true;
-                argSourceLines.add("#");
+                addDocLine("#", langDoc, argSourceLines);
             }
 
             final StringBuffer bufParameter = new StringBuffer();
@@ -159,10 +170,10 @@ class BlancoCgLangDocRubySourceExpander {
             if (BlancoStringUtil.null2Blank(cgParameter.getDescription())
                     .length() > 0) {
                 bufParameter.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                cgParameter.getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(cgParameter
+                            .getDescription()));
             }
-            argSourceLines.add(bufParameter.toString());
+            addDocLine(bufParameter.toString(), langDoc, argSourceLines);
         }
 
         if (langDoc.getReturn() != null
@@ -171,7 +182,7 @@ class BlancoCgLangDocRubySourceExpander {
             // 空行挿入。
             if (isLangDocTagStarted == false) {
                 isLangDocTagStarted = true;
-                argSourceLines.add("#");
+                addDocLine("#", langDoc, argSourceLines);
             }
 
             final StringBuffer bufReturn = new StringBuffer();
@@ -179,21 +190,21 @@ class BlancoCgLangDocRubySourceExpander {
             if (BlancoStringUtil.null2Blank(
                     langDoc.getReturn().getDescription()).length() > 0) {
                 bufReturn.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                langDoc.getReturn().getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(langDoc.getReturn()
+                            .getDescription()));
             }
-            argSourceLines.add(bufReturn.toString());
+            addDocLine(bufReturn.toString(), langDoc, argSourceLines);
         }
 
         // throwsリストを展開。
         for (int indexThrow = 0; indexThrow < langDoc.getThrowList().size(); indexThrow++) {
-            final BlancoCgException cgException = langDoc.getThrowList().get(
-                    indexThrow);
+            final BlancoCgException cgException = langDoc
+                    .getThrowList().get(indexThrow);
 
             // 空行挿入。
             if (isLangDocTagStarted == false) {
                 isLangDocTagStarted = true;
-                argSourceLines.add("#");
+                addDocLine("#", langDoc, argSourceLines);
             }
 
             final StringBuffer bufThrow = new StringBuffer();
@@ -206,10 +217,36 @@ class BlancoCgLangDocRubySourceExpander {
             if (BlancoStringUtil.null2Blank(cgException.getDescription())
                     .length() > 0) {
                 bufThrow.append(" "
-                        + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                                cgException.getDescription()));
+                        + DIALECT.escapeStringAsLangDoc(cgException
+                            .getDescription()));
             }
-            argSourceLines.add(bufThrow.toString());
+            addDocLine(bufThrow.toString(), langDoc, argSourceLines);
+        }
+    }
+
+    /**
+     * 言語ドキュメントの行を、字下げ判定済みの行モデルとして追加します。
+     * 
+     * 行の文字列の内容が、字下げに影響することはありません。
+     * 
+     * @param argLine
+     *            言語ドキュメントの行。
+     * @param langDoc
+     *            行の元になった言語ドキュメント情報。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    static void addDocLine(final String argLine,
+            final BlancoCgLangDoc langDoc,
+            final BlancoCgSourceLineSink argSourceLines) {
+        final String strLine = argLine.trim();
+        if (strLine.length() == 0) {
+            // 空行は、そのまま追加します。
+            argSourceLines.addText(argLine);
+            return;
         }
+        argSourceLines.addLine(new BlancoCgSourceLine(strLine,
+                BlancoCgSourceLine.KIND_DOC,
+                BlancoCgSourceLine.INDENT_NONE, langDoc));
     }
 }
@@ -24,10 +24,13 @@
  */
 package blanco.cg.transformer.ruby;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import blanco.cg.BlancoCgSupportedLang;
+import blanco.cg.transformer.BlancoCgSourceDocument;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.transformer.BlancoCgTransformContext;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.util.BlancoCgSourceFileUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgInterface;
@@ -48,17 +51,15 @@ class BlancoCgSourceFileRubySourceExpander {
     protected static final int TARGET_LANG = BlancoCgSupportedLang.RUBY;
 
     /**
-     * 入力となるソースコード構造。
+     * このクラスが処理対象とするプログラミング言語の方言。
      */
-    private BlancoCgSourceFile fCgSourceFile = null;
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
 
     /**
-     * 中間的に利用するソースコードをあらわすList。java.lang.Stringがリストに格納されます。(BlancoCgLineではありません。
-     * )
-     * 
-     * ここでは整形前ソースコードが中間的にたくわえられます。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private List<java.lang.String> fSourceLines = null;
+    static final BlancoCgSourceFileRubySourceExpander INSTANCE = new BlancoCgSourceFileRubySourceExpander();
 
     /**
      * SourceFileから整形前ソースコードリストを生成します。
@@ -69,82 +70,111 @@ class BlancoCgSourceFileRubySourceExpander {
      */
     public List<java.lang.String> transformSourceFile(
             final BlancoCgSourceFile argSourceFile) {
-        // 確実にソース行のリストを初期化します。
-        fSourceLines = new ArrayList<java.lang.String>();
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, new BlancoCgSourceDocument());
+        transformSourceFile(context);
+        return context.getDocument().toLineList();
+    }
 
-        fCgSourceFile = argSourceFile;
+    /**
+     * SourceFileを展開し、整形前ソースコードを与えられたドキュメントのヘッダー部・import部・本体部へ追加します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    public void transformSourceFile(final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceDocument document = argContext.getDocument();
+        BlancoCgSourceLineSink sourceLines = document.getHeaderLines();
 
         // ソースファイルのファイルヘッダーを出力処理します。
-        expandSourceFileHeader();
+        expandSourceFileHeader(argContext);
 
         // パッケージ部分の生成。
-        // if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length()
+        // if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length()
         // > 0) {
-        // fSourceLines.add("package " + fCgSourceFile.getPackage()
-        // + BlancoCgLineUtil.getTerminator(TARGET_LANG));
-        // fSourceLines.add("");
+        // sourceLines.addText("package " + cgSourceFile.getPackage()
+        // + DIALECT.getTerminator());
+        // sourceLines.addText("");
         // }
         //
-        // if (fCgSourceFile.getImportList() == null) {
+        // if (cgSourceFile.getImportList() == null) {
         // throw new IllegalArgumentException("importのリストにnullが与えられました。");
         // }
         //
         // // 処理の後半でインポート文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。
-        // BlancoCgImportJavaSourceExpander.insertAnchorString(fSourceLines);
+        // BlancoCgImportJavaSourceExpander.insertAnchorString(sourceLines);
 
-        fSourceLines.add(""); // １行あける。
+        sourceLines.addText(""); // １行あける。
 
         // インタフェースの展開を実施します。
-        if (fCgSourceFile.getInterfaceList() == null) {
+        if (cgSourceFile.getInterfaceList() == null) {
             throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
         }
-        for (int index = 0; index < fCgSourceFile.getInterfaceList().size(); index++) {
-            final BlancoCgInterface cgInterface = fCgSourceFile
+        for (int index = 0; index < cgSourceFile.getInterfaceList().size(); index++) {
+            final BlancoCgInterface cgInterface = cgSourceFile
                     .getInterfaceList().get(index);
-            new BlancoCgInterfaceRubySourceExpander().transformInterface(
-                    cgInterface, fCgSourceFile, fSourceLines);
+            BlancoCgInterfaceRubySourceExpander.INSTANCE.transformInterface(
+                    cgInterface, cgSourceFile, sourceLines);
         }
 
+        // ここまでがヘッダー部です。これ以降は本体部へ展開します。
+        // import文は展開しないため、本体部を保持することなく ヘッダー部に続けて出力することができます。
+        document.beginBody();
+        sourceLines = document.getBodyLines();
+
         // クラスの展開を実施します。
-        if (fCgSourceFile.getClassList() == null) {
+        if (cgSourceFile.getClassList() == null) {
             throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
         }
-        for (int index = 0; index < fCgSourceFile.getClassList().size(); index++) {
-            final BlancoCgClass cgClass = fCgSourceFile.getClassList().get(
+        for (int index = 0; index < cgSourceFile.getClassList().size(); index++) {
+            final BlancoCgClass cgClass = cgSourceFile.getClassList().get(
                     index);
 
-            new BlancoCgClassRubySourceExpander().transformClass(cgClass,
-                    fCgSourceFile, fSourceLines);
+            BlancoCgClassRubySourceExpander.INSTANCE.transformClass(cgClass,
+                    cgSourceFile, sourceLines);
         }
 
         // importの展開をします。
         // この処理が、クラス展開より後に実施されているのには意味があります。
         // クラス展開などを経て、初めてインポート文の一覧が確定するからです。
-        // new BlancoCgImportJavaSourceExpander().transformImport(fCgSourceFile,
-        // fSourceLines);
-
-        return fSourceLines;
+        // BlancoCgImportJavaSourceExpander.INSTANCE.transformImport(cgSourceFile,
+        // sourceLines);
     }
 
     /**
      * ソースファイルのファイルヘッダーを出力処理します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
      */
-    private void expandSourceFileHeader() {
-        fSourceLines.add("#");
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription())
+    private void expandSourceFileHeader(
+            final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceLineSink sourceLines = argContext.getDocument()
+                .getHeaderLines();
+
+        BlancoCgLangDocRubySourceExpander.addDocLine("#",
+                cgSourceFile.getLangDoc(), sourceLines);
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription())
                 .length() > 0) {
-            fSourceLines.add("# " + fCgSourceFile.getDescription());
+            BlancoCgLangDocRubySourceExpander.addDocLine(
+                    "# " + cgSourceFile.getDescription(),
+                    cgSourceFile.getLangDoc(), sourceLines);
         } else {
             // 指定が無い場合にはデフォルトのコメントを利用します。
-            for (String line : BlancoCgSourceFileUtil.getDefaultFileComment()) {
-                fSourceLines.add("# " + line);
+            for (String line : BlancoCgSourceFileUtil
+                    .getDefaultFileComment("# ")) {
+                BlancoCgLangDocRubySourceExpander.addDocLine(line,
+                        cgSourceFile.getLangDoc(), sourceLines);
             }
         }
 
         // 言語ドキュメントの中間部を生成します。
-        new BlancoCgLangDocRubySourceExpander().transformLangDocBody(
-                fCgSourceFile.getLangDoc(), fSourceLines);
+        BlancoCgLangDocRubySourceExpander.INSTANCE.transformLangDocBody(
+                cgSourceFile.getLangDoc(), sourceLines);
 
-        fSourceLines.add("#");
+        BlancoCgLangDocRubySourceExpander.addDocLine("#",
+                cgSourceFile.getLangDoc(), sourceLines);
     }
 }
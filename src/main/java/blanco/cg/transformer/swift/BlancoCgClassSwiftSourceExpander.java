@@ -24,8 +24,9 @@
  */
 package blanco.cg.transformer.swift;
 
-import java.util.List;
-
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgLangDocUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgField;
@@ -44,6 +45,11 @@ import blanco.commons.util.BlancoStringUtil;
  */
 class BlancoCgClassSwiftSourceExpander {
 
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgClassSwiftSourceExpander INSTANCE = new BlancoCgClassSwiftSourceExpander();
+
     /**
      * ここでClassを展開します。
      * 
@@ -54,19 +60,14 @@ class BlancoCgClassSwiftSourceExpander {
      */
     public void transformClass(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 最初にクラス情報をLangDocに展開。
-        if (cgClass.getLangDoc() == null) {
-            // LangDoc未指定の場合にはこちら側でインスタンスを生成。
-            cgClass.setLangDoc(new BlancoCgLangDoc());
-        }
-        if (cgClass.getLangDoc().getTitle() == null) {
-            cgClass.getLangDoc().setTitle(cgClass.getDescription());
-        }
+        // 作業用の言語ドキュメントへ展開します。バリューオブジェクトの言語ドキュメントは変更しません。
+        final BlancoCgLangDoc langDoc = BlancoCgLangDocUtil.createWorkingLangDoc(
+                cgClass.getLangDoc(), cgClass.getDescription());
 
         // 次に LangDocをソースコード形式に展開。
-        new BlancoCgLangDocSwiftSourceExpander().transformLangDoc(cgClass
-                .getLangDoc(), argSourceLines);
+        BlancoCgLangDocSwiftSourceExpander.INSTANCE.transformLangDoc(langDoc, argSourceLines);
 
         // アノテーションを展開。
         expandAnnotationList(cgClass, argSourceLines);
@@ -93,7 +94,9 @@ class BlancoCgClassSwiftSourceExpander {
         expandImplementInterfaceList(cgClass, argSourceFile, buf);
 
         // 行を確定して書き出しを実施。
-        argSourceLines.add(buf.toString() + " {");
+        argSourceLines.addLine(new BlancoCgSourceLine(buf.toString() + " {",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_BEGIN, cgClass));
 
         // ここで列挙体を展開。
         expandEnumList(cgClass, argSourceFile, argSourceLines);
@@ -105,7 +108,9 @@ class BlancoCgClassSwiftSourceExpander {
         expandMethodList(cgClass, argSourceFile, argSourceLines);
 
         // クラスのブロックの終了。
-        argSourceLines.add("}");
+        argSourceLines.addLine(new BlancoCgSourceLine("}",
+                BlancoCgSourceLine.KIND_CODE,
+                BlancoCgSourceLine.INDENT_END, cgClass));
     }
 
     /**
@@ -117,11 +122,15 @@ class BlancoCgClassSwiftSourceExpander {
      *            ソースコード。
      */
     private void expandAnnotationList(final BlancoCgClass cgClass,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         for (int index = 0; index < cgClass.getAnnotationList().size(); index++) {
-            final String strAnnotation = cgClass.getAnnotationList().get(index);
+            final String strAnnotation = cgClass.getAnnotationList()
+                    .get(index);
             // FIXME Swift言語のAnnotationは []で記述します。
-            argSourceLines.add("[" + strAnnotation + "]");
+            argSourceLines.addLine(new BlancoCgSourceLine(
+                    "[" + strAnnotation + "]",
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgClass));
         }
     }
 
@@ -139,10 +148,8 @@ class BlancoCgClassSwiftSourceExpander {
     private void expandExtendClassList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getExtendClassList().size(); index++) {
-            final BlancoCgType type = cgClass.getExtendClassList().get(index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(type.getName());
+            final BlancoCgType type = cgClass.getExtendClassList()
+                    .get(index);
 
             if (index == 0) {
                 argBuf.append(" : "
@@ -170,11 +177,8 @@ class BlancoCgClassSwiftSourceExpander {
     private void expandImplementInterfaceList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile, final StringBuffer argBuf) {
         for (int index = 0; index < cgClass.getImplementInterfaceList().size(); index++) {
-            final BlancoCgType type = cgClass.getImplementInterfaceList().get(
-                    index);
-
-            // import文に型を追加。
-            argSourceFile.getImportList().add(type.getName());
+            final BlancoCgType type = cgClass
+                    .getImplementInterfaceList().get(index);
 
             if (index == 0 && cgClass.getExtendClassList().size() == 0) {
                 // 最初のインタフェースで、且つ継承が無い場合に : を出力します。
@@ -198,13 +202,13 @@ class BlancoCgClassSwiftSourceExpander {
      */
     private void expandEnumList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getEnumList() == null) {
             return;
         }
 
         for (BlancoCgEnum cgEnum : cgClass.getEnumList()) {
-            new BlancoCgEnumSwiftSourceExpander().transformEnum(cgEnum,
+            BlancoCgEnumSwiftSourceExpander.INSTANCE.transformEnum(cgEnum,
                     argSourceFile, argSourceLines);
         }
     }
@@ -224,7 +228,7 @@ class BlancoCgClassSwiftSourceExpander {
      */
     private void expandFieldList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getFieldList() == null) {
             // フィールドのリストにnullが与えられました。
             // かならずフィールドのリストにはListをセットしてください。
@@ -234,7 +238,7 @@ class BlancoCgClassSwiftSourceExpander {
         for (int index = 0; index < cgClass.getFieldList().size(); index++) {
             final BlancoCgField cgField = cgClass.getFieldList().get(index);
             // クラスのフィールドとして展開を行います。
-            new BlancoCgFieldSwiftSourceExpander().transformField(cgField,
+            BlancoCgFieldSwiftSourceExpander.INSTANCE.transformField(cgField,
                     argSourceFile, argSourceLines, false);
         }
     }
@@ -251,14 +255,15 @@ class BlancoCgClassSwiftSourceExpander {
      */
     private void expandMethodList(final BlancoCgClass cgClass,
             final BlancoCgSourceFile argSourceFile,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         if (cgClass.getMethodList() == null) {
             throw new IllegalArgumentException("メソッドのリストにnullが与えられました。");
         }
         for (int index = 0; index < cgClass.getMethodList().size(); index++) {
-            final BlancoCgMethod cgMethod = cgClass.getMethodList().get(index);
+            final BlancoCgMethod cgMethod = cgClass.getMethodList()
+                    .get(index);
             // クラスのメソッドとして展開を行います。
-            new BlancoCgMethodSwiftSourceExpander().transformMethod(cgMethod,
+            BlancoCgMethodSwiftSourceExpander.INSTANCE.transformMethod(cgMethod,
                     argSourceFile, argSourceLines, false);
         }
     }
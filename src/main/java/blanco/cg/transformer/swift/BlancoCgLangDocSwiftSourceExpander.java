@@ -24,11 +24,10 @@
  */
 package blanco.cg.transformer.swift;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgLineUtil;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgParameter;
 import blanco.commons.util.BlancoStringUtil;
@@ -47,6 +46,17 @@ class BlancoCgLangDocSwiftSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.SWIFT;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgLangDocSwiftSourceExpander INSTANCE = new BlancoCgLangDocSwiftSourceExpander();
+
     /**
      * 言語ドキュメント情報を元にソースコードを展開します。
      * 
@@ -56,13 +66,13 @@ class BlancoCgLangDocSwiftSourceExpander {
      *            ソースコード。
      */
     public void transformLangDoc(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
-        argSourceLines.add("/**");
+            final BlancoCgSourceLineSink argSourceLines) {
+        addDocLine("/**", langDoc, argSourceLines);
 
         // 開始・終了を除く本体を展開します。
         transformLangDocBody(langDoc, argSourceLines, false);
 
-        argSourceLines.add("*/");
+        addDocLine("*/", langDoc, argSourceLines);
     }
 
     /**
@@ -76,22 +86,21 @@ class BlancoCgLangDocSwiftSourceExpander {
      *            ファイルヘッダかどうか。
      */
     public void transformLangDocBody(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean isFileHeader) {
         boolean isLangDocTitleStarted = false;
 
         String commentString = " * ";
         if (isFileHeader) {
-            commentString = BlancoCgLineUtil
-                    .getSingleLineCommentPrefix(TARGET_LANG);
+            commentString = DIALECT.getSingleLineCommentPrefix();
         }
 
         if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0) {
             isLangDocTitleStarted = true;
-            argSourceLines.add(commentString
+            addDocLine(commentString
                     + "<summary>"
-                    + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                            langDoc.getTitle()) + "</summary>");
+                    + DIALECT.escapeStringAsLangDoc(langDoc.getTitle())
+                        + "</summary>", langDoc, argSourceLines);
         }
 
         // 空行が挿入済みかどうかをチェックするためのフラグ。
@@ -105,24 +114,26 @@ class BlancoCgLangDocSwiftSourceExpander {
             if (isLangDocDescriptionStarted == false) {
                 if (isLangDocTitleStarted == false) {
                     isLangDocTitleStarted = true;
-                    argSourceLines.add(commentString
+                    addDocLine(commentString
                             + "<summary>"
-                            + BlancoCgSourceUtil.escapeStringAsLangDoc(
-                                    TARGET_LANG, strDescrption) + "</summary>");
+                            + DIALECT.escapeStringAsLangDoc(strDescrption)
+                                + "</summary>", langDoc, argSourceLines);
                 } else {
                     isLangDocDescriptionStarted = true;
-                    argSourceLines.add(commentString + "<remarks>");
-                    argSourceLines.add(commentString + "<newpara>"
-                            + strDescrption + "</newpara>");
+                    addDocLine(commentString + "<remarks>",
+                            langDoc, argSourceLines);
+                    addDocLine(commentString + "<newpara>"
+                            + strDescrption + "</newpara>",
+                            langDoc, argSourceLines);
                 }
             } else {
-                argSourceLines.add(commentString + "<newpara>" + strDescrption
-                        + "</newpara>");
+                addDocLine(commentString + "<newpara>" + strDescrption
+                        + "</newpara>", langDoc, argSourceLines);
             }
         }
 
         if (isLangDocDescriptionStarted) {
-            argSourceLines.add(commentString + "</remarks>");
+            addDocLine(commentString + "</remarks>", langDoc, argSourceLines);
         }
 
         // TODO authorを展開。
@@ -140,11 +151,11 @@ class BlancoCgLangDocSwiftSourceExpander {
                     + cgParameter.getName() + "\">");
             if (BlancoStringUtil.null2Blank(cgParameter.getDescription())
                     .length() > 0) {
-                bufParameter.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, cgParameter.getDescription()));
+                bufParameter.append(DIALECT.escapeStringAsLangDoc(cgParameter
+                        .getDescription()));
             }
             bufParameter.append("</param>");
-            argSourceLines.add(bufParameter.toString());
+            addDocLine(bufParameter.toString(), langDoc, argSourceLines);
         }
 
         if (langDoc.getReturn() != null
@@ -154,14 +165,44 @@ class BlancoCgLangDocSwiftSourceExpander {
             bufReturn.append(commentString + "<returns>");
             if (BlancoStringUtil.null2Blank(
                     langDoc.getReturn().getDescription()).length() > 0) {
-                bufReturn.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, langDoc.getReturn().getDescription()));
+                bufReturn.append(DIALECT.escapeStringAsLangDoc(langDoc
+                        .getReturn().getDescription()));
             }
             bufReturn.append("</returns>");
-            argSourceLines.add(bufReturn.toString());
+            addDocLine(bufReturn.toString(), langDoc, argSourceLines);
         }
 
         // ※throwsリスト展開は C#.NETには存在しません。
         // TODO throwリスト展開について、言語ドキュメントの説明部分へと展開すること。
     }
+
+    /**
+     * 言語ドキュメントの行を、字下げ判定済みの行モデルとして追加します。
+     * 
+     * 行の文字列に { や } が含まれていても、字下げに影響することはありません。
+     * 
+     * @param argLine
+     *            言語ドキュメントの行。
+     * @param langDoc
+     *            行の元になった言語ドキュメント情報。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    static void addDocLine(final String argLine,
+            final BlancoCgLangDoc langDoc,
+            final BlancoCgSourceLineSink argSourceLines) {
+        String strLine = argLine.trim();
+        if (strLine.length() == 0) {
+            // 空行は、そのまま追加します。
+            argSourceLines.addText(argLine);
+            return;
+        }
+        if (strLine.charAt(0) == '*') {
+            // 継続行・終了行は一文字字下げします。
+            strLine = " " + strLine;
+        }
+        argSourceLines.addLine(new BlancoCgSourceLine(strLine,
+                BlancoCgSourceLine.KIND_DOC,
+                BlancoCgSourceLine.INDENT_NONE, langDoc));
+    }
 }
@@ -24,10 +24,13 @@
  */
 package blanco.cg.transformer.swift;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import blanco.cg.BlancoCgSupportedLang;
+import blanco.cg.transformer.BlancoCgSourceDocument;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.transformer.BlancoCgTransformContext;
 import blanco.cg.util.BlancoCgSourceFileUtil;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
@@ -49,17 +52,9 @@ class BlancoCgSourceFileSwiftSourceExpander {
     protected static final int TARGET_LANG = BlancoCgSupportedLang.SWIFT;
 
     /**
-     * 入力となるソースコード構造。
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
      */
-    private BlancoCgSourceFile fCgSourceFile = null;
-
-    /**
-     * 中間的に利用するソースコードをあらわすList。java.lang.Stringがリストに格納されます。(BlancoCgLineではありません。
-     * )
-     * 
-     * ここでは整形前ソースコードが中間的にたくわえられます。
-     */
-    private List<java.lang.String> fSourceLines = null;
+    static final BlancoCgSourceFileSwiftSourceExpander INSTANCE = new BlancoCgSourceFileSwiftSourceExpander();
 
     /**
      * SourceFileから整形前ソースコードリストを生成します。
@@ -70,82 +65,113 @@ class BlancoCgSourceFileSwiftSourceExpander {
      */
     public List<java.lang.String> transformSourceFile(
             final BlancoCgSourceFile argSourceFile) {
-        // 確実にソース行のリストを初期化します。
-        fSourceLines = new ArrayList<java.lang.String>();
+        final BlancoCgTransformContext context = new BlancoCgTransformContext(
+                argSourceFile, new BlancoCgSourceDocument());
+        transformSourceFile(context);
+        return context.getDocument().toLineList();
+    }
 
-        fCgSourceFile = argSourceFile;
+    /**
+     * SourceFileを展開し、整形前ソースコードを与えられたドキュメントのヘッダー部・import部・本体部へ追加します。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
+     */
+    public void transformSourceFile(final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceDocument document = argContext.getDocument();
+        BlancoCgSourceLineSink sourceLines = document.getHeaderLines();
 
         // ソースファイルのファイルヘッダーを出力処理します。
-        expandSourceFileHeader();
+        expandSourceFileHeader(argContext);
 
-        // 処理の後半でインポート文を編成しなおしますが、その際に参照するアンカー文字列を追加しておきます。
-        BlancoCgImportSwiftSourceExpander.insertAnchorString(fSourceLines);
-
-        // パッケージ部分の生成。
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getPackage()).length() > 0) {
-            fSourceLines.add("// package: " + fCgSourceFile.getPackage());
+        if (cgSourceFile.getImportList() == null) {
+            throw new IllegalArgumentException("importのリストにnullが与えられました。");
+        }
+        if (cgSourceFile.getInterfaceList() == null) {
+            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
+        }
+        if (cgSourceFile.getClassList() == null) {
+            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
         }
 
-        if (fCgSourceFile.getImportList() == null) {
-            throw new IllegalArgumentException("importのリストにnullが与えられました。");
+        // ここから import解決です。計測のために開始を記録します。
+        argContext.markImportPhase();
+
+        // importの展開をします。
+        // 本体部の展開に先立ち、バリューオブジェクトのツリーを巡回して import文の一覧を確定します。
+        // これにより、本体部を保持することなく ヘッダー部・import部に続けて出力することができます。
+        BlancoCgImportSwiftSourceExpander.INSTANCE.resolveImport(argContext);
+        BlancoCgImportSwiftSourceExpander.INSTANCE.transformImport(cgSourceFile,
+                document.getImportLines());
+        argContext.markImportPhaseEnd();
+
+        // ここまでがヘッダー部と import部です。これ以降は本体部へ展開します。
+        document.beginBody();
+        sourceLines = document.getBodyLines();
+
+        // パッケージ部分の生成。
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getPackage()).length() > 0) {
+            sourceLines.addLine(new BlancoCgSourceLine(
+                    "// package: " + cgSourceFile.getPackage(),
+                    BlancoCgSourceLine.KIND_CODE,
+                    BlancoCgSourceLine.INDENT_NONE, cgSourceFile));
         }
 
         // 列挙体の展開を実施します。
-        for (BlancoCgEnum cgEnum : fCgSourceFile.getEnumList()) {
-            new BlancoCgEnumSwiftSourceExpander().transformEnum(cgEnum,
-                    argSourceFile, fSourceLines);
+        for (BlancoCgEnum cgEnum : cgSourceFile.getEnumList()) {
+            BlancoCgEnumSwiftSourceExpander.INSTANCE.transformEnum(cgEnum,
+                    cgSourceFile, sourceLines);
         }
 
         // インタフェースの展開を実施します。
-        if (fCgSourceFile.getInterfaceList() == null) {
-            throw new IllegalArgumentException("インタフェースのリストにnullが与えられました。");
-        }
-        for (BlancoCgInterface cgInterface : fCgSourceFile.getInterfaceList()) {
-            new BlancoCgInterfaceSwiftSourceExpander().transformInterface(
-                    cgInterface, fCgSourceFile, fSourceLines);
+        for (BlancoCgInterface cgInterface : cgSourceFile.getInterfaceList()) {
+            BlancoCgInterfaceSwiftSourceExpander.INSTANCE.transformInterface(
+                    cgInterface, cgSourceFile, sourceLines);
         }
 
         // クラスの展開を実施します。
-        if (fCgSourceFile.getClassList() == null) {
-            throw new IllegalArgumentException("クラスのリストにnullが与えられました。");
-        }
-        for (BlancoCgClass cgClass : fCgSourceFile.getClassList()) {
-            new BlancoCgClassSwiftSourceExpander().transformClass(cgClass,
-                    fCgSourceFile, fSourceLines);
+        for (BlancoCgClass cgClass : cgSourceFile.getClassList()) {
+            BlancoCgClassSwiftSourceExpander.INSTANCE.transformClass(cgClass,
+                    cgSourceFile, sourceLines);
         }
-
-        // importの展開をします。
-        // この処理が、クラス展開より後に実施されているのには意味があります。
-        // クラス展開などを経て、初めてインポート文の一覧が確定するからです。
-        new BlancoCgImportSwiftSourceExpander().transformImport(fCgSourceFile,
-                fSourceLines);
-
-        return fSourceLines;
     }
 
     /**
      * ソースファイルのファイルヘッダーを出力処理します。
      * Swiftはソースファイルコメントは // 形式の模様。
+     * 
+     * @param argContext
+     *            ソースファイル・バリューオブジェクトと展開先のドキュメントを保持するコンテキスト。
      */
-    private void expandSourceFileHeader() {
-        fSourceLines.add("//");
+    private void expandSourceFileHeader(
+            final BlancoCgTransformContext argContext) {
+        final BlancoCgSourceFile cgSourceFile = argContext.getSourceFile();
+        final BlancoCgSourceLineSink sourceLines = argContext.getDocument()
+                .getHeaderLines();
+
+        BlancoCgLangDocSwiftSourceExpander.addDocLine("//",
+                cgSourceFile.getLangDoc(), sourceLines);
 
-        if (BlancoStringUtil.null2Blank(fCgSourceFile.getDescription())
+        if (BlancoStringUtil.null2Blank(cgSourceFile.getDescription())
                 .length() > 0) {
-            fSourceLines.add("//  "
-                    + fCgSourceFile.getDescription());
+            BlancoCgLangDocSwiftSourceExpander.addDocLine("//  "
+                    + cgSourceFile.getDescription(),
+                    cgSourceFile.getLangDoc(), sourceLines);
         } else {
             // 指定が無い場合にはデフォルトのコメントを利用します。
-            for (String line : BlancoCgSourceFileUtil.getDefaultFileComment()) {
-                fSourceLines.add("//  "
-                        + line);
+            for (String line : BlancoCgSourceFileUtil
+                    .getDefaultFileComment("//  ")) {
+                BlancoCgLangDocSwiftSourceExpander.addDocLine(line,
+                        cgSourceFile.getLangDoc(), sourceLines);
             }
         }
 
         // 言語ドキュメントの中間部を生成します。
-        new BlancoCgLangDocSwiftSourceExpander().transformLangDocBody(
-                fCgSourceFile.getLangDoc(), fSourceLines, true);
+        BlancoCgLangDocSwiftSourceExpander.INSTANCE.transformLangDocBody(
+                cgSourceFile.getLangDoc(), sourceLines, true);
 
-        fSourceLines.add("//");
+        BlancoCgLangDocSwiftSourceExpander.addDocLine("//",
+                cgSourceFile.getLangDoc(), sourceLines);
     }
 }
@@ -24,10 +24,10 @@
  */
 package blanco.cg.transformer.vb;
 
-import java.util.List;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.cg.transformer.BlancoCgSourceLine;
+import blanco.cg.transformer.BlancoCgSourceLineSink;
+import blanco.cg.util.BlancoCgDialect;
 import blanco.cg.valueobject.BlancoCgLangDoc;
 import blanco.cg.valueobject.BlancoCgParameter;
 import blanco.commons.util.BlancoStringUtil;
@@ -46,6 +46,17 @@ class BlancoCgLangDocVbSourceExpander {
      */
     protected static final int TARGET_LANG = BlancoCgSupportedLang.VB;
 
+    /**
+     * このクラスが処理対象とするプログラミング言語の方言。
+     */
+    protected static final BlancoCgDialect DIALECT = BlancoCgDialect
+            .getInstance(TARGET_LANG);
+
+    /**
+     * このクラスの共有インスタンス。状態を持たないため、複数のスレッドから同時に利用できます。
+     */
+    static final BlancoCgLangDocVbSourceExpander INSTANCE = new BlancoCgLangDocVbSourceExpander();
+
     /**
      * 言語ドキュメント情報を元にソースコードを展開します。
      * 
@@ -55,7 +66,7 @@ class BlancoCgLangDocVbSourceExpander {
      *            ソースコード。
      */
     public void transformLangDoc(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines) {
+            final BlancoCgSourceLineSink argSourceLines) {
         // 開始・終了を除く本体を展開します。
         transformLangDocBody(langDoc, argSourceLines, false);
     }
@@ -71,7 +82,7 @@ class BlancoCgLangDocVbSourceExpander {
      *            ファイルヘッダかどうか。
      */
     public void transformLangDocBody(final BlancoCgLangDoc langDoc,
-            final List<java.lang.String> argSourceLines,
+            final BlancoCgSourceLineSink argSourceLines,
             final boolean isFileHeader) {
         boolean isLangDocTitleStarted = false;
 
@@ -82,10 +93,10 @@ class BlancoCgLangDocVbSourceExpander {
 
         if (BlancoStringUtil.null2Blank(langDoc.getTitle()).length() > 0) {
             isLangDocTitleStarted = true;
-            argSourceLines.add(commentString
+            addDocLine(commentString
                     + "<summary>"
-                    + BlancoCgSourceUtil.escapeStringAsLangDoc(TARGET_LANG,
-                            langDoc.getTitle()) + "</summary>");
+                    + DIALECT.escapeStringAsLangDoc(langDoc.getTitle())
+                        + "</summary>", langDoc, argSourceLines);
         }
 
         // 空行が挿入済みかどうかをチェックするためのフラグ。
@@ -99,24 +110,26 @@ class BlancoCgLangDocVbSourceExpander {
             if (isLangDocDescriptionStarted == false) {
                 if (isLangDocTitleStarted == false) {
                     isLangDocTitleStarted = true;
-                    argSourceLines.add(commentString
+                    addDocLine(commentString
                             + "<summary>"
-                            + BlancoCgSourceUtil.escapeStringAsLangDoc(
-                                    TARGET_LANG, strDescrption) + "</summary>");
+                            + DIALECT.escapeStringAsLangDoc(strDescrption)
+                                + "</summary>", langDoc, argSourceLines);
                 } else {
                     isLangDocDescriptionStarted = true;
-                    argSourceLines.add(commentString + "<remarks>");
-                    argSourceLines.add(commentString + "<newpara>"
-                            + strDescrption + "</newpara>");
+                    addDocLine(commentString + "<remarks>",
+                            langDoc, argSourceLines);
+                    addDocLine(commentString + "<newpara>"
+                            + strDescrption + "</newpara>",
+                            langDoc, argSourceLines);
                 }
             } else {
-                argSourceLines.add(commentString + "<newpara>" + strDescrption
-                        + "</newpara>");
+                addDocLine(commentString + "<newpara>" + strDescrption
+                        + "</newpara>", langDoc, argSourceLines);
             }
         }
 
         if (isLangDocDescriptionStarted) {
-            argSourceLines.add(commentString + "</remarks>");
+            addDocLine(commentString + "</remarks>", langDoc, argSourceLines);
         }
 
         // TODO authorを展開。
@@ -134,11 +147,11 @@ class BlancoCgLangDocVbSourceExpander {
                     + cgParameter.getName() + "\">");
             if (BlancoStringUtil.null2Blank(cgParameter.getDescription())
                     .length() > 0) {
-                bufParameter.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, cgParameter.getDescription()));
+                bufParameter.append(DIALECT.escapeStringAsLangDoc(cgParameter
+                        .getDescription()));
             }
             bufParameter.append("</param>");
-            argSourceLines.add(bufParameter.toString());
+            addDocLine(bufParameter.toString(), langDoc, argSourceLines);
         }
 
         if (langDoc.getReturn() != null
@@ -148,14 +161,40 @@ class BlancoCgLangDocVbSourceExpander {
             bufReturn.append(commentString + "<returns>");
             if (BlancoStringUtil.null2Blank(
                     langDoc.getReturn().getDescription()).length() > 0) {
-                bufReturn.append(BlancoCgSourceUtil.escapeStringAsLangDoc(
-                        TARGET_LANG, langDoc.getReturn().getDescription()));
+                bufReturn.append(DIALECT.escapeStringAsLangDoc(langDoc
+                        .getReturn().getDescription()));
             }
             bufReturn.append("</returns>");
-            argSourceLines.add(bufReturn.toString());
+            addDocLine(bufReturn.toString(), langDoc, argSourceLines);
         }
 
         // ※throwsリスト展開は C#.NETには存在しません。
         // TODO throwリスト展開について、言語ドキュメントの説明部分へと展開すること。
     }
+
+    /**
+     * 言語ドキュメントの行を、字下げ判定済みの行モデルとして追加します。
+     * 
+     * 行の文字列の内容が、字下げに影響することはありません。
+     * 
+     * @param argLine
+     *            言語ドキュメントの行。
+     * @param langDoc
+     *            行の元になった言語ドキュメント情報。
+     * @param argSourceLines
+     *            ソースコード。
+     */
+    static void addDocLine(final String argLine,
+            final BlancoCgLangDoc langDoc,
+            final BlancoCgSourceLineSink argSourceLines) {
+        final String strLine = argLine.trim();
+        if (strLine.length() == 0) {
+            // 空行は、そのまま追加します。
+            argSourceLines.addText(argLine);
+            return;
+        }
+        argSourceLines.addLine(new BlancoCgSourceLine(strLine,
+                BlancoCgSourceLine.KIND_DOC,
+                BlancoCgSourceLine.INDENT_NONE, langDoc));
+    }
 }
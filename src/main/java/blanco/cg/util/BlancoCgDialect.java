@@ -0,0 +1,399 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import blanco.cg.BlancoCgSupportedLang;
+
+/**
+ * プログラミング言語ごとの文法上の差異(方言)を保持するクラスです。
+ *
+ * 文の終端や if文などの定型文、文字列リテラルと言語ドキュメントのエスケープ方法、予約語の一覧を、プログラミング言語ごとに 1 つのインスタンスとして保持します。<br>
+ * 定型文は {@link BlancoCgLineUtil} や {@link BlancoCgStatementUtil} が戻す文字列をインスタンスの作成時に一度だけ評価して保持するため、
+ * 行を展開するたびにプログラミング言語による分岐をおこなうことはありません。<br>
+ * そのプログラミング言語でサポートされない定型文を取得しようとした場合には、従来どおり IllegalArgumentException が発生します。<br>
+ * インスタンスは状態を変更しないため、複数のスレッドから同時に利用できます。
+ *
+ * @author IGA Tosiki
+ */
+public final class BlancoCgDialect {
+    /**
+     * 定型文のうち、式が入る位置を調べるための目印の文字列。
+     */
+    private static final String EXPR_MARKER = "\u0000";
+
+    /**
+     * プログラミング言語ごとのインスタンスの表。BlancoCgSupportedLangの値をインデックスとします。
+     */
+    private static final BlancoCgDialect[] DIALECT_TABLE = new BlancoCgDialect[BlancoCgSupportedLang.SWIFT + 1];
+
+    static {
+        final String[] keywordsJava = { "void", "byte", "short", "int", "long",
+                "char", "float", "double", "boolean" };
+        final String[] keywordsCs = { "void", "byte", "short", "int", "long",
+                "char", "float", "double", "decimal", "bool", "string" };
+
+        DIALECT_TABLE[BlancoCgSupportedLang.JAVA] = new BlancoCgDialect(
+                BlancoCgSupportedLang.JAVA, keywordsJava);
+        DIALECT_TABLE[BlancoCgSupportedLang.CS] = new BlancoCgDialect(
+                BlancoCgSupportedLang.CS, keywordsCs);
+        DIALECT_TABLE[BlancoCgSupportedLang.JS] = new BlancoCgDialect(
+                BlancoCgSupportedLang.JS, new String[] { "void", "byte",
+                        "short", "int", "long", "char", "float", "double",
+                        "boolean", "string" });
+        DIALECT_TABLE[BlancoCgSupportedLang.VB] = new BlancoCgDialect(
+                BlancoCgSupportedLang.VB, new String[] { "Void", "Byte",
+                        "Short", "Integer", "Long", "Single", "Double",
+                        "Decimal", "Boolean", "Date", "Char", "String",
+                        "Variant" });
+        DIALECT_TABLE[BlancoCgSupportedLang.PHP] = new BlancoCgDialect(
+                BlancoCgSupportedLang.PHP, new String[] { "boolean", "integer",
+                        "float", "double", "string", "array", "object",
+                        "resource", "NULL", "null"/* 正しくはNULL。 */});
+        DIALECT_TABLE[BlancoCgSupportedLang.RUBY] = new BlancoCgDialect(
+                BlancoCgSupportedLang.RUBY, keywordsJava);
+        DIALECT_TABLE[BlancoCgSupportedLang.PYTHON] = new BlancoCgDialect(
+                BlancoCgSupportedLang.PYTHON, keywordsJava);
+        DIALECT_TABLE[BlancoCgSupportedLang.DELPHI] = new BlancoCgDialect(
+                BlancoCgSupportedLang.DELPHI, keywordsCs);
+        DIALECT_TABLE[BlancoCgSupportedLang.CPP11] = new BlancoCgDialect(
+                BlancoCgSupportedLang.CPP11, keywordsCs);
+        DIALECT_TABLE[BlancoCgSupportedLang.SWIFT] = new BlancoCgDialect(
+                BlancoCgSupportedLang.SWIFT, keywordsCs);
+    }
+
+    /**
+     * 対象とするプログラミング言語。
+     */
+    private final int fTargetLang;
+
+    /**
+     * 文の終わりを示す文字。サポートされない場合には null。
+     */
+    private final String fTerminator;
+
+    /**
+     * １行コメントの開始を表す文字列。サポートされない場合には null。
+     */
+    private final String fSingleLineCommentPrefix;
+
+    /**
+     * 文字列リテラルを囲む文字列。サポートされない場合には null。
+     */
+    private final String fStringLiteralEnclosure;
+
+    /**
+     * 文字列を連結するオペレータ。サポートされない場合には null。
+     */
+    private final String fStringConcatenationOperator;
+
+    /**
+     * 変数のプレフィックス。
+     */
+    private final String fVariablePrefix;
+
+    /**
+     * if文の開始部分のうち、条件式より前の部分。サポートされない場合には null。
+     */
+    private final String fIfBeginPrefix;
+
+    /**
+     * if文の開始部分のうち、条件式より後の部分。サポートされない場合には null。
+     */
+    private final String fIfBeginSuffix;
+
+    /**
+     * if文の終了部分を表す文字列。サポートされない場合には null。
+     */
+    private final String fIfEnd;
+
+    /**
+     * ソースコード文字列のためのエスケープ処理。
+     */
+    private final BlancoCgStringEscaper fSourceEscaper;
+
+    /**
+     * 言語ドキュメント文字列のためのエスケープ処理。
+     */
+    private final BlancoCgStringEscaper fLangDocEscaper;
+
+    /**
+     * プログラミング言語の予約語の集合。
+     */
+    private final Set<String> fReservedKeywordSet;
+
+    /**
+     * プログラミング言語の方言を作成します。
+     *
+     * @param argTargetLang
+     *            対象とするプログラミング言語。
+     * @param argReservedKeywords
+     *            プログラミング言語の予約語一覧。
+     */
+    private BlancoCgDialect(final int argTargetLang,
+            final String[] argReservedKeywords) {
+        fTargetLang = argTargetLang;
+        fReservedKeywordSet = Collections.unmodifiableSet(new HashSet<String>(
+                Arrays.asList(argReservedKeywords)));
+
+        String terminator = null;
+        try {
+            terminator = BlancoCgLineUtil.getTerminator(argTargetLang);
+        } catch (IllegalArgumentException ex) {
+            // サポートされません。取得の際に改めて例外とします。
+        }
+        fTerminator = terminator;
+
+        String commentPrefix = null;
+        try {
+            commentPrefix = BlancoCgLineUtil
+                    .getSingleLineCommentPrefix(argTargetLang);
+        } catch (IllegalArgumentException ex) {
+            // サポートされません。取得の際に改めて例外とします。
+        }
+        fSingleLineCommentPrefix = commentPrefix;
+
+        String literalEnclosure = null;
+        try {
+            literalEnclosure = BlancoCgLineUtil
+                    .getStringLiteralEnclosure(argTargetLang);
+        } catch (IllegalArgumentException ex) {
+            // サポートされません。取得の際に改めて例外とします。
+        }
+        fStringLiteralEnclosure = literalEnclosure;
+
+        String concatenationOperator = null;
+        try {
+            concatenationOperator = BlancoCgLineUtil
+                    .getStringConcatenationOperator(argTargetLang);
+        } catch (IllegalArgumentException ex) {
+            // サポートされません。取得の際に改めて例外とします。
+        }
+        fStringConcatenationOperator = concatenationOperator;
+
+        fVariablePrefix = BlancoCgLineUtil.getVariablePrefix(argTargetLang);
+
+        String ifBegin = null;
+        try {
+            ifBegin = BlancoCgLineUtil.getIfBegin(argTargetLang, EXPR_MARKER);
+        } catch (IllegalArgumentException ex) {
+            // サポートされません。取得の際に改めて例外とします。
+        }
+        if (ifBegin == null) {
+            fIfBeginPrefix = null;
+            fIfBeginSuffix = null;
+        } else {
+            final int markerIndex = ifBegin.indexOf(EXPR_MARKER);
+            fIfBeginPrefix = ifBegin.substring(0, markerIndex);
+            fIfBeginSuffix = ifBegin.substring(markerIndex
+                    + EXPR_MARKER.length());
+        }
+
+        String ifEnd = null;
+        try {
+            ifEnd = BlancoCgLineUtil.getIfEnd(argTargetLang);
+        } catch (IllegalArgumentException ex) {
+            // サポートされません。取得の際に改めて例外とします。
+        }
+        fIfEnd = ifEnd;
+
+        fSourceEscaper = BlancoCgSourceUtil.getSourceEscaper(argTargetLang);
+        fLangDocEscaper = BlancoCgSourceUtil.getLangDocEscaper(argTargetLang);
+    }
+
+    /**
+     * プログラミング言語の方言を取得します。
+     *
+     * プログラミング言語ごとに作成済みのインスタンスを戻します。
+     *
+     * @param argTargetLang
+     *            出力対象のプログラミング言語。BlancoCgSupportedLangで指定します。
+     * @return プログラミング言語の方言。
+     */
+    public static BlancoCgDialect getInstance(final int argTargetLang) {
+        if (argTargetLang <= 0 || argTargetLang >= DIALECT_TABLE.length
+                || DIALECT_TABLE[argTargetLang] == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgDialect: サポートしないプログラミング言語(" + argTargetLang
+                            + ")が与えられました。");
+        }
+        return DIALECT_TABLE[argTargetLang];
+    }
+
+    /**
+     * 対象とするプログラミング言語を取得します。
+     *
+     * @return プログラミング言語。BlancoCgSupportedLangの値。
+     */
+    public int getTargetLang() {
+        return fTargetLang;
+    }
+
+    /**
+     * 文の終わりを示す文字を取得します。
+     *
+     * @return 文の終わりを示す文字。
+     */
+    public String getTerminator() {
+        if (fTerminator == null) {
+            return BlancoCgLineUtil.getTerminator(fTargetLang);
+        }
+        return fTerminator;
+    }
+
+    /**
+     * １行コメントの開始を表す文字列を取得します。
+     *
+     * @return コメントの開始を表す文字列と、それに続く空白。
+     */
+    public String getSingleLineCommentPrefix() {
+        if (fSingleLineCommentPrefix == null) {
+            return BlancoCgLineUtil.getSingleLineCommentPrefix(fTargetLang);
+        }
+        return fSingleLineCommentPrefix;
+    }
+
+    /**
+     * 文字列リテラルを囲む文字列を取得します。
+     *
+     * @return 文字列リテラルを囲む文字列。
+     */
+    public String getStringLiteralEnclosure() {
+        if (fStringLiteralEnclosure == null) {
+            return BlancoCgLineUtil.getStringLiteralEnclosure(fTargetLang);
+        }
+        return fStringLiteralEnclosure;
+    }
+
+    /**
+     * 文字列を連結するオペレータを取得します。
+     *
+     * @return 文字列を連結するオペレータ。
+     */
+    public String getStringConcatenationOperator() {
+        if (fStringConcatenationOperator == null) {
+            return BlancoCgLineUtil.getStringConcatenationOperator(fTargetLang);
+        }
+        return fStringConcatenationOperator;
+    }
+
+    /**
+     * 変数のプレフィックスを取得します。
+     *
+     * @return 変数のプレフィックス。プレフィックスが必要ない言語では、長さ0の文字列。
+     */
+    public String getVariablePrefix() {
+        return fVariablePrefix;
+    }
+
+    /**
+     * if文の開始部分を表す文字列を取得します。
+     *
+     * @param argExpr
+     *            条件式。
+     * @return if文の開始部分を表す文字列。
+     */
+    public String getIfBegin(final String argExpr) {
+        if (fIfBeginPrefix == null) {
+            return BlancoCgLineUtil.getIfBegin(fTargetLang, argExpr);
+        }
+        return fIfBeginPrefix + argExpr + fIfBeginSuffix;
+    }
+
+    /**
+     * if文の終了部分を表す文字列を取得します。
+     *
+     * @return if文の終了部分を表す文字列。
+     */
+    public String getIfEnd() {
+        if (fIfEnd == null) {
+            return BlancoCgLineUtil.getIfEnd(fTargetLang);
+        }
+        return fIfEnd;
+    }
+
+    /**
+     * 与えられた文字列をソースコード文字列として出力するものとしてエスケープ処理します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     * @return エスケープ処理が行われた後の文字列。エスケープが不要な場合には入力文字列そのもの。
+     */
+    public String escapeStringAsSource(final String argOriginalString) {
+        return fSourceEscaper.escape(argOriginalString);
+    }
+
+    /**
+     * 与えられた文字列をソースコード文字列としてエスケープ処理し、呼び出し元の StringBuilder へ追加します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     * @param argBuf
+     *            追加先。
+     */
+    public void escapeStringAsSource(final String argOriginalString,
+            final StringBuilder argBuf) {
+        fSourceEscaper.escape(argOriginalString, argBuf);
+    }
+
+    /**
+     * 与えられた文字列を言語ドキュメント文字列として扱うことができるようにエスケープ処理します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     * @return エスケープ処理が行われた後の文字列。エスケープが不要な場合には入力文字列そのもの。
+     */
+    public String escapeStringAsLangDoc(final String argOriginalString) {
+        return fLangDocEscaper.escape(argOriginalString);
+    }
+
+    /**
+     * 与えられた文字列を言語ドキュメント文字列としてエスケープ処理し、呼び出し元の StringBuilder へ追加します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     * @param argBuf
+     *            追加先。
+     */
+    public void escapeStringAsLangDoc(final String argOriginalString,
+            final StringBuilder argBuf) {
+        fLangDocEscaper.escape(argOriginalString, argBuf);
+    }
+
+    /**
+     * 与えられた文字列がプログラミング言語の予約語であるかどうかをチェックします。
+     *
+     * @param argCheck
+     *            チェックしたい文字列。
+     * @return プログラミング言語の予約語に該当したかどうか。
+     */
+    public boolean isReservedKeyword(final String argCheck) {
+        return fReservedKeywordSet.contains(argCheck);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * blancoCg のバリューオブジェクトの指紋(フィンガープリント)や、生成したソースコードのダイジェストを作成するユーティリティ・クラス。
+ * 
+ * 指紋はソースファイルからクラス・メソッド・フィールドなどに至るまでの構造全体と、デフォルトのファイル・コメントから算出します。<br>
+ * 同じ指紋を持つバリューオブジェクトからは、同じトランスフォーマーで同じソースコードが生成されます。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgFingerprintUtil {
+    /**
+     * 指紋やダイジェストの算出に利用するアルゴリズム。
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    /**
+     * ソースファイル・バリューオブジェクトの指紋を作成します。
+     * 
+     * 変換先の識別子、デフォルトのファイル・コメント、バリューオブジェクトの構造の順にダイジェストへ与えます。<br>
+     * 構造は BlancoCgModelWriter の形式で項目ごとに書き出します。文字列には長さが付与されるため、
+     * 隣り合う項目の境界がずれて異なる構造が同じ指紋となることはありません。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @param argTarget
+     *            変換先を識別する文字列。トランスフォーマーのクラス名などを与えます。
+     * @return 16進数文字列の指紋。
+     */
+    public static final String createFingerprint(
+            final BlancoCgSourceFile argSourceFile, final String argTarget) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgFingerprintUtil: ソースファイルにnullが与えられました。");
+        }
+
+        final MessageDigest digest = createMessageDigest();
+        try {
+            // ダイジェストを算出するだけなので、書き出した内容は保持しません。
+            final DataOutputStream outStream = new DataOutputStream(
+                    new DigestOutputStream(new OutputStream() {
+                        public void write(final int argByte) {
+                        }
+
+                        public void write(final byte[] argBytes,
+                                final int argOffset, final int argLength) {
+                        }
+                    }, digest));
+            writeString(outStream, String.valueOf(argTarget));
+
+            // ファイル・コメントはソースコードに展開されるため、その内容も指紋に含めます。
+            final List<String> headerLines = BlancoCgSourceFileUtil
+                    .getHeaderLines();
+            outStream.writeInt(headerLines.size());
+            for (String line : headerLines) {
+                writeString(outStream, line);
+            }
+            outStream.flush();
+
+            final BlancoCgModelWriter writer = new BlancoCgModelWriter(
+                    outStream);
+            writer.write(argSourceFile);
+            writer.close();
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(
+                    "BlancoCgFingerprintUtil: 指紋の算出の過程で例外が発生しました。"
+                            + ex.toString());
+        }
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * 生成したソースコードのバイト列のダイジェストを作成します。
+     * 
+     * 出力済みのファイルを読み込むことなく、内容の変化を判定するために利用します。
+     * 
+     * @param argBytes
+     *            ソースコードのバイト列。
+     * @return 16進数文字列のダイジェスト。
+     */
+    public static final String createDigest(final byte[] argBytes) {
+        if (argBytes == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgFingerprintUtil: バイト列にnullが与えられました。");
+        }
+
+        final MessageDigest digest = createMessageDigest();
+        digest.update(argBytes);
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * 生成したソースコードのバイトバッファのダイジェストを作成します。
+     * 
+     * バッファの位置からリミットまでを対象とします。与えられたバッファの位置は変更しません。
+     * 
+     * @param argBuffer
+     *            ソースコードのバイトバッファ。
+     * @return 16進数文字列のダイジェスト。
+     */
+    public static final String createDigest(final ByteBuffer argBuffer) {
+        if (argBuffer == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgFingerprintUtil: バイトバッファにnullが与えられました。");
+        }
+
+        final MessageDigest digest = createMessageDigest();
+        digest.update(argBuffer.duplicate());
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * 文字列を、UTF-8 のバイト列の長さを付与して書き出します。
+     * 
+     * @param argOutStream
+     *            出力先ストリーム。
+     * @param argString
+     *            文字列。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private static void writeString(final DataOutputStream argOutStream,
+            final String argString) throws IOException {
+        final byte[] bytes = argString.getBytes("UTF-8");
+        argOutStream.writeInt(bytes.length);
+        argOutStream.write(bytes);
+    }
+
+    /**
+     * ダイジェストを算出するためのオブジェクトを作成します。
+     * 
+     * @return ダイジェストを算出するためのオブジェクト。
+     */
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalArgumentException(
+                    "BlancoCgFingerprintUtil: ダイジェストのアルゴリズム["
+                            + DIGEST_ALGORITHM + "]が利用できません。"
+                            + ex.toString());
+        }
+    }
+
+    /**
+     * バイト列を16進数文字列に変換します。
+     * 
+     * @param argBytes
+     *            バイト列。
+     * @return 16進数文字列。
+     */
+    private static String toHexString(final byte[] argBytes) {
+        final StringBuffer buf = new StringBuffer(argBytes.length * 2);
+        for (int index = 0; index < argBytes.length; index++) {
+            final int value = argBytes[index] & 0xff;
+            if (value < 0x10) {
+                buf.append('0');
+            }
+            buf.append(Integer.toHexString(value));
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import blanco.cg.valueobject.BlancoCgLangDoc;
+
+/**
+ * blancoCg の言語ドキュメント用のユーティリティ・クラス。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgLangDocUtil {
+    /**
+     * ソースコード展開の過程で利用する、作業用の言語ドキュメントを作成します。
+     * 
+     * エキスパンダーはパラメータやタグなどをこの作業用の言語ドキュメントへ追加します。<br>
+     * 与えられた言語ドキュメントそのものは変更しないため、同じバリューオブジェクトを何度でも、また複数のスレッドから同時に展開することができます。
+     * 
+     * @param argLangDoc
+     *            元となる言語ドキュメント。null の場合には空の言語ドキュメントから作成します。
+     * @param argDefaultTitle
+     *            言語ドキュメントにタイトルが指定されていない場合に利用するタイトル。
+     * @return 作業用の言語ドキュメント。
+     */
+    public static final BlancoCgLangDoc createWorkingLangDoc(
+            final BlancoCgLangDoc argLangDoc, final String argDefaultTitle) {
+        final BlancoCgLangDoc langDoc = new BlancoCgLangDoc();
+        if (argLangDoc != null) {
+            // タイトルなど、リスト以外の項目を複写します。
+            argLangDoc.copyTo(langDoc);
+            langDoc.setReturn(argLangDoc.getReturn());
+
+            // リストは展開の過程で追加されるため、新たなリストへ複写します。
+            // 元のリストは参照専用で取得し、空のリストを作成しないようにします。
+            if (argLangDoc.getDescriptionList().isEmpty() == false) {
+                langDoc.getDescriptionList().addAll(
+                        argLangDoc.getDescriptionList());
+            }
+            if (argLangDoc.getParameterList().isEmpty() == false) {
+                langDoc.getParameterList().addAll(
+                        argLangDoc.getParameterList());
+            }
+            if (argLangDoc.getThrowList().isEmpty() == false) {
+                langDoc.getThrowList().addAll(argLangDoc.getThrowList());
+            }
+            if (argLangDoc.getTagList().isEmpty() == false) {
+                langDoc.getTagList().addAll(argLangDoc.getTagList());
+            }
+        }
+
+        if (langDoc.getTitle() == null) {
+            langDoc.setTitle(argDefaultTitle);
+        }
+        return langDoc;
+    }
+}
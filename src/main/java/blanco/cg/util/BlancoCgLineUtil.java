@@ -81,9 +81,10 @@ public class BlancoCgLineUtil {
         case BlancoCgSupportedLang.CS:
         case BlancoCgSupportedLang.JS:
         case BlancoCgSupportedLang.VB:
+        case BlancoCgSupportedLang.RUBY:
+            // Ruby のシングルクオートの文字列リテラルでは改行をエスケープできないため、ダブルクオートで囲みます。
             return "\"";
         case BlancoCgSupportedLang.PHP:
-        case BlancoCgSupportedLang.RUBY:
         case BlancoCgSupportedLang.PYTHON:
         case BlancoCgSupportedLang.DELPHI:
             return "'";
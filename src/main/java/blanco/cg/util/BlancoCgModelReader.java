@@ -0,0 +1,541 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgEnumElement;
+import blanco.cg.valueobject.BlancoCgException;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgLangDoc;
+import blanco.cg.valueobject.BlancoCgLangDocTag;
+import blanco.cg.valueobject.BlancoCgLocalVariable;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgReturn;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.cg.valueobject.BlancoCgType;
+
+/**
+ * BlancoCgModelWriter で書き出したバイナリ形式から、blancoCg のバリューオブジェクトのツリーを読み込むリーダーです。
+ * 
+ * リストの要素は、バリューオブジェクトが保持しているリストへ追加します。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgModelReader {
+    /**
+     * 入力元ストリーム。
+     */
+    private final DataInputStream fInStream;
+
+    /**
+     * 読み込み済みの文字列の辞書。書き出し時の辞書の番号の順に並びます。
+     */
+    private final List<java.lang.String> fDictionary = new ArrayList<java.lang.String>();
+
+    /**
+     * ストリームの終端に達したかどうか。
+     */
+    private boolean fIsEnd = false;
+
+    /**
+     * リーダーを作成し、ストリームの先頭のマジックナンバーとバージョンを確認します。
+     * 
+     * @param argInStream
+     *            入力元ストリーム。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、サポートしない形式の場合。
+     */
+    public BlancoCgModelReader(final InputStream argInStream)
+            throws IOException {
+        if (argInStream == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgModelReader: 入力元ストリームにnullが与えられました。");
+        }
+        fInStream = new DataInputStream(new BufferedInputStream(argInStream));
+        if (fInStream.readInt() != BlancoCgModelWriter.MAGIC) {
+            throw new IOException(
+                    "BlancoCgModelReader: blancoCgのバイナリ形式ではありません。");
+        }
+        final int version = readVarInt();
+        if (version != BlancoCgModelWriter.FORMAT_VERSION) {
+            throw new IOException(
+                    "BlancoCgModelReader: サポートしないバイナリ形式のバージョン(" + version
+                            + ")です。");
+        }
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを 1 つ読み込みます。
+     * 
+     * @return ソースファイル・バリューオブジェクト。ストリームの終端に達した場合には null。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    public BlancoCgSourceFile read() throws IOException {
+        if (fIsEnd) {
+            return null;
+        }
+        final int mark = readVarInt();
+        if (mark == BlancoCgModelWriter.MARK_END) {
+            fIsEnd = true;
+            return null;
+        }
+        if (mark != BlancoCgModelWriter.MARK_SOURCE_FILE) {
+            throw new IOException("BlancoCgModelReader: 不正な印(" + mark
+                    + ")を検出しました。");
+        }
+
+        final BlancoCgSourceFile cgSourceFile = new BlancoCgSourceFile();
+        cgSourceFile.setName(readString());
+        cgSourceFile.setDescription(readString());
+        cgSourceFile.setPackage(readString());
+        cgSourceFile.setEncoding(readString());
+        readStringList(cgSourceFile.getImportList());
+
+        for (int count = readVarInt(); count > 0; count--) {
+            cgSourceFile.getEnumList().add(readEnum());
+        }
+        for (int count = readVarInt(); count > 0; count--) {
+            cgSourceFile.getInterfaceList().add(readInterface());
+        }
+        for (int count = readVarInt(); count > 0; count--) {
+            cgSourceFile.getClassList().add(readClass());
+        }
+
+        cgSourceFile.setLangDoc(readLangDoc());
+        final int flags = readVarInt();
+        cgSourceFile.setIsImport((flags & 1) != 0);
+        cgSourceFile.setIsAutoImport((flags & 2) != 0);
+        return cgSourceFile;
+    }
+
+    /**
+     * ストリームの終端までのソースファイル・バリューオブジェクトをすべて読み込みます。
+     * 
+     * @return ソースファイル・バリューオブジェクトの一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    public List<BlancoCgSourceFile> readAll() throws IOException {
+        final List<BlancoCgSourceFile> result = new ArrayList<BlancoCgSourceFile>();
+        for (BlancoCgSourceFile cgSourceFile = read(); cgSourceFile != null; cgSourceFile = read()) {
+            result.add(cgSourceFile);
+        }
+        return result;
+    }
+
+    /**
+     * 入力元ストリームを閉じます。
+     * 
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public void close() throws IOException {
+        fInStream.close();
+    }
+
+    /**
+     * クラスを読み込みます。
+     * 
+     * @return クラス。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private BlancoCgClass readClass() throws IOException {
+        final BlancoCgClass cgClass = new BlancoCgClass();
+        cgClass.setName(readString());
+        cgClass.setDescription(readString());
+        cgClass.setGenerics(readString());
+        readTypeList(cgClass.getExtendClassList());
+        readTypeList(cgClass.getImplementInterfaceList());
+        cgClass.setAccess(readString());
+        final int flags = readVarInt();
+        cgClass.setAbstract((flags & 1) != 0);
+        cgClass.setFinal((flags & 2) != 0);
+        readStringList(cgClass.getAnnotationList());
+
+        for (int count = readVarInt(); count > 0; count--) {
+            cgClass.getEnumList().add(readEnum());
+        }
+        readFieldList(cgClass.getFieldList());
+        readMethodList(cgClass.getMethodList());
+        cgClass.setLangDoc(readLangDoc());
+        return cgClass;
+    }
+
+    /**
+     * インタフェースを読み込みます。
+     * 
+     * @return インタフェース。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private BlancoCgInterface readInterface() throws IOException {
+        final BlancoCgInterface cgInterface = new BlancoCgInterface();
+        cgInterface.setName(readString());
+        cgInterface.setDescription(readString());
+        cgInterface.setGenerics(readString());
+        readTypeList(cgInterface.getExtendClassList());
+        cgInterface.setAccess(readString());
+        readStringList(cgInterface.getAnnotationList());
+        readFieldList(cgInterface.getFieldList());
+        readMethodList(cgInterface.getMethodList());
+        cgInterface.setLangDoc(readLangDoc());
+        return cgInterface;
+    }
+
+    /**
+     * 列挙体を読み込みます。
+     * 
+     * @return 列挙体。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private BlancoCgEnum readEnum() throws IOException {
+        final BlancoCgEnum cgEnum = new BlancoCgEnum();
+        cgEnum.setName(readString());
+        cgEnum.setDescription(readString());
+        cgEnum.setAccess(readString());
+
+        for (int count = readVarInt(); count > 0; count--) {
+            final BlancoCgEnumElement cgElement = new BlancoCgEnumElement();
+            cgElement.setName(readString());
+            cgElement.setDescription(readString());
+            cgElement.setDefault(readString());
+            cgEnum.getElementList().add(cgElement);
+        }
+        cgEnum.setLangDoc(readLangDoc());
+        return cgEnum;
+    }
+
+    /**
+     * フィールドの一覧を読み込みます。
+     * 
+     * @param argList
+     *            読み込んだ要素を追加する一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private void readFieldList(final List<BlancoCgField> argList)
+            throws IOException {
+        for (int count = readVarInt(); count > 0; count--) {
+            final BlancoCgField cgField = new BlancoCgField();
+            cgField.setName(readString());
+            cgField.setDescription(readString());
+            cgField.setType(readType());
+            cgField.setAccess(readString());
+            final int flags = readVarInt();
+            cgField.setStatic((flags & 1) != 0);
+            cgField.setFinal((flags & 2) != 0);
+            cgField.setDefault(readString());
+            readStringList(cgField.getAnnotationList());
+            cgField.setLangDoc(readLangDoc());
+            argList.add(cgField);
+        }
+    }
+
+    /**
+     * メソッドの一覧を読み込みます。
+     * 
+     * @param argList
+     *            読み込んだ要素を追加する一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private void readMethodList(final List<BlancoCgMethod> argList)
+            throws IOException {
+        for (int count = readVarInt(); count > 0; count--) {
+            final BlancoCgMethod cgMethod = new BlancoCgMethod();
+            cgMethod.setName(readString());
+            cgMethod.setDescription(readString());
+            cgMethod.setAccess(readString());
+            final int flags = readVarInt();
+            cgMethod.setAbstract((flags & 1) != 0);
+            cgMethod.setStatic((flags & 2) != 0);
+            cgMethod.setOverride((flags & 4) != 0);
+            cgMethod.setFinal((flags & 8) != 0);
+            cgMethod.setConstructor((flags & 16) != 0);
+            cgMethod.setStaticInitializer((flags & 32) != 0);
+            cgMethod.setCommentOnly((flags & 64) != 0);
+            readParameterList(cgMethod.getParameterList());
+            cgMethod.setReturn(readReturn());
+            readExceptionList(cgMethod.getThrowList());
+            readStringList(cgMethod.getAnnotationList());
+
+            for (int countVariable = readVarInt(); countVariable > 0; countVariable--) {
+                final BlancoCgLocalVariable cgLocalVariable = new BlancoCgLocalVariable();
+                cgLocalVariable.setName(readString());
+                cgLocalVariable.setType(readType());
+                cgLocalVariable.setFinal((readVarInt() & 1) != 0);
+                cgLocalVariable.setDefault(readString());
+                cgMethod.getLocalVariableList().add(cgLocalVariable);
+            }
+
+            readStringList(cgMethod.getLineList());
+            cgMethod.setSuperclassInvocation(readString());
+            cgMethod.setLangDoc(readLangDoc());
+            argList.add(cgMethod);
+        }
+    }
+
+    /**
+     * パラメータの一覧を読み込みます。
+     * 
+     * @param argList
+     *            読み込んだ要素を追加する一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private void readParameterList(final List<BlancoCgParameter> argList)
+            throws IOException {
+        for (int count = readVarInt(); count > 0; count--) {
+            final BlancoCgParameter cgParameter = new BlancoCgParameter();
+            cgParameter.setName(readString());
+            cgParameter.setDescription(readString());
+            cgParameter.setType(readType());
+            final int flags = readVarInt();
+            cgParameter.setArbitraryNumParams((flags & 1) != 0);
+            cgParameter.setFinal((flags & 2) != 0);
+            cgParameter.setNotnull((flags & 4) != 0);
+            readStringList(cgParameter.getAnnotationList());
+            argList.add(cgParameter);
+        }
+    }
+
+    /**
+     * 例外の一覧を読み込みます。
+     * 
+     * @param argList
+     *            読み込んだ要素を追加する一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private void readExceptionList(final List<BlancoCgException> argList)
+            throws IOException {
+        for (int count = readVarInt(); count > 0; count--) {
+            final BlancoCgException cgException = new BlancoCgException();
+            cgException.setType(readType());
+            cgException.setDescription(readString());
+            argList.add(cgException);
+        }
+    }
+
+    /**
+     * 戻り値を読み込みます。
+     * 
+     * @return 戻り値。書き出し時に null であった場合には null。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private BlancoCgReturn readReturn() throws IOException {
+        if (fInStream.readBoolean() == false) {
+            return null;
+        }
+
+        final BlancoCgReturn cgReturn = new BlancoCgReturn();
+        cgReturn.setDescription(readString());
+        cgReturn.setType(readType());
+        return cgReturn;
+    }
+
+    /**
+     * 言語ドキュメントを読み込みます。
+     * 
+     * @return 言語ドキュメント。書き出し時に null であった場合には null。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private BlancoCgLangDoc readLangDoc() throws IOException {
+        if (fInStream.readBoolean() == false) {
+            return null;
+        }
+
+        final BlancoCgLangDoc cgLangDoc = new BlancoCgLangDoc();
+        cgLangDoc.setTitle(readString());
+        readStringList(cgLangDoc.getDescriptionList());
+        cgLangDoc.setDeprecated(readString());
+        readParameterList(cgLangDoc.getParameterList());
+        cgLangDoc.setReturn(readReturn());
+        readExceptionList(cgLangDoc.getThrowList());
+
+        for (int count = readVarInt(); count > 0; count--) {
+            final BlancoCgLangDocTag cgTag = new BlancoCgLangDocTag();
+            cgTag.setName(readString());
+            cgTag.setKey(readString());
+            cgTag.setValue(readString());
+            cgLangDoc.getTagList().add(cgTag);
+        }
+        return cgLangDoc;
+    }
+
+    /**
+     * 型の一覧を読み込みます。
+     * 
+     * @param argList
+     *            読み込んだ要素を追加する一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private void readTypeList(final List<BlancoCgType> argList)
+            throws IOException {
+        for (int count = readVarInt(); count > 0; count--) {
+            argList.add(readType());
+        }
+    }
+
+    /**
+     * 型を読み込みます。
+     * 
+     * @return 型。書き出し時に null であった場合には null。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private BlancoCgType readType() throws IOException {
+        if (fInStream.readBoolean() == false) {
+            return null;
+        }
+
+        final BlancoCgType cgType = new BlancoCgType();
+        cgType.setName(readString());
+        cgType.setDescription(readString());
+        cgType.setGenerics(readString());
+        cgType.setArray((readVarInt() & 1) != 0);
+        cgType.setArrayDimension(readVarInt());
+        return cgType;
+    }
+
+    /**
+     * 文字列の一覧を読み込みます。
+     * 
+     * @param argList
+     *            読み込んだ要素を追加する一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private void readStringList(final List<java.lang.String> argList)
+            throws IOException {
+        for (int count = readVarInt(); count > 0; count--) {
+            argList.add(readString());
+        }
+    }
+
+    /**
+     * 辞書で符号化された文字列を読み込みます。
+     * 
+     * @return 文字列。書き出し時に null であった場合には null。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private String readString() throws IOException {
+        final int code = readVarInt();
+        if (code == BlancoCgModelWriter.STRING_NULL) {
+            return null;
+        }
+        if (code == BlancoCgModelWriter.STRING_LITERAL
+                || code == BlancoCgModelWriter.STRING_UNSHARED) {
+            final String result = new String(readBytes(readVarInt()),
+                    "UTF-8");
+            if (code == BlancoCgModelWriter.STRING_LITERAL) {
+                fDictionary.add(result);
+            }
+            return result;
+        }
+
+        final int index = code - BlancoCgModelWriter.STRING_REFERENCE;
+        if (index >= fDictionary.size()) {
+            throw new IOException("BlancoCgModelReader: 辞書に存在しない文字列の番号("
+                    + index + ")を検出しました。");
+        }
+        return fDictionary.get(index);
+    }
+
+    /**
+     * 指定の長さのバイト列を読み込みます。
+     * 
+     * 途中で切れた入力や壊れた入力で過大な領域を確保しないよう、長さを上限と照合し、入力の終端を確認しながら少しずつ読み込みます。
+     * 
+     * @param argLength
+     *            バイト数。
+     * @return バイト列。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、長さが上限を超える場合や入力が途中で終わっている場合。
+     */
+    private byte[] readBytes(final int argLength) throws IOException {
+        if (argLength > BlancoCgModelWriter.MAX_STRING_BYTES) {
+            throw new IOException("BlancoCgModelReader: 文字列のバイト数(" + argLength
+                    + ")が上限(" + BlancoCgModelWriter.MAX_STRING_BYTES
+                    + ")を超えています。");
+        }
+        if (argLength <= BlancoCgModelWriter.STRING_READ_CHUNK) {
+            final byte[] bytes = new byte[argLength];
+            fInStream.readFully(bytes);
+            return bytes;
+        }
+
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream(
+                BlancoCgModelWriter.STRING_READ_CHUNK);
+        final byte[] chunk = new byte[BlancoCgModelWriter.STRING_READ_CHUNK];
+        for (int rest = argLength; rest > 0;) {
+            final int length = Math.min(rest, chunk.length);
+            fInStream.readFully(chunk, 0, length);
+            outStream.write(chunk, 0, length);
+            rest -= length;
+        }
+        return outStream.toByteArray();
+    }
+
+    /**
+     * 7 ビットずつの可変長形式で書き出された、0 以上の整数を読み込みます。
+     * 
+     * @return 0 以上の整数。
+     * @throws IOException
+     *             入出力例外が発生した場合。または、形式が不正な場合。
+     */
+    private int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int value = fInStream.readUnsignedByte();
+            result |= (value & 0x7f) << shift;
+            if ((value & 0x80) == 0) {
+                if (result < 0) {
+                    break;
+                }
+                return result;
+            }
+        }
+        throw new IOException("BlancoCgModelReader: 不正な可変長整数を検出しました。");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgException;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * blancoCg のバリューオブジェクトのツリーを巡回し、ビジターへ通知するためのユーティリティです。
+ * 
+ * ソースファイルの中の列挙体・インタフェース・クラスの順に、エキスパンダーがソースコードを展開するのと同じ順序で巡回します。<br>
+ * 巡回はバリューオブジェクトを読み取るだけで、変更することはありません。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgModelWalker {
+    /**
+     * ソースファイルに含まれるバリューオブジェクトを巡回します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル。
+     * @param argVisitor
+     *            ビジター。
+     */
+    public static void walk(final BlancoCgSourceFile argSourceFile,
+            final BlancoCgVisitor argVisitor) {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException(
+                    "ソースファイルにnullが与えられました。処理中断します。");
+        }
+        if (argVisitor == null) {
+            throw new IllegalArgumentException("ビジターにnullが与えられました。処理中断します。");
+        }
+
+        for (BlancoCgEnum cgEnum : argSourceFile.getEnumList()) {
+            argVisitor.visitEnum(cgEnum);
+        }
+        for (BlancoCgInterface cgInterface : argSourceFile
+                .getInterfaceList()) {
+            walkInterface(cgInterface, argVisitor);
+        }
+        for (BlancoCgClass cgClass : argSourceFile.getClassList()) {
+            walkClass(cgClass, argVisitor);
+        }
+    }
+
+    /**
+     * クラスと、クラスに含まれるバリューオブジェクトを巡回します。
+     * 
+     * @param argClass
+     *            クラス。
+     * @param argVisitor
+     *            ビジター。
+     */
+    public static void walkClass(final BlancoCgClass argClass,
+            final BlancoCgVisitor argVisitor) {
+        argVisitor.visitClass(argClass);
+        for (BlancoCgEnum cgEnum : argClass.getEnumList()) {
+            argVisitor.visitEnum(cgEnum);
+        }
+        for (BlancoCgField cgField : argClass.getFieldList()) {
+            argVisitor.visitField(cgField);
+        }
+        for (BlancoCgMethod cgMethod : argClass.getMethodList()) {
+            walkMethod(cgMethod, argVisitor);
+        }
+    }
+
+    /**
+     * インタフェースと、インタフェースに含まれるバリューオブジェクトを巡回します。
+     * 
+     * @param argInterface
+     *            インタフェース。
+     * @param argVisitor
+     *            ビジター。
+     */
+    public static void walkInterface(final BlancoCgInterface argInterface,
+            final BlancoCgVisitor argVisitor) {
+        argVisitor.visitInterface(argInterface);
+        for (BlancoCgField cgField : argInterface.getFieldList()) {
+            argVisitor.visitField(cgField);
+        }
+        for (BlancoCgMethod cgMethod : argInterface.getMethodList()) {
+            walkMethod(cgMethod, argVisitor);
+        }
+    }
+
+    /**
+     * メソッドと、メソッドのパラメータ・戻り値・例外を巡回します。
+     * 
+     * @param argMethod
+     *            メソッド。
+     * @param argVisitor
+     *            ビジター。
+     */
+    public static void walkMethod(final BlancoCgMethod argMethod,
+            final BlancoCgVisitor argVisitor) {
+        argVisitor.visitMethod(argMethod);
+        for (BlancoCgParameter cgParameter : argMethod.getParameterList()) {
+            argVisitor.visitParameter(cgParameter);
+        }
+        if (argMethod.getReturn() != null) {
+            argVisitor.visitReturn(argMethod.getReturn());
+        }
+        for (BlancoCgException cgException : argMethod.getThrowList()) {
+            argVisitor.visitException(cgException);
+        }
+    }
+}
@@ -0,0 +1,586 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgEnumElement;
+import blanco.cg.valueobject.BlancoCgException;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgLangDoc;
+import blanco.cg.valueobject.BlancoCgLangDocTag;
+import blanco.cg.valueobject.BlancoCgLocalVariable;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgReturn;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.cg.valueobject.BlancoCgType;
+
+/**
+ * blancoCg のバリューオブジェクトのツリーを、コンパクトなバイナリ形式で書き出すライターです。
+ * 
+ * ソースファイル・バリューオブジェクトを 1 つずつ順に書き出すため、一覧全体をメモリ上に用意する必要はありません。<br>
+ * 型名やアクセス修飾子などの文字列は辞書で符号化し、2 回目以降は辞書の番号だけを書き出します。
+ * 辞書は 1 つのストリームの中で共有されます。<br>
+ * 説明文のように長く繰り返し現れにくい文字列は辞書に登録せず、そのまま書き出します。
+ * 辞書の件数にも上限を設け、大きなモデルを書き出す際にも辞書が際限なく大きくならないようにしています。<br>
+ * 書き出した内容は BlancoCgModelReader で読み込みます。Java のシリアライズと異なり、
+ * バリューオブジェクトの構造が同じであれば、クラスのバージョンに依存せずに読み込むことができます。<br>
+ * 空のリストと未作成のリストは区別せず、読み込み時には未作成のリストとなります。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgModelWriter {
+    /**
+     * ストリームの先頭に書き出すマジックナンバー。"BLCG" を表します。
+     */
+    static final int MAGIC = 0x424c4347;
+
+    /**
+     * バイナリ形式のバージョン。
+     * 
+     * バリューオブジェクトの項目を増減させた場合には、この値を更新してください。
+     */
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * ソースファイルが続くことを表す印。
+     */
+    static final int MARK_SOURCE_FILE = 1;
+
+    /**
+     * ストリームの終端を表す印。
+     */
+    static final int MARK_END = 0;
+
+    /**
+     * 文字列の符号: null。
+     */
+    static final int STRING_NULL = 0;
+
+    /**
+     * 文字列の符号: 辞書に登録する文字列が続きます。
+     */
+    static final int STRING_LITERAL = 1;
+
+    /**
+     * 文字列の符号: 辞書に登録しない文字列が続きます。
+     */
+    static final int STRING_UNSHARED = 2;
+
+    /**
+     * 文字列の符号: 辞書の番号の開始値。これ以上の値は辞書の番号に STRING_REFERENCE を加えたものです。
+     */
+    static final int STRING_REFERENCE = 3;
+
+    /**
+     * 辞書に登録する文字列の長さの上限。これより長い文字列は辞書に登録しません。
+     */
+    static final int MAX_DICTIONARY_STRING_LENGTH = 64;
+
+    /**
+     * 辞書に登録する文字列の件数の上限。上限に達した後の初出の文字列は辞書に登録しません。
+     */
+    static final int MAX_DICTIONARY_SIZE = 65536;
+
+    /**
+     * 1 つの文字列の UTF-8 のバイト数の上限。読み込み時には、これを超える長さを不正な形式として扱います。
+     */
+    static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * 読み込み時に、文字列のバイト列を一度に確保する大きさの上限。
+     */
+    static final int STRING_READ_CHUNK = 8192;
+
+    /**
+     * 出力先ストリーム。
+     */
+    private final DataOutputStream fOutStream;
+
+    /**
+     * 書き出し済みの文字列と、辞書の番号のマップ。
+     */
+    private final Map<String, Integer> fDictionary = new HashMap<String, Integer>();
+
+    /**
+     * 終端を書き出したかどうか。
+     */
+    private boolean fIsClosed = false;
+
+    /**
+     * ライターを作成し、ストリームの先頭にマジックナンバーとバージョンを書き出します。
+     * 
+     * @param argOutStream
+     *            出力先ストリーム。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public BlancoCgModelWriter(final OutputStream argOutStream)
+            throws IOException {
+        if (argOutStream == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgModelWriter: 出力先ストリームにnullが与えられました。");
+        }
+        fOutStream = new DataOutputStream(new BufferedOutputStream(
+                argOutStream));
+        fOutStream.writeInt(MAGIC);
+        writeVarInt(FORMAT_VERSION);
+    }
+
+    /**
+     * ソースファイル・バリューオブジェクトを 1 つ書き出します。
+     * 
+     * @param argSourceFile
+     *            ソースファイル・バリューオブジェクト。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public void write(final BlancoCgSourceFile argSourceFile)
+            throws IOException {
+        if (argSourceFile == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgModelWriter: ソースファイルにnullが与えられました。");
+        }
+        if (fIsClosed) {
+            throw new IllegalArgumentException(
+                    "BlancoCgModelWriter: 既に閉じられたライターに書き出そうとしました。");
+        }
+
+        writeVarInt(MARK_SOURCE_FILE);
+        writeString(argSourceFile.getName());
+        writeString(argSourceFile.getDescription());
+        writeString(argSourceFile.getPackage());
+        writeString(argSourceFile.getEncoding());
+        writeStringList(argSourceFile.getImportList());
+
+        final List<BlancoCgEnum> enumList = argSourceFile.getEnumList();
+        writeVarInt(enumList.size());
+        for (BlancoCgEnum cgEnum : enumList) {
+            writeEnum(cgEnum);
+        }
+        final List<BlancoCgInterface> interfaceList = argSourceFile
+                .getInterfaceList();
+        writeVarInt(interfaceList.size());
+        for (BlancoCgInterface cgInterface : interfaceList) {
+            writeInterface(cgInterface);
+        }
+        final List<BlancoCgClass> classList = argSourceFile
+                .getClassList();
+        writeVarInt(classList.size());
+        for (BlancoCgClass cgClass : classList) {
+            writeClass(cgClass);
+        }
+
+        writeLangDoc(argSourceFile.getLangDoc());
+        writeFlags(argSourceFile.getIsImport(), argSourceFile
+                .getIsAutoImport());
+    }
+
+    /**
+     * 書き出した内容を出力先ストリームへ反映します。
+     * 
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public void flush() throws IOException {
+        fOutStream.flush();
+    }
+
+    /**
+     * ストリームの終端を書き出して、出力先ストリームを閉じます。
+     * 
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    public void close() throws IOException {
+        if (fIsClosed == false) {
+            fIsClosed = true;
+            writeVarInt(MARK_END);
+        }
+        fOutStream.close();
+    }
+
+    /**
+     * クラスを書き出します。
+     * 
+     * @param argClass
+     *            クラス。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeClass(final BlancoCgClass argClass) throws IOException {
+        writeString(argClass.getName());
+        writeString(argClass.getDescription());
+        writeString(argClass.getGenerics());
+        writeTypeList(argClass.getExtendClassList());
+        writeTypeList(argClass.getImplementInterfaceList());
+        writeString(argClass.getAccess());
+        writeFlags(argClass.getAbstract(), argClass.getFinal());
+        writeStringList(argClass.getAnnotationList());
+
+        final List<BlancoCgEnum> enumList = argClass.getEnumList();
+        writeVarInt(enumList.size());
+        for (BlancoCgEnum cgEnum : enumList) {
+            writeEnum(cgEnum);
+        }
+        writeFieldList(argClass.getFieldList());
+        writeMethodList(argClass.getMethodList());
+        writeLangDoc(argClass.getLangDoc());
+    }
+
+    /**
+     * インタフェースを書き出します。
+     * 
+     * @param argInterface
+     *            インタフェース。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeInterface(final BlancoCgInterface argInterface)
+            throws IOException {
+        writeString(argInterface.getName());
+        writeString(argInterface.getDescription());
+        writeString(argInterface.getGenerics());
+        writeTypeList(argInterface.getExtendClassList());
+        writeString(argInterface.getAccess());
+        writeStringList(argInterface.getAnnotationList());
+        writeFieldList(argInterface.getFieldList());
+        writeMethodList(argInterface.getMethodList());
+        writeLangDoc(argInterface.getLangDoc());
+    }
+
+    /**
+     * 列挙体を書き出します。
+     * 
+     * @param argEnum
+     *            列挙体。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeEnum(final BlancoCgEnum argEnum) throws IOException {
+        writeString(argEnum.getName());
+        writeString(argEnum.getDescription());
+        writeString(argEnum.getAccess());
+
+        final List<BlancoCgEnumElement> elementList = argEnum
+                .getElementList();
+        writeVarInt(elementList.size());
+        for (BlancoCgEnumElement cgElement : elementList) {
+            writeString(cgElement.getName());
+            writeString(cgElement.getDescription());
+            writeString(cgElement.getDefault());
+        }
+        writeLangDoc(argEnum.getLangDoc());
+    }
+
+    /**
+     * フィールドの一覧を書き出します。
+     * 
+     * @param argFieldList
+     *            フィールドの一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeFieldList(final List<BlancoCgField> argFieldList)
+            throws IOException {
+        writeVarInt(argFieldList.size());
+        for (BlancoCgField cgField : argFieldList) {
+            writeString(cgField.getName());
+            writeString(cgField.getDescription());
+            writeType(cgField.getType());
+            writeString(cgField.getAccess());
+            writeFlags(cgField.getStatic(), cgField.getFinal());
+            writeString(cgField.getDefault());
+            writeStringList(cgField.getAnnotationList());
+            writeLangDoc(cgField.getLangDoc());
+        }
+    }
+
+    /**
+     * メソッドの一覧を書き出します。
+     * 
+     * @param argMethodList
+     *            メソッドの一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeMethodList(final List<BlancoCgMethod> argMethodList)
+            throws IOException {
+        writeVarInt(argMethodList.size());
+        for (BlancoCgMethod cgMethod : argMethodList) {
+            writeString(cgMethod.getName());
+            writeString(cgMethod.getDescription());
+            writeString(cgMethod.getAccess());
+            writeFlags(cgMethod.getAbstract(), cgMethod.getStatic(), cgMethod
+                    .getOverride(), cgMethod.getFinal(), cgMethod
+                    .getConstructor(), cgMethod.getStaticInitializer(),
+                    cgMethod.getCommentOnly());
+            writeParameterList(cgMethod.getParameterList());
+            writeReturn(cgMethod.getReturn());
+            writeExceptionList(cgMethod.getThrowList());
+            writeStringList(cgMethod.getAnnotationList());
+
+            final List<BlancoCgLocalVariable> localVariableList = cgMethod
+                    .getLocalVariableList();
+            writeVarInt(localVariableList.size());
+            for (BlancoCgLocalVariable cgLocalVariable : localVariableList) {
+                writeString(cgLocalVariable.getName());
+                writeType(cgLocalVariable.getType());
+                writeFlags(cgLocalVariable.getFinal());
+                writeString(cgLocalVariable.getDefault());
+            }
+
+            writeStringList(cgMethod.getLineList());
+            writeString(cgMethod.getSuperclassInvocation());
+            writeLangDoc(cgMethod.getLangDoc());
+        }
+    }
+
+    /**
+     * パラメータの一覧を書き出します。
+     * 
+     * @param argParameterList
+     *            パラメータの一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeParameterList(
+            final List<BlancoCgParameter> argParameterList) throws IOException {
+        writeVarInt(argParameterList.size());
+        for (BlancoCgParameter cgParameter : argParameterList) {
+            writeString(cgParameter.getName());
+            writeString(cgParameter.getDescription());
+            writeType(cgParameter.getType());
+            writeFlags(cgParameter.getArbitraryNumParams(), cgParameter
+                    .getFinal(), cgParameter.getNotnull());
+            writeStringList(cgParameter.getAnnotationList());
+        }
+    }
+
+    /**
+     * 例外の一覧を書き出します。
+     * 
+     * @param argExceptionList
+     *            例外の一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeExceptionList(
+            final List<BlancoCgException> argExceptionList) throws IOException {
+        writeVarInt(argExceptionList.size());
+        for (BlancoCgException cgException : argExceptionList) {
+            writeType(cgException.getType());
+            writeString(cgException.getDescription());
+        }
+    }
+
+    /**
+     * 戻り値を書き出します。
+     * 
+     * @param argReturn
+     *            戻り値。null を与えることができます。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeReturn(final BlancoCgReturn argReturn)
+            throws IOException {
+        fOutStream.writeBoolean(argReturn != null);
+        if (argReturn != null) {
+            writeString(argReturn.getDescription());
+            writeType(argReturn.getType());
+        }
+    }
+
+    /**
+     * 言語ドキュメントを書き出します。
+     * 
+     * @param argLangDoc
+     *            言語ドキュメント。null を与えることができます。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeLangDoc(final BlancoCgLangDoc argLangDoc)
+            throws IOException {
+        fOutStream.writeBoolean(argLangDoc != null);
+        if (argLangDoc == null) {
+            return;
+        }
+
+        writeString(argLangDoc.getTitle());
+        writeStringList(argLangDoc.getDescriptionList());
+        writeString(argLangDoc.getDeprecated());
+        writeParameterList(argLangDoc.getParameterList());
+        writeReturn(argLangDoc.getReturn());
+        writeExceptionList(argLangDoc.getThrowList());
+
+        final List<BlancoCgLangDocTag> tagList = argLangDoc.getTagList();
+        writeVarInt(tagList.size());
+        for (BlancoCgLangDocTag cgTag : tagList) {
+            writeString(cgTag.getName());
+            writeString(cgTag.getKey());
+            writeString(cgTag.getValue());
+        }
+    }
+
+    /**
+     * 型の一覧を書き出します。
+     * 
+     * @param argTypeList
+     *            型の一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeTypeList(final List<BlancoCgType> argTypeList)
+            throws IOException {
+        writeVarInt(argTypeList.size());
+        for (BlancoCgType cgType : argTypeList) {
+            writeType(cgType);
+        }
+    }
+
+    /**
+     * 型を書き出します。
+     * 
+     * @param argType
+     *            型。null を与えることができます。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeType(final BlancoCgType argType) throws IOException {
+        fOutStream.writeBoolean(argType != null);
+        if (argType != null) {
+            writeString(argType.getName());
+            writeString(argType.getDescription());
+            writeString(argType.getGenerics());
+            writeFlags(argType.getArray());
+            writeVarInt(argType.getArrayDimension());
+        }
+    }
+
+    /**
+     * 文字列の一覧を書き出します。
+     * 
+     * @param argStringList
+     *            文字列の一覧。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeStringList(final List<java.lang.String> argStringList)
+            throws IOException {
+        writeVarInt(argStringList.size());
+        for (int index = 0; index < argStringList.size(); index++) {
+            writeString(argStringList.get(index));
+        }
+    }
+
+    /**
+     * 文字列を辞書で符号化して書き出します。
+     * 
+     * 初出の文字列は UTF-8 のバイト列で書き出して辞書に登録し、2 回目以降は辞書の番号だけを書き出します。<br>
+     * 長い文字列や、辞書の件数が上限に達した後の初出の文字列は、辞書に登録せずにそのまま書き出します。
+     * 
+     * @param argString
+     *            文字列。null を与えることができます。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeString(final String argString) throws IOException {
+        if (argString == null) {
+            writeVarInt(STRING_NULL);
+            return;
+        }
+
+        final Integer index = fDictionary.get(argString);
+        if (index != null) {
+            writeVarInt(index.intValue() + STRING_REFERENCE);
+            return;
+        }
+
+        final byte[] bytes = argString.getBytes("UTF-8");
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("BlancoCgModelWriter: 文字列のバイト数(" + bytes.length
+                    + ")が上限(" + MAX_STRING_BYTES + ")を超えています。");
+        }
+        if (argString.length() <= MAX_DICTIONARY_STRING_LENGTH
+                && fDictionary.size() < MAX_DICTIONARY_SIZE) {
+            fDictionary.put(argString, Integer.valueOf(fDictionary.size()));
+            writeVarInt(STRING_LITERAL);
+        } else {
+            writeVarInt(STRING_UNSHARED);
+        }
+        writeVarInt(bytes.length);
+        fOutStream.write(bytes);
+    }
+
+    /**
+     * 真偽値の並びを 1 つの可変長整数にまとめて書き出します。
+     * 
+     * @param argFlags
+     *            真偽値の並び。先頭が最下位ビットとなります。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeFlags(final boolean... argFlags) throws IOException {
+        int flags = 0;
+        for (int index = 0; index < argFlags.length; index++) {
+            if (argFlags[index]) {
+                flags |= (1 << index);
+            }
+        }
+        writeVarInt(flags);
+    }
+
+    /**
+     * 0 以上の整数を、7 ビットずつの可変長形式で書き出します。
+     * 
+     * @param argValue
+     *            0 以上の整数。
+     * @throws IOException
+     *             入出力例外が発生した場合。
+     */
+    private void writeVarInt(final int argValue) throws IOException {
+        if (argValue < 0) {
+            throw new IllegalArgumentException(
+                    "BlancoCgModelWriter: 負の値(" + argValue
+                            + ")は書き出せません。");
+        }
+        int value = argValue;
+        while ((value & ~0x7f) != 0) {
+            fOutStream.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        fOutStream.writeByte(value);
+    }
+}
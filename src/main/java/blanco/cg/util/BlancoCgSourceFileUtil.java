@@ -30,13 +30,19 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import blanco.cg.resourcebundle.BlancoCgResourceBundle;
 
 /**
  * blancoCg のソースファイル用のユーティリティ・クラス。
  * 
+ * デフォルトのファイル・コメントは一度読み込んだ内容を保持し、ファイルの更新日時やサイズが変わった場合にのみ読み込み直します。<br>
+ * 更新日時やサイズの確認はロックを用いずに、一定の間隔をおいておこないます。
+ * 
  * @author IGA Tosiki
  */
 public class BlancoCgSourceFileUtil {
@@ -45,6 +51,16 @@ public class BlancoCgSourceFileUtil {
      */
     protected static final BlancoCgResourceBundle fBundle = new BlancoCgResourceBundle();
 
+    /**
+     * ファイル・コメントの更新日時やサイズを確認し直すまでの間隔(ナノ秒)。
+     */
+    private static final long HEADER_CHECK_INTERVAL = 1000L * 1000L * 1000L;
+
+    /**
+     * 読み込み済みのファイル・コメント。未読み込みの場合には null。
+     */
+    private static volatile HeaderCache fHeaderCache = null;
+
     /**
      * デフォルトのファイル・コメントの取得。
      * 
@@ -57,14 +73,108 @@ public class BlancoCgSourceFileUtil {
      * @return デフォルトのファイル・コメントの配列。
      */
     public static List<String> getDefaultFileComment() {
+        return new ArrayList<String>(getHeaderLines());
+    }
+
+    /**
+     * 各行の先頭に指定の文字列を付与したデフォルトのファイル・コメントの取得。
+     * 
+     * 付与済みの結果は、行の先頭に付与する文字列ごとに保持して再利用します。
+     * 
+     * @param argLinePrefix
+     *            各行の先頭に付与する文字列。例: "// "
+     * @return デフォルトのファイル・コメントの配列。変更することはできません。
+     */
+    public static List<String> getDefaultFileComment(final String argLinePrefix) {
+        if (argLinePrefix == null) {
+            throw new IllegalArgumentException(
+                    "行の先頭に付与する文字列にnullが与えられました。処理中断します。");
+        }
+
+        final HeaderCache cache = getHeaderCache(new File(fBundle
+                .getFileHeaderPath()), HEADER_CHECK_INTERVAL);
+        List<String> rendered = cache.fRenderedMap.get(argLinePrefix);
+        if (rendered == null) {
+            final List<String> lines = new ArrayList<String>(cache.fLines
+                    .size());
+            for (String line : cache.fLines) {
+                lines.add(argLinePrefix + line);
+            }
+            rendered = Collections.unmodifiableList(lines);
+            final List<String> existing = cache.fRenderedMap.putIfAbsent(
+                    argLinePrefix, rendered);
+            if (existing != null) {
+                rendered = existing;
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * 読み込み済みのファイル・コメントを取得します。
+     * 
+     * ファイルのパス、更新日時、サイズのいずれかが前回の読み込みから変わっている場合には読み込み直します。<br>
+     * 更新日時とサイズの確認は、前回の確認から一定の間隔が経過した場合にのみおこないます。
+     * 
+     * @return ファイル・コメントの配列。変更することはできません。
+     */
+    static List<String> getHeaderLines() {
+        return getHeaderCache(new File(fBundle.getFileHeaderPath()),
+                HEADER_CHECK_INTERVAL).fLines;
+    }
+
+    /**
+     * 読み込み済みのファイル・コメントを取得します。
+     * 
+     * ファイルの状態の確認と読み込みはロックを用いずにおこないます。複数のスレッドが同時に読み込み直した場合には、いずれかの結果を保持します。
+     * 
+     * @param argFile
+     *            ファイル・コメントのファイル。
+     * @param argCheckInterval
+     *            更新日時とサイズを確認し直すまでの間隔(ナノ秒)。
+     * @return 読み込み済みのファイル・コメント。
+     */
+    static HeaderCache getHeaderCache(final File argFile,
+            final long argCheckInterval) {
+        final HeaderCache cache = fHeaderCache;
+        final String path = argFile.getPath();
+        final long now = System.nanoTime();
+        if (cache != null && path.equals(cache.fPath)
+                && now - cache.fCheckedAt < argCheckInterval) {
+            return cache;
+        }
+
+        final long lastModified = argFile.lastModified();
+        final long length = argFile.length();
+        if (cache != null && path.equals(cache.fPath)
+                && lastModified == cache.fLastModified
+                && length == cache.fLength) {
+            cache.fCheckedAt = now;
+            return cache;
+        }
+
+        final HeaderCache newCache = new HeaderCache(path, lastModified,
+                length, Collections.unmodifiableList(readHeaderLines(argFile)),
+                now);
+        fHeaderCache = newCache;
+        return newCache;
+    }
+
+    /**
+     * ファイル・コメントを読み込みます。
+     * 
+     * @param argFile
+     *            ファイル・コメントのファイル。
+     * @return ファイル・コメントの配列。
+     */
+    private static List<String> readHeaderLines(final File argFile) {
         final List<String> result = new ArrayList<String>();
         try {
-            final File file = new File(fBundle.getFileHeaderPath());
-            if (file.exists() == true && file.isFile() && file.canRead()) {
+            if (argFile.isFile() && argFile.canRead()) {
                 BufferedReader reader = null;
                 try {
                     reader = new BufferedReader(new InputStreamReader(
-                            new FileInputStream(file), "UTF-8"));
+                            new FileInputStream(argFile), "UTF-8"));
                     for (;;) {
                         final String line = reader.readLine();
                         if (line == null) {
@@ -87,4 +197,63 @@ public class BlancoCgSourceFileUtil {
 
         return result;
     }
+
+    /**
+     * 読み込み済みのファイル・コメントです。
+     */
+    static final class HeaderCache {
+        /**
+         * ファイル・コメントのパス。
+         */
+        final String fPath;
+
+        /**
+         * 読み込んだ時点の更新日時。ファイルが存在しない場合には 0。
+         */
+        final long fLastModified;
+
+        /**
+         * 読み込んだ時点のサイズ。ファイルが存在しない場合には 0。
+         */
+        final long fLength;
+
+        /**
+         * ファイル・コメントの配列。
+         */
+        final List<String> fLines;
+
+        /**
+         * 行の先頭に付与する文字列ごとの、付与済みのファイル・コメント。
+         */
+        final ConcurrentMap<String, List<String>> fRenderedMap = new ConcurrentHashMap<String, List<String>>();
+
+        /**
+         * 更新日時とサイズを最後に確認した時刻(ナノ秒)。
+         */
+        volatile long fCheckedAt;
+
+        /**
+         * 読み込み済みのファイル・コメントを作成します。
+         * 
+         * @param argPath
+         *            ファイル・コメントのパス。
+         * @param argLastModified
+         *            読み込んだ時点の更新日時。
+         * @param argLength
+         *            読み込んだ時点のサイズ。
+         * @param argLines
+         *            ファイル・コメントの配列。
+         * @param argCheckedAt
+         *            更新日時とサイズを確認した時刻(ナノ秒)。
+         */
+        HeaderCache(final String argPath, final long argLastModified,
+                final long argLength, final List<String> argLines,
+                final long argCheckedAt) {
+            fPath = argPath;
+            fLastModified = argLastModified;
+            fLength = argLength;
+            fLines = argLines;
+            fCheckedAt = argCheckedAt;
+        }
+    }
 }
@@ -24,14 +24,7 @@
  */
 package blanco.cg.util;
 
-import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
-
 import blanco.cg.BlancoCgSupportedLang;
-import blanco.commons.util.BlancoJavaSourceUtil;
-import blanco.commons.util.BlancoPhpSourceUtil;
-import blanco.commons.util.BlancoVbSourceUtil;
 
 /**
  * blancoCgのソースコード関連ユーティリティです。
@@ -45,7 +38,8 @@ public class BlancoCgSourceUtil {
      * 与えられた文字列をソースコード文字列として出力するものとしてエスケープ処理します。
      * 
      * ￥/バックスラッシュのエスケープおよび改行コードのエスケープを行います。<br>
-     * それ以外の処理は行いません。たとえばインジェクション攻撃などへの耐性は、このメソッドは扱いません。
+     * それ以外の処理は行いません。たとえばインジェクション攻撃などへの耐性は、このメソッドは扱いません。<br>
+     * エスケープが必要な文字が含まれない場合には、入力文字列そのものを戻します。
      * 
      * @param targetLang
      *            出力対象のプログラミング言語。
@@ -55,20 +49,82 @@ public class BlancoCgSourceUtil {
      */
     public static String escapeStringAsSource(final int targetLang,
             final String originalString) {
+        return getSourceEscaper(targetLang).escape(originalString);
+    }
+
+    /**
+     * 与えられた文字列をソースコード文字列として出力するものとしてエスケープ処理し、呼び出し元の StringBuilder へ追加します。
+     * 
+     * @param targetLang
+     *            出力対象のプログラミング言語。
+     * @param originalString
+     *            入力文字列。
+     * @param buf
+     *            追加先。
+     */
+    public static void escapeStringAsSource(final int targetLang,
+            final String originalString, final StringBuilder buf) {
+        getSourceEscaper(targetLang).escape(originalString, buf);
+    }
+
+    /**
+     * 与えられた文字列を言語ドキュメント文字列として扱うことができるように エスケープ処理します。
+     * 
+     * JavaDoc文字列としてエスケープを行います。 HTMLとしてのエスケープと同等の処理が行われます。＜＞＆”がエスケープされます。<br>
+     * エスケープが必要な文字が含まれない場合には、入力文字列そのものを戻します。
+     * 
+     * @param targetLang
+     *            出力対象のプログラミング言語。
+     * @param originalString
+     *            入力文字列
+     * @return エスケープ処理が行われた後の文字列。
+     */
+    public static final String escapeStringAsLangDoc(final int targetLang,
+            final String originalString) {
+        return getLangDocEscaper(targetLang).escape(originalString);
+    }
+
+    /**
+     * 与えられた文字列を言語ドキュメント文字列としてエスケープ処理し、呼び出し元の StringBuilder へ追加します。
+     * 
+     * @param targetLang
+     *            出力対象のプログラミング言語。
+     * @param originalString
+     *            入力文字列
+     * @param buf
+     *            追加先。
+     */
+    public static final void escapeStringAsLangDoc(final int targetLang,
+            final String originalString, final StringBuilder buf) {
+        getLangDocEscaper(targetLang).escape(originalString, buf);
+    }
+
+    /**
+     * ソースコード文字列のためのエスケープ処理を取得します。
+     * 
+     * @param targetLang
+     *            出力対象のプログラミング言語。
+     * @return エスケープ処理。
+     */
+    static BlancoCgStringEscaper getSourceEscaper(final int targetLang) {
         switch (targetLang) {
         case BlancoCgSupportedLang.JAVA:
         case BlancoCgSupportedLang.CS:
         case BlancoCgSupportedLang.JS:
-            return BlancoJavaSourceUtil
-                    .escapeStringAsJavaSource(originalString);
+        case BlancoCgSupportedLang.CPP11:
+        case BlancoCgSupportedLang.SWIFT:
+            // いずれもダブルクオートで囲む文字列リテラルで、バックスラッシュによるエスケープを利用します。
+            return BlancoCgStringEscaper.JAVA_SOURCE;
         case BlancoCgSupportedLang.VB:
-            return BlancoVbSourceUtil.escapeStringAsVbSource(originalString);
+            return BlancoCgStringEscaper.VB_SOURCE;
         case BlancoCgSupportedLang.PHP:
-        case BlancoCgSupportedLang.RUBY: // TODO 妥当性の確認
-        case BlancoCgSupportedLang.PYTHON: // TODO 妥当性の確認
-            return BlancoPhpSourceUtil.escapeStringAsPhpSource(originalString);
-        case BlancoCgSupportedLang.DELPHI: // TODO 妥当性の確認
-            return escapeStringAsDelphiSource(originalString);
+        case BlancoCgSupportedLang.PYTHON:
+            // いずれもシングルクオートで囲む文字列リテラルです。
+            return BlancoCgStringEscaper.PHP_SOURCE;
+        case BlancoCgSupportedLang.RUBY:
+            return BlancoCgStringEscaper.RUBY_SOURCE;
+        case BlancoCgSupportedLang.DELPHI:
+            return BlancoCgStringEscaper.DELPHI_SOURCE;
         default:
             throw new IllegalArgumentException(
                     "BlancoCgSourceUtil.escapeAsSourceString にサポートされない言語("
@@ -77,18 +133,13 @@ public class BlancoCgSourceUtil {
     }
 
     /**
-     * 与えられた文字列を言語ドキュメント文字列として扱うことができるように エスケープ処理します。
-     * 
-     * JavaDoc文字列としてエスケープを行います。 HTMLとしてのエスケープと同等の処理が行われます。＜＞＆”がエスケープされます。
+     * 言語ドキュメント文字列のためのエスケープ処理を取得します。
      * 
      * @param targetLang
      *            出力対象のプログラミング言語。
-     * @param originalString
-     *            入力文字列
-     * @return エスケープ処理が行われた後の文字列。
+     * @return エスケープ処理。
      */
-    public static final String escapeStringAsLangDoc(final int targetLang,
-            final String originalString) {
+    static BlancoCgStringEscaper getLangDocEscaper(final int targetLang) {
         switch (targetLang) {
         case BlancoCgSupportedLang.JAVA:
         case BlancoCgSupportedLang.CS:
@@ -98,62 +149,13 @@ public class BlancoCgSourceUtil {
         case BlancoCgSupportedLang.RUBY:
         case BlancoCgSupportedLang.PYTHON:
         case BlancoCgSupportedLang.DELPHI:
+        case BlancoCgSupportedLang.CPP11:
         case BlancoCgSupportedLang.SWIFT:
-            return BlancoJavaSourceUtil.escapeStringAsJavaDoc(originalString);
+            return BlancoCgStringEscaper.LANG_DOC;
         default:
             throw new IllegalArgumentException(
                     "BlancoCgSourceUtil.escapeStringAsLangDoc にサポートされない言語("
                             + targetLang + ")が引数として与えられました。");
         }
     }
-    
-    /**
-     * 与えられた文字列をDelphiソースコード文字列として出力するためのエスケープ処理をします。
-     * 
-     * ￥/バックスラッシュのエスケープおよび改行コードのエスケープを行います。<br>
-     * それ以外の処理は行いません。たとえばインジェクション攻撃などへの耐性は、このメソッドは扱いません。
-     * 
-     * @param originalString
-     *            入力文字列
-     * @return エスケープ処理が行われた後の文字列
-     */
-    private static final String escapeStringAsDelphiSource(
-            final String originalString) {
-        if (originalString == null) {
-            throw new IllegalArgumentException(
-                    "BlancoCgSourceUtil.escapeStringAsDelphiSourceで入力違反が発生。このメソッドにnullがパラメータとして与えられました。null以外の値を入力してください。");
-        }
-
-        final StringReader reader = new StringReader(originalString);
-        final StringWriter writer = new StringWriter();
-        try {
-            for (;;) {
-                final int iRead = reader.read();
-                if (iRead < 0) {
-                    break;
-                }
-                switch (iRead) {
-                // Delphi言語では、バックスラッシュをエスケープする必要がありません。
-//                case '\\':
-//                    writer.write("\\");
-//                    break;
-                case '\n':
-                    writer.write("\\n");
-                    break;
-                case '\'':
-                    writer.write("\'\'");
-                    break;
-                default:
-                    writer.write((char) iRead);
-                    break;
-                }
-            }
-            writer.flush();
-        } catch (IOException e) {
-            // ここに入ってくることは、ありえません。
-            e.printStackTrace();
-        }
-        return writer.toString();
-    }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,270 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+/**
+ * 文字列をソースコードや言語ドキュメントとして出力するためにエスケープ処理するクラスです。
+ *
+ * まず文字列を走査して、エスケープが必要な文字が 1 つも含まれない場合には与えられた文字列そのものを戻します。<br>
+ * エスケープが必要な場合には、エスケープの不要な区間をまとめて追加しながら、呼び出し元が与えた StringBuilder へ追加します。<br>
+ * インスタンスは状態を変更しないため、複数のスレッドから同時に利用できます。
+ *
+ * @author IGA Tosiki
+ */
+final class BlancoCgStringEscaper {
+    /**
+     * 置換表で扱う文字の範囲。この値未満の文字は表を引いて判定します。
+     */
+    private static final int TABLE_SIZE = 128;
+
+    /**
+     * Java, C#, JavaScript, C++11, Swift のダブルクオートで囲まれる文字列リテラルのためのエスケープ。
+     */
+    static final BlancoCgStringEscaper JAVA_SOURCE = new BlancoCgStringEscaper(
+            "escapeStringAsJavaSource", new char[] { '\\', '\n', '"' },
+            new String[] { "\\\\", "\\n", "\\\"" });
+
+    /**
+     * VB.NET の文字列リテラルのためのエスケープ。
+     *
+     * 全角のダブルクオート(0xff02)もダブルクオートとして扱われるため、エスケープの対象とします。
+     */
+    static final BlancoCgStringEscaper VB_SOURCE = new BlancoCgStringEscaper(
+            "escapeStringAsVbSource", new char[] { '\\', '\n', '"', '\uff02' },
+            new String[] { "\\\\", "\\n", "\"\"", "\"\uff02" });
+
+    /**
+     * PHP, Python のシングルクオートで囲まれる文字列リテラルのためのエスケープ。
+     *
+     * Python のシングルクオートの文字列リテラルでは \n が改行として解釈されます。
+     */
+    static final BlancoCgStringEscaper PHP_SOURCE = new BlancoCgStringEscaper(
+            "escapeStringAsPhpSource", new char[] { '\\', '\n', '\'' },
+            new String[] { "\\\\", "\\n", "\\'" });
+
+    /**
+     * Ruby のダブルクオートで囲まれる文字列リテラルのためのエスケープ。
+     *
+     * Ruby のシングルクオートの文字列リテラルでは \n が改行として解釈されないため、ダブルクオートで囲みます。<br>
+     * 式展開(#{...} など)を避けるため、# もエスケープします。
+     */
+    static final BlancoCgStringEscaper RUBY_SOURCE = new BlancoCgStringEscaper(
+            "escapeStringAsRubySource", new char[] { '\\', '\n', '\r', '"',
+                    '#' }, new String[] { "\\\\", "\\n", "\\r", "\\\"",
+                    "\\#" });
+
+    /**
+     * Delphi の文字列リテラルのためのエスケープ。
+     *
+     * Delphi言語では、バックスラッシュをエスケープする必要がありません。
+     */
+    static final BlancoCgStringEscaper DELPHI_SOURCE = new BlancoCgStringEscaper(
+            "escapeStringAsDelphiSource", new char[] { '\n', '\'' },
+            new String[] { "\\n", "''" });
+
+    /**
+     * 言語ドキュメントのためのエスケープ。HTMLとしてのエスケープと同等の処理がおこなわれます。
+     */
+    static final BlancoCgStringEscaper LANG_DOC = new BlancoCgStringEscaper(
+            "escapeStringAsLangDoc", new char[] { '&', '<', '>', '"', '\n' },
+            new String[] { "&amp;", "&lt;", "&gt;", "&quot;", "\\n" });
+
+    /**
+     * 入力違反の際の例外メッセージに利用するエスケープ処理の名前。
+     */
+    private final String fName;
+
+    /**
+     * TABLE_SIZE 未満の文字についての置換表。エスケープが不要な文字は null。
+     */
+    private final String[] fTable = new String[TABLE_SIZE];
+
+    /**
+     * TABLE_SIZE 以上でエスケープが必要な文字の一覧。
+     */
+    private final char[] fOtherChars;
+
+    /**
+     * fOtherChars に対応する置換後の文字列の一覧。
+     */
+    private final String[] fOtherReplacements;
+
+    /**
+     * エスケープ処理を作成します。
+     *
+     * @param argName
+     *            エスケープ処理の名前。
+     * @param argChars
+     *            エスケープが必要な文字の一覧。
+     * @param argReplacements
+     *            それぞれの文字の置換後の文字列。
+     */
+    private BlancoCgStringEscaper(final String argName, final char[] argChars,
+            final String[] argReplacements) {
+        fName = argName;
+
+        int otherCount = 0;
+        for (int index = 0; index < argChars.length; index++) {
+            if (argChars[index] >= TABLE_SIZE) {
+                otherCount++;
+            }
+        }
+        fOtherChars = new char[otherCount];
+        fOtherReplacements = new String[otherCount];
+
+        int otherIndex = 0;
+        for (int index = 0; index < argChars.length; index++) {
+            if (argChars[index] < TABLE_SIZE) {
+                fTable[argChars[index]] = argReplacements[index];
+            } else {
+                fOtherChars[otherIndex] = argChars[index];
+                fOtherReplacements[otherIndex] = argReplacements[index];
+                otherIndex++;
+            }
+        }
+    }
+
+    /**
+     * 与えられた文字列をエスケープ処理します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     * @return エスケープ処理が行われた後の文字列。エスケープが不要な場合には入力文字列そのもの。
+     */
+    String escape(final String argOriginalString) {
+        checkInput(argOriginalString);
+
+        final int firstIndex = indexOfEscape(argOriginalString);
+        if (firstIndex < 0) {
+            // エスケープが必要な文字は含まれませんでした。
+            return argOriginalString;
+        }
+
+        final StringBuilder buf = new StringBuilder(
+                argOriginalString.length() + 16);
+        appendEscaped(argOriginalString, firstIndex, buf);
+        return buf.toString();
+    }
+
+    /**
+     * 与えられた文字列をエスケープ処理して、呼び出し元の StringBuilder へ追加します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     * @param argBuf
+     *            追加先。
+     */
+    void escape(final String argOriginalString, final StringBuilder argBuf) {
+        checkInput(argOriginalString);
+        if (argBuf == null) {
+            throw new IllegalArgumentException("BlancoCgStringEscaper." + fName
+                    + "で入力違反が発生。追加先にnullが与えられました。");
+        }
+
+        final int firstIndex = indexOfEscape(argOriginalString);
+        if (firstIndex < 0) {
+            argBuf.append(argOriginalString);
+            return;
+        }
+        appendEscaped(argOriginalString, firstIndex, argBuf);
+    }
+
+    /**
+     * 入力文字列を検査します。
+     *
+     * @param argOriginalString
+     *            入力文字列。
+     */
+    private void checkInput(final String argOriginalString) {
+        if (argOriginalString == null) {
+            throw new IllegalArgumentException(
+                    "BlancoCgStringEscaper."
+                            + fName
+                            + "で入力違反が発生。このメソッドにnullがパラメータとして与えられました。null以外の値を入力してください。");
+        }
+    }
+
+    /**
+     * エスケープが必要な最初の文字の位置を取得します。
+     *
+     * @param argString
+     *            入力文字列。
+     * @return エスケープが必要な最初の文字の位置。含まれない場合には -1。
+     */
+    private int indexOfEscape(final String argString) {
+        final int length = argString.length();
+        for (int index = 0; index < length; index++) {
+            if (getReplacement(argString.charAt(index)) != null) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 指定の位置以降をエスケープ処理しながら追加します。指定の位置より前はそのまま追加します。
+     *
+     * @param argString
+     *            入力文字列。
+     * @param argFirstIndex
+     *            エスケープが必要な最初の文字の位置。
+     * @param argBuf
+     *            追加先。
+     */
+    private void appendEscaped(final String argString,
+            final int argFirstIndex, final StringBuilder argBuf) {
+        final int length = argString.length();
+        int runStart = 0;
+        for (int index = argFirstIndex; index < length; index++) {
+            final String replacement = getReplacement(argString.charAt(index));
+            if (replacement != null) {
+                // エスケープの不要な区間は、まとめて追加します。
+                argBuf.append(argString, runStart, index);
+                argBuf.append(replacement);
+                runStart = index + 1;
+            }
+        }
+        argBuf.append(argString, runStart, length);
+    }
+
+    /**
+     * 文字に対応する置換後の文字列を取得します。
+     *
+     * @param argChar
+     *            文字。
+     * @return 置換後の文字列。エスケープが不要な場合には null。
+     */
+    private String getReplacement(final char argChar) {
+        if (argChar < TABLE_SIZE) {
+            return fTable[argChar];
+        }
+        for (int index = 0; index < fOtherChars.length; index++) {
+            if (fOtherChars[index] == argChar) {
+                return fOtherReplacements[index];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import blanco.cg.valueobject.BlancoCgType;
+import blanco.commons.util.BlancoNameUtil;
+
+/**
+ * 型名の解析結果や、パッケージ名を除去した型名、プログラミング言語ごとの型の文字列を共有するための表です。
+ *
+ * 同じ型名を何度も解析・変換することを避け、解析結果の文字列は同じ型名ごとに 1 つのインスタンスを共有します。<br>
+ * BlancoCgType は生成後に配列やジェネリクスが設定される変更可能なオブジェクトであるため、型そのものではなく型名の文字列を共有します。<br>
+ * 表は複数のスレッドから同時に利用できます。<br>
+ * 表はプロセス全体で共有し、いちど追加した内容は削除しません。保持する件数が上限に達した後は、表に追加せずにその都度 解析・変換します。
+ * この場合も結果は変わりませんが、上限を超えた分の型名は共有されません。
+ * 1 回の生成で扱う型名の種類はモデルの語彙に限られるため、通常は上限に達しません。
+ * 長時間動作するプロセスで多数の異なるモデルを変換する場合には、先に現れた型名が表を占有する点に注意してください。
+ *
+ * @author IGA Tosiki
+ */
+public final class BlancoCgTypeNameTable {
+    /**
+     * 表ごとに保持する件数の上限。上限に達した表には、それ以降 追加しません。
+     */
+    private static final int MAX_ENTRY_COUNT = 8192;
+
+    /**
+     * ジェネリクスを含む型名から、解析結果への表。
+     */
+    private static final ConcurrentMap<String, TypeName> TYPE_NAME_TABLE = new ConcurrentHashMap<String, TypeName>();
+
+    /**
+     * パッケージ名付きの型名から、パッケージ名を除去した型名への表。
+     */
+    private static final ConcurrentMap<String, String> SHORT_NAME_TABLE = new ConcurrentHashMap<String, String>();
+
+    /**
+     * プログラミング言語・型名・ジェネリクス・配列の次元から、型の文字列への表。
+     */
+    private static final ConcurrentMap<TypeStringKey, String> TYPE_STRING_TABLE = new ConcurrentHashMap<TypeStringKey, String>();
+
+    /**
+     * このクラスはインスタンスを作成しません。
+     */
+    private BlancoCgTypeNameTable() {
+    }
+
+    /**
+     * ジェネリクスを含む型名から、ジェネリクスを除いた型名を取得します。
+     *
+     * @param argFullType
+     *            ジェネリクスを含む型名。例: java.util.List&lt;java.lang.String&gt;
+     * @return ジェネリクスを除いた型名。例: java.util.List
+     */
+    public static String getTypeNameWithoutGenerics(final String argFullType) {
+        return getTypeName(argFullType).fName;
+    }
+
+    /**
+     * ジェネリクスを含む型名から、ジェネリクスの部分を取得します。
+     *
+     * @param argFullType
+     *            ジェネリクスを含む型名。例: java.util.List&lt;java.lang.String&gt;
+     * @return ジェネリクスの部分。例: &lt;java.lang.String&gt; ジェネリクスを含まない場合には null。
+     */
+    public static String getGenericsFromFullName(final String argFullType) {
+        return getTypeName(argFullType).fGenerics;
+    }
+
+    /**
+     * パッケージ名付きの型名から、パッケージ名を除去した型名を取得します。
+     *
+     * 結果は {@link BlancoNameUtil#trimJavaPackage(String)} と同じです。
+     *
+     * @param argClassName
+     *            パッケージ名付きの型名。
+     * @return パッケージ名を除去した型名。
+     */
+    public static String trimJavaPackage(final String argClassName) {
+        if (argClassName == null) {
+            // 例外の内容を揃えるため、そのまま委譲します。
+            return BlancoNameUtil.trimJavaPackage(argClassName);
+        }
+
+        String shortName = SHORT_NAME_TABLE.get(argClassName);
+        if (shortName == null) {
+            shortName = BlancoNameUtil.trimJavaPackage(argClassName);
+            if (SHORT_NAME_TABLE.size() < MAX_ENTRY_COUNT) {
+                SHORT_NAME_TABLE.putIfAbsent(argClassName, shortName);
+            }
+        }
+        return shortName;
+    }
+
+    /**
+     * 展開済みの型の文字列を取得します。
+     *
+     * 型名・ジェネリクス・配列の次元が同じ型には、同じ文字列を戻します。
+     *
+     * @param argTargetLang
+     *            出力先のプログラミング言語。BlancoCgSupportedLangの値です。
+     * @param argType
+     *            blancoCg上の型。
+     * @return 型の文字列。まだ展開していない場合には null。
+     */
+    public static String getTypeString(final int argTargetLang,
+            final BlancoCgType argType) {
+        if (argType.getName() == null) {
+            // 型名の無い型は共有しません。
+            return null;
+        }
+        return TYPE_STRING_TABLE.get(new TypeStringKey(argTargetLang, argType));
+    }
+
+    /**
+     * 展開した型の文字列を表に追加します。
+     *
+     * @param argTargetLang
+     *            出力先のプログラミング言語。BlancoCgSupportedLangの値です。
+     * @param argType
+     *            blancoCg上の型。
+     * @param argTypeString
+     *            展開した型の文字列。
+     * @return 共有する型の文字列。既に追加済みの場合には、追加済みの文字列を戻します。
+     */
+    public static String putTypeString(final int argTargetLang,
+            final BlancoCgType argType, final String argTypeString) {
+        if (argType.getName() == null
+                || TYPE_STRING_TABLE.size() >= MAX_ENTRY_COUNT) {
+            return argTypeString;
+        }
+        final String existing = TYPE_STRING_TABLE.putIfAbsent(
+                new TypeStringKey(argTargetLang, argType), argTypeString);
+        return (existing == null ? argTypeString : existing);
+    }
+
+    /**
+     * ジェネリクスを含む型名の解析結果を取得します。
+     *
+     * @param argFullType
+     *            ジェネリクスを含む型名。
+     * @return 解析結果。
+     */
+    private static TypeName getTypeName(final String argFullType) {
+        if (argFullType == null) {
+            throw new IllegalArgumentException("型名にnullが与えられました。処理中断します。");
+        }
+
+        TypeName typeName = TYPE_NAME_TABLE.get(argFullType);
+        if (typeName == null) {
+            typeName = new TypeName(argFullType);
+            if (TYPE_NAME_TABLE.size() < MAX_ENTRY_COUNT) {
+                final TypeName existing = TYPE_NAME_TABLE.putIfAbsent(
+                        argFullType, typeName);
+                if (existing != null) {
+                    typeName = existing;
+                }
+            }
+        }
+        return typeName;
+    }
+
+    /**
+     * ジェネリクスを含む型名の解析結果です。
+     */
+    private static final class TypeName {
+        /**
+         * ジェネリクスを除いた型名。
+         */
+        private final String fName;
+
+        /**
+         * ジェネリクスの部分。ジェネリクスを含まない場合には null。
+         */
+        private final String fGenerics;
+
+        /**
+         * 型名を解析します。
+         *
+         * @param argFullType
+         *            ジェネリクスを含む型名。
+         */
+        TypeName(final String argFullType) {
+            final int find = argFullType.indexOf('<');
+            if (find > 0) {
+                fName = argFullType.substring(0, find);
+                fGenerics = argFullType.substring(find);
+            } else {
+                fName = argFullType;
+                fGenerics = null;
+            }
+        }
+    }
+
+    /**
+     * 型の文字列の表のキーです。
+     */
+    private static final class TypeStringKey {
+        /**
+         * 出力先のプログラミング言語。
+         */
+        private final int fTargetLang;
+
+        /**
+         * 型名。
+         */
+        private final String fName;
+
+        /**
+         * ジェネリクス。ジェネリクスを含まない場合には空文字列。
+         */
+        private final String fGenerics;
+
+        /**
+         * 配列の次元。配列でない場合には -1。
+         */
+        private final int fArrayDimension;
+
+        /**
+         * キーを作成します。
+         *
+         * @param argTargetLang
+         *            出力先のプログラミング言語。
+         * @param argType
+         *            blancoCg上の型。
+         */
+        TypeStringKey(final int argTargetLang, final BlancoCgType argType) {
+            fTargetLang = argTargetLang;
+            fName = argType.getName();
+            fGenerics = (argType.getGenerics() == null ? "" : argType
+                    .getGenerics());
+            fArrayDimension = (argType.getArray() ? argType
+                    .getArrayDimension() : -1);
+        }
+
+        public boolean equals(final Object argObject) {
+            if (argObject instanceof TypeStringKey == false) {
+                return false;
+            }
+            final TypeStringKey key = (TypeStringKey) argObject;
+            return fTargetLang == key.fTargetLang
+                    && fArrayDimension == key.fArrayDimension
+                    && fName.equals(key.fName)
+                    && fGenerics.equals(key.fGenerics);
+        }
+
+        public int hashCode() {
+            int hash = fTargetLang;
+            hash = hash * 31 + fName.hashCode();
+            hash = hash * 31 + fGenerics.hashCode();
+            hash = hash * 31 + fArrayDimension;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+/*
+ * Copyright 2017 Toshiki Iga
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blanco.cg.util;
+
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgException;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgReturn;
+
+/**
+ * blancoCg のバリューオブジェクトのツリーを巡回する際に、個々のバリューオブジェクトを受け取るビジターです。
+ * 
+ * 巡回は BlancoCgModelWalker がおこないます。ビジターの各メソッドは、ソースコードに展開される順に呼び出されます。<br>
+ * import対象の収集など、本体部の展開に先立ってバリューオブジェクトのツリー全体を参照する処理に利用します。
+ * 
+ * @author IGA Tosiki
+ */
+public interface BlancoCgVisitor {
+    /**
+     * クラスを受け取ります。クラスに含まれる列挙体・フィールド・メソッドよりも先に呼び出されます。
+     * 
+     * @param argClass
+     *            クラス。
+     */
+    void visitClass(final BlancoCgClass argClass);
+
+    /**
+     * インタフェースを受け取ります。インタフェースに含まれるフィールド・メソッドよりも先に呼び出されます。
+     * 
+     * @param argInterface
+     *            インタフェース。
+     */
+    void visitInterface(final BlancoCgInterface argInterface);
+
+    /**
+     * 列挙体を受け取ります。
+     * 
+     * @param argEnum
+     *            列挙体。
+     */
+    void visitEnum(final BlancoCgEnum argEnum);
+
+    /**
+     * フィールドを受け取ります。
+     * 
+     * @param argField
+     *            フィールド。
+     */
+    void visitField(final BlancoCgField argField);
+
+    /**
+     * メソッドを受け取ります。メソッドのパラメータ・戻り値・例外よりも先に呼び出されます。
+     * 
+     * @param argMethod
+     *            メソッド。
+     */
+    void visitMethod(final BlancoCgMethod argMethod);
+
+    /**
+     * メソッドのパラメータを受け取ります。
+     * 
+     * @param argParameter
+     *            パラメータ。
+     */
+    void visitParameter(final BlancoCgParameter argParameter);
+
+    /**
+     * メソッドの戻り値を受け取ります。戻り値の指定のないメソッドでは呼び出されません。
+     * 
+     * @param argReturn
+     *            戻り値。
+     */
+    void visitReturn(final BlancoCgReturn argReturn);
+
+    /**
+     * メソッドが送出する例外を受け取ります。
+     * 
+     * @param argException
+     *            例外。
+     */
+    void visitException(final BlancoCgException argException);
+}
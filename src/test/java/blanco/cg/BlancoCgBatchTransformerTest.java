@@ -0,0 +1,302 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.BlancoCgBatchTransformer;
+import blanco.cg.transformer.BlancoCgMemoryOutputSink;
+import blanco.cg.transformer.BlancoCgTransformEvent;
+import blanco.cg.transformer.BlancoCgTransformManifest;
+import blanco.cg.transformer.BlancoCgTransformResult;
+import blanco.cg.transformer.BlancoCgTransformStatistics;
+import blanco.cg.transformer.BlancoCgTransformerFactory;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.util.BlancoCgFingerprintUtil;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.commons.util.BlancoFileUtil;
+
+/**
+ * 一括変換の試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgBatchTransformerTest extends TestCase {
+    /**
+     * 複数のソースファイルを並列に変換する試験。
+     *
+     * @throws Exception
+     */
+    public void testBatchTransform() throws Exception {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        for (int index = 0; index < 20; index++) {
+            // ソースファイルを生成します。
+            final BlancoCgSourceFile cgSourceFile = cgFactory
+                    .createSourceFile("myprog.batch" + (index % 3),
+                            "一括変換のためのクラス");
+            sourceFileList.add(cgSourceFile);
+
+            // クラスを生成します。
+            final BlancoCgClass cgClass = cgFactory.createClass("MyBatchClass"
+                    + index, "このクラスは、一括変換の試験のためのクラスです。");
+            cgSourceFile.getClassList().add(cgClass);
+
+            // メソッドを生成します。
+            final BlancoCgMethod cgMethod = cgFactory.createMethod(
+                    "myMethod", "メソッドの試験です。");
+            cgClass.getMethodList().add(cgMethod);
+            cgMethod.getParameterList().add(
+                    cgFactory.createParameter("argString",
+                            "java.lang.String", "文字列引数。"));
+            cgMethod.getLineList().add("System.out.println(argString);");
+        }
+
+        // クラスもインタフェースも含まないため、ファイル名が確定できず失敗するソースファイルです。
+        final BlancoCgSourceFile cgSourceFileError = cgFactory
+                .createSourceFile("myprog.batch", "ファイル名の確定できないソースファイル");
+        sourceFileList.add(cgSourceFileError);
+
+        final BlancoCgBatchTransformer batchTransformer = new BlancoCgBatchTransformer(
+                BlancoCgSupportedLang.JAVA, 4);
+        final List<BlancoCgTransformResult> resultList = batchTransformer
+                .transform(sourceFileList, new File("./tmp/blanco/batch"));
+
+        assertEquals(sourceFileList.size(), resultList.size());
+        for (int index = 0; index < 20; index++) {
+            final BlancoCgTransformResult result = resultList.get(index);
+            assertSame(sourceFileList.get(index), result.getSourceFile());
+            assertTrue(result.getStatus() != BlancoCgTransformResult.STATUS_FAILED);
+            assertTrue(result.getFile().isFile());
+        }
+
+        final BlancoCgTransformResult resultError = resultList.get(20);
+        assertEquals(BlancoCgTransformResult.STATUS_FAILED, resultError
+                .getStatus());
+        assertTrue(resultError.getException() instanceof IllegalArgumentException);
+    }
+
+    /**
+     * マニフェストを利用して、変化のないソースファイルの展開を省略する試験。
+     *
+     * @throws Exception
+     */
+    public void testIncrementalTransform() throws Exception {
+        final File outputDirectory = new File("./tmp/blanco/incremental");
+        deleteRecursive(outputDirectory);
+
+        final BlancoCgBatchTransformer batchTransformer = new BlancoCgBatchTransformer(
+                BlancoCgSupportedLang.JAVA, 2);
+
+        // 初回はすべてのファイルを生成します。
+        BlancoCgTransformManifest manifest = new BlancoCgTransformManifest(
+                outputDirectory);
+        List<BlancoCgTransformResult> resultList = batchTransformer.transform(
+                createSourceFileList("最初の説明"), outputDirectory, manifest);
+        for (BlancoCgTransformResult result : resultList) {
+            assertEquals(BlancoCgTransformResult.STATUS_CREATE, result
+                    .getStatus());
+        }
+        manifest.store();
+        assertTrue(new File(outputDirectory,
+                BlancoCgTransformManifest.MANIFEST_FILENAME).isFile());
+
+        // 利用者が出力済みのファイルを書き換えます。
+        final File fileTampered = resultList.get(1).getFile();
+        final FileOutputStream outStream = new FileOutputStream(fileTampered);
+        outStream.write("tampered".getBytes());
+        outStream.close();
+
+        // 同じ内容のバリューオブジェクトは展開を省略します。
+        manifest = new BlancoCgTransformManifest(outputDirectory);
+        // ジェネレータの外で書き換えられたファイルの記録は、比較に利用しません。
+        assertNull(manifest.getContentDigest(fileTampered));
+        final List<BlancoCgSourceFile> sourceFileList = createSourceFileList("最初の説明");
+        sourceFileList.get(2).getClassList().get(0).setDescription("変更後の説明");
+        resultList = batchTransformer.transform(sourceFileList,
+                outputDirectory, manifest);
+        assertEquals(BlancoCgTransformResult.STATUS_SKIP, resultList.get(0)
+                .getStatus());
+        // 書き換えられたファイルは再生成します。
+        assertEquals(BlancoCgTransformResult.STATUS_UPDATE, resultList.get(1)
+                .getStatus());
+        // 変更のあったバリューオブジェクトは再生成します。
+        assertEquals(BlancoCgTransformResult.STATUS_UPDATE, resultList.get(2)
+                .getStatus());
+
+        // 出力内容のダイジェストが記録されています。
+        for (BlancoCgTransformResult result : resultList) {
+            assertEquals(BlancoCgFingerprintUtil.createDigest(BlancoFileUtil
+                    .file2Bytes(result.getFile())), manifest
+                    .getContentDigest(result.getFile()));
+        }
+        manifest.store();
+    }
+
+    /**
+     * 指紋がバリューオブジェクトの項目の境界を区別する試験。
+     *
+     * @throws Exception
+     */
+    public void testFingerprint() throws Exception {
+        final List<BlancoCgSourceFile> sourceFileList = createSourceFileList("指紋の説明");
+        final String target = BlancoCgFingerprintUtil.class.getName();
+
+        // 同じ構造からは同じ指紋が作成されます。
+        assertEquals(BlancoCgFingerprintUtil.createFingerprint(sourceFileList
+                .get(0), target), BlancoCgFingerprintUtil.createFingerprint(
+                createSourceFileList("指紋の説明").get(0), target));
+
+        // 文字列表現では区別できない行リストの違いも、指紋では区別されます。
+        final BlancoCgMethod cgMethodJoined = BlancoCgObjectFactory
+                .getInstance().createMethod("myMethod", "メソッドです。");
+        cgMethodJoined.getLineList().add("a, b");
+        sourceFileList.get(0).getClassList().get(0).getMethodList().add(
+                cgMethodJoined);
+        final BlancoCgMethod cgMethodSplit = BlancoCgObjectFactory
+                .getInstance().createMethod("myMethod", "メソッドです。");
+        cgMethodSplit.getLineList().add("a");
+        cgMethodSplit.getLineList().add("b");
+        sourceFileList.get(1).getClassList().get(0).setName(
+                sourceFileList.get(0).getClassList().get(0).getName());
+        sourceFileList.get(1).getClassList().get(0).getMethodList().add(
+                cgMethodSplit);
+        assertEquals(sourceFileList.get(0).toString(), sourceFileList.get(1)
+                .toString());
+        assertFalse(BlancoCgFingerprintUtil.createFingerprint(
+                sourceFileList.get(0), target).equals(
+                BlancoCgFingerprintUtil.createFingerprint(sourceFileList
+                        .get(1), target)));
+
+        // ジェネレータのバージョンは必ず確定します。
+        assertTrue(BlancoCgTransformManifest.GENERATOR_VERSION.length() > 0);
+        // クラスディレクトリからの実行でも、クラスのダイジェストが付与されます。
+        assertTrue(BlancoCgTransformManifest.GENERATOR_VERSION.indexOf('+') > 0);
+    }
+
+    /**
+     * リスナーで変換の段階ごとの所要時間などを集計する試験。
+     *
+     * @throws Exception
+     */
+    public void testTransformStatistics() throws Exception {
+        final List<BlancoCgSourceFile> sourceFileList = createSourceFileList("集計の説明");
+        final BlancoCgSourceFile cgSourceFileError = BlancoCgObjectFactory
+                .getInstance().createSourceFile("myprog.batch",
+                        "ファイル名の確定できないソースファイル");
+        sourceFileList.add(cgSourceFileError);
+
+        final BlancoCgTransformStatistics statistics = new BlancoCgTransformStatistics();
+        final BlancoCgMemoryOutputSink sink = new BlancoCgMemoryOutputSink();
+        final List<BlancoCgTransformResult> resultList = new BlancoCgBatchTransformer(
+                BlancoCgSupportedLang.JAVA, 2).transform(sourceFileList, sink,
+                statistics);
+        assertEquals(BlancoCgTransformResult.STATUS_FAILED, resultList.get(3)
+                .getStatus());
+
+        assertEquals(4, statistics.getCount());
+        assertEquals(3, statistics
+                .getCount(BlancoCgTransformResult.STATUS_CREATE));
+        assertEquals(1, statistics
+                .getCount(BlancoCgTransformResult.STATUS_FAILED));
+        assertTrue(statistics.getLineCount() > 0);
+
+        long byteCount = 0;
+        for (byte[] bytes : sink.getContentMap().values()) {
+            byteCount += bytes.length;
+        }
+        assertEquals(byteCount, statistics.getByteCount());
+
+        for (int phase = 0; phase < BlancoCgTransformEvent.PHASE_COUNT; phase++) {
+            assertTrue(statistics.getPercentile(phase, 50.0) <= statistics
+                    .getPercentile(phase, 100.0));
+        }
+        assertTrue(statistics
+                .getTotalDuration(BlancoCgTransformEvent.PHASE_EXPAND) > 0);
+        assertEquals(2, statistics.getSlowestEvents(2).size());
+    }
+
+    /**
+     * 副作用のない変換をおこなうトランスフォーマーを指定して、同じソースファイルを繰り返し一括変換する試験。
+     *
+     * @throws Exception
+     */
+    public void testSideEffectFreeBatchTransform() throws Exception {
+        final List<BlancoCgSourceFile> sourceFileList = createSourceFileList("副作用のない一括変換です。");
+        final String before = sourceFileList.toString();
+
+        final BlancoCgBatchTransformer batchTransformer = new BlancoCgBatchTransformer(
+                BlancoCgTransformerFactory.getSourceTransformer(
+                        BlancoCgSupportedLang.JAVA, true), 4);
+        final BlancoCgMemoryOutputSink sink1 = new BlancoCgMemoryOutputSink();
+        final List<BlancoCgTransformResult> resultList = batchTransformer
+                .transform(sourceFileList, sink1);
+        final BlancoCgMemoryOutputSink sink2 = new BlancoCgMemoryOutputSink();
+        batchTransformer.transform(sourceFileList, sink2);
+
+        for (BlancoCgTransformResult result : resultList) {
+            assertEquals(BlancoCgTransformResult.STATUS_CREATE, result
+                    .getStatus());
+            assertTrue(Arrays.equals(sink1.getBytes(result.getPath()), sink2
+                    .getBytes(result.getPath())));
+        }
+        // バリューオブジェクトは更新されません。
+        assertEquals(before, sourceFileList.toString());
+    }
+
+    /**
+     * 試験用のソースファイルの一覧を生成します。
+     *
+     * @param argDescription
+     *            クラスの説明。
+     * @return ソースファイルの一覧。
+     */
+    private List<BlancoCgSourceFile> createSourceFileList(
+            final String argDescription) {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        for (int index = 0; index < 3; index++) {
+            final BlancoCgSourceFile cgSourceFile = cgFactory
+                    .createSourceFile("myprog.incremental", "差分変換のためのクラス");
+            sourceFileList.add(cgSourceFile);
+
+            final BlancoCgClass cgClass = cgFactory.createClass(
+                    "MyIncrementalClass" + index, argDescription);
+            cgSourceFile.getClassList().add(cgClass);
+        }
+        return sourceFileList;
+    }
+
+    /**
+     * ディレクトリを再帰的に削除します。
+     *
+     * @param argFile
+     *            削除するファイルまたはディレクトリ。
+     */
+    private void deleteRecursive(final File argFile) {
+        if (argFile.isDirectory()) {
+            final File[] files = argFile.listFiles();
+            for (int index = 0; index < files.length; index++) {
+                deleteRecursive(files[index]);
+            }
+        }
+        argFile.delete();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.BlancoCgImportPolicy;
+import blanco.cg.transformer.BlancoCgImportSet;
+
+/**
+ * import対象の集合の試験。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgImportSetTest extends TestCase {
+    /**
+     * Java言語と同様の規則で、正規化・除外・ソート・グループ分けされることの試験。
+     * 
+     * @throws Exception
+     */
+    public void testClassStyle() throws Exception {
+        final BlancoCgImportPolicy policy = new BlancoCgImportPolicy(
+                new String[] { "java.", "org." }, new String[] { "java.lang" },
+                false) {
+            protected boolean isReservedKeyword(final String argImport) {
+                return "int".equals(argImport);
+            }
+        };
+
+        final BlancoCgImportSet importSet = new BlancoCgImportSet(policy,
+                "myprog");
+        final String[] imports = { "myprog.sub.Item", "java.util.Date[][]",
+                "int[]", "java.lang.String", "org.x.Y", "myprog.Self",
+                "java.util.Date", "java.io.File", "other.Z", "java.lang.ref.Ref" };
+        for (int index = 0; index < imports.length; index++) {
+            importSet.add(imports[index]);
+        }
+
+        final List<String> importList = importSet.toList();
+        assertEquals(6, importList.size());
+        assertEquals("java.io.File", importList.get(0));
+        assertEquals("java.lang.ref.Ref", importList.get(1));
+        assertEquals("java.util.Date", importList.get(2));
+        assertEquals("myprog.sub.Item", importList.get(3));
+        assertEquals("org.x.Y", importList.get(4));
+        assertEquals("other.Z", importList.get(5));
+
+        final List<List<String>> groupList = importSet.getGroupList();
+        assertEquals(3, groupList.size());
+        assertEquals(3, groupList.get(0).size());
+        assertEquals("org.x.Y", groupList.get(1).get(0));
+        assertEquals("myprog.sub.Item", groupList.get(2).get(0));
+        assertEquals("other.Z", groupList.get(2).get(1));
+    }
+
+    /**
+     * 名前空間単位で指定する規則で、クラス名が除去されることの試験。
+     * 
+     * @throws Exception
+     */
+    public void testNamespaceStyle() throws Exception {
+        final BlancoCgImportPolicy policy = new BlancoCgImportPolicy(
+                new String[] { "System" }, new String[0], true) {
+            protected boolean isReservedKeyword(final String argImport) {
+                return false;
+            }
+        };
+
+        final BlancoCgImportSet importSet = new BlancoCgImportSet(policy,
+                "MyProg.Sub");
+        importSet.add("System.IO.File");
+        importSet.add("System.IO.Stream[]");
+        importSet.add("MyProg.Sub.MyClass");
+        importSet.add("MyProg.Other");
+
+        final List<String> importList = importSet.toList();
+        assertEquals(2, importList.size());
+        assertEquals("MyProg", importList.get(0));
+        assertEquals("System.IO", importList.get(1));
+        assertEquals("System.IO", importSet.getGroupList().get(0).get(0));
+    }
+}
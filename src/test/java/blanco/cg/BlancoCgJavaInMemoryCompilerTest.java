@@ -0,0 +1,181 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.java.BlancoCgJavaInMemoryCompiler;
+import blanco.cg.transformer.java.BlancoCgJavaSourceFileObject;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * ファイルを経由しないコンパイルの試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgJavaInMemoryCompilerTest extends TestCase {
+    /**
+     * 生成したソースコードをコンパイルして実行する試験。
+     *
+     * @throws Exception
+     */
+    public void testCompileAndLoad() throws Exception {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.inmemory", "ファイルを経由しないコンパイルのためのクラス");
+        final BlancoCgClass cgClass = cgFactory.createClass("MyInMemoryClass",
+                "このクラスは、ファイルを経由しないコンパイルの試験のためのクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        final BlancoCgMethod cgMethod = cgFactory.createMethod("hello",
+                "文字列を戻します。");
+        cgClass.getMethodList().add(cgMethod);
+        cgMethod.setReturn(cgFactory.createReturn("java.lang.String", "文字列。"));
+        cgMethod.getLineList().add("return \"Hello\";");
+
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        sourceFileList.add(cgSourceFile);
+
+        final BlancoCgJavaInMemoryCompiler compiler = new BlancoCgJavaInMemoryCompiler();
+        final List<BlancoCgJavaSourceFileObject> fileObjectList = compiler
+                .createSourceFileObjects(sourceFileList);
+        assertEquals("myprog/inmemory/MyInMemoryClass.java", fileObjectList
+                .get(0).getPath());
+        assertTrue(compiler.compile(fileObjectList, null, null));
+
+        final Class<?> clazz = compiler.getClassLoader().loadClass(
+                "myprog.inmemory.MyInMemoryClass");
+        assertEquals("Hello", clazz.getMethod("hello").invoke(
+                clazz.newInstance()));
+    }
+
+    /**
+     * コンパイルエラーの診断情報から、生成元のメソッドを求める試験。
+     *
+     * @throws Exception
+     */
+    public void testDiagnosticMapping() throws Exception {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.inmemory", "コンパイルエラーとなるクラス");
+        final BlancoCgClass cgClass = cgFactory.createClass("MyBrokenClass",
+                "このクラスは、コンパイルエラーとなるクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+
+        final BlancoCgMethod cgMethodGood = cgFactory.createMethod("good",
+                "正しいメソッドです。");
+        cgClass.getMethodList().add(cgMethodGood);
+        cgMethodGood.getLineList().add("System.out.println();");
+
+        final BlancoCgMethod cgMethodBroken = cgFactory.createMethod("broken",
+                "コンパイルエラーとなるメソッドです。");
+        cgClass.getMethodList().add(cgMethodBroken);
+        cgMethodBroken.getParameterList().add(
+                cgFactory.createParameter("argValue", "int", "数値引数。"));
+        cgMethodBroken.getLineList().add("int value = argValue;");
+        cgMethodBroken.getLineList().add("undefinedVariable = value;");
+
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        sourceFileList.add(cgSourceFile);
+
+        final BlancoCgJavaInMemoryCompiler compiler = new BlancoCgJavaInMemoryCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertFalse(compiler.compile(compiler
+                .createSourceFileObjects(sourceFileList), null, diagnostics));
+
+        assertEquals(1, diagnostics.getDiagnostics().size());
+        final Diagnostic<? extends JavaFileObject> diagnostic = diagnostics
+                .getDiagnostics().get(0);
+        final BlancoCgJavaSourceFileObject fileObject = (BlancoCgJavaSourceFileObject) diagnostic
+                .getSource();
+        assertSame(cgSourceFile, fileObject.getSourceFile());
+        assertSame(cgClass, fileObject.findClass(diagnostic.getLineNumber()));
+        assertSame(cgMethodBroken, fileObject.findMethod(diagnostic
+                .getLineNumber()));
+        assertNull(fileObject.findMethod(1));
+    }
+
+    /**
+     * 名前とパラメータの数が同じメソッドのうち、コンパイルエラーとなったメソッドを求める試験。
+     *
+     * @throws Exception
+     */
+    public void testDiagnosticMappingOverload() throws Exception {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.inmemory", "オーバーロードしたメソッドがコンパイルエラーとなるクラス");
+        final BlancoCgClass cgClass = cgFactory.createClass("MyOverloadClass",
+                "このクラスは、コンパイルエラーとなるクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+
+        final BlancoCgMethod cgMethodBroken = cgFactory.createMethod("run",
+                "コンパイルエラーとなるメソッドです。");
+        cgClass.getMethodList().add(cgMethodBroken);
+        cgMethodBroken.getParameterList().add(
+                cgFactory.createParameter("argValue", "java.lang.String",
+                        "文字列引数。"));
+        cgMethodBroken.getLineList().add("undefinedVariable = argValue;");
+
+        final BlancoCgMethod cgMethodGood = cgFactory.createMethod("run",
+                "正しいメソッドです。");
+        cgClass.getMethodList().add(cgMethodGood);
+        cgMethodGood.getParameterList().add(
+                cgFactory.createParameter("argValue", "int", "数値引数。"));
+        cgMethodGood.getLineList().add("System.out.println(argValue);");
+
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        sourceFileList.add(cgSourceFile);
+
+        final BlancoCgJavaInMemoryCompiler compiler = new BlancoCgJavaInMemoryCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertFalse(compiler.compile(compiler
+                .createSourceFileObjects(sourceFileList), null, diagnostics));
+
+        assertEquals(1, diagnostics.getDiagnostics().size());
+        final Diagnostic<? extends JavaFileObject> diagnostic = diagnostics
+                .getDiagnostics().get(0);
+        final BlancoCgJavaSourceFileObject fileObject = (BlancoCgJavaSourceFileObject) diagnostic
+                .getSource();
+        assertSame(cgClass, fileObject.findClass(diagnostic.getLineNumber()));
+        assertSame(cgMethodBroken, fileObject.findMethod(diagnostic
+                .getLineNumber()));
+
+        // 言語ドキュメントの行はクラスに含まれますが、メソッドには含まれません。
+        final String[] lines = fileObject.getCharContent(true).toString()
+                .split("\\r?\\n");
+        int checkedCount = 0;
+        for (int index = 0; index < lines.length; index++) {
+            if (lines[index].indexOf("正しいメソッドです。") >= 0) {
+                assertSame(cgClass, fileObject.findClass(index + 1));
+                assertNull(fileObject.findMethod(index + 1));
+                checkedCount++;
+            }
+            if (lines[index].trim().startsWith("public void run(final int")) {
+                assertSame(cgMethodGood, fileObject.findMethod(index + 1));
+                checkedCount++;
+            }
+        }
+        assertEquals(2, checkedCount);
+        assertNull(fileObject.findClass(lines.length + 1));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import blanco.cg.util.BlancoCgModelWalker;
+import blanco.cg.util.BlancoCgVisitor;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgException;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgReturn;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * バリューオブジェクトのツリーの巡回の試験。
+ * 
+ * @author IGA Tosiki
+ */
+public class BlancoCgModelWalkerTest extends TestCase {
+    /**
+     * 展開と同じ順序で巡回することの試験。
+     * 
+     * @throws Exception
+     */
+    public void testWalk() throws Exception {
+        final BlancoCgObjectFactory cgOf = BlancoCgObjectFactory.getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgOf.createSourceFile("myprog",
+                "巡回の試験のためのクラス");
+        final BlancoCgInterface cgInterface = cgOf.createInterface(
+                "MyInterface", "インタフェースです。");
+        cgSourceFile.getInterfaceList().add(cgInterface);
+        cgInterface.getMethodList().add(
+                cgOf.createMethod("myInterfaceMethod", "メソッドです。"));
+
+        final BlancoCgClass cgClass = cgOf.createClass("MyClass", "クラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        cgClass.getEnumList().add(cgOf.createEnum("MyKind", "種類です。"));
+        cgClass.getFieldList().add(
+                cgOf.createField("myField", "java.util.Date", "フィールドです。"));
+        final BlancoCgMethod cgMethod = cgOf.createMethod("myMethod",
+                "メソッドです。");
+        cgClass.getMethodList().add(cgMethod);
+        cgMethod.getParameterList().add(
+                cgOf.createParameter("argString", "java.lang.String", "引数。"));
+        cgMethod.setReturn(cgOf.createReturn("boolean", "戻り値。"));
+        cgMethod.getThrowList().add(
+                cgOf.createException("java.io.IOException", "入出力例外。"));
+
+        final List<String> visitList = new ArrayList<String>();
+        BlancoCgModelWalker.walk(cgSourceFile, new BlancoCgVisitor() {
+            public void visitClass(final BlancoCgClass argClass) {
+                visitList.add("class:" + argClass.getName());
+            }
+
+            public void visitInterface(final BlancoCgInterface argInterface) {
+                visitList.add("interface:" + argInterface.getName());
+            }
+
+            public void visitEnum(final BlancoCgEnum argEnum) {
+                visitList.add("enum:" + argEnum.getName());
+            }
+
+            public void visitField(final BlancoCgField argField) {
+                visitList.add("field:" + argField.getName());
+            }
+
+            public void visitMethod(final BlancoCgMethod argMethod) {
+                visitList.add("method:" + argMethod.getName());
+            }
+
+            public void visitParameter(final BlancoCgParameter argParameter) {
+                visitList.add("parameter:" + argParameter.getName());
+            }
+
+            public void visitReturn(final BlancoCgReturn argReturn) {
+                visitList.add("return:" + argReturn.getType().getName());
+            }
+
+            public void visitException(final BlancoCgException argException) {
+                visitList.add("exception:" + argException.getType().getName());
+            }
+        });
+
+        final String[] expected = { "interface:MyInterface",
+                "method:myInterfaceMethod", "class:MyClass", "enum:MyKind",
+                "field:myField", "method:myMethod", "parameter:argString",
+                "return:boolean", "exception:java.io.IOException" };
+        assertEquals(expected.length, visitList.size());
+        for (int index = 0; index < expected.length; index++) {
+            assertEquals(expected[index], visitList.get(index));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.BlancoCgTransformerFactory;
+import blanco.cg.util.BlancoCgModelReader;
+import blanco.cg.util.BlancoCgModelWriter;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgLocalVariable;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * バリューオブジェクトのバイナリ形式の試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgModelWriterTest extends TestCase {
+    /**
+     * 書き出したバリューオブジェクトを読み込むと、同じ構造と同じソースコードが得られることの試験。
+     *
+     * @throws Exception
+     */
+    public void testWriteAndRead() throws Exception {
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        final BlancoCgModelWriter writer = new BlancoCgModelWriter(outStream);
+        for (int index = 0; index < 3; index++) {
+            writer.write(createSourceFile(index));
+        }
+        writer.close();
+
+        final BlancoCgModelReader reader = new BlancoCgModelReader(
+                new ByteArrayInputStream(outStream.toByteArray()));
+        final List<BlancoCgSourceFile> sourceFileList = reader.readAll();
+        reader.close();
+        assertEquals(3, sourceFileList.size());
+
+        for (int index = 0; index < 3; index++) {
+            final BlancoCgSourceFile cgSourceFile = sourceFileList.get(index);
+            assertEquals(createSourceFile(index).toString(), cgSourceFile
+                    .toString());
+            assertEquals(transform(createSourceFile(index)),
+                    transform(cgSourceFile));
+        }
+    }
+
+    /**
+     * 繰り返し現れる文字列が辞書で符号化されることの試験。
+     *
+     * @throws Exception
+     */
+    public void testDictionary() throws Exception {
+        final ByteArrayOutputStream outStream1 = new ByteArrayOutputStream();
+        final BlancoCgModelWriter writer1 = new BlancoCgModelWriter(outStream1);
+        writer1.write(createSourceFile(0));
+        writer1.close();
+
+        final ByteArrayOutputStream outStream2 = new ByteArrayOutputStream();
+        final BlancoCgModelWriter writer2 = new BlancoCgModelWriter(outStream2);
+        writer2.write(createSourceFile(0));
+        writer2.write(createSourceFile(0));
+        writer2.close();
+
+        // 2 つ目のソースファイルは、辞書の番号だけで書き出されます。
+        assertTrue(outStream2.size() - outStream1.size() < outStream1.size() / 2);
+    }
+
+    /**
+     * 形式の異なるストリームを読み込もうとした場合の試験。
+     *
+     * @throws Exception
+     */
+    public void testIllegalFormat() throws Exception {
+        try {
+            new BlancoCgModelReader(new ByteArrayInputStream("not blanco"
+                    .getBytes()));
+            fail();
+        } catch (IOException ex) {
+            // 期待どおりの例外です。
+        }
+    }
+
+    /**
+     * 途中で切れた入力や、過大な長さを持つ入力を読み込もうとした場合の試験。
+     *
+     * @throws Exception
+     */
+    public void testTruncatedInput() throws Exception {
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        final BlancoCgModelWriter writer = new BlancoCgModelWriter(outStream);
+        writer.write(createSourceFile(0));
+        writer.close();
+        final byte[] bytes = outStream.toByteArray();
+
+        // 終端の印の手前までのどこで切れていても、入出力例外となります。
+        for (int length = 5; length < bytes.length - 1; length++) {
+            final byte[] truncated = new byte[length];
+            System.arraycopy(bytes, 0, truncated, 0, length);
+            try {
+                new BlancoCgModelReader(new ByteArrayInputStream(truncated))
+                        .readAll();
+                fail("切り詰めた長さ(" + length + ")で例外が発生しません。");
+            } catch (IOException ex) {
+                // 期待どおりの例外です。
+            }
+        }
+
+        // マジックナンバーとバージョンに続けて、辞書に登録しない文字列の長さとして int の最大値を与えます。
+        final byte[] corrupted = new byte[] { bytes[0], bytes[1], bytes[2],
+                bytes[3], bytes[4], 1, 2, (byte) 0xff, (byte) 0xff,
+                (byte) 0xff, (byte) 0xff, 0x07 };
+        try {
+            new BlancoCgModelReader(new ByteArrayInputStream(corrupted))
+                    .readAll();
+            fail();
+        } catch (IOException ex) {
+            // 期待どおりの例外です。
+        }
+
+        // 上限以内の長さであっても、入力が足りなければ入出力例外となります。
+        final byte[] shortened = new byte[] { bytes[0], bytes[1], bytes[2],
+                bytes[3], bytes[4], 1, 2, (byte) 0x80, (byte) 0x80, 0x40 };
+        try {
+            new BlancoCgModelReader(new ByteArrayInputStream(shortened))
+                    .readAll();
+            fail();
+        } catch (IOException ex) {
+            // 期待どおりの例外です。
+        }
+    }
+
+    /**
+     * 試験用のソースファイルを生成します。
+     *
+     * @param argIndex
+     *            ソースファイルの番号。
+     * @return ソースファイル。
+     */
+    private BlancoCgSourceFile createSourceFile(final int argIndex) {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.model", "バイナリ形式の試験のためのクラス");
+        cgSourceFile.getImportList().add("java.util.List");
+
+        final BlancoCgClass cgClass = cgFactory.createClass("MyModelClass"
+                + argIndex, "このクラスは、バイナリ形式の試験のためのクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        cgClass.getLangDoc().getTagList().add(
+                cgFactory.createLangDocTag("author", null, "blanco Framework"));
+        cgClass.getImplementInterfaceList().add(
+                cgFactory.createType("java.io.Serializable"));
+
+        final BlancoCgEnum cgEnum = cgFactory.createEnum("MyColor", "色です。");
+        cgClass.getEnumList().add(cgEnum);
+        cgEnum.getElementList().add(cgFactory.createEnumElement("RED", "赤"));
+
+        final BlancoCgField cgField = cgFactory.createField("myField",
+                "java.util.Map<java.lang.String, java.util.Date>",
+                "フィールドの試験です。");
+        cgClass.getFieldList().add(cgField);
+        cgField.setStatic(true);
+        cgField.setDefault("null");
+
+        final BlancoCgMethod cgMethod = cgFactory.createMethod("myMethod",
+                "メソッドの試験です。");
+        cgClass.getMethodList().add(cgMethod);
+        cgMethod.setFinal(true);
+        cgMethod.getParameterList().add(
+                cgFactory.createParameter("argList", "java.util.List[]",
+                        "リスト引数。"));
+        cgMethod.setReturn(cgFactory.createReturn("boolean", "結果。"));
+        cgMethod.getThrowList().add(
+                cgFactory.createException("java.io.IOException", "入出力例外。"));
+        cgMethod.getAnnotationList().add("Deprecated");
+        cgMethod.getLangDoc().getParameterList().add(
+                cgFactory.createParameter("argExtra", "java.lang.String",
+                        "言語ドキュメントにだけ記載するパラメータ。"));
+        cgMethod.getLangDoc().getThrowList().add(
+                cgFactory.createException("java.lang.IllegalStateException",
+                        "言語ドキュメントにだけ記載する例外。"));
+
+        final BlancoCgLocalVariable cgLocalVariable = cgFactory
+                .createLocalVariable("result", "boolean");
+        cgMethod.getLocalVariableList().add(cgLocalVariable);
+        cgLocalVariable.setFinal(true);
+        cgLocalVariable.setDefault("argList.length > 0");
+
+        // 辞書に登録しない長さの文字列も、そのまま読み込めます。
+        cgMethod.getLineList().add(
+                "// 辞書に登録する文字列の長さの上限を超える行です。"
+                        + "説明文やソースコードの行のように、繰り返し現れにくい長い文字列は辞書に登録しません。");
+        cgMethod.getLineList().add("return result;");
+
+        final BlancoCgInterface cgInterface = cgFactory.createInterface(
+                "MyModelInterface" + argIndex, "バイナリ形式の試験のためのインタフェースです。");
+        cgSourceFile.getInterfaceList().add(cgInterface);
+        cgInterface.getExtendClassList().add(
+                cgFactory.createType("java.io.Serializable"));
+        final BlancoCgMethod cgInterfaceMethod = cgFactory.createMethod(
+                "myInterfaceMethod", "インタフェースのメソッドの試験です。");
+        cgInterface.getMethodList().add(cgInterfaceMethod);
+        cgInterfaceMethod.setReturn(cgFactory.createReturn("int", "結果。"));
+        return cgSourceFile;
+    }
+
+    /**
+     * ソースファイルを Java ソースコードの文字列に変換します。
+     *
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return ソースコード。
+     * @throws Exception
+     */
+    private String transform(final BlancoCgSourceFile argSourceFile)
+            throws Exception {
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        BlancoCgTransformerFactory.getSourceTransformer(
+                BlancoCgSupportedLang.JAVA, true).transform(argSourceFile,
+                writer);
+        writer.flush();
+        return stringWriter.toString();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.BlancoCgMemoryOutputSink;
+import blanco.cg.transformer.BlancoCgMultiLangTransformer;
+import blanco.cg.transformer.BlancoCgTransformResult;
+import blanco.cg.transformer.BlancoCgTransformerFactory;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgParameter;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 複数言語への一括変換の試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgMultiLangTransformerTest extends TestCase {
+    /**
+     * 1つのソースファイルを複数の言語へ並列に変換する試験。
+     *
+     * @throws Exception
+     */
+    public void testMultiLangTransform() throws Exception {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        // ソースファイルを生成します。ファイル名はクラス名から導出させます。
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.multilang", "複数言語への変換のためのクラス");
+        final BlancoCgClass cgClass = cgFactory.createClass("MyMultiLangClass",
+                "このクラスは、複数言語への変換の試験のためのクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        final BlancoCgMethod cgMethod = cgFactory.createMethod("myMethod",
+                "メソッドの試験です。");
+        cgClass.getMethodList().add(cgMethod);
+        cgMethod.getParameterList().add(
+                cgFactory.createParameter("argDate", "java.util.Date",
+                        "日付引数。"));
+        final String before = cgSourceFile.toString();
+
+        final BlancoCgMultiLangTransformer transformer = new BlancoCgMultiLangTransformer(
+                new int[] { BlancoCgSupportedLang.JAVA,
+                        BlancoCgSupportedLang.CS, BlancoCgSupportedLang.JS },
+                3);
+        final List<BlancoCgTransformResult> resultList = transformer
+                .transform(cgSourceFile, new File("./tmp/blanco/multilang"));
+
+        assertEquals(3, resultList.size());
+        final String[] exts = new String[] { ".java", ".cs", ".js" };
+        for (int index = 0; index < resultList.size(); index++) {
+            final BlancoCgTransformResult result = resultList.get(index);
+            assertSame(cgSourceFile, result.getSourceFile());
+            assertTrue(result.getStatus() != BlancoCgTransformResult.STATUS_FAILED);
+            assertTrue(result.getFile().getName().endsWith(
+                    "MyMultiLangClass" + exts[index]));
+            assertTrue(result.getFile().isFile());
+        }
+
+        // バリューオブジェクトは変更されません。
+        assertEquals(before, cgSourceFile.toString());
+    }
+
+    /**
+     * 共有した import対象の候補から、言語ごとに変換した場合と同じ import文が得られることの試験。
+     *
+     * @throws Exception
+     */
+    public void testSharedImportCandidates() throws Exception {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.multilang", "複数言語への変換のためのクラス");
+        // Delphiではソースファイル名を展開するため、あらかじめ指定しておきます。
+        cgSourceFile.setName("MyImportClass");
+        cgSourceFile.setEncoding("UTF-8");
+        cgSourceFile.getImportList().add("java.util.List");
+        final BlancoCgClass cgClass = cgFactory.createClass("MyImportClass",
+                "import文の試験のためのクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        cgClass.getExtendClassList().add(
+                cgFactory.createType("myprog.base.MyBaseClass"));
+        cgClass.getFieldList().add(
+                cgFactory.createField("fDate", "java.util.Date", "日付。"));
+        final BlancoCgMethod cgMethod = cgFactory.createMethod("myMethod",
+                "メソッドの試験です。");
+        cgClass.getMethodList().add(cgMethod);
+        final BlancoCgParameter cgParameter = cgFactory.createParameter(
+                "argValue", "java.math.BigDecimal", "数値引数。");
+        cgParameter.setNotnull(true);
+        cgMethod.getParameterList().add(cgParameter);
+        cgMethod.setReturn(cgFactory.createReturn("java.text.NumberFormat",
+                "書式。"));
+        cgMethod.getThrowList().add(
+                cgFactory.createException("java.io.IOException", "入出力例外。"));
+
+        final int[] langs = new int[] { BlancoCgSupportedLang.JAVA,
+                BlancoCgSupportedLang.CS, BlancoCgSupportedLang.JS,
+                BlancoCgSupportedLang.VB, BlancoCgSupportedLang.PHP,
+                BlancoCgSupportedLang.RUBY, BlancoCgSupportedLang.PYTHON,
+                BlancoCgSupportedLang.DELPHI, BlancoCgSupportedLang.CPP11,
+                BlancoCgSupportedLang.SWIFT };
+        final BlancoCgMemoryOutputSink sink = new BlancoCgMemoryOutputSink();
+        final List<BlancoCgTransformResult> resultList = new BlancoCgMultiLangTransformer(
+                langs).transform(cgSourceFile, sink);
+
+        for (int index = 0; index < langs.length; index++) {
+            final BlancoCgTransformResult result = resultList.get(index);
+
+            final StringWriter stringWriter = new StringWriter();
+            final BufferedWriter writer = new BufferedWriter(stringWriter);
+            try {
+                BlancoCgTransformerFactory.getSourceTransformer(langs[index],
+                        true).transform(cgSourceFile, writer);
+            } catch (IllegalArgumentException ex) {
+                // 引数チェックのif文に未対応の言語では、いずれの経路でも失敗となります。
+                assertEquals(BlancoCgTransformResult.STATUS_FAILED, result
+                        .getStatus());
+                continue;
+            }
+            writer.flush();
+            assertTrue(result.getStatus() != BlancoCgTransformResult.STATUS_FAILED);
+            assertEquals(stringWriter.toString(), new String(sink
+                    .getBytes(result.getPath()), "UTF-8"));
+        }
+    }
+
+    /**
+     * 同じ言語を重複して指定した場合の試験。
+     */
+    public void testDuplicatedLang() {
+        try {
+            new BlancoCgMultiLangTransformer(new int[] {
+                    BlancoCgSupportedLang.JAVA, BlancoCgSupportedLang.JAVA });
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // 期待どおりの例外です。
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.BlancoCgBatchTransformer;
+import blanco.cg.transformer.BlancoCgDirectoryOutputSink;
+import blanco.cg.transformer.BlancoCgMemoryOutputSink;
+import blanco.cg.transformer.BlancoCgSourceTransformer;
+import blanco.cg.transformer.BlancoCgTransformResult;
+import blanco.cg.transformer.BlancoCgTransformerFactory;
+import blanco.cg.transformer.BlancoCgZipOutputSink;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+import blanco.commons.util.BlancoFileUtil;
+
+/**
+ * 出力先の試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgOutputSinkTest extends TestCase {
+    /**
+     * 従来からのファクトリの取得メソッドが、コンパイル済みの呼び出し元と互換の戻り値の型を保っていることの試験。
+     *
+     * @throws Exception
+     */
+    public void testFactorySignature() throws Exception {
+        final String[] names = { "getJavaSourceTransformer",
+                "getCsSourceTransformer", "getJsSourceTransformer",
+                "getVbSourceTransformer", "getPhpSourceTransformer",
+                "getRubySourceTransformer", "getPythonSourceTransformer",
+                "getDelphiSourceTransformer", "getCpp11SourceTransformer",
+                "getSwiftSourceTransformer" };
+        for (int index = 0; index < names.length; index++) {
+            assertEquals(BlancoCgTransformer.class,
+                    BlancoCgTransformerFactory.class.getMethod(names[index])
+                            .getReturnType());
+        }
+        assertEquals(BlancoCgTransformer.class,
+                BlancoCgTransformerFactory.class.getMethod(
+                        "getSourceTransformer", Integer.TYPE).getReturnType());
+
+        // 出力先を指定した変換には、副作用の有無を指定する取得メソッドを利用します。
+        for (int lang = BlancoCgSupportedLang.JAVA; lang <= BlancoCgSupportedLang.SWIFT; lang++) {
+            assertSame(BlancoCgTransformerFactory.getSourceTransformer(lang),
+                    BlancoCgTransformerFactory.getSourceTransformer(lang,
+                            false));
+        }
+    }
+
+    /**
+     * メモリ上の出力先の試験。
+     *
+     * @throws Exception
+     */
+    public void testMemoryOutputSink() throws Exception {
+        final BlancoCgMemoryOutputSink sink = new BlancoCgMemoryOutputSink();
+        final BlancoCgSourceTransformer transformer = BlancoCgTransformerFactory
+                .getSourceTransformer(BlancoCgSupportedLang.JAVA, true);
+
+        final BlancoCgSourceFile cgSourceFile = createSourceFile(0);
+        transformer.transform(cgSourceFile, sink);
+
+        final byte[] bytes = sink.getBytes("myprog/sink/MySinkClass0.java");
+        assertNotNull(bytes);
+        assertTrue(new String(bytes).indexOf("public class MySinkClass0") >= 0);
+        assertEquals(1, sink.getContentMap().size());
+
+        // 同じ内容の出力はスキップとなります。
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        sourceFileList.add(cgSourceFile);
+        final List<BlancoCgTransformResult> resultList = new BlancoCgBatchTransformer(
+                BlancoCgSupportedLang.JAVA, 1).transform(sourceFileList, sink);
+        assertEquals(BlancoCgTransformResult.STATUS_SKIP, resultList.get(0)
+                .getStatus());
+        assertEquals("myprog/sink/MySinkClass0.java", resultList.get(0)
+                .getPath());
+        assertNull(resultList.get(0).getFile());
+    }
+
+    /**
+     * zip ストリームへの出力の試験。
+     *
+     * @throws Exception
+     */
+    public void testZipOutputSink() throws Exception {
+        final List<BlancoCgSourceFile> sourceFileList = new ArrayList<BlancoCgSourceFile>();
+        for (int index = 0; index < 10; index++) {
+            sourceFileList.add(createSourceFile(index));
+        }
+
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        final BlancoCgZipOutputSink sink = new BlancoCgZipOutputSink(outStream);
+        final List<BlancoCgTransformResult> resultList = new BlancoCgBatchTransformer(
+                BlancoCgSupportedLang.CS, 4).transform(sourceFileList, sink);
+        sink.finish();
+        for (BlancoCgTransformResult result : resultList) {
+            assertEquals(BlancoCgTransformResult.STATUS_CREATE, result
+                    .getStatus());
+        }
+
+        final ZipInputStream inStream = new ZipInputStream(
+                new ByteArrayInputStream(outStream.toByteArray()));
+        int count = 0;
+        for (ZipEntry entry = inStream.getNextEntry(); entry != null; entry = inStream
+                .getNextEntry()) {
+            assertTrue(entry.getName().startsWith("myprog/sink/MySinkClass"));
+            assertTrue(entry.getName().endsWith(".cs"));
+            count++;
+        }
+        inStream.close();
+        assertEquals(10, count);
+    }
+
+    /**
+     * ディレクトリへの出力で、既存のファイルとの比較と上書きをおこなう試験。
+     *
+     * @throws Exception
+     */
+    public void testDirectoryOutputSink() throws Exception {
+        final File outputDirectory = new File("./tmp/blanco/sink");
+        final BlancoCgDirectoryOutputSink sink = new BlancoCgDirectoryOutputSink(
+                outputDirectory);
+        final BlancoCgSourceTransformer transformer = BlancoCgTransformerFactory
+                .getSourceTransformer(BlancoCgSupportedLang.JAVA, true);
+
+        final BlancoCgSourceFile cgSourceFile = createSourceFile(0);
+        cgSourceFile.setEncoding("Windows-31J");
+        final File file = sink.getFile("myprog/sink/MySinkClass0.java");
+        file.delete();
+
+        BlancoCgTransformResult result = transformer.transform(
+                cgSourceFile, sink);
+        assertEquals(BlancoCgTransformResult.STATUS_CREATE, result
+                .getStatus());
+        final byte[] bytes = BlancoFileUtil.file2Bytes(file);
+        assertTrue(new String(bytes, "Windows-31J")
+                .indexOf("このクラスは、出力先の試験のためのクラスです。") >= 0);
+
+        // メモリ上の出力先と同じバイト列が出力されます。
+        final BlancoCgMemoryOutputSink memorySink = new BlancoCgMemoryOutputSink();
+        transformer.transform(cgSourceFile, memorySink);
+        assertTrue(Arrays.equals(memorySink
+                .getBytes("myprog/sink/MySinkClass0.java"), bytes));
+
+        // 同じ内容の出力はスキップとなります。
+        result = transformer.transform(cgSourceFile, sink);
+        assertEquals(BlancoCgTransformResult.STATUS_SKIP, result.getStatus());
+
+        // ファイルサイズを変えずに書き換えたファイルは、先頭から上書きします。
+        final RandomAccessFile fileTampered = new RandomAccessFile(file, "rw");
+        fileTampered.write('#');
+        fileTampered.close();
+        result = transformer.transform(cgSourceFile, sink);
+        assertEquals(BlancoCgTransformResult.STATUS_UPDATE, result
+                .getStatus());
+        assertTrue(Arrays.equals(bytes, BlancoFileUtil.file2Bytes(file)));
+
+        // ファイルサイズの異なるファイルは、切り詰めて出力します。
+        BlancoFileUtil.bytes2File("tampered".getBytes(), file);
+        result = transformer.transform(cgSourceFile, sink);
+        assertEquals(BlancoCgTransformResult.STATUS_UPDATE, result
+                .getStatus());
+        assertTrue(Arrays.equals(bytes, BlancoFileUtil.file2Bytes(file)));
+
+        // 大きなファイルはメモリにマップして比較します。
+        final byte[] largeBytes = new byte[3 * 1024 * 1024];
+        Arrays.fill(largeBytes, (byte) 'a');
+        final File fileLarge = sink.getFile("myprog/sink/large.txt");
+        fileLarge.delete();
+        assertEquals(BlancoCgTransformResult.STATUS_CREATE, sink.write(
+                "myprog/sink/large.txt", ByteBuffer.wrap(largeBytes), null));
+        assertEquals(BlancoCgTransformResult.STATUS_SKIP, sink.write(
+                "myprog/sink/large.txt", ByteBuffer.wrap(largeBytes), null));
+        largeBytes[largeBytes.length - 1] = 'b';
+        assertEquals(BlancoCgTransformResult.STATUS_UPDATE, sink.write(
+                "myprog/sink/large.txt", largeBytes, null));
+        assertTrue(Arrays.equals(largeBytes, BlancoFileUtil
+                .file2Bytes(fileLarge)));
+    }
+
+    /**
+     * 試験用のソースファイルを生成します。
+     *
+     * @param argIndex
+     *            クラス名に付与する番号。
+     * @return ソースファイル。
+     */
+    private BlancoCgSourceFile createSourceFile(final int argIndex) {
+        final BlancoCgObjectFactory cgFactory = BlancoCgObjectFactory
+                .getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                "myprog.sink", "出力先の試験のためのクラス");
+        final BlancoCgClass cgClass = cgFactory.createClass("MySinkClass"
+                + argIndex, "このクラスは、出力先の試験のためのクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        return cgSourceFile;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+import blanco.cg.transformer.BlancoCgTransformerFactory;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 副作用のない変換の試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgSideEffectFreeTransformTest extends TestCase {
+    /**
+     * 同じソースファイルを繰り返し変換しても、同じソースコードが得られ、バリューオブジェクトが変更されないことの試験。
+     *
+     * @throws Exception
+     */
+    public void testTransformRepeatedly() throws Exception {
+        for (int targetLang = BlancoCgSupportedLang.JAVA; targetLang <= BlancoCgSupportedLang.SWIFT; targetLang++) {
+            final BlancoCgSourceFile cgSourceFile = createSourceFile("myprog.sideeffect");
+            final String before = cgSourceFile.toString();
+
+            final BlancoCgTransformer transformer = BlancoCgTransformerFactory
+                    .getSourceTransformer(targetLang, true);
+            final String source1 = transform(transformer, cgSourceFile);
+            final String source2 = transform(transformer, cgSourceFile);
+
+            assertEquals(source1, source2);
+            assertEquals(before, cgSourceFile.toString());
+            assertNull(cgSourceFile.getName());
+            assertEquals(0, cgSourceFile.getImportList().size());
+
+            // 従来どおりの変換と同じソースコードが得られることを確認します。
+            assertEquals(source1, transform(BlancoCgTransformerFactory
+                    .getSourceTransformer(targetLang),
+                    createSourceFile("myprog.sideeffect")));
+        }
+    }
+
+    /**
+     * 従来どおりの変換でも、同じソースファイルを繰り返し変換すると同じソースコードが得られることの試験。
+     *
+     * 従来どおりの変換は import一覧へ型を追加しますが、呼び出し元が与えた import一覧を置き換えることはありません。
+     *
+     * @throws Exception
+     */
+    public void testDefaultTransformRepeatedly() throws Exception {
+        for (int targetLang = BlancoCgSupportedLang.JAVA; targetLang <= BlancoCgSupportedLang.SWIFT; targetLang++) {
+            final BlancoCgSourceFile cgSourceFile = createSourceFile("myprog.sideeffect");
+            cgSourceFile.getImportList().add("java.util.ArrayList");
+
+            final BlancoCgTransformer transformer = BlancoCgTransformerFactory
+                    .getSourceTransformer(targetLang);
+            final String source1 = transform(transformer, cgSourceFile);
+            final int importCount = cgSourceFile.getImportList().size();
+            final String source2 = transform(transformer, cgSourceFile);
+
+            assertEquals(source1, source2);
+            assertEquals("java.util.ArrayList", cgSourceFile.getImportList()
+                    .get(0));
+            assertEquals(importCount, cgSourceFile.getImportList().size());
+        }
+    }
+
+    /**
+     * ファイルへの出力でもバリューオブジェクトが変更されないことの試験。
+     *
+     * @throws Exception
+     */
+    public void testTransformToDirectory() throws Exception {
+        final BlancoCgSourceFile cgSourceFile = createSourceFile("\\myprog\\sideeffect");
+        final String before = cgSourceFile.toString();
+
+        final BlancoCgTransformer transformer = BlancoCgTransformerFactory
+                .getSourceTransformer(BlancoCgSupportedLang.PHP, true);
+        transformer.transform(cgSourceFile, new File("./tmp/blanco/sideeffect"));
+        transformer.transform(cgSourceFile, new File("./tmp/blanco/sideeffect"));
+
+        assertEquals(before, cgSourceFile.toString());
+        assertEquals("\\myprog\\sideeffect", cgSourceFile.getPackage());
+        assertTrue(new File("./tmp/blanco/sideeffect/myprog/sideeffect/MySideEffectClass.php").isFile());
+    }
+
+    /**
+     * 言語ドキュメントを持たないバリューオブジェクトでは、変換しても言語ドキュメントが作成されないことの試験。
+     *
+     * @throws Exception
+     */
+    public void testWithoutLangDoc() throws Exception {
+        for (int targetLang = BlancoCgSupportedLang.JAVA; targetLang <= BlancoCgSupportedLang.SWIFT; targetLang++) {
+            final BlancoCgSourceFile cgSourceFile = createSourceFile("myprog.nolangdoc");
+            final BlancoCgClass cgClass = cgSourceFile.getClassList().get(0);
+            cgClass.setLangDoc(null);
+            cgClass.getFieldList().get(0).setLangDoc(null);
+            cgClass.getMethodList().get(0).setLangDoc(null);
+
+            transform(BlancoCgTransformerFactory.getSourceTransformer(
+                    targetLang, true), cgSourceFile);
+
+            assertNull(cgClass.getLangDoc());
+            assertNull(cgClass.getFieldList().get(0).getLangDoc());
+            assertNull(cgClass.getMethodList().get(0).getLangDoc());
+            assertTrue(cgClass.getEnumList().isEmpty());
+        }
+    }
+
+    /**
+     * 言語ドキュメントを作成しないファクトリで生成したバリューオブジェクトでも、既定のファクトリと同じソースコードが得られることの試験。
+     *
+     * @throws Exception
+     */
+    public void testFactoryWithoutLangDoc() throws Exception {
+        for (int targetLang = BlancoCgSupportedLang.JAVA; targetLang <= BlancoCgSupportedLang.SWIFT; targetLang++) {
+            final BlancoCgSourceFile cgSourceFile = createSourceFile(
+                    "myprog.nolangdoc", BlancoCgObjectFactory.getInstance(false));
+            final BlancoCgClass cgClass = cgSourceFile.getClassList().get(0);
+
+            assertNotNull(cgSourceFile.getLangDoc());
+            assertNull(cgClass.getLangDoc());
+            assertNull(cgClass.getFieldList().get(0).getLangDoc());
+            assertNull(cgClass.getMethodList().get(0).getLangDoc());
+
+            // 説明は言語ドキュメントではなく、各バリューオブジェクトに保持されています。
+            final String expected = transform(BlancoCgTransformerFactory
+                    .getSourceTransformer(targetLang, true),
+                    createSourceFile("myprog.nolangdoc"));
+            assertEquals(expected, transform(BlancoCgTransformerFactory
+                    .getSourceTransformer(targetLang, true), cgSourceFile));
+
+            assertNull(cgClass.getLangDoc());
+            assertNull(cgClass.getFieldList().get(0).getLangDoc());
+            assertNull(cgClass.getMethodList().get(0).getLangDoc());
+        }
+    }
+
+    /**
+     * 試験用のソースファイルを生成します。
+     *
+     * @param argPackage
+     *            パッケージ名。
+     * @return ソースファイル。
+     */
+    private BlancoCgSourceFile createSourceFile(final String argPackage) {
+        return createSourceFile(argPackage, BlancoCgObjectFactory.getInstance());
+    }
+
+    /**
+     * 指定のファクトリで試験用のソースファイルを生成します。
+     *
+     * @param argPackage
+     *            パッケージ名。
+     * @param argFactory
+     *            オブジェクトファクトリ。
+     * @return ソースファイル。
+     */
+    private BlancoCgSourceFile createSourceFile(final String argPackage,
+            final BlancoCgObjectFactory argFactory) {
+        final BlancoCgObjectFactory cgFactory = argFactory;
+
+        // ファイル名はクラス名から導出させます。
+        final BlancoCgSourceFile cgSourceFile = cgFactory.createSourceFile(
+                argPackage, "副作用のない変換のためのクラス");
+
+        final BlancoCgClass cgClass = cgFactory.createClass(
+                "MySideEffectClass", "このクラスは、副作用のない変換の試験のためのクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+
+        final BlancoCgField cgField = cgFactory.createField("myField",
+                "java.util.Date", "日付フィールドの試験です。");
+        cgClass.getFieldList().add(cgField);
+
+        final BlancoCgMethod cgMethod = cgFactory.createMethod("myMethod",
+                "メソッドの試験です。");
+        cgClass.getMethodList().add(cgMethod);
+        cgMethod.getParameterList().add(
+                cgFactory.createParameter("argString", "java.lang.String",
+                        "文字列引数。"));
+        cgMethod.getThrowList().add(
+                cgFactory.createException("java.io.IOException", "入出力例外。"));
+        cgMethod.getLineList().add("System.out.println(argString);");
+        return cgSourceFile;
+    }
+
+    /**
+     * ソースファイルを文字列に変換します。
+     *
+     * @param argTransformer
+     *            トランスフォーマー。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return ソースコード。
+     * @throws Exception
+     */
+    private String transform(final BlancoCgTransformer argTransformer,
+            final BlancoCgSourceFile argSourceFile) throws Exception {
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        argTransformer.transform(argSourceFile, writer);
+        writer.flush();
+        return stringWriter.toString();
+    }
+}
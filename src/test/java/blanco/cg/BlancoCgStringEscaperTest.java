@@ -0,0 +1,219 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import blanco.cg.util.BlancoCgLineUtil;
+import blanco.cg.util.BlancoCgSourceUtil;
+import blanco.commons.util.BlancoJavaSourceUtil;
+import blanco.commons.util.BlancoPhpSourceUtil;
+import blanco.commons.util.BlancoVbSourceUtil;
+
+/**
+ * 文字列のエスケープ処理の試験。
+ *
+ * blanco-commons のエスケープ処理と同じ結果となることを確認します。<br>
+ * Ruby はダブルクオートで囲む文字列リテラルとなるため、試験の中に用意したエスケープ処理と比較します。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgStringEscaperTest extends TestCase {
+    /**
+     * 入力文字列を構成する文字。エスケープの対象となる文字を多めに含めます。
+     */
+    private static final String CHARS = "ab\\\n\r\t\"'&<>＂#{あ𠮷 ";
+
+    /**
+     * ソースコード文字列のエスケープが blanco-commons と一致する試験。
+     *
+     * @throws Exception
+     */
+    public void testEscapeStringAsSource() throws Exception {
+        final Random random = new Random(20061018L);
+        for (int count = 0; count < 2000; count++) {
+            final String original = createString(random);
+            final String javaSource = BlancoJavaSourceUtil
+                    .escapeStringAsJavaSource(original);
+            assertEscape(BlancoCgSupportedLang.JAVA, original, javaSource);
+            assertEscape(BlancoCgSupportedLang.CS, original, javaSource);
+            assertEscape(BlancoCgSupportedLang.JS, original, javaSource);
+            assertEscape(BlancoCgSupportedLang.CPP11, original, javaSource);
+            assertEscape(BlancoCgSupportedLang.SWIFT, original, javaSource);
+            assertEscape(BlancoCgSupportedLang.VB, original,
+                    BlancoVbSourceUtil.escapeStringAsVbSource(original));
+            final String phpSource = BlancoPhpSourceUtil
+                    .escapeStringAsPhpSource(original);
+            assertEscape(BlancoCgSupportedLang.PHP, original, phpSource);
+            assertEscape(BlancoCgSupportedLang.PYTHON, original, phpSource);
+            assertEscape(BlancoCgSupportedLang.RUBY, original,
+                    escapeStringAsRubySource(original));
+            assertEscape(BlancoCgSupportedLang.DELPHI, original,
+                    escapeStringAsDelphiSource(original));
+        }
+    }
+
+    /**
+     * Ruby と Python の文字列リテラルの試験。
+     *
+     * 囲む文字とエスケープ後の文字列をつなげた結果が、それぞれの言語で元の文字列を表すことを確認します。
+     *
+     * @throws Exception
+     */
+    public void testRubyAndPythonLiteral() throws Exception {
+        final String original = "a\\b\nc'd\"e#{f}";
+
+        assertEquals("\"", BlancoCgLineUtil
+                .getStringLiteralEnclosure(BlancoCgSupportedLang.RUBY));
+        assertEquals("a\\\\b\\nc'd\\\"e\\#{f}", BlancoCgSourceUtil
+                .escapeStringAsSource(BlancoCgSupportedLang.RUBY, original));
+        assertEquals("a\\r", BlancoCgSourceUtil.escapeStringAsSource(
+                BlancoCgSupportedLang.RUBY, "a\r"));
+
+        assertEquals("'", BlancoCgLineUtil
+                .getStringLiteralEnclosure(BlancoCgSupportedLang.PYTHON));
+        assertEquals("a\\\\b\\nc\\'d\"e#{f}", BlancoCgSourceUtil
+                .escapeStringAsSource(BlancoCgSupportedLang.PYTHON, original));
+    }
+
+    /**
+     * 言語ドキュメント文字列のエスケープが blanco-commons と一致する試験。
+     *
+     * @throws Exception
+     */
+    public void testEscapeStringAsLangDoc() throws Exception {
+        final Random random = new Random(20061019L);
+        for (int count = 0; count < 2000; count++) {
+            final String original = createString(random);
+            final String expected = BlancoJavaSourceUtil
+                    .escapeStringAsJavaDoc(original);
+            for (int lang = BlancoCgSupportedLang.JAVA; lang <= BlancoCgSupportedLang.SWIFT; lang++) {
+                assertEquals(expected, BlancoCgSourceUtil
+                        .escapeStringAsLangDoc(lang, original));
+                final StringBuilder buf = new StringBuilder("[");
+                BlancoCgSourceUtil.escapeStringAsLangDoc(lang, original, buf);
+                assertEquals("[" + expected, buf.toString());
+            }
+        }
+    }
+
+    /**
+     * エスケープが不要な文字列は、そのまま戻す試験。
+     *
+     * @throws Exception
+     */
+    public void testNoEscape() throws Exception {
+        final String original = "abc あ𠮷";
+        for (int lang = BlancoCgSupportedLang.JAVA; lang <= BlancoCgSupportedLang.SWIFT; lang++) {
+            assertSame(original, BlancoCgSourceUtil.escapeStringAsSource(lang,
+                    original));
+        }
+    }
+
+    /**
+     * 試験用の文字列を生成します。
+     *
+     * @param argRandom
+     *            乱数。
+     * @return 試験用の文字列。
+     */
+    private static String createString(final Random argRandom) {
+        final StringBuilder buf = new StringBuilder();
+        final int length = argRandom.nextInt(40);
+        for (int index = 0; index < length; index++) {
+            buf.append(CHARS.charAt(argRandom.nextInt(CHARS.length())));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * ソースコード文字列のエスケープの結果を確認します。
+     *
+     * @param argTargetLang
+     *            出力対象のプログラミング言語。
+     * @param argOriginal
+     *            入力文字列。
+     * @param argExpected
+     *            期待する結果。
+     */
+    private static void assertEscape(final int argTargetLang,
+            final String argOriginal, final String argExpected) {
+        assertEquals(argExpected, BlancoCgSourceUtil.escapeStringAsSource(
+                argTargetLang, argOriginal));
+        final StringBuilder buf = new StringBuilder("[");
+        BlancoCgSourceUtil.escapeStringAsSource(argTargetLang, argOriginal,
+                buf);
+        assertEquals("[" + argExpected, buf.toString());
+    }
+
+    /**
+     * Ruby のダブルクオートで囲む文字列リテラルとして文字列をエスケープします。
+     *
+     * @param argOriginal
+     *            入力文字列。
+     * @return エスケープ処理が行われた後の文字列。
+     */
+    private static String escapeStringAsRubySource(final String argOriginal) {
+        final StringBuffer buf = new StringBuffer();
+        for (int index = 0; index < argOriginal.length(); index++) {
+            final char ch = argOriginal.charAt(index);
+            switch (ch) {
+            case '\\':
+                buf.append("\\\\");
+                break;
+            case '\n':
+                buf.append("\\n");
+                break;
+            case '\r':
+                buf.append("\\r");
+                break;
+            case '"':
+                buf.append("\\\"");
+                break;
+            case '#':
+                buf.append("\\#");
+                break;
+            default:
+                buf.append(ch);
+                break;
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * 従来の Delphi のエスケープ処理と同じ方法で文字列をエスケープします。
+     *
+     * blanco-commons には Delphi のエスケープ処理が無いため、試験の中に従来の処理を用意します。
+     *
+     * @param argOriginal
+     *            入力文字列。
+     * @return エスケープ処理が行われた後の文字列。
+     */
+    private static String escapeStringAsDelphiSource(final String argOriginal) {
+        final StringBuffer buf = new StringBuffer();
+        for (int index = 0; index < argOriginal.length(); index++) {
+            final char ch = argOriginal.charAt(index);
+            switch (ch) {
+            case '\n':
+                buf.append("\\n");
+                break;
+            case '\'':
+                buf.append("''");
+                break;
+            default:
+                buf.append(ch);
+                break;
+            }
+        }
+        return buf.toString();
+    }
+}
@@ -9,10 +9,15 @@
  */
 package blanco.cg;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.TestCase;
 import blanco.cg.transformer.BlancoCgTransformerFactory;
+import blanco.cg.transformer.java.BlancoCgJavaSourceTransformer;
 import blanco.cg.valueobject.BlancoCgClass;
 import blanco.cg.valueobject.BlancoCgEnum;
 import blanco.cg.valueobject.BlancoCgField;
@@ -171,4 +176,110 @@ public class BlancoCgTransformerTest extends TestCase {
                 .getJavaSourceTransformer();
         cgTransformerJava.transform(cgSourceFile, new File("./tmp/blanco"));
     }
+
+    /**
+     * メンバーの多いクラスを並列に展開しても、逐次に展開した場合と同じソースコードが得られることの試験。
+     * 
+     * @throws Exception
+     */
+    public void testTransformerParallelMember() throws Exception {
+        final BlancoCgObjectFactory cgOf = BlancoCgObjectFactory.getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgOf.createSourceFile("myprog",
+                "並列展開の試験のためのクラス");
+        final BlancoCgClass cgClass = cgOf.createClass("MyLargeClass",
+                "このクラスは、メンバーの多いクラスです。");
+        cgSourceFile.getClassList().add(cgClass);
+        final BlancoCgEnum cgEnum = cgOf.createEnum("MyKind", "種類です。");
+        cgClass.getEnumList().add(cgEnum);
+        cgEnum.getElementList().add(cgOf.createEnumElement("FIRST", "最初"));
+        for (int index = 0; index < 200; index++) {
+            final BlancoCgField cgField = cgOf.createField("field" + index,
+                    (index % 2 == 0 ? "java.util.Date" : "java.math.BigDecimal"
+                            + index % 5), "フィールド" + index + "です。");
+            cgClass.getFieldList().add(cgField);
+
+            final BlancoCgMethod cgMethod = cgOf.createMethod("method" + index,
+                    "メソッド" + index + "です。");
+            cgClass.getMethodList().add(cgMethod);
+            cgMethod.getParameterList().add(
+                    cgOf.createParameter("argList", "java.util.List<myprog.sub.Item"
+                            + index % 7 + ">", "リスト引数。"));
+            cgMethod.getThrowList().add(
+                    cgOf.createException("java.io.IOException", "入出力例外。"));
+            cgMethod.getLineList().add("return;");
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final String sourceParallel = transformToString(
+                    new BlancoCgJavaSourceTransformer(true, executor),
+                    cgSourceFile);
+            final String sourceSequential = transformToString(
+                    new BlancoCgJavaSourceTransformer(true), cgSourceFile);
+            assertEquals(sourceSequential, sourceParallel);
+            assertTrue(sourceParallel.indexOf("import java.math.BigDecimal3;") >= 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 言語ドキュメントに含まれる中カッコが字下げに影響しないことの試験。
+     * 
+     * @throws Exception
+     */
+    public void testTransformerBraceInLangDoc() throws Exception {
+        final BlancoCgObjectFactory cgOf = BlancoCgObjectFactory.getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgOf.createSourceFile("myprog",
+                "中カッコを含む言語ドキュメントの試験のためのクラス");
+        final BlancoCgClass cgClass = cgOf.createClass("MyBraceClass",
+                "このクラスの説明は中カッコで終わります {");
+        cgSourceFile.getClassList().add(cgClass);
+        for (int index = 0; index < 40; index++) {
+            final BlancoCgMethod cgMethod = cgOf.createMethod("method" + index,
+                    "メソッドの説明は中カッコで終わります }");
+            cgClass.getMethodList().add(cgMethod);
+            cgMethod.getLineList().add("return;");
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final String sourceParallel = transformToString(
+                    new BlancoCgJavaSourceTransformer(true, executor),
+                    cgSourceFile);
+            final String sourceSequential = transformToString(
+                    new BlancoCgJavaSourceTransformer(true), cgSourceFile);
+            assertEquals(sourceSequential, sourceParallel);
+
+            final String source = sourceSequential.replace("\r\n", "\n");
+            assertTrue(source
+                    .indexOf("\n * このクラスの説明は中カッコで終わります {\n") >= 0);
+            assertTrue(source
+                    .indexOf("\n    public void method0() {\n        return;\n    }\n") >= 0);
+            assertTrue(source.endsWith("\n}\n"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * ソースファイルを文字列に変換します。
+     * 
+     * @param argTransformer
+     *            トランスフォーマー。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return ソースコード。
+     * @throws Exception
+     */
+    private String transformToString(final BlancoCgTransformer argTransformer,
+            final BlancoCgSourceFile argSourceFile) throws Exception {
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        argTransformer.transform(argSourceFile, writer);
+        writer.flush();
+        return stringWriter.toString();
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg.transformer;
+
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * バイトバッファのプールの試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgByteBufferPoolTest extends TestCase {
+    /**
+     * 返却したバイトバッファを再利用し、合計の容量の上限を超えた分は保持しない試験。
+     *
+     * @throws Exception
+     */
+    public void testPoolCapacity() throws Exception {
+        BlancoCgByteBufferPool.releaseAll();
+        assertEquals(0, BlancoCgByteBufferPool.getPooledTotalCapacity());
+
+        // 返却したバイトバッファは、次の借り受けで再利用されます。
+        final ByteBuffer buffer = BlancoCgByteBufferPool.acquire(1024);
+        BlancoCgByteBufferPool.release(buffer);
+        assertEquals(buffer.capacity(), BlancoCgByteBufferPool
+                .getPooledTotalCapacity());
+        assertSame(buffer, BlancoCgByteBufferPool.acquire(512));
+        assertEquals(0, BlancoCgByteBufferPool.getPooledTotalCapacity());
+        BlancoCgByteBufferPool.release(buffer);
+
+        // 1 つあたりの容量の上限を超えるバイトバッファは保持しません。
+        BlancoCgByteBufferPool.release(ByteBuffer
+                .allocateDirect(BlancoCgByteBufferPool.MAX_POOLED_CAPACITY + 1));
+        assertEquals(buffer.capacity(), BlancoCgByteBufferPool
+                .getPooledTotalCapacity());
+
+        // 合計の容量の上限を超えて保持することはありません。
+        final int count = (int) (BlancoCgByteBufferPool.MAX_POOLED_TOTAL_CAPACITY / BlancoCgByteBufferPool.MAX_POOLED_CAPACITY) + 1;
+        final ByteBuffer[] buffers = new ByteBuffer[count];
+        for (int index = 0; index < count; index++) {
+            buffers[index] = BlancoCgByteBufferPool
+                    .acquire(BlancoCgByteBufferPool.MAX_POOLED_CAPACITY);
+        }
+        for (int index = 0; index < count; index++) {
+            BlancoCgByteBufferPool.release(buffers[index]);
+        }
+        assertTrue(BlancoCgByteBufferPool.getPooledTotalCapacity() <= BlancoCgByteBufferPool.MAX_POOLED_TOTAL_CAPACITY);
+
+        // 一括変換の終了時などに、保持しているバイトバッファをすべて解放します。
+        BlancoCgByteBufferPool.releaseAll();
+        assertEquals(0, BlancoCgByteBufferPool.getPooledTotalCapacity());
+    }
+
+    /**
+     * プールのバイトバッファを受け取る出力先を、パッケージの外から実装・拡張できないことの試験。
+     *
+     * @throws Exception
+     */
+    public void testByteBufferSinkNotExposed() throws Exception {
+        assertFalse(Modifier.isPublic(BlancoCgByteBufferOutputSink.class
+                .getModifiers()));
+        assertTrue(Modifier.isFinal(BlancoCgDirectoryOutputSink.class
+                .getMethod("write", String.class, ByteBuffer.class,
+                        String.class).getModifiers()));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg.transformer;
+
+import junit.framework.TestCase;
+
+/**
+ * 字下げ判定の規則表の試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgIndentRuleTableTest extends TestCase {
+    /**
+     * 字下げ開始。
+     */
+    private static final int BEGIN = BlancoCgSourceLine.INDENT_BEGIN;
+
+    /**
+     * 字下げ終了。
+     */
+    private static final int END = BlancoCgSourceLine.INDENT_END;
+
+    /**
+     * 照合に利用する行。
+     */
+    private static final String[] LINES = { "if x", "if x then y if z",
+            "for i in list", "while true", "list.each do |item|",
+            "end do", "undo_it", "do_it", "x.do", "do", "redo", "end",
+            "end if x", "endif", "else", "elsif x", "Next", "Next i",
+            "NextValue", "class MyClass", "def my_method(arg)",
+            "return x if y", "x = 1", "# comment do", "print \"if \"" };
+
+    /**
+     * 一致した規則のうち、最初に登録されたものが優先される試験。
+     *
+     * 行の中で先に現れるキーワードではなく、登録順で判定します。
+     *
+     * @throws Exception
+     */
+    public void testFirstMatchWins() throws Exception {
+        final BlancoCgIndentRuleTable table = new BlancoCgIndentRuleTable()
+                .add(BlancoCgIndentRuleTable.CONTAINS_WORD, "do", BEGIN)
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "end", END);
+        assertEquals(BEGIN, table.judge("end do"));
+        assertEquals(END, table.judge("end"));
+
+        final BlancoCgIndentRuleTable tableReverse = new BlancoCgIndentRuleTable()
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "end", END)
+                .add(BlancoCgIndentRuleTable.CONTAINS_WORD, "do", BEGIN);
+        assertEquals(END, tableReverse.judge("end do"));
+        assertEquals(BEGIN, tableReverse.judge("x.do"));
+    }
+
+    /**
+     * 常に判定される規則が、排他的な規則の結果に加わる試験。
+     *
+     * @throws Exception
+     */
+    public void testAlways() throws Exception {
+        final BlancoCgIndentRuleTable table = new BlancoCgIndentRuleTable()
+                .add(BlancoCgIndentRuleTable.STARTS_WITH, "end", END)
+                .addAlways(BlancoCgIndentRuleTable.CONTAINS, " if ", BEGIN);
+        assertEquals(END | BEGIN, table.judge("end if x"));
+        assertEquals(BEGIN, table.judge("return x if y"));
+        assertEquals(END, table.judge("end"));
+        assertEquals(0, table.judge("if x"));
+    }
+
+    /**
+     * "do" を単語としてのみ照合する試験。
+     *
+     * @throws Exception
+     */
+    public void testWordBoundary() throws Exception {
+        final BlancoCgIndentRuleTable table = new BlancoCgIndentRuleTable()
+                .add(BlancoCgIndentRuleTable.CONTAINS_WORD, "do", BEGIN);
+        assertEquals(BEGIN, table.judge("do"));
+        assertEquals(BEGIN, table.judge("list.each do |item|"));
+        assertEquals(BEGIN, table.judge("x.do"));
+        assertEquals(BEGIN, table.judge("(do)"));
+        assertEquals(0, table.judge("undo_it"));
+        assertEquals(0, table.judge("do_it"));
+        assertEquals(0, table.judge("redo"));
+        assertEquals(0, table.judge("do2"));
+    }
+
+    /**
+     * Ruby のフォーマッタの判定が、規則表を導入する前の判定と一致する試験。
+     *
+     * @throws Exception
+     */
+    public void testRubyStyle() throws Exception {
+        final AbstractBlancoCgRubyStyleTransformer.RubyStyleSourceFormatter formatter = new AbstractBlancoCgRubyStyleTransformer.RubyStyleSourceFormatter();
+        for (int index = 0; index < LINES.length; index++) {
+            assertEquals(LINES[index], judgeRubyStyle(LINES[index]), formatter
+                    .judgeIndent(LINES[index]));
+        }
+    }
+
+    /**
+     * 規則表を導入する前の Ruby のフォーマッタと同じ方法で字下げを判定します。
+     *
+     * @param argLine
+     *            行。
+     * @return 字下げ判定。
+     */
+    private static int judgeRubyStyle(final String argLine) {
+        int result = 0;
+        if (argLine.startsWith("if ")) {
+            result = BEGIN;
+        } else if (argLine.startsWith("for ")) {
+            result = BEGIN;
+        } else if (argLine.startsWith("while ")) {
+            result = BEGIN;
+        } else if (argLine.matches(".*\\bdo\\b.*")) {
+            result = BEGIN;
+        } else if (argLine.startsWith("end")) {
+            result = END;
+        } else if (argLine.startsWith("else")) {
+            result = END;
+        } else if (argLine.equals("Next") || argLine.startsWith("Next ")) {
+            result = END;
+        } else if (argLine.indexOf("Namespace ") >= 0
+                || argLine.indexOf("class ") >= 0
+                || argLine.indexOf("Interface ") >= 0
+                || argLine.indexOf("def ") >= 0
+                || argLine.indexOf("Function ") >= 0) {
+            result = BEGIN;
+        }
+        if (argLine.indexOf(" if ") >= 0) {
+            result |= BEGIN;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg.transformer;
+
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+import blanco.cg.BlancoCgObjectFactory;
+import blanco.cg.BlancoCgSupportedLang;
+import blanco.cg.valueobject.BlancoCgClass;
+import blanco.cg.valueobject.BlancoCgEnum;
+import blanco.cg.valueobject.BlancoCgField;
+import blanco.cg.valueobject.BlancoCgInterface;
+import blanco.cg.valueobject.BlancoCgMethod;
+import blanco.cg.valueobject.BlancoCgSourceFile;
+
+/**
+ * 展開と並行してライターへ出力したソースコードが、展開を終えてからまとめて出力したソースコードと一致することの試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgStreamedOutputTest extends TestCase {
+    /**
+     * 対応するすべてのプログラミング言語。
+     */
+    private static final int[] LANGS = { BlancoCgSupportedLang.JAVA,
+            BlancoCgSupportedLang.CS, BlancoCgSupportedLang.JS,
+            BlancoCgSupportedLang.VB, BlancoCgSupportedLang.PHP,
+            BlancoCgSupportedLang.RUBY, BlancoCgSupportedLang.PYTHON,
+            BlancoCgSupportedLang.DELPHI, BlancoCgSupportedLang.CPP11,
+            BlancoCgSupportedLang.SWIFT };
+
+    /**
+     * すべての言語について、逐次出力とまとめての出力の結果が一致することを確認します。
+     *
+     * @throws Exception
+     */
+    public void testStreamedEqualsBuffered() throws Exception {
+        for (int index = 0; index < LANGS.length; index++) {
+            final AbstractBlancoCgTransformer transformer = (AbstractBlancoCgTransformer) BlancoCgTransformerFactory
+                    .getSourceTransformer(LANGS[index], true);
+
+            final String streamed = transformStreamed(transformer,
+                    createSourceFile(LANGS[index]));
+            final String buffered = transformBuffered(transformer,
+                    createSourceFile(LANGS[index]));
+            assertTrue("言語(" + LANGS[index] + ")の出力が空です。", streamed
+                    .length() > 0);
+            assertEquals("言語(" + LANGS[index] + ")の出力が一致しません。",
+                    buffered, streamed);
+        }
+    }
+
+    /**
+     * すべての言語について、言語ドキュメントに含まれる中カッコやキーワードが字下げに影響しないことを確認します。
+     *
+     * @throws Exception
+     */
+    public void testKeywordInLangDocKeepsIndent() throws Exception {
+        for (int index = 0; index < LANGS.length; index++) {
+            final AbstractBlancoCgTransformer transformer = (AbstractBlancoCgTransformer) BlancoCgTransformerFactory
+                    .getSourceTransformer(LANGS[index], true);
+
+            final String[] plain = transformStreamed(transformer,
+                    createSourceFile(LANGS[index], "")).split("\n");
+            final String[] keyword = transformStreamed(
+                    transformer,
+                    createSourceFile(LANGS[index],
+                            " { begin end. End Class class def do #end }"))
+                    .split("\n");
+            assertEquals("言語(" + LANGS[index] + ")の行数が一致しません。",
+                    plain.length, keyword.length);
+            for (int indexLine = 0; indexLine < plain.length; indexLine++) {
+                assertEquals("言語(" + LANGS[index] + ")の" + (indexLine + 1)
+                        + "行目の字下げが一致しません。", getIndent(plain[indexLine]),
+                        getIndent(keyword[indexLine]));
+            }
+        }
+    }
+
+    /**
+     * 行の字下げの文字数を取得します。
+     *
+     * @param argLine
+     *            行。
+     * @return 字下げの文字数。
+     */
+    private int getIndent(final String argLine) {
+        int index = 0;
+        while (index < argLine.length() && argLine.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 展開と並行してライターへ出力します。
+     *
+     * @param argTransformer
+     *            トランスフォーマー。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return ソースコード。
+     * @throws Exception
+     */
+    private String transformStreamed(
+            final AbstractBlancoCgTransformer argTransformer,
+            final BlancoCgSourceFile argSourceFile) throws Exception {
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        argTransformer.transform(argSourceFile, writer);
+        writer.flush();
+        return stringWriter.toString();
+    }
+
+    /**
+     * 行を保持するドキュメントへ展開を終えてから、まとめてライターへ出力します。
+     *
+     * @param argTransformer
+     *            トランスフォーマー。
+     * @param argSourceFile
+     *            ソースファイル。
+     * @return ソースコード。
+     * @throws Exception
+     */
+    private String transformBuffered(
+            final AbstractBlancoCgTransformer argTransformer,
+            final BlancoCgSourceFile argSourceFile) throws Exception {
+        final BlancoCgSourceDocument document = new BlancoCgSourceDocument();
+        argTransformer.expandSourceFile(new BlancoCgTransformContext(
+                argSourceFile, document));
+        assertFalse(document.isBodyStreamed());
+
+        final StringWriter stringWriter = new StringWriter();
+        final BufferedWriter writer = new BufferedWriter(stringWriter);
+        final BlancoCgSourceLineWriter sink = new BlancoCgSourceLineWriter(
+                argTransformer.createSourceFormatter(), writer);
+        ((BlancoCgSourceLineBuffer) document.getHeaderLines()).addTo(sink);
+        document.getImportLines().addTo(sink);
+        ((BlancoCgSourceLineBuffer) document.getBodyLines()).addTo(sink);
+        sink.flush();
+        writer.flush();
+        return stringWriter.toString();
+    }
+
+    /**
+     * 試験用のソースファイルを作成します。
+     *
+     * 展開によって更新されるため、変換ごとに作成します。
+     *
+     * @param argTargetLang
+     *            出力対象のプログラミング言語。
+     * @return ソースファイル。
+     */
+    private BlancoCgSourceFile createSourceFile(final int argTargetLang) {
+        return createSourceFile(argTargetLang, "");
+    }
+
+    /**
+     * 言語ドキュメントの説明の末尾に文字列を付与した、試験用のソースファイルを作成します。
+     *
+     * @param argTargetLang
+     *            出力対象のプログラミング言語。
+     * @param argSuffix
+     *            言語ドキュメントの説明の末尾に付与する文字列。
+     * @return ソースファイル。
+     */
+    private BlancoCgSourceFile createSourceFile(final int argTargetLang,
+            final String argSuffix) {
+        final BlancoCgObjectFactory cgOf = BlancoCgObjectFactory.getInstance();
+
+        final BlancoCgSourceFile cgSourceFile = cgOf.createSourceFile(
+                "myprog.stream", "逐次出力の試験のためのソースファイル");
+        cgSourceFile.setName("MyStreamClass");
+        cgSourceFile.getImportList().add("java.util.ArrayList");
+
+        final BlancoCgEnum cgEnum = cgOf.createEnum("MyStreamEnum",
+                "列挙体の説明。" + argSuffix);
+        cgSourceFile.getEnumList().add(cgEnum);
+        cgEnum.getElementList().add(cgOf.createEnumElement("FIRST", "最初の要素。"));
+        cgEnum.getElementList().add(cgOf.createEnumElement("SECOND", "次の要素。"));
+
+        if (argTargetLang != BlancoCgSupportedLang.JS) {
+            // JavaScriptにはインタフェースは存在しません。
+            final BlancoCgInterface cgInterface = cgOf.createInterface(
+                    "MyStreamInterface", "インタフェースの説明。" + argSuffix);
+            cgSourceFile.getInterfaceList().add(cgInterface);
+            final BlancoCgMethod cgInterfaceMethod = cgOf.createMethod("run",
+                    "実行します。" + argSuffix);
+            cgInterface.getMethodList().add(cgInterfaceMethod);
+        }
+
+        final BlancoCgClass cgClass = cgOf.createClass("MyStreamClass",
+                "クラスの説明。" + argSuffix);
+        cgSourceFile.getClassList().add(cgClass);
+
+        final BlancoCgField cgField = cgOf.createField("fList",
+                "java.util.List", "フィールドの説明。" + argSuffix);
+        cgField.getType().setGenerics("java.lang.String");
+        cgClass.getFieldList().add(cgField);
+
+        for (int index = 0; index < 3; index++) {
+            final BlancoCgMethod cgMethod = cgOf.createMethod("method" + index,
+                    "メソッドの説明。" + argSuffix);
+            cgClass.getMethodList().add(cgMethod);
+            cgMethod.getParameterList().add(
+                    cgOf.createParameter("argValue", "java.lang.String",
+                            "引数の説明。" + argSuffix));
+            cgMethod.setReturn(cgOf.createReturn("java.util.Date",
+                    "戻り値の説明。" + argSuffix));
+            cgMethod.getThrowList().add(
+                    cgOf.createException("java.io.IOException", "入出力例外。"));
+            cgMethod.getLineList().add("if (argValue == null) {");
+            cgMethod.getLineList().add("return null;");
+            cgMethod.getLineList().add("}");
+            cgMethod.getLineList().add("");
+            cgMethod.getLineList().add("");
+            cgMethod.getLineList().add("return new java.util.Date();");
+        }
+        return cgSourceFile;
+    }
+}
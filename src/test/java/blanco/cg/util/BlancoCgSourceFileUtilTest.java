@@ -0,0 +1,54 @@
+/*
+ * blanco Framework
+ * Copyright (C) 2004-2017 IGA Tosiki
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ */
+package blanco.cg.util;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+import blanco.commons.util.BlancoFileUtil;
+
+/**
+ * ソースファイル用のユーティリティの試験。
+ *
+ * @author IGA Tosiki
+ */
+public class BlancoCgSourceFileUtilTest extends TestCase {
+    /**
+     * ファイル・コメントの更新日時が変わった場合に読み込み直す試験。
+     *
+     * @throws Exception
+     */
+    public void testHeaderCacheInvalidation() throws Exception {
+        final File file = new File("./tmp/blanco/header/fileheader.txt");
+        file.getParentFile().mkdirs();
+        BlancoFileUtil.bytes2File("header-a".getBytes("UTF-8"), file);
+        final long lastModified = file.lastModified();
+
+        BlancoCgSourceFileUtil.HeaderCache cache = BlancoCgSourceFileUtil
+                .getHeaderCache(file, 0);
+        assertEquals(1, cache.fLines.size());
+        assertEquals("header-a", cache.fLines.get(0));
+
+        // 更新日時もサイズも変わらなければ、読み込み済みの内容をそのまま利用します。
+        assertSame(cache, BlancoCgSourceFileUtil.getHeaderCache(file, 0));
+
+        // サイズを変えずに書き換え、更新日時だけを変えます。
+        BlancoFileUtil.bytes2File("header-b".getBytes("UTF-8"), file);
+        assertTrue(file.setLastModified(lastModified + 10000));
+
+        // 確認の間隔が経過するまでは、読み込み済みの内容を利用します。
+        assertSame(cache, BlancoCgSourceFileUtil.getHeaderCache(file,
+                Long.MAX_VALUE));
+
+        // 確認の間隔が経過すると、更新日時の変化を検知して読み込み直します。
+        cache = BlancoCgSourceFileUtil.getHeaderCache(file, 0);
+        assertEquals("header-b", cache.fLines.get(0));
+    }
+}